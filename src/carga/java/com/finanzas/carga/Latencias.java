@@ -0,0 +1,58 @@
+package com.finanzas.carga;
+
+import java.util.Arrays;
+
+// Latencias (en nanosegundos) de un endpoint durante la ventana de medición.
+// Se guardan todas para calcular percentiles exactos: una prueba de minutos son, como mucho,
+// unos cientos de miles de muestras, y el coste de añadir es despreciable frente a la petición HTTP.
+final class Latencias {
+
+    private long[] muestras = new long[1024];
+    private int cantidad;
+    private int errores;
+
+    synchronized void registrar(long nanos, boolean exito) {
+        if (cantidad == muestras.length) {
+            muestras = Arrays.copyOf(muestras, cantidad * 2);
+        }
+        muestras[cantidad++] = nanos;
+        if (!exito) {
+            errores++;
+        }
+    }
+
+    synchronized Resumen resumir(double segundosMedidos) {
+        long[] ordenadas = Arrays.copyOf(muestras, cantidad);
+        Arrays.sort(ordenadas);
+        return new Resumen(
+                cantidad,
+                errores,
+                redondear(cantidad / segundosMedidos),
+                percentil(ordenadas, 0.50),
+                percentil(ordenadas, 0.95),
+                percentil(ordenadas, 0.99),
+                cantidad == 0 ? 0 : milis(ordenadas[cantidad - 1]));
+    }
+
+    // Percentil por rango más cercano (sin interpolar), en milisegundos
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int rango = (int) Math.ceil(p * ordenadas.length);
+        return milis(ordenadas[Math.max(rango, 1) - 1]);
+    }
+
+    private static double milis(long nanos) {
+        return redondear(nanos / 1_000_000.0);
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+
+    // Lo que se escribe en el informe por endpoint
+    record Resumen(int peticiones, int errores, double porSegundo,
+                   double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+}
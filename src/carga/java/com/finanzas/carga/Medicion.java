@@ -0,0 +1,54 @@
+package com.finanzas.carga;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Muestras de todos los usuarios virtuales, agrupadas por endpoint. Solo cuentan las peticiones
+// que empiezan dentro de la ventana de medición: el calentamiento (JIT, pool de conexiones,
+// cachés) y las que quedan a medias al parar no entran en el informe.
+final class Medicion {
+
+    private final Map<String, Latencias> porEndpoint = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> fallos = new ConcurrentHashMap<>();
+    private final long inicioNanos;
+    private final long finNanos;
+
+    Medicion(long inicioNanos, long finNanos) {
+        this.inicioNanos = inicioNanos;
+        this.finNanos = finNanos;
+    }
+
+    void registrar(String endpoint, long inicio, long fin, boolean exito) {
+        if (inicio >= inicioNanos && inicio < finNanos) {
+            porEndpoint.computeIfAbsent(endpoint, e -> new Latencias()).registrar(fin - inicio, exito);
+        }
+    }
+
+    // Sesiones abortadas por una excepción, agrupadas por su mensaje
+    void fallo(Exception e) {
+        if (System.nanoTime() >= inicioNanos && !terminada()) {
+            String motivo = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+            fallos.computeIfAbsent(motivo, m -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    Map<String, Integer> fallos() {
+        Map<String, Integer> copia = new TreeMap<>();
+        fallos.forEach((motivo, cantidad) -> copia.put(motivo, cantidad.get()));
+        return copia;
+    }
+
+    boolean terminada() {
+        return System.nanoTime() >= finNanos;
+    }
+
+    // Ordenado por nombre de endpoint para que dos informes se puedan comparar con diff
+    Map<String, Latencias.Resumen> resumir() {
+        double segundos = (finNanos - inicioNanos) / 1e9;
+        Map<String, Latencias.Resumen> resumen = new TreeMap<>();
+        porEndpoint.forEach((endpoint, latencias) -> resumen.put(endpoint, latencias.resumir(segundos)));
+        return resumen;
+    }
+}
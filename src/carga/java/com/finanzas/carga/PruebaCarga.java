@@ -0,0 +1,180 @@
+package com.finanzas.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.finanzas.FinanzasAppApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Prueba de carga de un nodo: arranca la aplicación contra un PostgreSQL embebido (o usa una ya
+// desplegada con url=...), registra un usuario virtual por hilo con su historial y los pone a
+// repetir login → dashboard → nueva → cambiar-estado → eliminar. Escribe peticiones por segundo
+// y percentiles p50/p95/p99 por endpoint en un JSON ordenado, para comparar versiones con diff.
+//   mvn -Pcarga test-compile exec:exec [-Dcarga.args="usuarios=50 duracion=PT2M"]
+public final class PruebaCarga {
+
+    private static final String BASE_DATOS = "finanzas_carga";
+
+    // Parámetros clave=valor; las duraciones en formato ISO-8601 (PT30S, PT2M)
+    record Configuracion(int usuarios, Duration calentamiento, Duration duracion, int accionesPorSesion,
+                         int historial, Duration pausa, String url, Path salida) {
+
+        static Configuracion desde(String[] args) {
+            Map<String, String> valores = new HashMap<>();
+            for (String arg : args) {
+                int igual = arg.indexOf('=');
+                if (igual <= 0) {
+                    throw new IllegalArgumentException("Parámetro inválido '" + arg + "', se espera clave=valor");
+                }
+                valores.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+            return new Configuracion(
+                    Integer.parseInt(valores.getOrDefault("usuarios", "20")),
+                    Duration.parse(valores.getOrDefault("calentamiento", "PT20S")),
+                    Duration.parse(valores.getOrDefault("duracion", "PT60S")),
+                    Integer.parseInt(valores.getOrDefault("acciones", "5")),
+                    Integer.parseInt(valores.getOrDefault("historial", "300")),
+                    Duration.parse(valores.getOrDefault("pausa", "PT0S")),
+                    valores.get("url"),
+                    Path.of(valores.getOrDefault("salida", "target/carga/resultado-carga.json")));
+        }
+    }
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracion configuracion = Configuracion.desde(args);
+
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext aplicacion = null;
+        URI base;
+        if (configuracion.url() != null) {
+            base = URI.create(configuracion.url());
+        } else {
+            postgres = EmbeddedPostgres.builder().start();
+            try (Connection conexion = postgres.getPostgresDatabase().getConnection()) {
+                conexion.createStatement().execute("CREATE DATABASE " + BASE_DATOS);
+            }
+            aplicacion = arrancar(postgres);
+            base = URI.create("http://localhost:" + aplicacion.getEnvironment().getProperty("local.server.port"));
+        }
+
+        try {
+            Map<String, Object> informe = medir(base, configuracion);
+            Files.createDirectories(configuracion.salida().toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(configuracion.salida().toFile(), informe);
+            imprimir(informe);
+            System.out.println("Informe: " + configuracion.salida().toAbsolutePath());
+        } finally {
+            if (aplicacion != null) {
+                aplicacion.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    // La aplicación tal como se despliega, salvo la base de datos, el puerto y el log DEBUG de
+    // application.properties, que en carga mide el coste de escribir el log y no el de la aplicación
+    private static ConfigurableApplicationContext arrancar(EmbeddedPostgres postgres) {
+        // devtools está en el classpath de test: su reinicio volvería a llamar a main sin argumentos
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, Object> propiedades = new LinkedHashMap<>();
+        propiedades.put("spring.datasource.url", postgres.getJdbcUrl("postgres", BASE_DATOS));
+        propiedades.put("spring.datasource.username", "postgres");
+        propiedades.put("spring.datasource.password", "");
+        propiedades.put("server.port", "0");
+        propiedades.put("logging.level.com.finanzas", "INFO");
+        propiedades.put("logging.level.org.springframework.web", "INFO");
+        return new SpringApplicationBuilder(FinanzasAppApplication.class)
+                .properties(propiedades)
+                .run();
+    }
+
+    private static Map<String, Object> medir(URI base, Configuracion configuracion) throws Exception {
+        // Emails únicos por ejecución para poder repetir contra la misma base de datos
+        String ejecucion = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+        List<UsuarioVirtual> usuarios = new ArrayList<>();
+        for (int i = 0; i < configuracion.usuarios(); i++) {
+            usuarios.add(new UsuarioVirtual(base, "vu" + i + "." + ejecucion + "@gmail.com", configuracion));
+        }
+
+        ExecutorService hilos = Executors.newFixedThreadPool(configuracion.usuarios());
+        try {
+            System.out.printf("Preparando %d usuarios virtuales con %d actividades cada uno...%n",
+                    configuracion.usuarios(), configuracion.historial());
+            List<Future<?>> preparados = new ArrayList<>();
+            for (UsuarioVirtual usuario : usuarios) {
+                preparados.add(hilos.submit(() -> {
+                    usuario.preparar();
+                    return null;
+                }));
+            }
+            for (Future<?> preparado : preparados) {
+                preparado.get();
+            }
+
+            long inicio = System.nanoTime() + configuracion.calentamiento().toNanos();
+            Medicion medicion = new Medicion(inicio, inicio + configuracion.duracion().toNanos());
+            System.out.printf("Calentamiento %ds, medición %ds%n",
+                    configuracion.calentamiento().toSeconds(), configuracion.duracion().toSeconds());
+            List<Future<?>> ejecuciones = new ArrayList<>();
+            for (UsuarioVirtual usuario : usuarios) {
+                ejecuciones.add(hilos.submit(() -> usuario.ejecutar(medicion)));
+            }
+            for (Future<?> enCurso : ejecuciones) {
+                enCurso.get();
+            }
+
+            Map<String, Object> parametros = new LinkedHashMap<>();
+            parametros.put("usuariosVirtuales", configuracion.usuarios());
+            parametros.put("calentamientoSegundos", configuracion.calentamiento().toSeconds());
+            parametros.put("duracionSegundos", configuracion.duracion().toSeconds());
+            parametros.put("accionesPorSesion", configuracion.accionesPorSesion());
+            parametros.put("historialPorUsuario", configuracion.historial());
+            parametros.put("pausaMs", configuracion.pausa().toMillis());
+
+            Map<String, Object> informe = new LinkedHashMap<>();
+            informe.put("fecha", OffsetDateTime.now().toString());
+            informe.put("objetivo", configuracion.url() != null ? configuracion.url() : "embebido");
+            informe.put("java", Runtime.version().toString());
+            informe.put("procesadores", Runtime.getRuntime().availableProcessors());
+            informe.put("configuracion", parametros);
+            informe.put("endpoints", medicion.resumir());
+            informe.put("sesionesFallidas", medicion.fallos());
+            return informe;
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void imprimir(Map<String, Object> informe) {
+        System.out.printf("%n%-48s %9s %7s %9s %9s %9s %9s%n",
+                "endpoint", "peticiones", "errores", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        ((Map<String, Latencias.Resumen>) informe.get("endpoints")).forEach((endpoint, r) ->
+                System.out.printf("%-48s %9d %7d %9.1f %9.2f %9.2f %9.2f%n",
+                        endpoint, r.peticiones(), r.errores(), r.porSegundo(), r.p50Ms(), r.p95Ms(), r.p99Ms()));
+        Map<String, Integer> fallos = (Map<String, Integer>) informe.get("sesionesFallidas");
+        fallos.forEach((motivo, cantidad) -> System.out.printf("Sesiones fallidas (%d): %s%n", cantidad, motivo));
+    }
+}
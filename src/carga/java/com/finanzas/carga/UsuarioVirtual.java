@@ -0,0 +1,263 @@
+package com.finanzas.carga;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Un usuario del navegador: su propia cuenta, sus cookies y el token CSRF que lee de cada
+// formulario. Repite sesiones de login → dashboard → (crear → completar → eliminar) hasta que
+// termina la medición. Las redirecciones se siguen a mano para medir cada petición por separado.
+final class UsuarioVirtual {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Pattern ID_ACTIVIDAD = Pattern.compile("/dashboard/actividad/eliminar/(\\d+)");
+    private static final String ERROR_FLASH = "alert-danger";
+    private static final Duration TIEMPO_MAXIMO = Duration.ofSeconds(30);
+
+    private final URI base;
+    private final String email;
+    private final String password;
+    private final PruebaCarga.Configuracion configuracion;
+
+    private Medicion medicion;
+    private HttpClient cliente;
+    private String csrf;
+    private String etag;
+
+    UsuarioVirtual(URI base, String email, PruebaCarga.Configuracion configuracion) {
+        this.base = base;
+        this.email = email;
+        this.password = "Carga" + email.hashCode();
+        this.configuracion = configuracion;
+    }
+
+    // Cuenta nueva con historial importado por CSV, fuera de la medición
+    void preparar() throws IOException, InterruptedException {
+        nuevaSesion();
+        csrf = extraerCsrf(get("/register", null).body());
+        HttpResponse<String> registro = post("/register", Map.of(
+                "nombre", "Usuario Carga", "email", email, "password", password));
+        comprobarRedireccion(registro, "/login", "registro de " + email);
+
+        iniciarSesion(false);
+        csrf = extraerCsrf(get("/dashboard", null).body());
+        if (configuracion.historial() > 0) {
+            HttpResponse<String> importacion = enviar(HttpRequest.newBuilder(base.resolve("/dashboard/importar"))
+                    .header("Content-Type", "multipart/form-data; boundary=" + LIMITE)
+                    .POST(HttpRequest.BodyPublishers.ofString(multipartCsv(historialCsv()))));
+            comprobarRedireccion(importacion, "/dashboard", "importación de " + email);
+            if (get("/dashboard", null).body().contains(ERROR_FLASH)) {
+                throw new IllegalStateException("La importación del historial falló para " + email);
+            }
+        }
+    }
+
+    void ejecutar(Medicion medicion) {
+        this.medicion = medicion;
+        while (!medicion.terminada()) {
+            try {
+                nuevaSesion();
+                iniciarSesion(true);
+                for (int i = 0; i < configuracion.accionesPorSesion() && !medicion.terminada(); i++) {
+                    ciclo();
+                }
+            } catch (IOException e) {
+                // Timeout, conexión cortada o login rechazado: se cuenta y se empieza otra sesión
+                medicion.fallo(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void iniciarSesion(boolean medir) throws IOException, InterruptedException {
+        long inicio = System.nanoTime();
+        HttpResponse<String> pagina = get("/login", null);
+        registrar(medir, "GET /login", inicio, pagina.statusCode() == 200);
+        csrf = extraerCsrf(pagina.body());
+
+        inicio = System.nanoTime();
+        HttpResponse<String> login = post("/login", Map.of("username", email, "password", password));
+        boolean exito = ubicacion(login).filter(u -> u.endsWith("/dashboard")).isPresent();
+        registrar(medir, "POST /login", inicio, exito);
+        if (!exito) {
+            throw new IOException("Login rechazado para " + email);
+        }
+    }
+
+    // Ver el dashboard, volver a verlo sin cambios (304) y una actividad de principio a fin
+    private void ciclo() throws IOException, InterruptedException {
+        verDashboard("GET /dashboard");
+
+        if (etag != null) {
+            long inicio = System.nanoTime();
+            HttpResponse<String> revalidacion = get("/dashboard", etag);
+            registrar(true, "GET /dashboard (If-None-Match)", inicio, revalidacion.statusCode() == 304);
+        }
+        pausar();
+
+        String html = enviarFormulario("POST /dashboard/actividad/nueva", "/dashboard/actividad/nueva", Map.of(
+                "descripcion", "Compra de prueba",
+                "monto", "45.000",
+                "tipo", "GASTO",
+                "categoria", "ALIMENTACION"));
+        Long id = ultimaActividad(html);
+        if (id == null) {
+            return;
+        }
+        pausar();
+
+        enviarFormulario("POST /dashboard/actividad/cambiar-estado/{id}",
+                "/dashboard/actividad/cambiar-estado/" + id, Map.of("nuevoEstado", "COMPLETADO"));
+        pausar();
+
+        enviarFormulario("POST /dashboard/actividad/eliminar/{id}", "/dashboard/actividad/eliminar/" + id, Map.of());
+        pausar();
+    }
+
+    private String verDashboard(String endpoint) throws IOException, InterruptedException {
+        long inicio = System.nanoTime();
+        HttpResponse<String> respuesta = get("/dashboard", null);
+        registrar(true, endpoint, inicio, respuesta.statusCode() == 200);
+        csrf = extraerCsrf(respuesta.body());
+        etag = respuesta.headers().firstValue("ETag").orElse(null);
+        return respuesta.body();
+    }
+
+    // POST del formulario y la redirección al dashboard que haría el navegador. El POST solo cuenta
+    // como correcto si el dashboard no muestra el mensaje de error que deja en el flash.
+    private String enviarFormulario(String endpoint, String ruta, Map<String, String> campos)
+            throws IOException, InterruptedException {
+        long inicio = System.nanoTime();
+        HttpResponse<String> respuesta = post(ruta, campos);
+        long fin = System.nanoTime();
+        boolean redirige = ubicacion(respuesta).filter(u -> u.endsWith("/dashboard")).isPresent();
+
+        String html = redirige ? verDashboard("GET /dashboard") : "";
+        medicion.registrar(endpoint, inicio, fin, redirige && !html.contains(ERROR_FLASH));
+        return html;
+    }
+
+    // Los ids salen de la secuencia en orden creciente: el mayor de la página es el recién creado
+    private static Long ultimaActividad(String html) {
+        Matcher matcher = ID_ACTIVIDAD.matcher(html);
+        Long mayor = null;
+        while (matcher.find()) {
+            long id = Long.parseLong(matcher.group(1));
+            if (mayor == null || id > mayor) {
+                mayor = id;
+            }
+        }
+        return mayor;
+    }
+
+    private void registrar(boolean medir, String endpoint, long inicio, boolean exito) {
+        if (medir) {
+            medicion.registrar(endpoint, inicio, System.nanoTime(), exito);
+        }
+    }
+
+    private void pausar() throws InterruptedException {
+        if (!configuracion.pausa().isZero()) {
+            Thread.sleep(configuracion.pausa().toMillis());
+        }
+    }
+
+    // =========================
+    // HTTP
+    // =========================
+
+    private void nuevaSesion() {
+        cliente = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(TIEMPO_MAXIMO)
+                .build();
+        etag = null;
+    }
+
+    private HttpResponse<String> get(String ruta, String siNoCoincide) throws IOException, InterruptedException {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(base.resolve(ruta)).GET();
+        if (siNoCoincide != null) {
+            peticion.header("If-None-Match", siNoCoincide);
+        }
+        return enviar(peticion);
+    }
+
+    private HttpResponse<String> post(String ruta, Map<String, String> campos) throws IOException, InterruptedException {
+        Map<String, String> formulario = new LinkedHashMap<>(campos);
+        formulario.put("_csrf", csrf);
+        StringJoiner cuerpo = new StringJoiner("&");
+        formulario.forEach((nombre, valor) -> cuerpo.add(
+                URLEncoder.encode(nombre, StandardCharsets.UTF_8) + "=" + URLEncoder.encode(valor, StandardCharsets.UTF_8)));
+        return enviar(HttpRequest.newBuilder(base.resolve(ruta))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo.toString())));
+    }
+
+    private HttpResponse<String> enviar(HttpRequest.Builder peticion) throws IOException, InterruptedException {
+        return cliente.send(peticion.timeout(TIEMPO_MAXIMO).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Optional<String> ubicacion(HttpResponse<?> respuesta) {
+        return respuesta.statusCode() == 302 ? respuesta.headers().firstValue("Location") : Optional.empty();
+    }
+
+    private static void comprobarRedireccion(HttpResponse<?> respuesta, String destino, String paso) {
+        if (ubicacion(respuesta).filter(u -> u.endsWith(destino)).isEmpty()) {
+            throw new IllegalStateException("Falló el " + paso + ": HTTP " + respuesta.statusCode()
+                    + " " + respuesta.headers().firstValue("Location").orElse(""));
+        }
+    }
+
+    private static String extraerCsrf(String html) throws IOException {
+        Matcher matcher = CSRF.matcher(html);
+        if (!matcher.find()) {
+            throw new IOException("La página no trae token CSRF");
+        }
+        return matcher.group(1);
+    }
+
+    // =========================
+    // Historial por CSV
+    // =========================
+
+    private static final String LIMITE = "----finanzas-carga";
+
+    // Gastos e ingresos completados repartidos en los últimos meses, como los de un usuario real
+    private String historialCsv() {
+        StringBuilder csv = new StringBuilder("fecha;descripcion;monto;tipo;categoria\n");
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < configuracion.historial(); i++) {
+            boolean ingreso = i % 10 == 0;
+            csv.append(hoy.minusDays(i % 180)).append(';')
+                    .append(ingreso ? "Pago de salario" : "Compra del día").append(';')
+                    .append(ingreso ? 2_500_000 : 8_000 + (i * 137) % 90_000).append(';')
+                    .append(ingreso ? "INGRESO;SALARIO" : "GASTO;ALIMENTACION").append('\n');
+        }
+        return csv.toString();
+    }
+
+    private String multipartCsv(String csv) {
+        return "--" + LIMITE + "\r\n"
+                + "Content-Disposition: form-data; name=\"_csrf\"\r\n\r\n" + csrf + "\r\n"
+                + "--" + LIMITE + "\r\n"
+                + "Content-Disposition: form-data; name=\"archivo\"; filename=\"historial.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n" + csv + "\r\n"
+                + "--" + LIMITE + "--\r\n";
+    }
+}
@@ -0,0 +1,49 @@
+package com.finanzas.benchmark;
+
+import com.finanzas.service.ParserMontoColombiano;
+import com.finanzas.service.ValidadorActividad;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Parseo y validación de rango de un monto: replace/split/BigDecimal (legado) frente a
+// ParserMontoColombiano, que devuelve centavos en un long.
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="MontoBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MontoBenchmark {
+
+    @Param({"1.000", "1.250.000,50", "$ 40.000.000 COP"})
+    public String monto;
+
+    private ValidadorActividad validadorActividad;
+
+    @Setup
+    public void preparar() {
+        validadorActividad = new ValidadorActividad();
+    }
+
+    @Benchmark
+    public String legado() {
+        return ValidacionLegado.validarRangoMonto(ValidacionLegado.parseMontoColombiano(monto));
+    }
+
+    @Benchmark
+    public String actual() {
+        return validadorActividad.validarRangoCentavos(ParserMontoColombiano.aCentavos(monto));
+    }
+}
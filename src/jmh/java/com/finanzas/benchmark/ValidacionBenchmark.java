@@ -0,0 +1,68 @@
+package com.finanzas.benchmark;
+
+import com.finanzas.service.ValidadorActividad;
+import com.finanzas.service.ValidadorUsuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Validación de descripciones y de registro: versión con String.matches/split (legado) frente a
+// ValidadorActividad (recorrido a mano) y ValidadorUsuario (patrones precompilados).
+// Con -prof gc se ve además la memoria asignada por llamada.
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="ValidacionBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionBenchmark {
+
+    // Casos típicos de una importación: válida, con símbolo, con palabra repetida y con letras repetidas
+    @Param({
+            "Pago arriendo apartamento centro",
+            "Compra en tienda $ descuento",
+            "Mercado semanal mercado extra",
+            "Cuota gimnasio mensual aaa"
+    })
+    public String descripcion;
+
+    private ValidadorActividad validadorActividad;
+    private ValidadorUsuario validadorUsuario;
+
+    @Setup
+    public void preparar() {
+        validadorActividad = new ValidadorActividad();
+        validadorUsuario = new ValidadorUsuario();
+    }
+
+    @Benchmark
+    public String descripcionLegado() {
+        return ValidacionLegado.validarDescripcion(descripcion);
+    }
+
+    @Benchmark
+    public String descripcionActual() {
+        return validadorActividad.validarDescripcion(descripcion);
+    }
+
+    @Benchmark
+    public String registroLegado() {
+        return ValidacionLegado.validarRegistro("María Pérez", "maria.perez@gmail.com", "claveSegura1");
+    }
+
+    @Benchmark
+    public String registroActual() {
+        return validadorUsuario.validarRegistro("María Pérez", "maria.perez@gmail.com", "claveSegura1");
+    }
+}
@@ -0,0 +1,119 @@
+package com.finanzas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+// Copia de las validaciones tal como estaban en DashboardController y AuthController antes de
+// ValidadorActividad/ValidadorUsuario/ParserMontoColombiano, línea base de los benchmarks
+final class ValidacionLegado {
+
+    private ValidacionLegado() {
+    }
+
+    static String validarDescripcion(String descripcion) {
+        if (descripcion == null || descripcion.trim().isEmpty()) {
+            return "La descripción no puede estar vacía";
+        }
+        descripcion = descripcion.trim();
+        if (descripcion.length() > 60) {
+            return "La descripción no puede superar los 60 caracteres";
+        }
+        if (!descripcion.matches("^[a-zA-Z0-9áéíóúÁÉÍÓÚñÑ\\s]+$")) {
+            return "La descripción solo puede contener letras, números y espacios";
+        }
+        if (descripcion.matches("^\\d+$")) {
+            return "La descripción no puede ser solo un número";
+        }
+        if (descripcion.matches(".*\\d{11,}.*")) {
+            return "Los números en la descripción no pueden tener más de 10 dígitos seguidos";
+        }
+        String[] palabras = descripcion.split("\\s+");
+        if (palabras.length > 5) {
+            return "La descripción no puede tener más de 5 palabras";
+        }
+        Set<String> palabrasUsadas = new HashSet<>();
+        for (String palabra : palabras) {
+            if (palabra.length() > 15) {
+                return "Cada palabra debe tener como máximo 15 caracteres";
+            }
+            String palabraLower = palabra.toLowerCase();
+            if (!palabrasUsadas.add(palabraLower)) {
+                return "No se pueden repetir palabras en la descripción";
+            }
+            if (palabra.matches(".*([a-zA-ZáéíóúÁÉÍÓÚñÑ])\\1{2,}.*")) {
+                return "No se puede repetir la misma letra más de 2 veces seguidas";
+            }
+        }
+        return null;
+    }
+
+    static String validarRegistro(String nombre, String email, String password) {
+        if (!nombre.matches("^[a-zA-ZáéíóúÁÉÍÓÚñÑ\\s]{3,50}$")) {
+            return "Formato de nombre inválido";
+        }
+        String[] palabras = nombre.trim().split("\\s+");
+        if (palabras.length < 1 || palabras.length > 2) {
+            return "El nombre debe contener 1 o 2 palabras";
+        }
+        for (String palabra : palabras) {
+            if (palabra.length() < 3 || palabra.length() > 20) {
+                return "Cada palabra debe tener entre 3 y 20 caracteres";
+            }
+        }
+        if (!email.endsWith("@gmail.com")) {
+            return "Solo se aceptan cuentas @gmail.com";
+        }
+        String localPart = email.split("@")[0];
+        if (localPart.length() < 3 || localPart.length() > 20) {
+            return "El email debe tener entre 3 y 20 caracteres antes del @";
+        }
+        if (!localPart.matches("^[a-zA-Z0-9.]+$")) {
+            return "El email contiene caracteres no permitidos";
+        }
+        if (password.length() < 8) {
+            return "La contraseña debe tener al menos 8 caracteres";
+        }
+        return null;
+    }
+
+    static BigDecimal parseMontoColombiano(String montoStr) {
+        if (montoStr == null || montoStr.trim().isEmpty()) {
+            throw new IllegalArgumentException("El monto no puede estar vacío");
+        }
+        String limpio = montoStr.trim()
+                .replace(" ", "")
+                .replace("$", "")
+                .replace("€", "")
+                .replace("COP", "")
+                .replace("cop", "");
+        if (limpio.contains(",")) {
+            String[] partes = limpio.split(",");
+            String parteEntera = partes[0].replace(".", "");
+            String parteDecimal = partes.length > 1 ? partes[1] : "00";
+            limpio = parteEntera + "." + parteDecimal;
+        } else {
+            limpio = limpio.replace(".", "");
+        }
+        try {
+            BigDecimal resultado = new BigDecimal(limpio);
+            if (resultado.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("El monto debe ser mayor a 0");
+            }
+            return resultado;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Formato de monto inválido. Use formato colombiano: 1.000 o 1.000,00");
+        }
+    }
+
+    // Rango tal como se validaba en crearActividad/editarActividad (dos BigDecimal nuevos por llamada)
+    static String validarRangoMonto(BigDecimal monto) {
+        if (monto.compareTo(new BigDecimal("1000")) < 0) {
+            return "El monto mínimo es $1.000";
+        }
+        if (monto.compareTo(new BigDecimal("40000000")) > 0) {
+            return "El monto máximo es $40.000.000";
+        }
+        return null;
+    }
+}
@@ -2,22 +2,21 @@ package com.finanzas.config;
 
 import com.finanzas.entity.*;
 import com.finanzas.repository.UsuarioRepository;
-import com.finanzas.repository.ActividadRepository;
+import com.finanzas.service.ActividadService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-
 @Component
 public class DataInitializer implements CommandLineRunner {
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    // Las actividades pasan por el servicio para que también queden en resumen_mensual
     @Autowired
-    private ActividadRepository actividadRepository;
+    private ActividadService actividadService;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -61,21 +60,21 @@ public class DataInitializer implements CommandLineRunner {
     private void crearActividadesDePrueba(Usuario usuario) {
         Actividad actividad1 = new Actividad();
         actividad1.setDescripcion("Pago de salario");
-        actividad1.setMonto(new BigDecimal("2500000"));
+        actividad1.setMonto(Dinero.deCentavos(2_500_000_00L));
         actividad1.setTipo(TipoActividad.INGRESO);
         actividad1.setCategoria(Categoria.SALARIO);
         actividad1.setUsuario(usuario);
         actividad1.setEstado(EstadoActividad.COMPLETADO);
-        actividadRepository.save(actividad1);
+        actividadService.guardarActividad(actividad1);
 
         Actividad actividad2 = new Actividad();
         actividad2.setDescripcion("Supermercado");
-        actividad2.setMonto(new BigDecimal("150750"));
+        actividad2.setMonto(Dinero.deCentavos(150_750_00L));
         actividad2.setTipo(TipoActividad.GASTO);
         actividad2.setCategoria(Categoria.ALIMENTACION);
         actividad2.setUsuario(usuario);
         actividad2.setEstado(EstadoActividad.COMPLETADO);
-        actividadRepository.save(actividad2);
+        actividadService.guardarActividad(actividad2);
 
         System.out.println("Actividades de prueba creadas exitosamente!");
     }
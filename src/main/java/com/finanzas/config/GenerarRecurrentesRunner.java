@@ -0,0 +1,37 @@
+package com.finanzas.config;
+
+import com.finanzas.dto.ResultadoGeneracion;
+import com.finanzas.service.GeneracionRecurrentesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// Generación de actividades recurrentes a demanda (ventana de mantenimiento o reanudar una pasada cortada).
+// Uso: java -jar finanzas-app.jar --finanzas.recurrentes.generar=true
+@Component
+@ConditionalOnProperty(name = "finanzas.recurrentes.generar", havingValue = "true")
+public class GenerarRecurrentesRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerarRecurrentesRunner.class);
+
+    @Autowired
+    private GeneracionRecurrentesService generacionRecurrentesService;
+
+    @Override
+    public void run(String... args) {
+        logger.info("Generando actividades recurrentes...");
+        ResultadoGeneracion resultado = generacionRecurrentesService.generar(LocalDate.now());
+        if (resultado == null) {
+            logger.warn("Ya había una generación en curso");
+            return;
+        }
+        logger.info("{} actividades de {} plantillas en {} lotes, {} ms ({} filas/s)",
+                resultado.actividades(), resultado.plantillas(), resultado.lotes(),
+                resultado.duracion().toMillis(), Math.round(resultado.actividadesPorSegundo()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.finanzas.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// La cola de BCrypt está llena. Es una AuthenticationException para que el login la entregue al
+// AuthenticationFailureHandler, y fuera del login Spring MVC la responde como 503.
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Servicio saturado, intenta de nuevo en unos segundos")
+public class HashingSaturadoException extends AuthenticationServiceException {
+
+    public HashingSaturadoException() {
+        super("Demasiadas operaciones de contraseña en curso");
+    }
+}
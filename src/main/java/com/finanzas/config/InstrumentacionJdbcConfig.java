@@ -0,0 +1,54 @@
+package com.finanzas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Instrumentación de JDBC: el DataSource (Hikari) se envuelve con datasource-proxy y cada sentencia
+// pasa por RegistroConsultasJdbc; MetricasJdbcFilter publica lo acumulado en cada petición.
+@Configuration
+public class InstrumentacionJdbcConfig {
+
+    @Bean
+    public RegistroConsultasJdbc registroConsultasJdbc(
+            @Value("${finanzas.jdbc.umbral-lenta:200ms}") Duration umbralLenta,
+            @Value("${finanzas.jdbc.registrar-parametros:false}") boolean registrarParametros) {
+        return new RegistroConsultasJdbc(umbralLenta, registrarParametros);
+    }
+
+    // Estático y con ObjectProvider: un BeanPostProcessor no debe forzar la creación temprana de otros beans
+    @Bean
+    public static BeanPostProcessor dataSourceInstrumentado(ObjectProvider<RegistroConsultasJdbc> registro) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(registro.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<MetricasJdbcFilter> metricasJdbcFilter(RegistroConsultasJdbc registro,
+                                                                         MeterRegistry meterRegistry) {
+        FilterRegistrationBean<MetricasJdbcFilter> filtro =
+                new FilterRegistrationBean<>(new MetricasJdbcFilter(registro, meterRegistry));
+        // Antes de la cadena de Spring Security para contar también las consultas del login
+        filtro.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return filtro;
+    }
+}
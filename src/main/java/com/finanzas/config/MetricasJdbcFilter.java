@@ -0,0 +1,87 @@
+package com.finanzas.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Publica por petición HTTP cuántas sentencias JDBC se ejecutaron, el tiempo total en la BD y la
+// sentencia más lenta, etiquetados con el método de controlador que la atendió
+// (finanzas.jdbc.sentencias, finanzas.jdbc.tiempo, finanzas.jdbc.sentencia.max).
+// Las descargas asíncronas (exportación) leen la BD en otro hilo: esas sentencias no se suman aquí
+// y solo pasan por el registro de sentencias lentas.
+public class MetricasJdbcFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricasJdbcFilter.class);
+
+    // Etiqueta de las peticiones que consultan la BD sin pasar por un controlador (login de Spring Security)
+    private static final String SIN_CONTROLADOR = "sin-controlador";
+
+    // Atributo de la petición con su RegistroConsultasJdbc.Peticion (lo leen los tests de conteo de sentencias)
+    public static final String ATRIBUTO_CONSULTAS = MetricasJdbcFilter.class.getName() + ".CONSULTAS";
+
+    private final RegistroConsultasJdbc registro;
+    private final MeterProvider<DistributionSummary> sentencias;
+    private final MeterProvider<Timer> tiempoTotal;
+    private final MeterProvider<Timer> sentenciaMasLenta;
+
+    public MetricasJdbcFilter(RegistroConsultasJdbc registro, MeterRegistry registry) {
+        this.registro = registro;
+        this.sentencias = DistributionSummary.builder("finanzas.jdbc.sentencias")
+                .description("Sentencias JDBC ejecutadas por petición")
+                .baseUnit("sentencias")
+                .withRegistry(registry);
+        this.tiempoTotal = Timer.builder("finanzas.jdbc.tiempo")
+                .description("Tiempo total en la base de datos por petición")
+                .withRegistry(registry);
+        this.sentenciaMasLenta = Timer.builder("finanzas.jdbc.sentencia.max")
+                .description("Duración de la sentencia más lenta de cada petición")
+                .withRegistry(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RegistroConsultasJdbc.Peticion peticion = registro.iniciar(request);
+        request.setAttribute(ATRIBUTO_CONSULTAS, peticion);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            registro.terminar();
+            publicar(request, peticion);
+        }
+    }
+
+    private void publicar(HttpServletRequest request, RegistroConsultasJdbc.Peticion peticion) {
+        String controlador = peticion.controlador();
+        if (controlador == null) {
+            // Recursos estáticos y similares: solo interesan si tocaron la BD
+            if (peticion.getSentencias() == 0) {
+                return;
+            }
+            controlador = SIN_CONTROLADOR;
+        }
+        sentencias.withTags("controlador", controlador).record(peticion.getSentencias());
+        tiempoTotal.withTags("controlador", controlador).record(peticion.getNanosTotal(), TimeUnit.NANOSECONDS);
+        if (peticion.getSentencias() > 0) {
+            sentenciaMasLenta.withTags("controlador", controlador).record(peticion.getNanosMax(), TimeUnit.NANOSECONDS);
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} {} -> {}: {} sentencias, {} µs en BD (más lenta {} µs: {})",
+                    request.getMethod(), request.getRequestURI(), controlador, peticion.getSentencias(),
+                    TimeUnit.NANOSECONDS.toMicros(peticion.getNanosTotal()),
+                    TimeUnit.NANOSECONDS.toMicros(peticion.getNanosMax()), peticion.sqlMasLenta());
+        }
+    }
+}
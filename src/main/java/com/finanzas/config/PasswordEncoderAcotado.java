@@ -0,0 +1,110 @@
+package com.finanzas.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// PasswordEncoder que ejecuta BCrypt en un pool propio de tamaño fijo con cola acotada.
+// BCrypt consume CPU a propósito: si corre en los hilos de Tomcat, una ráfaga de logins o registros
+// deja sin CPU al resto de peticiones. Con el pool, como mucho hay "hilos" hashes en paralelo, y
+// cuando la cola está llena se rechaza de inmediato con HashingSaturadoException (503).
+public class PasswordEncoderAcotado implements PasswordEncoder, DisposableBean {
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final ThreadPoolExecutor executor;
+    private final Timer tiempoEncode;
+    private final Timer tiempoMatches;
+    private final Timer esperaEnCola;
+    private final Counter rechazos;
+
+    public PasswordEncoderAcotado(int costo, int hilos, int capacidadCola, MeterRegistry registry) {
+        this.bcrypt = new BCryptPasswordEncoder(costo);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "password-hash-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.tiempoEncode = Timer.builder("finanzas.password.hash")
+                .description("Tiempo de cálculo de BCrypt")
+                .tag("operacion", "encode")
+                .register(registry);
+        this.tiempoMatches = Timer.builder("finanzas.password.hash")
+                .description("Tiempo de cálculo de BCrypt")
+                .tag("operacion", "matches")
+                .register(registry);
+        this.esperaEnCola = Timer.builder("finanzas.password.cola.espera")
+                .description("Tiempo que una operación de BCrypt espera en la cola antes de ejecutarse")
+                .register(registry);
+        this.rechazos = Counter.builder("finanzas.password.rechazos")
+                .description("Operaciones de BCrypt rechazadas por cola llena")
+                .register(registry);
+        Gauge.builder("finanzas.password.cola.tamano", executor, e -> e.getQueue().size())
+                .description("Operaciones de BCrypt esperando en la cola")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(tiempoEncode, () -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(tiempoMatches, () -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bcrypt.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T ejecutar(Timer tiempoHash, Callable<T> operacion) {
+        long encolado = System.nanoTime();
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(() -> {
+                esperaEnCola.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return tiempoHash.recordCallable(operacion);
+            });
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new HashingSaturadoException();
+        }
+
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw new IllegalStateException("Interrumpido esperando el cálculo de la contraseña", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,28 @@
+package com.finanzas.config;
+
+import com.finanzas.service.ResumenMensualService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Backfill de resumen_mensual desde las actividades existentes.
+// Uso: java -jar finanzas-app.jar --finanzas.resumen.reconstruir=true
+@Component
+@ConditionalOnProperty(name = "finanzas.resumen.reconstruir", havingValue = "true")
+public class ReconstruirResumenRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconstruirResumenRunner.class);
+
+    @Autowired
+    private ResumenMensualService resumenMensualService;
+
+    @Override
+    public void run(String... args) {
+        logger.info("Reconstruyendo resumen_mensual...");
+        int filas = resumenMensualService.reconstruir();
+        logger.info("resumen_mensual reconstruido con {} filas", filas);
+    }
+}
@@ -0,0 +1,150 @@
+package com.finanzas.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+// Listener de datasource-proxy: mide cada sentencia JDBC, la suma a la petición HTTP que la originó
+// (si el hilo está atendiendo una) y deja en el logger "finanzas.jdbc.lentas" las que superan el umbral.
+// Reemplaza a hibernate.SQL=DEBUG + BasicBinder=TRACE, que registraban todas las sentencias.
+public class RegistroConsultasJdbc implements QueryExecutionListener {
+
+    private static final Logger logLentas = LoggerFactory.getLogger("finanzas.jdbc.lentas");
+
+    // Largo máximo del SQL en el log (las sentencias con IN de muchos ids pueden ser enormes)
+    private static final int MAX_SQL = 2000;
+
+    private final long umbralNanos;
+    private final boolean registrarParametros;
+
+    // Inicio de la sentencia en curso: un hilo no ejecuta dos sentencias JDBC a la vez
+    private final ThreadLocal<long[]> inicio = ThreadLocal.withInitial(() -> new long[1]);
+    private final ThreadLocal<Peticion> peticionActual = new ThreadLocal<>();
+
+    public RegistroConsultasJdbc(Duration umbralLenta, boolean registrarParametros) {
+        this.umbralNanos = umbralLenta.toNanos();
+        this.registrarParametros = registrarParametros;
+    }
+
+    // Empezar a acumular las sentencias que ejecute el hilo actual para esta petición
+    public Peticion iniciar(HttpServletRequest request) {
+        Peticion peticion = new Peticion(request);
+        peticionActual.set(peticion);
+        return peticion;
+    }
+
+    public void terminar() {
+        peticionActual.remove();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        inicio.get()[0] = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long nanos = System.nanoTime() - inicio.get()[0];
+        Peticion peticion = peticionActual.get();
+        if (peticion != null) {
+            peticion.registrar(nanos, queryInfoList);
+        }
+        if (nanos >= umbralNanos) {
+            registrarLenta(execInfo, queryInfoList, nanos, peticion);
+        }
+    }
+
+    private void registrarLenta(ExecutionInfo execInfo, List<QueryInfo> consultas, long nanos, Peticion peticion) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        String controlador = peticion != null ? peticion.controlador() : null;
+        String sql = sql(consultas);
+        var evento = logLentas.atWarn()
+                .addKeyValue("duracionMs", ms)
+                .addKeyValue("controlador", controlador)
+                .addKeyValue("uri", peticion != null ? peticion.request.getRequestURI() : null)
+                .addKeyValue("lote", execInfo.isBatch() ? execInfo.getBatchSize() : 0)
+                .addKeyValue("exito", execInfo.isSuccess())
+                .addKeyValue("sql", sql);
+        if (registrarParametros) {
+            evento = evento.addKeyValue("parametros", parametros(consultas));
+        }
+        evento.log("Sentencia lenta: {} ms en {}: {}", ms, controlador != null ? controlador : "-", sql);
+    }
+
+    // SQL en una línea y recortado (Hibernate lo envía formateado en varias líneas)
+    static String sql(List<QueryInfo> consultas) {
+        StringJoiner sql = new StringJoiner("; ");
+        for (QueryInfo consulta : consultas) {
+            sql.add(consulta.getQuery().replaceAll("\\s+", " ").trim());
+        }
+        String texto = sql.toString();
+        return texto.length() > MAX_SQL ? texto.substring(0, MAX_SQL) + "…" : texto;
+    }
+
+    // Valores del primer juego de parámetros de cada sentencia (en un lote serían cientos)
+    private static String parametros(List<QueryInfo> consultas) {
+        StringJoiner valores = new StringJoiner(", ", "[", "]");
+        for (QueryInfo consulta : consultas) {
+            if (consulta.getParametersList().isEmpty()) {
+                continue;
+            }
+            for (ParameterSetOperation operacion : consulta.getParametersList().get(0)) {
+                Object[] args = operacion.getArgs();
+                valores.add(args.length > 1 ? String.valueOf(args[1]) : "?");
+            }
+        }
+        return valores.toString();
+    }
+
+    // Acumulado de sentencias de una petición. Solo lo toca el hilo que la atiende.
+    public static final class Peticion {
+
+        private final HttpServletRequest request;
+        private int sentencias;
+        private long nanosTotal;
+        private long nanosMax;
+        private List<QueryInfo> masLenta;
+
+        private Peticion(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        private void registrar(long nanos, List<QueryInfo> consultas) {
+            sentencias++;
+            nanosTotal += nanos;
+            if (nanos > nanosMax) {
+                nanosMax = nanos;
+                masLenta = consultas;
+            }
+        }
+
+        // "DashboardController.dashboard", o null si la petición no llegó a un método de controlador
+        public String controlador() {
+            Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+            if (handler instanceof HandlerMethod metodo) {
+                return metodo.getBeanType().getSimpleName() + "." + metodo.getMethod().getName();
+            }
+            return null;
+        }
+
+        public int getSentencias() { return sentencias; }
+        public long getNanosTotal() { return nanosTotal; }
+        public long getNanosMax() { return nanosMax; }
+
+        // SQL de la sentencia más lenta (solo para logs de depuración)
+        public String sqlMasLenta() {
+            return masLenta != null ? sql(masLenta) : "";
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package com.finanzas.config;
 
 import com.finanzas.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.AccessDeniedHandler;
+import org.springframework.security.web.access.AccessDeniedHandlerImpl;
+import org.springframework.security.web.access.RequestMatcherDelegatingAccessDeniedHandler;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -19,9 +32,36 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    // BCrypt en un pool acotado (ver PasswordEncoderAcotado); por defecto la mitad de los núcleos, para que
+    // una ráfaga de logins deje CPU al resto de peticiones
     @Bean
-    public static PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder(@Value("${finanzas.seguridad.bcrypt.costo:10}") int costo,
+                                                  @Value("${finanzas.seguridad.bcrypt.hilos:0}") int hilos,
+                                                  @Value("${finanzas.seguridad.bcrypt.cola:64}") int cola,
+                                                  MeterRegistry meterRegistry) {
+        int hilosEfectivos = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new PasswordEncoderAcotado(costo, hilosEfectivos, cola, meterRegistry);
+    }
+
+    private static final RequestMatcher API = PathPatternRequestMatcher.withDefaults().matcher("/api/**");
+
+    private static AccessDeniedHandler paginaAccesoDenegado() {
+        AccessDeniedHandlerImpl handler = new AccessDeniedHandlerImpl();
+        handler.setErrorPage("/access-denied");
+        return handler;
+    }
+
+    // Login fallido: credenciales malas vuelven al formulario; BCrypt saturado responde 503
+    private AuthenticationFailureHandler manejadorFalloLogin() {
+        SimpleUrlAuthenticationFailureHandler credencialesInvalidas = new SimpleUrlAuthenticationFailureHandler("/login?error=true");
+        return (request, response, exception) -> {
+            if (exception instanceof HashingSaturadoException) {
+                response.setHeader("Retry-After", "5");
+                response.sendError(503, exception.getMessage());
+                return;
+            }
+            credencialesInvalidas.onAuthenticationFailure(request, response, exception);
+        };
     }
 
     @Bean
@@ -29,9 +69,11 @@ public class SecurityConfig {
         http
             .authorizeHttpRequests(auth -> auth
                 // Permisos públicos
-                .requestMatchers("/", "/login", "/register", "/css/**", "/js/**", "/images/**").permitAll()
+                .requestMatchers("/", "/login", "/register", "/error", "/css/**", "/js/**", "/images/**").permitAll()
                 // Solo admin puede acceder a /admin/**
                 .requestMatchers("/admin/**").hasRole("ADMIN")
+                // Métricas y estado de la aplicación: solo admin
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Cualquier otra ruta requiere autenticación
                 .anyRequest().authenticated()
             )
@@ -39,7 +81,7 @@ public class SecurityConfig {
                 .loginPage("/login")
                 .loginProcessingUrl("/login")
                 .defaultSuccessUrl("/dashboard", true)
-                .failureUrl("/login?error=true")
+                .failureHandler(manejadorFalloLogin())
                 .permitAll()
             )
             .logout(logout -> logout
@@ -49,17 +91,21 @@ public class SecurityConfig {
                 .deleteCookies("JSESSIONID")
                 .permitAll()
             )
+            // La API JSON responde con el código de estado en vez de redirigir al login o a la página de acceso denegado
             .exceptionHandling(exception -> exception
-                .accessDeniedPage("/access-denied")
+                .defaultAuthenticationEntryPointFor(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED), API)
+                .accessDeniedHandler(new RequestMatcherDelegatingAccessDeniedHandler(
+                        new LinkedHashMap<>(Map.of(API, new AccessDeniedHandlerImpl())),
+                        paginaAccesoDenegado()))
             );
 
         return http.build();
     }
 
     @Autowired
-    public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
+    public void configureGlobal(AuthenticationManagerBuilder auth, PasswordEncoder passwordEncoder) throws Exception {
         auth
             .userDetailsService(userDetailsService)
-            .passwordEncoder(passwordEncoder());
+            .passwordEncoder(passwordEncoder);
     }
 }
\ No newline at end of file
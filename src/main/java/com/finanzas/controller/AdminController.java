@@ -1,17 +1,22 @@
 package com.finanzas.controller;
 
+import com.finanzas.config.HashingSaturadoException;
+import com.finanzas.dto.UsuarioAdmin;
 import com.finanzas.entity.Usuario;
 import com.finanzas.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/admin")
@@ -21,17 +26,36 @@ public class AdminController {
     @Autowired
     private UsuarioService usuarioService;
 
-    @Autowired
-    private PasswordEncoder passwordEncoder;
+    // Columnas por las que se puede ordenar el listado (propiedades de la proyección UsuarioListado)
+    private static final Set<String> ORDENES_PERMITIDOS = Set.of("id", "nombre", "email", "fechaRegistro");
+
+    // Usuarios por página en el listado de administración
+    @Value("${finanzas.admin.tamano-pagina:25}")
+    private int tamanoPagina;
 
     @GetMapping("/dashboard")
-    public String adminDashboard(Model model) {
+    public String adminDashboard(@RequestParam(defaultValue = "0") int pagina,
+                                 @RequestParam(required = false) String busqueda,
+                                 @RequestParam(defaultValue = "id") String orden,
+                                 @RequestParam(defaultValue = "asc") String direccion,
+                                 Model model) {
         try {
+            if (!ORDENES_PERMITIDOS.contains(orden)) {
+                orden = "id";
+            }
+            Sort.Direction sentido = "desc".equalsIgnoreCase(direccion) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            // id como desempate para que el orden entre páginas sea estable
+            Sort sort = orden.equals("id") ? Sort.by(sentido, "id") : Sort.by(sentido, orden).and(Sort.by(sentido, "id"));
+            PageRequest pageRequest = PageRequest.of(Math.max(pagina, 0), tamanoPagina, sort);
+
             long totalUsuarios = usuarioService.contarUsuarios();
-            List<Usuario> usuarios = usuarioService.obtenerTodos();
+            Page<UsuarioAdmin> usuarios = usuarioService.listarParaAdmin(busqueda, pageRequest);
             
             model.addAttribute("totalUsuarios", totalUsuarios);
             model.addAttribute("usuarios", usuarios);
+            model.addAttribute("busqueda", busqueda);
+            model.addAttribute("orden", orden);
+            model.addAttribute("direccion", sentido == Sort.Direction.DESC ? "desc" : "asc");
             
         } catch (Exception e) {
             model.addAttribute("error", "Error al cargar el dashboard de administración: " + e.getMessage());
@@ -55,32 +79,17 @@ public class AdminController {
             String nuevaPassword = "123456";
             
             System.out.println("Reseteando password para: " + usuario.getEmail());
-            System.out.println("Password anterior (hash): " + usuario.getPassword());
-            
-            // Usar el servicio para cambiar la contraseña (asegura encriptado consistente)
-            boolean exito = usuarioService.cambiarPassword(usuario.getEmail(), nuevaPassword);
             
-            if (exito) {
-                // 🔹 NUEVO: Marcar la contraseña como temporal
-                usuario.setPasswordTemporal(true);
-                usuarioService.guardarUsuario(usuario);
+            // Un solo hash: la contraseña temporal y el flag se guardan juntos
+            usuarioService.restablecerPassword(usuario, nuevaPassword);
 
-                // Verificar que se guardó correctamente
-                Usuario usuarioVerificado = usuarioService.encontrarPorEmail(usuario.getEmail()).get();
-                System.out.println("Nuevo hash guardado: " + usuarioVerificado.getPassword());
-                
-                // Verificar que el nuevo hash funciona
-                boolean hashFunciona = passwordEncoder.matches(nuevaPassword, usuarioVerificado.getPassword());
-                System.out.println("Hash verificado: " + hashFunciona);
-                
-                redirectAttributes.addFlashAttribute("success", 
-                    "Contraseña restablecida para " + usuario.getEmail() + 
-                    ". Nueva contraseña temporal: <strong>123456</strong><br>" +
-                    "<small>El usuario debe cambiarla en 'Cambiar Contraseña' después de iniciar sesión.</small>");
-            } else {
-                redirectAttributes.addFlashAttribute("error", "Error al restablecer la contraseña");
-            }
+            redirectAttributes.addFlashAttribute("success", 
+                "Contraseña restablecida para " + usuario.getEmail() + 
+                ". Nueva contraseña temporal: <strong>123456</strong><br>" +
+                "<small>El usuario debe cambiarla en 'Cambiar Contraseña' después de iniciar sesión.</small>");
             
+        } catch (HashingSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             System.out.println("Error en resetearPassword: " + e.getMessage());
             e.printStackTrace();
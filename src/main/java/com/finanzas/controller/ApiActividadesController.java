@@ -0,0 +1,173 @@
+package com.finanzas.controller;
+
+import com.finanzas.dto.ActividadApi;
+import com.finanzas.dto.DatosActividadApi;
+import com.finanzas.dto.ErrorApi;
+import com.finanzas.dto.PaginaActividadesApi;
+import com.finanzas.dto.ResumenDashboard;
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.EstadoActividad;
+import com.finanzas.service.ActividadService;
+import com.finanzas.service.UsuarioPrincipal;
+import com.finanzas.service.UsuarioService;
+import com.finanzas.service.ValidadorActividad;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+
+// API JSON de actividades para clientes que no usan las vistas (app móvil). Misma sesión que el
+// dashboard; las mutaciones llevan el token CSRF en la cabecera que devuelve cualquier respuesta.
+// Lee proyecciones (ActividadApi) y no entidades, y usa las mismas validaciones y mutaciones con
+// control de dueño que DashboardController: una actividad ajena responde 404, igual que una inexistente.
+@RestController
+@RequestMapping("/api/v1/actividades")
+public class ApiActividadesController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiActividadesController.class);
+
+    public static final int MAX_LIMITE = 100;
+
+    // Cuerpo de PUT /{id}/estado: {"estado": "COMPLETADO"}
+    public record CambioEstado(EstadoActividad estado) {
+    }
+
+    @Autowired
+    private ActividadService actividadService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ValidadorActividad validadorActividad;
+
+    // El cliente toma el token de cualquier respuesta y lo repite en POST, PUT y DELETE
+    @ModelAttribute
+    public void exponerTokenCsrf(CsrfToken token, HttpServletResponse response) {
+        if (token != null) {
+            response.setHeader(token.getHeaderName(), token.getToken());
+        }
+    }
+
+    // Una página por estado, de la más reciente a la más antigua; se sigue con "siguienteCursor"
+    @GetMapping
+    public ResponseEntity<?> listar(@RequestParam EstadoActividad estado,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "20") int limite,
+                                    @AuthenticationPrincipal UsuarioPrincipal principal) {
+        if (limite < 1 || limite > MAX_LIMITE) {
+            return error(HttpStatus.BAD_REQUEST, "El límite debe estar entre 1 y " + MAX_LIMITE);
+        }
+        PaginaActividadesApi pagina = actividadService.obtenerPaginaApi(principal.getId(), estado, cursor, limite);
+        return ResponseEntity.ok(pagina);
+    }
+
+    // Conteos por estado, ingresos y gastos completados del mes y saldo de las completadas, en centavos
+    @GetMapping("/totales")
+    public ResponseEntity<ResumenDashboard> totales(@AuthenticationPrincipal UsuarioPrincipal principal) {
+        return ResponseEntity.ok(actividadService.obtenerResumen(principal.getId()));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> crear(@RequestBody DatosActividadApi datos,
+                                   @AuthenticationPrincipal UsuarioPrincipal principal) {
+        String error = validar(datos);
+        if (error != null) {
+            return error(HttpStatus.BAD_REQUEST, error);
+        }
+
+        Actividad a = new Actividad();
+        a.setDescripcion(datos.descripcion().trim());
+        a.setMonto(Dinero.deCentavos(datos.montoCentavos()));
+        a.setTipo(datos.tipo());
+        a.setCategoria(datos.categoria());
+        a.setEstado(EstadoActividad.PENDIENTE);
+        a.setCreatedAt(LocalDateTime.now());
+        a.setUsuario(usuarioService.obtenerReferencia(principal.getId()));
+
+        ActividadApi creada = ActividadApi.de(actividadService.guardarActividad(a));
+        logger.info("Actividad creada por API id={} usuario={}", creada.id(), principal.getEmail());
+        return ResponseEntity.created(URI.create("/api/v1/actividades/" + creada.id())).body(creada);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> editar(@PathVariable Long id,
+                                    @RequestBody DatosActividadApi datos,
+                                    @AuthenticationPrincipal UsuarioPrincipal principal) {
+        String error = validar(datos);
+        if (error != null) {
+            return error(HttpStatus.BAD_REQUEST, error);
+        }
+        if (!actividadService.editarActividad(id, principal.getId(), datos.descripcion().trim(),
+                datos.montoCentavos(), datos.tipo(), datos.categoria())) {
+            return noEncontrada();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/{id}/estado")
+    public ResponseEntity<?> cambiarEstado(@PathVariable Long id,
+                                           @RequestBody CambioEstado cambio,
+                                           @AuthenticationPrincipal UsuarioPrincipal principal) {
+        if (cambio.estado() == null) {
+            return error(HttpStatus.BAD_REQUEST, "Falta el estado");
+        }
+        if (!actividadService.cambiarEstado(id, principal.getId(), cambio.estado())) {
+            return noEncontrada();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> eliminar(@PathVariable Long id, @AuthenticationPrincipal UsuarioPrincipal principal) {
+        if (!actividadService.eliminarActividad(id, principal.getId())) {
+            return noEncontrada();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // Cursor mal formado, enum desconocido en la URL o JSON que no se puede leer
+    @ExceptionHandler({IllegalArgumentException.class, MethodArgumentTypeMismatchException.class,
+            HttpMessageNotReadableException.class})
+    public ResponseEntity<ErrorApi> datosInvalidos(Exception e) {
+        logger.debug("Petición inválida a la API de actividades: {}", e.getMessage());
+        return error(HttpStatus.BAD_REQUEST, e instanceof IllegalArgumentException
+                ? e.getMessage() : "Datos inválidos en la petición");
+    }
+
+    private String validar(DatosActividadApi datos) {
+        if (datos.montoCentavos() == null || datos.tipo() == null || datos.categoria() == null) {
+            return "Faltan datos: descripcion, montoCentavos, tipo y categoria son obligatorios";
+        }
+        return validadorActividad.validar(datos.descripcion(), datos.montoCentavos(), datos.tipo(), datos.categoria());
+    }
+
+    private static ResponseEntity<ErrorApi> noEncontrada() {
+        return error(HttpStatus.NOT_FOUND, "Actividad no encontrada");
+    }
+
+    private static ResponseEntity<ErrorApi> error(HttpStatus estado, String mensaje) {
+        return ResponseEntity.status(estado).body(new ErrorApi(mensaje));
+    }
+}
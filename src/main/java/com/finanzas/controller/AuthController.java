@@ -1,10 +1,13 @@
 package com.finanzas.controller;
 
+import com.finanzas.config.HashingSaturadoException;
 import com.finanzas.entity.RolUsuario;
 import com.finanzas.entity.Usuario;
+import com.finanzas.service.UsuarioPrincipal;
 import com.finanzas.service.UsuarioService;
+import com.finanzas.service.ValidadorUsuario;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,6 +24,9 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ValidadorUsuario validadorUsuario;
+
     // Página de login
     @GetMapping("/login")
     public String login() {
@@ -42,48 +48,10 @@ public class AuthController {
         
         // Validaciones del servidor que coincidan con el frontend
         try {
-            // 1. Validar formato del nombre
-            if (!nombre.matches("^[a-zA-ZáéíóúÁÉÍÓÚñÑ\\s]{3,50}$")) {
-                redirectAttributes.addFlashAttribute("error", "Formato de nombre inválido");
-                return "redirect:/register";
-            }
-            
-            // 2. Validar que el nombre tenga 1-2 palabras
-            String[] palabras = nombre.trim().split("\\s+");
-            if (palabras.length < 1 || palabras.length > 2) {
-                redirectAttributes.addFlashAttribute("error", "El nombre debe contener 1 o 2 palabras");
-                return "redirect:/register";
-            }
-            
-            // 3. Validar longitud de cada palabra
-            for (String palabra : palabras) {
-                if (palabra.length() < 3 || palabra.length() > 20) {
-                    redirectAttributes.addFlashAttribute("error", "Cada palabra debe tener entre 3 y 20 caracteres");
-                    return "redirect:/register";
-                }
-            }
-            
-            // 4. Validar formato de email (solo Gmail)
-            if (!email.endsWith("@gmail.com")) {
-                redirectAttributes.addFlashAttribute("error", "Solo se aceptan cuentas @gmail.com");
-                return "redirect:/register";
-            }
-            
-            // 5. Validar parte local del email
-            String localPart = email.split("@")[0];
-            if (localPart.length() < 3 || localPart.length() > 20) {
-                redirectAttributes.addFlashAttribute("error", "El email debe tener entre 3 y 20 caracteres antes del @");
-                return "redirect:/register";
-            }
-            
-            if (!localPart.matches("^[a-zA-Z0-9.]+$")) {
-                redirectAttributes.addFlashAttribute("error", "El email contiene caracteres no permitidos");
-                return "redirect:/register";
-            }
-            
-            // 6. Validar contraseña (mínimo 8 caracteres ahora)
-            if (password.length() < 8) {
-                redirectAttributes.addFlashAttribute("error", "La contraseña debe tener al menos 8 caracteres");
+            // 1-6. Formato de nombre, email y contraseña
+            String errorFormato = validadorUsuario.validarRegistro(nombre, email, password);
+            if (errorFormato != null) {
+                redirectAttributes.addFlashAttribute("error", errorFormato);
                 return "redirect:/register";
             }
             
@@ -105,6 +73,8 @@ public class AuthController {
             redirectAttributes.addFlashAttribute("success", "Registro exitoso. Ahora puedes iniciar sesión.");
             return "redirect:/login";
             
+        } catch (HashingSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Error en el registro: " + e.getMessage());
             return "redirect:/register";
@@ -128,29 +98,18 @@ public class AuthController {
     public String cambiarPassword(@RequestParam String currentPassword,
                                  @RequestParam String newPassword,
                                  @RequestParam String confirmPassword,
-                                 Authentication authentication,
+                                 @AuthenticationPrincipal UsuarioPrincipal principal,
                                  RedirectAttributes redirectAttributes) {
         
         try {
-            String email = authentication.getName();
-            Usuario usuario = usuarioService.encontrarPorEmail(email)
+            // El hash actual hace falta para verificar: se carga por id (clave primaria)
+            String email = principal.getEmail();
+            Usuario usuario = usuarioService.encontrarPorId(principal.getId())
                     .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
             System.out.println("Cambiando password para: " + email);
-            System.out.println("Password actual en BD: " + usuario.getPassword());
-
-            // Verificar contraseña actual
-            if (!passwordEncoder.matches(currentPassword, usuario.getPassword())) {
-                redirectAttributes.addFlashAttribute("error", "La contraseña actual es incorrecta");
-                return "redirect:/cambiar-password";
-            }
-
-            // Validar que la nueva contraseña sea diferente
-            if (passwordEncoder.matches(newPassword, usuario.getPassword())) {
-                redirectAttributes.addFlashAttribute("error", "La nueva contraseña debe ser diferente a la actual");
-                return "redirect:/cambiar-password";
-            }
 
+            // Validaciones baratas primero: BCrypt solo se ejecuta si el formulario es coherente
             // Validar fortaleza de la nueva contraseña (mínimo 8 caracteres)
             if (newPassword.length() < 8) {
                 redirectAttributes.addFlashAttribute("error", "La nueva contraseña debe tener al menos 8 caracteres");
@@ -163,23 +122,29 @@ public class AuthController {
                 return "redirect:/cambiar-password";
             }
 
-            // Actualizar contraseña usando el servicio
-            boolean exito = usuarioService.cambiarPassword(email, newPassword);
-            
-            if (exito) {
-                //  Quitar el flag de contraseña temporal si existe
-                if (usuario.isPasswordTemporal()) {
-                    usuario.setPasswordTemporal(false);
-                    usuarioService.guardarUsuario(usuario);
-                }
-
-                redirectAttributes.addFlashAttribute("success", "Contraseña cambiada exitosamente");
-                return "redirect:/dashboard";
-            } else {
-                redirectAttributes.addFlashAttribute("error", "Error al guardar la nueva contraseña");
+            // Verificar contraseña actual (único matches de BCrypt)
+            if (!passwordEncoder.matches(currentPassword, usuario.getPassword())) {
+                redirectAttributes.addFlashAttribute("error", "La contraseña actual es incorrecta");
                 return "redirect:/cambiar-password";
             }
 
+            // La actual ya está verificada: basta comparar texto para saber si la nueva es la misma
+            if (newPassword.equals(currentPassword)) {
+                redirectAttributes.addFlashAttribute("error", "La nueva contraseña debe ser diferente a la actual");
+                return "redirect:/cambiar-password";
+            }
+
+            // Actualizar contraseña (y quitar el flag de contraseña temporal) en un solo guardado
+            usuarioService.cambiarPassword(usuario, newPassword);
+
+            // El principal vive en la sesión: reflejar el cambio para que el dashboard no siga avisando
+            principal.setPasswordTemporal(false);
+
+            redirectAttributes.addFlashAttribute("success", "Contraseña cambiada exitosamente");
+            return "redirect:/dashboard";
+
+        } catch (HashingSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             System.out.println("Error en cambiarPassword: " + e.getMessage());
             e.printStackTrace();
@@ -1,28 +1,64 @@
 package com.finanzas.controller;
 
+import com.finanzas.dto.DatosDashboard;
+import com.finanzas.dto.DesgloseCategorias;
+import com.finanzas.dto.PaginaActividades;
+import com.finanzas.dto.PuntoTendencia;
+import com.finanzas.dto.ResultadoBusqueda;
+import com.finanzas.dto.ResultadoImportacion;
+import com.finanzas.dto.SaldoAlDia;
+import com.finanzas.dto.SaldoLibro;
 import com.finanzas.entity.Actividad;
 import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
 import com.finanzas.entity.EstadoActividad;
+import com.finanzas.entity.EventoLibro;
 import com.finanzas.entity.TipoActividad;
 import com.finanzas.entity.Usuario;
 import com.finanzas.service.ActividadService;
+import com.finanzas.service.BusquedaService;
+import com.finanzas.service.ExportacionService;
+import com.finanzas.service.ImportacionService;
+import com.finanzas.service.LibroService;
+import com.finanzas.service.PresupuestoService;
+import com.finanzas.service.ResumenMensualService;
+import com.finanzas.service.TendenciaService;
+import com.finanzas.service.UsuarioPrincipal;
 import com.finanzas.service.UsuarioService;
+import com.finanzas.service.ValidadorActividad;
+import com.finanzas.service.VersionDatosService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.RequestContextUtils;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.HashSet;
+import java.time.YearMonth;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequestMapping("/dashboard")
@@ -30,25 +66,75 @@ public class DashboardController {
 
     private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
 
+    // Máximo de actividades por petición de "completar seleccionadas"
+    private static final int MAX_SELECCION = 500;
+
+    // Repositorio por defecto de Spring Security (token CSRF en la sesión), solo para leer el token sin enmascarar
+    private static final HttpSessionCsrfTokenRepository CSRF_SESION = new HttpSessionCsrfTokenRepository();
+
     @Autowired
     private ActividadService actividadService;
 
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private ValidadorActividad validadorActividad;
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    @Autowired
+    private ExportacionService exportacionService;
+
+    @Autowired
+    private VersionDatosService versionDatosService;
+
+    @Autowired
+    private TendenciaService tendenciaService;
+
+    @Autowired
+    private ResumenMensualService resumenMensualService;
+
+    @Autowired
+    private PresupuestoService presupuestoService;
+
+    @Autowired
+    private BusquedaService busquedaService;
+
+    @Autowired
+    private LibroService libroService;
+
+    // Filas por página en las listas de pendientes y completadas
+    @Value("${finanzas.dashboard.tamano-pagina:20}")
+    private int tamanoPagina;
+
     @GetMapping
-    public String dashboard(Model model, Authentication authentication) {
+    public String dashboard(Model model, @AuthenticationPrincipal UsuarioPrincipal principal,
+                            WebRequest webRequest, HttpServletRequest request, HttpServletResponse response) {
+        // GET condicional: si el ETag coincide se responde 304 sin consultar actividades ni renderizar.
+        // Con mensajes flash pendientes (vuelta de un POST) se renderiza siempre y sin ETag, para que
+        // el mensaje no quede en la caché del navegador. Tampoco hay ETag si la sesión aún no tiene
+        // token CSRF (primera vista tras el login): la página lo crea al renderizar y el ETag no coincidiría.
+        CsrfToken csrf = CSRF_SESION.loadToken(request);
+        if (principal != null && csrf != null && RequestContextUtils.getInputFlashMap(request) == null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            if (webRequest.checkNotModified(etagDashboard(principal.getId(), csrf))) {
+                return null;
+            }
+        }
+
         try {
-            String email = authentication != null ? authentication.getName() : null;
-            Usuario usuario = email != null ? usuarioService.encontrarPorEmail(email).orElse(null) : null;
+            Usuario usuario = usuarioActual(principal);
+            String email = principal != null ? principal.getEmail() : null;
 
             if (usuario == null) {
-                logger.warn("Usuario no encontrado para email: {}", email);
+                logger.warn("Dashboard sin usuario autenticado");
                 return "redirect:/login";
             }
 
             // 🔹 NUEVO: Verificar si el usuario tiene contraseña temporal
-            if (usuario.isPasswordTemporal()) {
+            if (principal.isPasswordTemporal()) {
                 model.addAttribute("warning", "Has ingresado con contraseña restablecida por el admin, por seguridad cámbiala.");
                 
                 // Opcional: Podemos quitar el flag después de mostrar el mensaje
@@ -57,26 +143,31 @@ public class DashboardController {
                 // usuarioService.guardarUsuario(usuario);
             }
 
-            List<Actividad> pendientes = actividadService.obtenerPorUsuarioYEstado(usuario, EstadoActividad.PENDIENTE);
-            List<Actividad> completadas = actividadService.obtenerPorUsuarioYEstado(usuario, EstadoActividad.COMPLETADO);
-
-            // Solo actividades COMPLETADAS afectan el balance
-            BigDecimal totalIngresos = actividadService.calcularTotalPorTipoYMesSeguro(usuario, TipoActividad.INGRESO);
-            BigDecimal totalGastos = actividadService.calcularTotalPorTipoYMesSeguro(usuario, TipoActividad.GASTO);
-            BigDecimal balance = totalIngresos.subtract(totalGastos);
-
-            model.addAttribute("actividadesPendientes", pendientes != null ? pendientes : Collections.emptyList());
-            model.addAttribute("actividadesCompletadas", completadas != null ? completadas : Collections.emptyList());
+            // Listas (primera página) + conteos + totales del mes: dos sentencias en total
+            DatosDashboard datos = actividadService.obtenerDatosDashboard(usuario, tamanoPagina);
+            // Los totales se calculan en centavos; BigDecimal solo para pintarlos
+            BigDecimal totalIngresos = Dinero.deCentavos(datos.totalIngresos()).getValor();
+            BigDecimal totalGastos = Dinero.deCentavos(datos.totalGastos()).getValor();
+            BigDecimal balance = Dinero.deCentavos(datos.balance()).getValor();
+
+            model.addAttribute("actividadesPendientes", datos.pendientes().actividades());
+            model.addAttribute("actividadesCompletadas", datos.completadas().actividades());
+            model.addAttribute("cursorPendientes", datos.pendientes().siguienteCursor());
+            model.addAttribute("cursorCompletadas", datos.completadas().siguienteCursor());
+            model.addAttribute("saldosCompletadas", datos.completadas().saldos());
+            model.addAttribute("totalPendientes", datos.totalPendientes());
+            model.addAttribute("totalCompletadas", datos.totalCompletadas());
             model.addAttribute("tipos", TipoActividad.values());
-            model.addAttribute("categorias", Categoria.values());
+            model.addAttribute("categoriasPorTipo", Categoria.porTipo());
+            model.addAttribute("nombresCategorias", Categoria.nombres());
             model.addAttribute("totalIngresos", totalIngresos);
             model.addAttribute("totalGastos", totalGastos);
             model.addAttribute("balance", balance);
 
             logger.debug("Dashboard cargado para usuario={}, pendientes={}, completadas={}, ingresos={}, gastos={}, balance={}",
                     email,
-                    pendientes != null ? pendientes.size() : 0,
-                    completadas != null ? completadas.size() : 0,
+                    datos.totalPendientes(),
+                    datos.totalCompletadas(),
                     totalIngresos, totalGastos, balance);
 
         } catch (Exception e) {
@@ -87,46 +178,77 @@ public class DashboardController {
         return "dashboard";
     }
 
+    // "Cargar más": devuelve solo las filas de la página siguiente como fragmento HTML
+    @GetMapping("/actividades")
+    public String cargarMasActividades(@RequestParam String estado,
+                                       @RequestParam(required = false) String cursor,
+                                       Model model,
+                                       @AuthenticationPrincipal UsuarioPrincipal principal) {
+        Usuario usuario = usuarioActual(principal);
+        if (usuario == null) {
+            logger.warn("Carga de actividades sin usuario autenticado");
+            return "redirect:/login";
+        }
+        String email = principal.getEmail();
+
+        // Estado desconocido o cursor mal formado: 400, no un 500
+        EstadoActividad estadoActividad;
+        PaginaActividades pagina;
+        try {
+            estadoActividad = EstadoActividad.valueOf(estado);
+            pagina = actividadService.obtenerPaginaPorUsuarioYEstado(usuario, estadoActividad, cursor, tamanoPagina);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Carga de actividades inválida usuario={} estado={} cursor={}: {}",
+                    email, estado, cursor, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        model.addAttribute("actividades", pagina.actividades());
+        model.addAttribute("estado", estadoActividad);
+        model.addAttribute("siguienteCursor", pagina.siguienteCursor());
+        model.addAttribute("saldos", pagina.saldos());
+
+        logger.debug("Página de actividades usuario={} estado={} cursor={} filas={} hayMas={}",
+                email, estadoActividad, cursor, pagina.actividades().size(), pagina.hayMas());
+
+        return "dashboard :: paginaActividades";
+    }
+
     @PostMapping("/actividad/nueva")
     public String crearActividad(@RequestParam String descripcion,
                                  @RequestParam String monto,
                                  @RequestParam String tipo,
                                  @RequestParam String categoria,
-                                 Authentication authentication,
+                                 @AuthenticationPrincipal UsuarioPrincipal principal,
                                  RedirectAttributes redirectAttributes) {
         logger.debug("POST crearActividad recibido: descripcion='{}' monto='{}' tipo='{}' categoria='{}'", descripcion, monto, tipo, categoria);
         try {
             // 🔹 VALIDACIÓN DE DESCRIPCIÓN (NUEVO)
-            String errorDescripcion = validarDescripcion(descripcion);
+            String errorDescripcion = validadorActividad.validarDescripcion(descripcion);
             if (errorDescripcion != null) {
                 redirectAttributes.addFlashAttribute("error", errorDescripcion);
                 return "redirect:/dashboard";
             }
 
-            String email = authentication != null ? authentication.getName() : null;
-            Usuario usuario = email != null ? usuarioService.encontrarPorEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado")) : null;
+            Usuario usuario = usuarioActual(principal);
 
             if (usuario == null) {
                 redirectAttributes.addFlashAttribute("error", "Usuario no autenticado");
                 return "redirect:/login";
             }
 
-            BigDecimal montoParseado = parseMontoColombiano(monto);
+            long centavos = validadorActividad.parseCentavos(monto);
             
             // Validar rango colombiano: mínimo 1.000, máximo 40.000.000
-            if (montoParseado.compareTo(new BigDecimal("1000")) < 0) {
-                redirectAttributes.addFlashAttribute("error", "El monto mínimo es $1.000");
-                return "redirect:/dashboard";
-            }
-            if (montoParseado.compareTo(new BigDecimal("40000000")) > 0) {
-                redirectAttributes.addFlashAttribute("error", "El monto máximo es $40.000.000");
+            String errorMonto = validadorActividad.validarRangoCentavos(centavos);
+            if (errorMonto != null) {
+                redirectAttributes.addFlashAttribute("error", errorMonto);
                 return "redirect:/dashboard";
             }
 
             Actividad a = new Actividad();
             a.setDescripcion(descripcion.trim());
-            a.setMonto(montoParseado);
+            a.setMonto(Dinero.deCentavos(centavos));
             a.setTipo(TipoActividad.valueOf(tipo));
             a.setCategoria(Categoria.valueOf(categoria));
             a.setEstado(EstadoActividad.PENDIENTE);
@@ -135,8 +257,12 @@ public class DashboardController {
 
             Actividad guardada = actividadService.guardarActividad(a);
             logger.info("Actividad creada id={} descripcion='{}' monto={} usuario={}", 
-                guardada.getId(), guardada.getDescripcion(), guardada.getMonto(), usuario.getEmail());
+                guardada.getId(), guardada.getDescripcion(), guardada.getMonto(), principal.getEmail());
             redirectAttributes.addFlashAttribute("success", "Actividad creada correctamente");
+            if (guardada.getTipo() == TipoActividad.GASTO) {
+                avisarPresupuesto(redirectAttributes, presupuestoService.avisoGastoPendiente(
+                        principal.getId(), guardada.getCategoria(), centavos));
+            }
         } catch (IllegalArgumentException e) {
             logger.error("Error en parámetros de actividad", e);
             redirectAttributes.addFlashAttribute("error", "Error en los datos: " + e.getMessage());
@@ -153,50 +279,40 @@ public class DashboardController {
                                   @RequestParam String monto,
                                   @RequestParam String tipo,
                                   @RequestParam String categoria,
-                                  Authentication authentication,
+                                  @AuthenticationPrincipal UsuarioPrincipal principal,
                                   RedirectAttributes redirectAttributes) {
         logger.debug("POST editarActividad id={} descripcion='{}' monto='{}' tipo='{}' categoria='{}'", id, descripcion, monto, tipo, categoria);
         try {
-            Optional<Actividad> optional = actividadService.encontrarPorId(id);
-            if (optional.isEmpty()) {
-                redirectAttributes.addFlashAttribute("error", "Actividad no encontrada");
-                return "redirect:/dashboard";
-            }
-            Actividad actividad = optional.get();
-
-            String email = authentication != null ? authentication.getName() : null;
-            Usuario usuario = email != null ? usuarioService.encontrarPorEmail(email).orElse(null) : null;
-            if (usuario == null || actividad.getUsuario() == null || !actividad.getUsuario().getId().equals(usuario.getId())) {
-                redirectAttributes.addFlashAttribute("error", "No tienes permiso para modificar esta actividad");
-                return "redirect:/dashboard";
+            if (principal == null) {
+                redirectAttributes.addFlashAttribute("error", "Usuario no autenticado");
+                return "redirect:/login";
             }
 
             // 🔹 VALIDACIÓN DE DESCRIPCIÓN (NUEVO)
-            String errorDescripcion = validarDescripcion(descripcion);
+            String errorDescripcion = validadorActividad.validarDescripcion(descripcion);
             if (errorDescripcion != null) {
                 redirectAttributes.addFlashAttribute("error", errorDescripcion);
                 return "redirect:/dashboard";
             }
 
-            BigDecimal montoParseado = parseMontoColombiano(monto);
+            long centavos = validadorActividad.parseCentavos(monto);
             
             // Validar rango colombiano
-            if (montoParseado.compareTo(new BigDecimal("1000")) < 0) {
-                redirectAttributes.addFlashAttribute("error", "El monto mínimo es $1.000");
+            String errorMonto = validadorActividad.validarRangoCentavos(centavos);
+            if (errorMonto != null) {
+                redirectAttributes.addFlashAttribute("error", errorMonto);
                 return "redirect:/dashboard";
             }
-            if (montoParseado.compareTo(new BigDecimal("40000000")) > 0) {
-                redirectAttributes.addFlashAttribute("error", "El monto máximo es $40.000.000");
+
+            // Un solo UPDATE filtrado por id y dueño
+            boolean actualizada = actividadService.editarActividad(id, principal.getId(), descripcion.trim(),
+                    centavos, TipoActividad.valueOf(tipo), Categoria.valueOf(categoria));
+            if (!actualizada) {
+                redirectAttributes.addFlashAttribute("error", "Actividad no encontrada o no tienes permiso para modificarla");
                 return "redirect:/dashboard";
             }
-
-            actividad.setDescripcion(descripcion != null ? descripcion.trim() : actividad.getDescripcion());
-            actividad.setMonto(montoParseado);
-            actividad.setTipo(TipoActividad.valueOf(tipo));
-            actividad.setCategoria(Categoria.valueOf(categoria));
-
-            actividadService.guardarActividad(actividad);
             redirectAttributes.addFlashAttribute("success", "Actividad actualizada correctamente");
+            avisarPresupuesto(redirectAttributes, presupuestoService.avisoActividad(id, principal.getId()));
         } catch (Exception e) {
             logger.error("Error actualizando actividad", e);
             redirectAttributes.addFlashAttribute("error", "Error al actualizar actividad: " + e.getMessage());
@@ -205,24 +321,19 @@ public class DashboardController {
     }
 
     @PostMapping("/actividad/eliminar/{id}")
-    public String eliminarActividad(@PathVariable Long id, Authentication authentication, RedirectAttributes redirectAttributes) {
+    public String eliminarActividad(@PathVariable Long id, @AuthenticationPrincipal UsuarioPrincipal principal, RedirectAttributes redirectAttributes) {
         logger.debug("POST eliminarActividad id={}", id);
         try {
-            Optional<Actividad> optional = actividadService.encontrarPorId(id);
-            if (optional.isEmpty()) {
-                redirectAttributes.addFlashAttribute("error", "Actividad no encontrada");
-                return "redirect:/dashboard";
+            if (principal == null) {
+                redirectAttributes.addFlashAttribute("error", "Usuario no autenticado");
+                return "redirect:/login";
             }
-            Actividad actividad = optional.get();
 
-            String email = authentication != null ? authentication.getName() : null;
-            Usuario usuario = email != null ? usuarioService.encontrarPorEmail(email).orElse(null) : null;
-            if (usuario == null || actividad.getUsuario() == null || !actividad.getUsuario().getId().equals(usuario.getId())) {
-                redirectAttributes.addFlashAttribute("error", "No tienes permiso para eliminar esta actividad");
+            // Un solo DELETE filtrado por id y dueño
+            if (!actividadService.eliminarActividad(id, principal.getId())) {
+                redirectAttributes.addFlashAttribute("error", "Actividad no encontrada o no tienes permiso para eliminarla");
                 return "redirect:/dashboard";
             }
-
-            actividadService.eliminarActividad(id);
             redirectAttributes.addFlashAttribute("success", "Actividad eliminada correctamente");
         } catch (Exception e) {
             logger.error("Error eliminando actividad", e);
@@ -234,29 +345,26 @@ public class DashboardController {
     @PostMapping("/actividad/cambiar-estado/{id}")
     public String cambiarEstado(@PathVariable Long id,
                                 @RequestParam String nuevoEstado,
-                                Authentication authentication,
+                                @AuthenticationPrincipal UsuarioPrincipal principal,
                                 RedirectAttributes redirectAttributes) {
         logger.debug("POST cambiarEstado id={} nuevoEstado={}", id, nuevoEstado);
         try {
-            Optional<Actividad> optional = actividadService.encontrarPorId(id);
-            if (optional.isEmpty()) {
-                redirectAttributes.addFlashAttribute("error", "Actividad no encontrada");
-                return "redirect:/dashboard";
+            if (principal == null) {
+                redirectAttributes.addFlashAttribute("error", "Usuario no autenticado");
+                return "redirect:/login";
             }
-            Actividad actividad = optional.get();
 
-            String email = authentication != null ? authentication.getName() : null;
-            Usuario usuario = email != null ? usuarioService.encontrarPorEmail(email).orElse(null) : null;
-            if (usuario == null || actividad.getUsuario() == null || !actividad.getUsuario().getId().equals(usuario.getId())) {
-                redirectAttributes.addFlashAttribute("error", "No tienes permiso para cambiar el estado de esta actividad");
+            // Un solo UPDATE filtrado por id y dueño
+            EstadoActividad estado = EstadoActividad.valueOf(nuevoEstado);
+            if (!actividadService.cambiarEstado(id, principal.getId(), estado)) {
+                redirectAttributes.addFlashAttribute("error", "Actividad no encontrada o no tienes permiso para cambiar su estado");
                 return "redirect:/dashboard";
             }
 
-            EstadoActividad estado = EstadoActividad.valueOf(nuevoEstado);
-            actividad.setEstado(estado);
-            actividadService.guardarActividad(actividad);
-
             redirectAttributes.addFlashAttribute("success", "Estado actualizado correctamente");
+            if (estado == EstadoActividad.COMPLETADO) {
+                avisarPresupuesto(redirectAttributes, presupuestoService.avisoActividad(id, principal.getId()));
+            }
         } catch (Exception e) {
             logger.error("Error cambiando estado", e);
             redirectAttributes.addFlashAttribute("error", "Error al cambiar estado: " + e.getMessage());
@@ -264,102 +372,182 @@ public class DashboardController {
         return "redirect:/dashboard";
     }
 
-    // 🔹 MÉTODO DE VALIDACIÓN DE DESCRIPCIÓN (NUEVO)
-    private String validarDescripcion(String descripcion) {
-        // Validar que no esté vacía
-        if (descripcion == null || descripcion.trim().isEmpty()) {
-            return "La descripción no puede estar vacía";
-        }
-
-        // Limpiar espacios
-        descripcion = descripcion.trim();
+    // Marcar como completadas varias pendientes seleccionadas en la tabla
+    @PostMapping("/actividades/completar")
+    public String completarActividades(@RequestParam(name = "ids", required = false) List<Long> ids,
+                                       @AuthenticationPrincipal UsuarioPrincipal principal,
+                                       RedirectAttributes redirectAttributes) {
+        logger.debug("POST completarActividades ids={}", ids);
+        try {
+            if (principal == null) {
+                redirectAttributes.addFlashAttribute("error", "Usuario no autenticado");
+                return "redirect:/login";
+            }
+            if (ids == null || ids.isEmpty()) {
+                redirectAttributes.addFlashAttribute("error", "Selecciona al menos una actividad pendiente");
+                return "redirect:/dashboard";
+            }
+            if (ids.size() > MAX_SELECCION) {
+                redirectAttributes.addFlashAttribute("error", "Puedes completar como máximo " + MAX_SELECCION + " actividades a la vez");
+                return "redirect:/dashboard";
+            }
 
-        // Validar longitud total (máximo 60 caracteres)
-        if (descripcion.length() > 60) {
-            return "La descripción no puede superar los 60 caracteres";
+            int completadas = actividadService.completarActividades(principal.getId(), ids);
+            redirectAttributes.addFlashAttribute("success", completadas + " actividad(es) marcadas como completadas");
+        } catch (Exception e) {
+            logger.error("Error completando actividades", e);
+            redirectAttributes.addFlashAttribute("error", "Error al completar actividades: " + e.getMessage());
         }
+        return "redirect:/dashboard";
+    }
 
-        // Validar que solo contenga letras, números y espacios (sin símbolos como $ % & / ( ) " etc.)
-        if (!descripcion.matches("^[a-zA-Z0-9áéíóúÁÉÍÓÚñÑ\\s]+$")) {
-            return "La descripción solo puede contener letras, números y espacios";
+    @PostMapping("/importar")
+    public String importarActividades(@RequestParam("archivo") MultipartFile archivo,
+                                      @AuthenticationPrincipal UsuarioPrincipal principal,
+                                      RedirectAttributes redirectAttributes) {
+        logger.debug("POST importarActividades archivo='{}' tamaño={}", archivo.getOriginalFilename(), archivo.getSize());
+        if (principal == null) {
+            redirectAttributes.addFlashAttribute("error", "Usuario no autenticado");
+            return "redirect:/login";
+        }
+        if (archivo.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Selecciona un archivo CSV");
+            return "redirect:/dashboard";
+        }
+        // El archivo se procesa en flujo desde el multipart, sin cargarlo entero en memoria
+        try (InputStream entrada = archivo.getInputStream()) {
+            ResultadoImportacion resultado = importacionService.importarCsv(principal.getId(), entrada);
+            redirectAttributes.addFlashAttribute("success", resultado.getImportadas() + " actividad(es) importadas, "
+                    + resultado.getRechazadas() + " fila(s) rechazadas");
+            if (resultado.getRechazadas() > 0) {
+                redirectAttributes.addFlashAttribute("erroresImportacion", resultado.getErrores());
+                redirectAttributes.addFlashAttribute("erroresTruncados", resultado.isErroresTruncados());
+            }
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", "Archivo inválido: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error importando actividades", e);
+            redirectAttributes.addFlashAttribute("error", "Error al importar actividades: " + e.getMessage());
         }
+        return "redirect:/dashboard";
+    }
 
-        // Validar que no sea solo números
-        if (descripcion.matches("^\\d+$")) {
-            return "La descripción no puede ser solo un número";
+    // Descarga del historial completo en CSV o JSON Lines, opcionalmente comprimido con gzip.
+    // El cuerpo se escribe desde un hilo asíncrono a medida que llegan las filas de la base de datos.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarActividades(@RequestParam(defaultValue = "csv") String formato,
+                                                                     @RequestParam(defaultValue = "false") boolean gzip,
+                                                                     @AuthenticationPrincipal UsuarioPrincipal principal) {
+        ExportacionService.Formato formatoExportacion;
+        try {
+            formatoExportacion = ExportacionService.Formato.valueOf(formato.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+        Long usuarioId = principal.getId();
+        logger.debug("GET exportarActividades usuario={} formato={} gzip={}", usuarioId, formatoExportacion, gzip);
+
+        String nombreArchivo = "actividades-" + LocalDate.now() + "." + formatoExportacion.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody cuerpo = salida -> {
+            if (gzip) {
+                GZIPOutputStream comprimida = new GZIPOutputStream(salida, 64 * 1024);
+                exportacionService.exportar(usuarioId, formatoExportacion, comprimida);
+                comprimida.finish();
+            } else {
+                exportacionService.exportar(usuarioId, formatoExportacion, salida);
+            }
+        };
 
-        // Validar que no contenga números excesivamente largos (más de 10 dígitos seguidos)
-        if (descripcion.matches(".*\\d{11,}.*")) {
-            return "Los números en la descripción no pueden tener más de 10 dígitos seguidos";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : formatoExportacion.getContentType() + ";charset=UTF-8")
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(nombreArchivo).build().toString())
+                .body(cuerpo);
+    }
+
+    // Ingresos y gastos completados por mes (JSON para la gráfica de tendencias del dashboard)
+    @GetMapping("/tendencias")
+    public ResponseEntity<List<PuntoTendencia>> tendencias(@RequestParam(defaultValue = "12") int meses,
+                                                           @AuthenticationPrincipal UsuarioPrincipal principal) {
+        if (meses < 1 || meses > TendenciaService.MAX_MESES) {
+            return ResponseEntity.badRequest().build();
         }
+        return ResponseEntity.ok(tendenciaService.obtener(principal.getId(), meses));
+    }
 
-        // Dividir la descripción en palabras
-        String[] palabras = descripcion.split("\\s+");
+    // Reparto por categoría de los gastos (o ingresos) completados entre dos meses; por defecto el mes actual
+    @GetMapping("/categorias")
+    public ResponseEntity<DesgloseCategorias> desgloseCategorias(
+            @RequestParam(defaultValue = "GASTO") TipoActividad tipo,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth hasta,
+            @AuthenticationPrincipal UsuarioPrincipal principal) {
+        YearMonth fin = hasta != null ? hasta : YearMonth.now();
+        YearMonth inicio = desde != null ? desde : fin;
+        if (inicio.isAfter(fin)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(resumenMensualService.obtenerDesglose(principal.getId(), tipo, inicio, fin));
+    }
 
-        // Validar número máximo de palabras (máximo 5)
-        if (palabras.length > 5) {
-            return "La descripción no puede tener más de 5 palabras";
+    // Actividades cuya descripción contiene las palabras escritas (JSON para la búsqueda del dashboard)
+    @GetMapping("/buscar")
+    public ResponseEntity<ResultadoBusqueda> buscar(@RequestParam(defaultValue = "") String q,
+                                                    @RequestParam(defaultValue = "20") int limite,
+                                                    @AuthenticationPrincipal UsuarioPrincipal principal) {
+        if (q.length() > BusquedaService.MAX_CONSULTA || limite < 1 || limite > BusquedaService.MAX_RESULTADOS) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (q.isBlank()) {
+            return ResponseEntity.ok(new ResultadoBusqueda(q, 0, List.of()));
         }
+        return ResponseEntity.ok(busquedaService.buscar(principal.getId(), q, limite));
+    }
 
-        // Validar palabras repetidas, longitud y letras repetidas
-        Set<String> palabrasUsadas = new HashSet<>();
-        for (String palabra : palabras) {
-            // Validar longitud de palabra (máximo 15 caracteres)
-            if (palabra.length() > 15) {
-                return "Cada palabra debe tener como máximo 15 caracteres";
-            }
+    // Saldo (ingresos menos gastos completados) actual o tal como estaba en un instante pasado
+    @GetMapping("/saldo")
+    public ResponseEntity<SaldoLibro> saldo(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime al,
+            @AuthenticationPrincipal UsuarioPrincipal principal) {
+        return ResponseEntity.ok(libroService.obtenerSaldo(principal.getId(), al));
+    }
 
-            // Validar que no haya palabras repetidas
-            String palabraLower = palabra.toLowerCase();
-            if (!palabrasUsadas.add(palabraLower)) {
-                return "No se pueden repetir palabras en la descripción";
-            }
+    // Saldo al final de un día según la fecha de las actividades (GET /dashboard/saldo?al= responde según
+    // cuándo se registraron los cambios)
+    @GetMapping("/saldo-al-dia")
+    public ResponseEntity<SaldoAlDia> saldoAlDia(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            @AuthenticationPrincipal UsuarioPrincipal principal) {
+        return ResponseEntity.ok(resumenMensualService.obtenerSaldoAlDia(principal.getId(), fecha));
+    }
 
-            // Validar que no se repita la misma letra más de 2 veces seguidas (por ejemplo "aaa")
-            if (palabra.matches(".*([a-zA-ZáéíóúÁÉÍÓÚñÑ])\\1{2,}.*")) {
-                return "No se puede repetir la misma letra más de 2 veces seguidas";
-            }
+    // Eventos del libro posteriores a "despues" (el número del último evento ya recibido)
+    @GetMapping("/libro")
+    public ResponseEntity<List<EventoLibro>> libro(@RequestParam(defaultValue = "0") long despues,
+                                                   @RequestParam(defaultValue = "100") int limite,
+                                                   @AuthenticationPrincipal UsuarioPrincipal principal) {
+        if (despues < 0 || limite < 1 || limite > LibroService.MAX_EVENTOS) {
+            return ResponseEntity.badRequest().build();
         }
+        return ResponseEntity.ok(libroService.obtenerEventos(principal.getId(), despues, limite));
+    }
 
-        // ✅ Si pasa todas las validaciones, retorna null (sin error)
-        return null;
+    // El dashboard solo cambia si cambian los datos del usuario (versión), el mes de los totales o el
+    // token CSRF de la sesión que llevan los formularios (nuevo login). Débil: el HTML no es idéntico byte a byte.
+    private String etagDashboard(Long usuarioId, CsrfToken csrf) {
+        return "W/\"" + usuarioId + "-" + versionDatosService.obtener(usuarioId) + "-" + YearMonth.now()
+                + "-" + Integer.toHexString(csrf.getToken().hashCode()) + "\"";
     }
 
-    // Método especializado para formato colombiano
-    private BigDecimal parseMontoColombiano(String montoStr) {
-        if (montoStr == null || montoStr.trim().isEmpty()) {
-            throw new IllegalArgumentException("El monto no puede estar vacío");
-        }
-        
-        String limpio = montoStr.trim()
-                .replace(" ", "")
-                .replace("$", "")
-                .replace("€", "")
-                .replace("COP", "")
-                .replace("cop", "");
-        
-        // Formato colombiano: 1.000,00 o 1.000
-        // Eliminar puntos de separación de miles y convertir coma decimal a punto
-        if (limpio.contains(",")) {
-            // Formato: 1.000,50 -> quitar puntos, mantener coma
-            String[] partes = limpio.split(",");
-            String parteEntera = partes[0].replace(".", "");
-            String parteDecimal = partes.length > 1 ? partes[1] : "00";
-            limpio = parteEntera + "." + parteDecimal;
-        } else {
-            // Formato: 1000 o 1.000 (sin decimales)
-            limpio = limpio.replace(".", "");
-        }
-        
-        try {
-            BigDecimal resultado = new BigDecimal(limpio);
-            if (resultado.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("El monto debe ser mayor a 0");
-            }
-            return resultado;
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Formato de monto inválido. Use formato colombiano: 1.000 o 1.000,00");
+    // Mensaje de presupuesto superado (aparte de "warning", que en el dashboard es el de la contraseña)
+    private void avisarPresupuesto(RedirectAttributes redirectAttributes, String aviso) {
+        if (aviso != null) {
+            redirectAttributes.addFlashAttribute("avisoPresupuesto", aviso);
         }
     }
+
+    // Usuario autenticado como referencia JPA: el id sale de la sesión y no se hace SELECT
+    private Usuario usuarioActual(UsuarioPrincipal principal) {
+        return principal != null ? usuarioService.obtenerReferencia(principal.getId()) : null;
+    }
 }
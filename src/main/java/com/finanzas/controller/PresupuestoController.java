@@ -0,0 +1,67 @@
+package com.finanzas.controller;
+
+import com.finanzas.dto.PresupuestoCategoria;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.service.PresupuestoService;
+import com.finanzas.service.UsuarioPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Controller
+@RequestMapping("/dashboard/presupuestos")
+public class PresupuestoController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresupuestoController.class);
+
+    @Autowired
+    private PresupuestoService presupuestoService;
+
+    // Presupuesto, gastado y restante del mes actual por categoría de gasto
+    @GetMapping
+    public String presupuestos(Model model, @AuthenticationPrincipal UsuarioPrincipal principal) {
+        YearMonth mes = YearMonth.now();
+        List<PresupuestoCategoria> presupuestos = presupuestoService.obtenerEstado(principal.getId(), mes);
+        model.addAttribute("presupuestos", presupuestos);
+        model.addAttribute("mes", mes);
+        return "presupuestos";
+    }
+
+    // Un campo por categoría de gasto, con el nombre del enum; vacío quita el presupuesto
+    @PostMapping
+    public String guardarPresupuestos(@RequestParam Map<String, String> parametros,
+                                      @AuthenticationPrincipal UsuarioPrincipal principal,
+                                      RedirectAttributes redirectAttributes) {
+        logger.debug("POST guardarPresupuestos usuario={} parametros={}", principal.getId(), parametros.keySet());
+        Map<Categoria, String> montos = new EnumMap<>(Categoria.class);
+        for (Categoria categoria : Categoria.getCategoriasPorTipo(TipoActividad.GASTO)) {
+            if (parametros.containsKey(categoria.name())) {
+                montos.put(categoria, parametros.get(categoria.name()));
+            }
+        }
+        try {
+            presupuestoService.guardar(principal.getId(), montos);
+            redirectAttributes.addFlashAttribute("success", "Presupuestos guardados correctamente");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", "Error en los datos: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error guardando presupuestos", e);
+            redirectAttributes.addFlashAttribute("error", "Error al guardar presupuestos: " + e.getMessage());
+        }
+        return "redirect:/dashboard/presupuestos";
+    }
+}
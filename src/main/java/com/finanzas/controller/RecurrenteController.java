@@ -0,0 +1,87 @@
+package com.finanzas.controller;
+
+import com.finanzas.entity.ActividadRecurrente;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Frecuencia;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.service.ActividadRecurrenteService;
+import com.finanzas.service.UsuarioPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.util.List;
+
+@Controller
+@RequestMapping("/dashboard/recurrentes")
+public class RecurrenteController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurrenteController.class);
+
+    @Autowired
+    private ActividadRecurrenteService actividadRecurrenteService;
+
+    @GetMapping
+    public String recurrentes(Model model, @AuthenticationPrincipal UsuarioPrincipal principal) {
+        List<ActividadRecurrente> recurrentes = actividadRecurrenteService.obtenerPorUsuario(principal.getId());
+        model.addAttribute("recurrentes", recurrentes);
+        model.addAttribute("tipos", TipoActividad.values());
+        model.addAttribute("categoriasPorTipo", Categoria.porTipo());
+        model.addAttribute("frecuencias", Frecuencia.values());
+        return "recurrentes";
+    }
+
+    @PostMapping
+    public String crearRecurrente(@RequestParam String descripcion,
+                                  @RequestParam String monto,
+                                  @RequestParam String tipo,
+                                  @RequestParam String categoria,
+                                  @RequestParam String frecuencia,
+                                  @RequestParam int dia,
+                                  @AuthenticationPrincipal UsuarioPrincipal principal,
+                                  RedirectAttributes redirectAttributes) {
+        logger.debug("POST crearRecurrente descripcion='{}' monto='{}' tipo='{}' categoria='{}' frecuencia='{}' dia={}",
+                descripcion, monto, tipo, categoria, frecuencia, dia);
+        try {
+            ActividadRecurrente creada = actividadRecurrenteService.crear(principal.getId(), descripcion, monto,
+                    TipoActividad.valueOf(tipo), Categoria.valueOf(categoria), Frecuencia.valueOf(frecuencia), dia);
+            logger.info("Actividad recurrente creada id={} usuario={} proxima={}",
+                    creada.getId(), principal.getEmail(), creada.getProxima());
+            redirectAttributes.addFlashAttribute("success", "Actividad recurrente creada; la primera se generará el "
+                    + creada.getProxima());
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", "Error en los datos: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error creando actividad recurrente", e);
+            redirectAttributes.addFlashAttribute("error", "Error al crear actividad recurrente: " + e.getMessage());
+        }
+        return "redirect:/dashboard/recurrentes";
+    }
+
+    @PostMapping("/eliminar/{id}")
+    public String eliminarRecurrente(@PathVariable Long id,
+                                     @AuthenticationPrincipal UsuarioPrincipal principal,
+                                     RedirectAttributes redirectAttributes) {
+        logger.debug("POST eliminarRecurrente id={}", id);
+        try {
+            if (!actividadRecurrenteService.eliminar(id, principal.getId())) {
+                redirectAttributes.addFlashAttribute("error", "Actividad recurrente no encontrada o no tienes permiso para eliminarla");
+                return "redirect:/dashboard/recurrentes";
+            }
+            redirectAttributes.addFlashAttribute("success", "Actividad recurrente eliminada; las ya generadas se conservan");
+        } catch (Exception e) {
+            logger.error("Error eliminando actividad recurrente", e);
+            redirectAttributes.addFlashAttribute("error", "Error al eliminar actividad recurrente: " + e.getMessage());
+        }
+        return "redirect:/dashboard/recurrentes";
+    }
+}
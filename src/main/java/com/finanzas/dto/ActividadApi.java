@@ -0,0 +1,20 @@
+package com.finanzas.dto;
+
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.EstadoActividad;
+import com.finanzas.entity.TipoActividad;
+
+import java.time.LocalDateTime;
+
+// Una actividad tal como la entrega /api/v1: solo sus columnas, sin usuario, y el monto en centavos.
+// Las listas la leen con una expresión constructora (ActividadRepository.findPaginaApi), sin entidades.
+public record ActividadApi(Long id, String descripcion, TipoActividad tipo, Categoria categoria,
+                           long montoCentavos, EstadoActividad estado, LocalDateTime fecha) {
+
+    public static ActividadApi de(Actividad actividad) {
+        return new ActividadApi(actividad.getId(), actividad.getDescripcion(), actividad.getTipo(),
+                actividad.getCategoria(), actividad.getMonto().centavos(), actividad.getEstado(),
+                actividad.getCreatedAt());
+    }
+}
@@ -0,0 +1,10 @@
+package com.finanzas.dto;
+
+// Resultado de las mutaciones en una sola sentencia: cuántas actividades del usuario coincidieron
+// y si alguna es de un mes anterior al actual (cambia un mes ya cerrado del resumen)
+public interface CambioActividades {
+
+    long getAfectadas();
+
+    boolean isMesCerrado();
+}
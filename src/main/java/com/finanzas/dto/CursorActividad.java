@@ -0,0 +1,39 @@
+package com.finanzas.dto;
+
+import com.finanzas.entity.Actividad;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Posición de paginación por keyset: (created_at, id) de la última fila entregada.
+// Se serializa como "2025-10-01T12:30:00.123456_42" para viajar en la URL de "cargar más".
+public record CursorActividad(LocalDateTime createdAt, Long id) {
+
+    private static final char SEPARADOR = '_';
+
+    public static CursorActividad desde(Actividad actividad) {
+        return new CursorActividad(actividad.getCreatedAt(), actividad.getId());
+    }
+
+    // Devuelve null si el cursor viene vacío (primera página)
+    public static CursorActividad decodificar(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        int pos = valor.lastIndexOf(SEPARADOR);
+        if (pos <= 0 || pos == valor.length() - 1) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+        try {
+            return new CursorActividad(
+                    LocalDateTime.parse(valor.substring(0, pos)),
+                    Long.parseLong(valor.substring(pos + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    public String codificar() {
+        return createdAt.toString() + SEPARADOR + id;
+    }
+}
@@ -0,0 +1,8 @@
+package com.finanzas.dto;
+
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.TipoActividad;
+
+// Cuerpo de alta y edición en /api/v1/actividades (monto en centavos, como en las respuestas)
+public record DatosActividadApi(String descripcion, Long montoCentavos, TipoActividad tipo, Categoria categoria) {
+}
@@ -0,0 +1,16 @@
+package com.finanzas.dto;
+
+// Todo lo que pinta /dashboard, leído en dos sentencias (primeras páginas + resumen).
+// Totales y balance en centavos.
+public record DatosDashboard(PaginaActividades pendientes,
+                             PaginaActividades completadas,
+                             long totalPendientes,
+                             long totalCompletadas,
+                             long totalIngresos,
+                             long totalGastos) {
+
+    // Solo actividades COMPLETADAS afectan el balance
+    public long balance() {
+        return totalIngresos - totalGastos;
+    }
+}
@@ -0,0 +1,9 @@
+package com.finanzas.dto;
+
+// Proyección mínima para el índice de búsqueda
+public interface DescripcionActividad {
+
+    Long getId();
+
+    String getDescripcion();
+}
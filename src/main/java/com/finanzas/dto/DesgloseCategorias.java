@@ -0,0 +1,17 @@
+package com.finanzas.dto;
+
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.TipoActividad;
+
+import java.time.YearMonth;
+import java.util.List;
+
+// Total de un tipo (ingresos o gastos completados) en los meses [desde, hasta], repartido por categoría.
+// Trae todas las categorías del tipo, también las que están en cero, en el orden del enum.
+public record DesgloseCategorias(TipoActividad tipo, YearMonth desde, YearMonth hasta,
+                                 long totalCentavos, List<PorcionCategoria> categorias) {
+
+    // Porcentaje sobre el total del periodo, con dos decimales
+    public record PorcionCategoria(Categoria categoria, String nombre, long totalCentavos, double porcentaje) {
+    }
+}
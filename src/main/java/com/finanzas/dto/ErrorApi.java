@@ -0,0 +1,5 @@
+package com.finanzas.dto;
+
+// Cuerpo de las respuestas 4xx de /api/v1: el mismo mensaje que el dashboard muestra como flash
+public record ErrorApi(String error) {
+}
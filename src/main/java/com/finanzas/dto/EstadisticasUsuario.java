@@ -0,0 +1,16 @@
+package com.finanzas.dto;
+
+import java.time.LocalDateTime;
+
+// Proyección de la consulta agrupada de actividad por usuario del panel de administración
+public interface EstadisticasUsuario {
+
+    Long getUsuarioId();
+
+    Long getCantidadActividades();
+
+    LocalDateTime getUltimaActividad();
+
+    // En centavos
+    long getBalanceMes();
+}
@@ -0,0 +1,12 @@
+package com.finanzas.dto;
+
+// Proyección de un presupuesto junto a lo gastado en el mes (centavos). "presupuesto" es null
+// en las categorías con gasto pero sin presupuesto.
+public interface EstadoPresupuesto {
+
+    String getCategoria();
+
+    Long getPresupuesto();
+
+    long getGastado();
+}
@@ -0,0 +1,6 @@
+package com.finanzas.dto;
+
+// Resultado de procesar un lote de plantillas recurrentes: el último id visto (cursor del
+// siguiente lote), cuántas plantillas había en el lote y cuántas actividades se crearon
+public record LoteRecurrentes(long ultimoId, int plantillas, int actividades) {
+}
@@ -0,0 +1,20 @@
+package com.finanzas.dto;
+
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Dinero;
+
+import java.util.List;
+import java.util.Map;
+
+// Una página de actividades y el cursor para pedir la siguiente (null si no hay más).
+// En páginas de completadas, "saldos" trae por id el saldo acumulado hasta esa actividad incluida.
+public record PaginaActividades(List<Actividad> actividades, String siguienteCursor, Map<Long, Dinero> saldos) {
+
+    public PaginaActividades(List<Actividad> actividades, String siguienteCursor) {
+        this(actividades, siguienteCursor, Map.of());
+    }
+
+    public boolean hayMas() {
+        return siguienteCursor != null;
+    }
+}
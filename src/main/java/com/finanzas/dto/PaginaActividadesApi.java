@@ -0,0 +1,10 @@
+package com.finanzas.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Página de /api/v1/actividades; sin "siguienteCursor" en la última
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PaginaActividadesApi(List<ActividadApi> actividades, String siguienteCursor) {
+}
@@ -0,0 +1,29 @@
+package com.finanzas.dto;
+
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
+
+// Una fila de la página de presupuestos: presupuesto (null si no hay) y lo gastado en el mes
+public record PresupuestoCategoria(Categoria categoria, String nombre, Dinero presupuesto, Dinero gastado) {
+
+    public boolean tienePresupuesto() {
+        return presupuesto != null;
+    }
+
+    // Negativo si el gasto pasa del presupuesto
+    public Dinero restante() {
+        return presupuesto != null ? presupuesto.menos(gastado) : null;
+    }
+
+    public boolean excedido() {
+        return presupuesto != null && gastado.compareTo(presupuesto) > 0;
+    }
+
+    // Porcentaje usado, acotado a 100 para la barra de progreso
+    public int porcentajeUsado() {
+        if (presupuesto == null) {
+            return 0;
+        }
+        return (int) Math.min(100, gastado.centavos() * 100 / presupuesto.centavos());
+    }
+}
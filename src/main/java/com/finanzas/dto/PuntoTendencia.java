@@ -0,0 +1,7 @@
+package com.finanzas.dto;
+
+import java.time.YearMonth;
+
+// Ingresos y gastos completados de un mes, en centavos (un punto de la gráfica de tendencias)
+public record PuntoTendencia(YearMonth mes, long ingresosCentavos, long gastosCentavos) {
+}
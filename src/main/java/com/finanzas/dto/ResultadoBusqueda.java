@@ -0,0 +1,23 @@
+package com.finanzas.dto;
+
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.EstadoActividad;
+import com.finanzas.entity.TipoActividad;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Respuesta de la búsqueda por descripción: las primeras coincidencias (más recientes primero)
+// y cuántas hay en total
+public record ResultadoBusqueda(String consulta, int total, List<Coincidencia> actividades) {
+
+    public record Coincidencia(Long id, String descripcion, long montoCentavos, TipoActividad tipo,
+                               Categoria categoria, EstadoActividad estado, LocalDateTime fecha) {
+
+        public static Coincidencia de(Actividad actividad) {
+            return new Coincidencia(actividad.getId(), actividad.getDescripcion(), actividad.getMonto().centavos(),
+                    actividad.getTipo(), actividad.getCategoria(), actividad.getEstado(), actividad.getCreatedAt());
+        }
+    }
+}
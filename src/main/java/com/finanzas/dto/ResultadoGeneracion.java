@@ -0,0 +1,13 @@
+package com.finanzas.dto;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+// Resumen de una pasada del generador de actividades recurrentes
+public record ResultadoGeneracion(LocalDate hasta, int lotes, long plantillas, long actividades, Duration duracion) {
+
+    public double actividadesPorSegundo() {
+        long nanos = duracion.toNanos();
+        return nanos == 0 ? 0 : actividades * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,50 @@
+package com.finanzas.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Resumen de una importación CSV: cuántas filas entraron, cuántas se rechazaron y por qué.
+// Los errores se guardan hasta un máximo para no acumular memoria con archivos muy malos.
+public class ResultadoImportacion {
+
+    public record ErrorFila(int linea, String mensaje) {
+    }
+
+    private final int maxErrores;
+    private final List<ErrorFila> errores = new ArrayList<>();
+    private int importadas;
+    private int rechazadas;
+
+    public ResultadoImportacion(int maxErrores) {
+        this.maxErrores = maxErrores;
+    }
+
+    public void sumarImportadas(int cantidad) {
+        importadas += cantidad;
+    }
+
+    public void rechazar(int linea, String mensaje) {
+        rechazadas++;
+        if (errores.size() < maxErrores) {
+            errores.add(new ErrorFila(linea, mensaje));
+        }
+    }
+
+    public int getImportadas() {
+        return importadas;
+    }
+
+    public int getRechazadas() {
+        return rechazadas;
+    }
+
+    public List<ErrorFila> getErrores() {
+        return Collections.unmodifiableList(errores);
+    }
+
+    // true si hubo más errores de los que se muestran
+    public boolean isErroresTruncados() {
+        return rechazadas > errores.size();
+    }
+}
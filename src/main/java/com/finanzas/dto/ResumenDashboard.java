@@ -0,0 +1,16 @@
+package com.finanzas.dto;
+
+// Proyección de la consulta de resumen del dashboard (conteos por estado, totales del mes y saldo
+// de todas las completadas, en centavos)
+public interface ResumenDashboard {
+
+    Long getTotalPendientes();
+
+    Long getTotalCompletadas();
+
+    long getTotalIngresos();
+
+    long getTotalGastos();
+
+    long getSaldoCompletadas();
+}
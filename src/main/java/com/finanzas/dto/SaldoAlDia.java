@@ -0,0 +1,7 @@
+package com.finanzas.dto;
+
+import java.time.LocalDate;
+
+// Saldo (ingresos menos gastos completados, en centavos) de las actividades fechadas hasta el final de "fecha"
+public record SaldoAlDia(LocalDate fecha, long saldoCentavos) {
+}
@@ -0,0 +1,7 @@
+package com.finanzas.dto;
+
+import java.time.LocalDateTime;
+
+// Saldo (ingresos menos gastos completados, en centavos) a un instante; instante null = ahora
+public record SaldoLibro(LocalDateTime instante, long saldoCentavos) {
+}
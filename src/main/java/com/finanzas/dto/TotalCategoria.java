@@ -0,0 +1,9 @@
+package com.finanzas.dto;
+
+// Proyección de resumen_mensual agrupado por categoría (total en centavos)
+public interface TotalCategoria {
+
+    String getCategoria();
+
+    long getTotal();
+}
@@ -0,0 +1,13 @@
+package com.finanzas.dto;
+
+// Proyección de resumen_mensual agrupado por mes y tipo (total en centavos)
+public interface TotalMensual {
+
+    int getAnio();
+
+    int getMes();
+
+    String getTipo();
+
+    long getTotal();
+}
@@ -0,0 +1,27 @@
+package com.finanzas.dto;
+
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.RolUsuario;
+
+import java.time.LocalDateTime;
+
+// Fila del listado de administración: datos del usuario más sus estadísticas de actividad
+public record UsuarioAdmin(Long id,
+                           String nombre,
+                           String email,
+                           RolUsuario rol,
+                           LocalDateTime fechaRegistro,
+                           long cantidadActividades,
+                           LocalDateTime ultimaActividad,
+                           Dinero balanceMes) {
+
+    public static UsuarioAdmin de(UsuarioListado usuario, EstadisticasUsuario estadisticas) {
+        if (estadisticas == null) {
+            return new UsuarioAdmin(usuario.getId(), usuario.getNombre(), usuario.getEmail(), usuario.getRol(),
+                    usuario.getFechaRegistro(), 0, null, Dinero.CERO);
+        }
+        return new UsuarioAdmin(usuario.getId(), usuario.getNombre(), usuario.getEmail(), usuario.getRol(),
+                usuario.getFechaRegistro(), estadisticas.getCantidadActividades(),
+                estadisticas.getUltimaActividad(), Dinero.deCentavos(estadisticas.getBalanceMes()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.finanzas.dto;
+
+import com.finanzas.entity.RolUsuario;
+
+import java.time.LocalDateTime;
+
+// Proyección de usuarios para el listado de administración (sin password ni relaciones)
+public interface UsuarioListado {
+
+    Long getId();
+
+    String getNombre();
+
+    String getEmail();
+
+    RolUsuario getRol();
+
+    LocalDateTime getFechaRegistro();
+}
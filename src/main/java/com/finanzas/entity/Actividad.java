@@ -1,28 +1,31 @@
 package com.finanzas.entity;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "actividades")
 public class Actividad {
     
+    // Secuencia con incremento 50 (optimizador pooled): Hibernate reserva ids por bloques
+    // y puede agrupar los INSERT en lotes JDBC, cosa que IDENTITY impide
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "actividades_seq")
+    @SequenceGenerator(name = "actividades_seq", sequenceName = "actividades_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "La descripción es obligatoria")
     @Column(nullable = false)
     private String descripcion;
 
+    // Centavos en BIGINT (ver Dinero)
     @NotNull(message = "El monto es obligatorio")
-    @Positive(message = "El monto debe ser mayor a 0")
-    @Column(nullable = false)
-    private BigDecimal monto;
+    @Embedded
+    @AttributeOverride(name = "centavos", column = @Column(name = "monto_centavos", nullable = false))
+    private Dinero monto;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -45,6 +48,15 @@ public class Actividad {
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
 
+    // Aporte a resumen_mensual tal como está en la BD (se captura al cargar y tras cada guardado)
+    @Transient
+    private ContribucionResumen contribucionPersistida;
+
+    @PostLoad
+    void capturarContribucionPersistida() {
+        this.contribucionPersistida = ContribucionResumen.de(this);
+    }
+
     // Constructores
     public Actividad() {
         this.createdAt = LocalDateTime.now();
@@ -57,8 +69,11 @@ public class Actividad {
     public String getDescripcion() { return descripcion; }
     public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
 
-    public BigDecimal getMonto() { return monto; }
-    public void setMonto(BigDecimal monto) { this.monto = monto; }
+    public Dinero getMonto() { return monto; }
+    public void setMonto(Dinero monto) { this.monto = monto; }
+
+    @AssertTrue(message = "El monto debe ser mayor a 0")
+    public boolean isMontoPositivo() { return monto == null || monto.signo() > 0; }
 
     public TipoActividad getTipo() { return tipo; }
     public void setTipo(TipoActividad tipo) { this.tipo = tipo; }
@@ -74,4 +89,7 @@ public class Actividad {
 
     public Usuario getUsuario() { return usuario; }
     public void setUsuario(Usuario usuario) { this.usuario = usuario; }
+
+    public ContribucionResumen getContribucionPersistida() { return contribucionPersistida; }
+    public void setContribucionPersistida(ContribucionResumen contribucionPersistida) { this.contribucionPersistida = contribucionPersistida; }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.finanzas.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+// Plantilla de una actividad que se repite. GeneracionRecurrentesService crea una actividad
+// pendiente por cada fecha vencida y adelanta "proxima".
+@Entity
+@Table(name = "actividades_recurrentes")
+public class ActividadRecurrente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String descripcion;
+
+    @Embedded
+    @AttributeOverride(name = "centavos", column = @Column(name = "monto_centavos", nullable = false))
+    private Dinero monto;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoActividad tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Categoria categoria;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Frecuencia frecuencia;
+
+    @Column(nullable = false)
+    private int dia;
+
+    // Siguiente fecha pendiente de generar
+    @Column(nullable = false)
+    private LocalDate proxima;
+
+    @Column(nullable = false)
+    private boolean activa = true;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getDescripcion() { return descripcion; }
+    public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
+
+    public Dinero getMonto() { return monto; }
+    public void setMonto(Dinero monto) { this.monto = monto; }
+
+    public TipoActividad getTipo() { return tipo; }
+    public void setTipo(TipoActividad tipo) { this.tipo = tipo; }
+
+    public Categoria getCategoria() { return categoria; }
+    public void setCategoria(Categoria categoria) { this.categoria = categoria; }
+
+    public Frecuencia getFrecuencia() { return frecuencia; }
+    public void setFrecuencia(Frecuencia frecuencia) { this.frecuencia = frecuencia; }
+
+    public int getDia() { return dia; }
+    public void setDia(int dia) { this.dia = dia; }
+
+    public LocalDate getProxima() { return proxima; }
+    public void setProxima(LocalDate proxima) { this.proxima = proxima; }
+
+    public boolean isActiva() { return activa; }
+    public void setActiva(boolean activa) { this.activa = activa; }
+
+    public Usuario getUsuario() { return usuario; }
+    public void setUsuario(Usuario usuario) { this.usuario = usuario; }
+}
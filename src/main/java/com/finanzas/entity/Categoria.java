@@ -1,45 +1,87 @@
 package com.finanzas.entity;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public enum Categoria {
     // Gastos
     ALIMENTACION("GASTO"),
-    TRANSPORTE("GASTO"), 
+    TRANSPORTE("GASTO"),
     VIVIENDA("GASTO"),
     ENTRETENIMIENTO("GASTO"),
     SALUD("GASTO"),
     EDUCACION("GASTO"),
     ROPA("GASTO"),
     OTROS_GASTOS("GASTO"),
-    
+
     // Ingresos
     SALARIO("INGRESO"),
     REGALO("INGRESO"),
     OTROS_INGRESOS("INGRESO");
 
+    // Metadatos calculados una sola vez al cargar el enum (values() copia el array en cada llamada)
+    private static final List<Categoria> TODAS = List.of(values());
+    private static final Map<TipoActividad, List<Categoria>> POR_TIPO = agruparPorTipo();
+    private static final Map<Categoria, String> NOMBRES = nombresFormateados();
+
     private final String tipo;
+    private final String nombreFormateado;
 
     Categoria(String tipo) {
         this.tipo = tipo;
+        String nombre = name().replace('_', ' ').toLowerCase();
+        this.nombreFormateado = Character.toUpperCase(nombre.charAt(0)) + nombre.substring(1);
     }
 
     public String getTipo() {
         return tipo;
     }
 
-    // Método para obtener categorías por tipo
+    public static List<Categoria> todas() {
+        return TODAS;
+    }
+
+    // Categorías de un tipo (lista inmutable precalculada)
     public static List<Categoria> getCategoriasPorTipo(TipoActividad tipo) {
-        return Arrays.stream(values())
-                .filter(cat -> cat.getTipo().equals(tipo.name()))
-                .collect(Collectors.toList());
+        return POR_TIPO.get(tipo);
+    }
+
+    // Todas las categorías agrupadas por tipo, para los selectores del formulario
+    public static Map<TipoActividad, List<Categoria>> porTipo() {
+        return POR_TIPO;
     }
 
-    // Método para obtener el nombre formateado (más legible)
+    public static Map<Categoria, String> nombres() {
+        return NOMBRES;
+    }
+
+    // Nombre legible: "OTROS_GASTOS" -> "Otros gastos"
     public String getNombreFormateado() {
-        return this.name().replace('_', ' ').toLowerCase()
-                .replaceFirst(".", String.valueOf(this.name().charAt(0)));
+        return nombreFormateado;
+    }
+
+    private static Map<TipoActividad, List<Categoria>> agruparPorTipo() {
+        Map<TipoActividad, List<Categoria>> porTipo = new EnumMap<>(TipoActividad.class);
+        for (TipoActividad tipoActividad : TipoActividad.values()) {
+            List<Categoria> categorias = new ArrayList<>();
+            for (Categoria categoria : TODAS) {
+                if (categoria.tipo.equals(tipoActividad.name())) {
+                    categorias.add(categoria);
+                }
+            }
+            porTipo.put(tipoActividad, List.copyOf(categorias));
+        }
+        return Collections.unmodifiableMap(porTipo);
+    }
+
+    private static Map<Categoria, String> nombresFormateados() {
+        Map<Categoria, String> nombres = new EnumMap<>(Categoria.class);
+        for (Categoria categoria : TODAS) {
+            nombres.put(categoria, categoria.nombreFormateado);
+        }
+        return Collections.unmodifiableMap(nombres);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package com.finanzas.entity;
+
+// Lo que una actividad aporta a resumen_mensual. Solo las COMPLETADAS aportan,
+// por eso de() devuelve null para las pendientes. El monto va en centavos.
+public record ContribucionResumen(Long usuarioId, int anio, int mes,
+                                  TipoActividad tipo, Categoria categoria, long montoCentavos) {
+
+    public static ContribucionResumen de(Actividad actividad) {
+        if (actividad.getEstado() != EstadoActividad.COMPLETADO
+                || actividad.getUsuario() == null || actividad.getCreatedAt() == null) {
+            return null;
+        }
+        return new ContribucionResumen(
+                actividad.getUsuario().getId(),
+                actividad.getCreatedAt().getYear(),
+                actividad.getCreatedAt().getMonthValue(),
+                actividad.getTipo(),
+                actividad.getCategoria(),
+                actividad.getMonto().centavos());
+    }
+
+    // Misma fila de resumen y mismo monto: el cambio no afecta los acumulados
+    public boolean mismoAporte(ContribucionResumen otra) {
+        return otra != null
+                && usuarioId.equals(otra.usuarioId) && anio == otra.anio && mes == otra.mes
+                && tipo == otra.tipo && categoria == otra.categoria
+                && montoCentavos == otra.montoCentavos;
+    }
+}
@@ -0,0 +1,45 @@
+package com.finanzas.entity;
+
+import jakarta.persistence.Embeddable;
+
+import java.math.BigDecimal;
+
+// Cantidad de pesos guardada en centavos (BIGINT). Los montos están acotados a 40.000.000 COP
+// por actividad, así que sumas y balances caben en un long sin redondeos; BigDecimal solo
+// aparece al mostrar el valor (getValor) en vistas y exportaciones.
+@Embeddable
+public record Dinero(long centavos) implements Comparable<Dinero> {
+
+    public static final Dinero CERO = new Dinero(0);
+
+    public static Dinero deCentavos(long centavos) {
+        return centavos == 0 ? CERO : new Dinero(centavos);
+    }
+
+    public Dinero mas(Dinero otro) {
+        return deCentavos(Math.addExact(centavos, otro.centavos));
+    }
+
+    public Dinero menos(Dinero otro) {
+        return deCentavos(Math.subtractExact(centavos, otro.centavos));
+    }
+
+    public int signo() {
+        return Long.signum(centavos);
+    }
+
+    // Valor en pesos con dos decimales, para plantillas y formatos de salida
+    public BigDecimal getValor() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centavos, otro.centavos);
+    }
+
+    @Override
+    public String toString() {
+        return getValor().toPlainString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.finanzas.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Evento del libro de actividades. Solo lo escriben los triggers de actividades; aquí es de lectura.
+@Entity
+@Immutable
+@Table(name = "libro_actividades")
+public class EventoLibro {
+
+    @Id
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    // Correlativo del evento dentro del usuario
+    @Column(nullable = false)
+    private long numero;
+
+    @Column(name = "actividad_id", nullable = false)
+    private Long actividadId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoEvento evento;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoActividad tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Categoria categoria;
+
+    @Column(name = "monto_centavos", nullable = false)
+    private long montoCentavos;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoActividad estado;
+
+    // Cuánto cambió el saldo (ingresos menos gastos completados) con este evento
+    @Column(name = "delta_saldo_centavos", nullable = false)
+    private long deltaSaldoCentavos;
+
+    @Column(name = "registrado_en", nullable = false)
+    private LocalDateTime registradoEn;
+
+    // Getters
+    public Long getId() { return id; }
+    public Long getUsuarioId() { return usuarioId; }
+    public long getNumero() { return numero; }
+    public Long getActividadId() { return actividadId; }
+    public TipoEvento getEvento() { return evento; }
+    public TipoActividad getTipo() { return tipo; }
+    public Categoria getCategoria() { return categoria; }
+    public long getMontoCentavos() { return montoCentavos; }
+    public EstadoActividad getEstado() { return estado; }
+    public long getDeltaSaldoCentavos() { return deltaSaldoCentavos; }
+    public LocalDateTime getRegistradoEn() { return registradoEn; }
+}
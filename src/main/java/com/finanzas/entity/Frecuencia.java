@@ -0,0 +1,65 @@
+package com.finanzas.entity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+
+// Cada cuánto se repite una actividad recurrente y qué significa su "dia"
+public enum Frecuencia {
+    // dia = día del mes; en meses más cortos se usa el último día (31 -> 30 de abril, 28/29 de febrero)
+    MENSUAL(1, 31) {
+        @Override
+        public LocalDate primera(LocalDate desde, int dia) {
+            LocalDate fecha = enMes(YearMonth.from(desde), dia);
+            return fecha.isBefore(desde) ? enMes(YearMonth.from(desde).plusMonths(1), dia) : fecha;
+        }
+
+        @Override
+        public LocalDate siguiente(LocalDate fecha, int dia) {
+            return enMes(YearMonth.from(fecha).plusMonths(1), dia);
+        }
+    },
+    // dia = día de la semana, 1 (lunes) a 7 (domingo)
+    SEMANAL(1, 7) {
+        @Override
+        public LocalDate primera(LocalDate desde, int dia) {
+            return desde.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(dia)));
+        }
+
+        @Override
+        public LocalDate siguiente(LocalDate fecha, int dia) {
+            return fecha.plusWeeks(1);
+        }
+    };
+
+    private final int diaMinimo;
+    private final int diaMaximo;
+
+    Frecuencia(int diaMinimo, int diaMaximo) {
+        this.diaMinimo = diaMinimo;
+        this.diaMaximo = diaMaximo;
+    }
+
+    // Primera fecha que toca a partir de "desde" (incluida)
+    public abstract LocalDate primera(LocalDate desde, int dia);
+
+    // Fecha que toca después de "fecha", que debe ser una ocurrencia
+    public abstract LocalDate siguiente(LocalDate fecha, int dia);
+
+    public boolean diaValido(int dia) {
+        return dia >= diaMinimo && dia <= diaMaximo;
+    }
+
+    public int getDiaMinimo() {
+        return diaMinimo;
+    }
+
+    public int getDiaMaximo() {
+        return diaMaximo;
+    }
+
+    private static LocalDate enMes(YearMonth mes, int dia) {
+        return mes.atDay(Math.min(dia, mes.lengthOfMonth()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.finanzas.entity;
+
+import jakarta.persistence.*;
+
+// Presupuesto mensual de un usuario para una categoría de gasto (el mismo para todos los meses).
+// Lo gastado no se guarda aquí: sale de resumen_mensual.
+@Entity
+@Table(name = "presupuestos")
+public class Presupuesto {
+
+    @EmbeddedId
+    private PresupuestoId id;
+
+    @Embedded
+    @AttributeOverride(name = "centavos", column = @Column(name = "monto_centavos", nullable = false))
+    private Dinero monto;
+
+    // Getters y Setters
+    public PresupuestoId getId() { return id; }
+    public void setId(PresupuestoId id) { this.id = id; }
+
+    public Dinero getMonto() { return monto; }
+    public void setMonto(Dinero monto) { this.monto = monto; }
+}
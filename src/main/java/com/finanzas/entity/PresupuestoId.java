@@ -0,0 +1,46 @@
+package com.finanzas.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Clave del presupuesto: (usuario, categoría)
+@Embeddable
+public class PresupuestoId implements Serializable {
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Categoria categoria;
+
+    // Constructores
+    public PresupuestoId() {
+    }
+
+    public PresupuestoId(Long usuarioId, Categoria categoria) {
+        this.usuarioId = usuarioId;
+        this.categoria = categoria;
+    }
+
+    // Getters
+    public Long getUsuarioId() { return usuarioId; }
+    public Categoria getCategoria() { return categoria; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PresupuestoId that)) return false;
+        return Objects.equals(usuarioId, that.usuarioId) && categoria == that.categoria;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(usuarioId, categoria);
+    }
+}
@@ -0,0 +1,30 @@
+package com.finanzas.entity;
+
+import jakarta.persistence.*;
+
+// Acumulado mensual de actividades COMPLETADAS por usuario, tipo y categoría.
+// Se mantiene de forma incremental desde ActividadService; no se escribe a mano.
+@Entity
+@Table(name = "resumen_mensual")
+public class ResumenMensual {
+
+    @EmbeddedId
+    private ResumenMensualId id;
+
+    @Embedded
+    @AttributeOverride(name = "centavos", column = @Column(name = "total_centavos", nullable = false))
+    private Dinero total = Dinero.CERO;
+
+    @Column(nullable = false)
+    private long cantidad;
+
+    // Getters y Setters
+    public ResumenMensualId getId() { return id; }
+    public void setId(ResumenMensualId id) { this.id = id; }
+
+    public Dinero getTotal() { return total; }
+    public void setTotal(Dinero total) { this.total = total; }
+
+    public long getCantidad() { return cantidad; }
+    public void setCantidad(long cantidad) { this.cantidad = cantidad; }
+}
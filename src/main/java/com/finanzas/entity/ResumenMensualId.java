@@ -0,0 +1,64 @@
+package com.finanzas.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Clave del resumen: (usuario, año, mes, tipo, categoría)
+@Embeddable
+public class ResumenMensualId implements Serializable {
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false)
+    private int anio;
+
+    @Column(nullable = false)
+    private int mes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoActividad tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Categoria categoria;
+
+    // Constructores
+    public ResumenMensualId() {
+    }
+
+    public ResumenMensualId(Long usuarioId, int anio, int mes, TipoActividad tipo, Categoria categoria) {
+        this.usuarioId = usuarioId;
+        this.anio = anio;
+        this.mes = mes;
+        this.tipo = tipo;
+        this.categoria = categoria;
+    }
+
+    // Getters
+    public Long getUsuarioId() { return usuarioId; }
+    public int getAnio() { return anio; }
+    public int getMes() { return mes; }
+    public TipoActividad getTipo() { return tipo; }
+    public Categoria getCategoria() { return categoria; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResumenMensualId that)) return false;
+        return anio == that.anio && mes == that.mes
+                && Objects.equals(usuarioId, that.usuarioId)
+                && tipo == that.tipo && categoria == that.categoria;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(usuarioId, anio, mes, tipo, categoria);
+    }
+}
@@ -0,0 +1,11 @@
+package com.finanzas.entity;
+
+// Qué le pasó a una actividad en el libro (lo deciden los triggers de V8__libro_actividades.sql)
+public enum TipoEvento {
+    CREADA,
+    // Cambio de descripción, monto, tipo o categoría (con o sin cambio de estado)
+    EDITADA,
+    // Solo cambio de estado
+    ESTADO,
+    ELIMINADA
+}
@@ -0,0 +1,23 @@
+package com.finanzas.repository;
+
+import com.finanzas.entity.ActividadRecurrente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ActividadRecurrenteRepository extends JpaRepository<ActividadRecurrente, Long> {
+
+    // Plantillas del usuario, sin cargar el usuario
+    @Query("SELECT r FROM ActividadRecurrente r WHERE r.usuario.id = :usuarioId ORDER BY r.id")
+    List<ActividadRecurrente> findByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Borrar filtrando por id y dueño en la misma sentencia; las actividades ya generadas se quedan
+    @Modifying
+    @Query("DELETE FROM ActividadRecurrente r WHERE r.id = :id AND r.usuario.id = :usuarioId")
+    int deleteByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+}
@@ -1,22 +1,43 @@
 package com.finanzas.repository;
 
+import com.finanzas.dto.ActividadApi;
+import com.finanzas.dto.CambioActividades;
+import com.finanzas.dto.DescripcionActividad;
+import com.finanzas.dto.EstadisticasUsuario;
+import com.finanzas.dto.ResumenDashboard;
 import com.finanzas.entity.Actividad;
 import com.finanzas.entity.Categoria;
 import com.finanzas.entity.EstadoActividad;
 import com.finanzas.entity.TipoActividad;
 import com.finanzas.entity.Usuario;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ActividadRepository extends JpaRepository<Actividad, Long> {
 
+    // Cola común de las sentencias que ajustan resumen_mensual junto con la actividad
+    // (misma semántica que ResumenMensualRepository.acumular)
+    String ACUMULAR_EN_RESUMEN =
+            "ON CONFLICT (usuario_id, anio, mes, tipo, categoria) DO UPDATE " +
+            "SET total_centavos = resumen_mensual.total_centavos + EXCLUDED.total_centavos, " +
+            "cantidad = resumen_mensual.cantidad + EXCLUDED.cantidad";
+
     // Encontrar actividades por usuario ordenadas por fecha
     List<Actividad> findByUsuarioOrderByCreatedAtDesc(Usuario usuario);
 
@@ -26,34 +47,243 @@ public interface ActividadRepository extends JpaRepository<Actividad, Long> {
     // Encontrar últimas actividades (para dashboard)
     List<Actividad> findTop5ByUsuarioOrderByCreatedAtDesc(Usuario usuario);
 
-    // Calcular total por tipo y mes usando EXTRACT (PostgreSQL) - SOLO COMPLETADAS
-    @Query(value = "SELECT COALESCE(SUM(a.monto), 0) " +
+    // Calcular total por tipo y mes (PostgreSQL) - SOLO COMPLETADAS, en centavos
+    // Rango semiabierto [inicio del mes, inicio del mes siguiente) para poder usar
+    // idx_actividades_usuario_tipo_estado_fecha (y descartar particiones) en lugar de EXTRACT por fila
+    @Query(value = "SELECT CAST(COALESCE(SUM(a.monto_centavos), 0) AS BIGINT) " +
                    "FROM actividades a " +
                    "WHERE a.usuario_id = :usuarioId " +
                    "AND a.tipo = :tipo " +
                    "AND a.estado = 'COMPLETADO' " +  // FILTRO AGREGADO
-                   "AND EXTRACT(YEAR FROM a.created_at) = :year " +
-                   "AND EXTRACT(MONTH FROM a.created_at) = :month",
+                   "AND a.created_at >= make_timestamp(:year, :month, 1, 0, 0, 0) " +
+                   "AND a.created_at < make_timestamp(:year, :month, 1, 0, 0, 0) + INTERVAL '1 month'",
            nativeQuery = true)
-    BigDecimal sumMontoByUsuarioAndTipoAndMonth(@Param("usuarioId") Long usuarioId,
-                                                @Param("tipo") String tipo,
-                                                @Param("year") int year,
-                                                @Param("month") int month);
+    long sumMontoByUsuarioAndTipoAndMonth(@Param("usuarioId") Long usuarioId,
+                                          @Param("tipo") String tipo,
+                                          @Param("year") int year,
+                                          @Param("month") int month);
 
-    // Método alternativo usando BETWEEN para fechas - SOLO COMPLETADAS
-    @Query("SELECT SUM(a.monto) FROM Actividad a " +
+    // Método alternativo por rango de fechas [startDate, endDate) - SOLO COMPLETADAS, en centavos
+    @Query("SELECT COALESCE(SUM(a.monto.centavos), 0) FROM Actividad a " +
            "WHERE a.usuario.id = :usuarioId " +
            "AND a.tipo = :tipo " +
            "AND a.estado = 'COMPLETADO' " +  // FILTRO AGREGADO
-           "AND a.createdAt BETWEEN :startDate AND :endDate")
-    BigDecimal sumMontoByUsuarioAndTipoAndDateRange(@Param("usuarioId") Long usuarioId,
-                                                    @Param("tipo") TipoActividad tipo,
-                                                    @Param("startDate") java.time.LocalDateTime startDate,
-                                                    @Param("endDate") java.time.LocalDateTime endDate);
+           "AND a.createdAt >= :startDate AND a.createdAt < :endDate")
+    long sumMontoByUsuarioAndTipoAndDateRange(@Param("usuarioId") Long usuarioId,
+                                              @Param("tipo") TipoActividad tipo,
+                                              @Param("startDate") java.time.LocalDateTime startDate,
+                                              @Param("endDate") java.time.LocalDateTime endDate);
+
+    // Historial completo para exportar, leído con cursor del servidor: el driver de PostgreSQL solo
+    // respeta el fetch size dentro de una transacción, así que debe consumirse en una @Transactional
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Actividad a WHERE a.usuario.id = :usuarioId ORDER BY a.createdAt, a.id")
+    Stream<Actividad> streamPorUsuario(@Param("usuarioId") Long usuarioId);
 
     // Encontrar actividades por usuario y estado
     List<Actividad> findByUsuarioAndEstadoOrderByCreatedAtDesc(Usuario usuario, EstadoActividad estado);
 
+    // Primera página por usuario y estado (keyset sobre created_at, id)
+    @Query("SELECT a FROM Actividad a " +
+           "WHERE a.usuario.id = :usuarioId AND a.estado = :estado " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Actividad> findPrimeraPaginaPorUsuarioYEstado(@Param("usuarioId") Long usuarioId,
+                                                       @Param("estado") EstadoActividad estado,
+                                                       Limit limit);
+
+    // Página siguiente: filas estrictamente "después" del cursor en el orden (created_at DESC, id DESC)
+    @Query("SELECT a FROM Actividad a " +
+           "WHERE a.usuario.id = :usuarioId AND a.estado = :estado " +
+           "AND (a.createdAt < :cursorFecha OR (a.createdAt = :cursorFecha AND a.id < :cursorId)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Actividad> findPaginaPorUsuarioYEstadoDespuesDe(@Param("usuarioId") Long usuarioId,
+                                                         @Param("estado") EstadoActividad estado,
+                                                         @Param("cursorFecha") LocalDateTime cursorFecha,
+                                                         @Param("cursorId") Long cursorId,
+                                                         Limit limit);
+
+    // Páginas de /api/v1/actividades: el mismo keyset, pero solo las columnas que viajan en el JSON
+    @Query("SELECT new com.finanzas.dto.ActividadApi(a.id, a.descripcion, a.tipo, a.categoria, " +
+           "a.monto.centavos, a.estado, a.createdAt) FROM Actividad a " +
+           "WHERE a.usuario.id = :usuarioId AND a.estado = :estado " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ActividadApi> findPrimeraPaginaApi(@Param("usuarioId") Long usuarioId,
+                                            @Param("estado") EstadoActividad estado,
+                                            Limit limit);
+
+    @Query("SELECT new com.finanzas.dto.ActividadApi(a.id, a.descripcion, a.tipo, a.categoria, " +
+           "a.monto.centavos, a.estado, a.createdAt) FROM Actividad a " +
+           "WHERE a.usuario.id = :usuarioId AND a.estado = :estado " +
+           "AND (a.createdAt < :cursorFecha OR (a.createdAt = :cursorFecha AND a.id < :cursorId)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ActividadApi> findPaginaApiDespuesDe(@Param("usuarioId") Long usuarioId,
+                                              @Param("estado") EstadoActividad estado,
+                                              @Param("cursorFecha") LocalDateTime cursorFecha,
+                                              @Param("cursorId") Long cursorId,
+                                              Limit limit);
+
+    // Dashboard: primera página de pendientes y de completadas en una sola sentencia
+    @Query(value = "(SELECT a.* FROM actividades a " +
+                   " WHERE a.usuario_id = :usuarioId AND a.estado = 'PENDIENTE' " +
+                   " ORDER BY a.created_at DESC, a.id DESC LIMIT :limite) " +
+                   "UNION ALL " +
+                   "(SELECT a.* FROM actividades a " +
+                   " WHERE a.usuario_id = :usuarioId AND a.estado = 'COMPLETADO' " +
+                   " ORDER BY a.created_at DESC, a.id DESC LIMIT :limite)",
+           nativeQuery = true)
+    List<Actividad> findPrimerasPaginasDashboard(@Param("usuarioId") Long usuarioId,
+                                                 @Param("limite") int limite);
+
+    // Administración: actividades, última actividad y balance del mes de varios usuarios en un GROUP BY.
+    // El balance (en centavos) solo cuenta actividades completadas dentro de [inicioMes, finMes).
+    @Query(value = "SELECT a.usuario_id AS \"usuarioId\", " +
+                   "COUNT(*) AS \"cantidadActividades\", " +
+                   "MAX(a.created_at) AS \"ultimaActividad\", " +
+                   "CAST(COALESCE(SUM(CASE WHEN a.tipo = 'INGRESO' THEN a.monto_centavos ELSE -a.monto_centavos END) " +
+                   "  FILTER (WHERE a.estado = 'COMPLETADO' " +
+                   "          AND a.created_at >= :inicioMes AND a.created_at < :finMes), 0) AS BIGINT) AS \"balanceMes\" " +
+                   "FROM actividades a WHERE a.usuario_id IN (:usuarioIds) " +
+                   "GROUP BY a.usuario_id",
+           nativeQuery = true)
+    List<EstadisticasUsuario> obtenerEstadisticasPorUsuario(@Param("usuarioIds") Collection<Long> usuarioIds,
+                                                            @Param("inicioMes") LocalDateTime inicioMes,
+                                                            @Param("finMes") LocalDateTime finMes);
+
+    // Dashboard: conteos por estado y saldo de todas las completadas (desde libro_cabeza, que mantienen los
+    // triggers del libro; el saldo es la base del saldo por fila de la primera página) y totales del mes
+    // en centavos (desde resumen_mensual) en una sola sentencia, sin recorrer las actividades
+    @Query(value = "SELECT " +
+                   "COALESCE((SELECT c.pendientes FROM libro_cabeza c " +
+                   "  WHERE c.usuario_id = :usuarioId), 0) AS \"totalPendientes\", " +
+                   "COALESCE((SELECT c.completadas FROM libro_cabeza c " +
+                   "  WHERE c.usuario_id = :usuarioId), 0) AS \"totalCompletadas\", " +
+                   "(SELECT CAST(COALESCE(SUM(r.total_centavos), 0) AS BIGINT) FROM resumen_mensual r " +
+                   "  WHERE r.usuario_id = :usuarioId AND r.anio = :anio AND r.mes = :mes " +
+                   "  AND r.tipo = 'INGRESO') AS \"totalIngresos\", " +
+                   "(SELECT CAST(COALESCE(SUM(r.total_centavos), 0) AS BIGINT) FROM resumen_mensual r " +
+                   "  WHERE r.usuario_id = :usuarioId AND r.anio = :anio AND r.mes = :mes " +
+                   "  AND r.tipo = 'GASTO') AS \"totalGastos\", " +
+                   "COALESCE((SELECT c.saldo_centavos FROM libro_cabeza c " +
+                   "  WHERE c.usuario_id = :usuarioId), 0) AS \"saldoCompletadas\"",
+           nativeQuery = true)
+    ResumenDashboard obtenerResumenDashboard(@Param("usuarioId") Long usuarioId,
+                                             @Param("anio") int anio,
+                                             @Param("mes") int mes);
+
+    // =========================
+    // MUTACIONES EN UNA SOLA SENTENCIA (con control de dueño)
+    // Cada una filtra por id Y usuario_id, ajusta resumen_mensual en la misma sentencia
+    // y devuelve cuántas actividades del usuario coincidieron (0 = no existe o no es suya)
+    // y si alguna es anterior a :inicioMes, para invalidar la caché de meses cerrados.
+    // =========================
+
+    // Cambiar estado; si ya estaba en ese estado no cambia nada pero cuenta como encontrada
+    @Query(value = "WITH previa AS (" +
+                   "  SELECT id, created_at, estado FROM actividades " +
+                   "  WHERE id = :id AND usuario_id = :usuarioId FOR UPDATE), " +
+                   "cambiada AS (" +
+                   "  UPDATE actividades a SET estado = :estado FROM previa p " +
+                   "  WHERE a.id = p.id AND a.created_at = p.created_at AND p.estado <> :estado " +
+                   "  RETURNING a.usuario_id, a.created_at, a.tipo, a.categoria, a.monto_centavos), " +
+                   "ajuste AS (" +
+                   "  INSERT INTO resumen_mensual (usuario_id, anio, mes, tipo, categoria, total_centavos, cantidad) " +
+                   "  SELECT usuario_id, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), tipo, categoria, " +
+                   "         CASE WHEN :estado = 'COMPLETADO' THEN monto_centavos ELSE -monto_centavos END, " +
+                   "         CASE WHEN :estado = 'COMPLETADO' THEN 1 ELSE -1 END " +
+                   "  FROM cambiada " + ACUMULAR_EN_RESUMEN + ") " +
+                   "SELECT COUNT(*) AS afectadas, COALESCE(BOOL_OR(created_at < :inicioMes), false) AS \"mesCerrado\" " +
+                   "FROM previa",
+           nativeQuery = true)
+    CambioActividades cambiarEstadoDeUsuario(@Param("id") Long id,
+                                             @Param("usuarioId") Long usuarioId,
+                                             @Param("estado") String estado,
+                                             @Param("inicioMes") LocalDateTime inicioMes);
+
+    // Editar descripción, monto (en centavos), tipo y categoría
+    @Query(value = "WITH previa AS (" +
+                   "  SELECT id, created_at, usuario_id, tipo, categoria, monto_centavos, estado FROM actividades " +
+                   "  WHERE id = :id AND usuario_id = :usuarioId FOR UPDATE), " +
+                   "editada AS (" +
+                   "  UPDATE actividades a SET descripcion = :descripcion, monto_centavos = :montoCentavos, " +
+                   "         tipo = :tipo, categoria = :categoria " +
+                   "  FROM previa p WHERE a.id = p.id AND a.created_at = p.created_at " +
+                   "  RETURNING a.usuario_id, a.created_at, a.tipo, a.categoria, a.monto_centavos, a.estado), " +
+                   "ajuste AS (" +
+                   "  INSERT INTO resumen_mensual (usuario_id, anio, mes, tipo, categoria, total_centavos, cantidad) " +
+                   "  SELECT usuario_id, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), tipo, categoria, " +
+                   "         SUM(monto_centavos), SUM(cantidad) " +
+                   "  FROM (SELECT usuario_id, created_at, tipo, categoria, -monto_centavos AS monto_centavos, -1 AS cantidad " +
+                   "        FROM previa WHERE estado = 'COMPLETADO' " +
+                   "        UNION ALL " +
+                   "        SELECT usuario_id, created_at, tipo, categoria, monto_centavos, 1 " +
+                   "        FROM editada WHERE estado = 'COMPLETADO') d " +
+                   "  GROUP BY usuario_id, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), tipo, categoria " +
+                   "  " + ACUMULAR_EN_RESUMEN + ") " +
+                   "SELECT COUNT(*) AS afectadas, COALESCE(BOOL_OR(created_at < :inicioMes), false) AS \"mesCerrado\" " +
+                   "FROM previa",
+           nativeQuery = true)
+    CambioActividades editarDeUsuario(@Param("id") Long id,
+                                      @Param("usuarioId") Long usuarioId,
+                                      @Param("descripcion") String descripcion,
+                                      @Param("montoCentavos") long montoCentavos,
+                                      @Param("tipo") String tipo,
+                                      @Param("categoria") String categoria,
+                                      @Param("inicioMes") LocalDateTime inicioMes);
+
+    // Eliminar
+    @Query(value = "WITH borrada AS (" +
+                   "  DELETE FROM actividades WHERE id = :id AND usuario_id = :usuarioId " +
+                   "  RETURNING usuario_id, created_at, tipo, categoria, monto_centavos, estado), " +
+                   "ajuste AS (" +
+                   "  INSERT INTO resumen_mensual (usuario_id, anio, mes, tipo, categoria, total_centavos, cantidad) " +
+                   "  SELECT usuario_id, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), tipo, categoria, " +
+                   "         -monto_centavos, -1 " +
+                   "  FROM borrada WHERE estado = 'COMPLETADO' " + ACUMULAR_EN_RESUMEN + ") " +
+                   "SELECT COUNT(*) AS afectadas, COALESCE(BOOL_OR(created_at < :inicioMes), false) AS \"mesCerrado\" " +
+                   "FROM borrada",
+           nativeQuery = true)
+    CambioActividades eliminarDeUsuario(@Param("id") Long id,
+                                        @Param("usuarioId") Long usuarioId,
+                                        @Param("inicioMes") LocalDateTime inicioMes);
+
+    // Marcar como COMPLETADO varias pendientes del usuario en un solo UPDATE.
+    // Se agrupa antes del upsert porque varias actividades pueden caer en la misma fila del resumen.
+    @Query(value = "WITH cambiadas AS (" +
+                   "  UPDATE actividades SET estado = 'COMPLETADO' " +
+                   "  WHERE usuario_id = :usuarioId AND id IN (:ids) AND estado = 'PENDIENTE' " +
+                   "  RETURNING usuario_id, created_at, tipo, categoria, monto_centavos), " +
+                   "ajuste AS (" +
+                   "  INSERT INTO resumen_mensual (usuario_id, anio, mes, tipo, categoria, total_centavos, cantidad) " +
+                   "  SELECT usuario_id, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), tipo, categoria, " +
+                   "         SUM(monto_centavos), COUNT(*) " +
+                   "  FROM cambiadas " +
+                   "  GROUP BY usuario_id, EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), tipo, categoria " +
+                   "  " + ACUMULAR_EN_RESUMEN + ") " +
+                   "SELECT COUNT(*) AS afectadas, COALESCE(BOOL_OR(created_at < :inicioMes), false) AS \"mesCerrado\" " +
+                   "FROM cambiadas",
+           nativeQuery = true)
+    CambioActividades completarPendientesDeUsuario(@Param("usuarioId") Long usuarioId,
+                                                   @Param("ids") List<Long> ids,
+                                                   @Param("inicioMes") LocalDateTime inicioMes);
+
+    // Borrar todas las actividades de un usuario en una sola sentencia (al eliminar la cuenta)
+    @Modifying
+    @Query("DELETE FROM Actividad a WHERE a.usuario.id = :usuarioId")
+    int deleteByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Id y descripción de todas las actividades del usuario, por id, para construir el índice de búsqueda.
+    // Igual que streamPorUsuario, debe consumirse dentro de una transacción.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.id AS id, a.descripcion AS descripcion FROM Actividad a WHERE a.usuario.id = :usuarioId ORDER BY a.id")
+    Stream<DescripcionActividad> streamDescripciones(@Param("usuarioId") Long usuarioId);
+
+    // Actividades de un usuario por id (resultados de búsqueda); el filtro por dueño va en la misma sentencia
+    @Query("SELECT a FROM Actividad a WHERE a.usuario.id = :usuarioId AND a.id IN :ids")
+    List<Actividad> findByUsuarioIdAndIdIn(@Param("usuarioId") Long usuarioId, @Param("ids") Collection<Long> ids);
+
     // Encontrar actividades por usuario, tipo y estado
     List<Actividad> findByUsuarioAndTipoAndEstadoOrderByCreatedAtDesc(Usuario usuario, TipoActividad tipo, EstadoActividad estado);
 
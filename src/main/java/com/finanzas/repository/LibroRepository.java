@@ -0,0 +1,45 @@
+package com.finanzas.repository;
+
+import com.finanzas.entity.EventoLibro;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Lecturas del libro de actividades (libro_actividades, libro_cabeza y saldos_libro).
+// Las escrituras las hacen los triggers de actividades, nunca la aplicación.
+@Repository
+public interface LibroRepository extends JpaRepository<EventoLibro, Long> {
+
+    // Saldo actual: la fila de cabeza, mantenida evento a evento
+    @Query(value = "SELECT COALESCE((SELECT saldo_centavos FROM libro_cabeza WHERE usuario_id = :usuarioId), 0)",
+           nativeQuery = true)
+    long obtenerSaldoActual(@Param("usuarioId") Long usuarioId);
+
+    // Saldo tal como estaba en "instante": la última foto anterior más los eventos que la siguen
+    // hasta ese instante. Son menos de 100 (si no, habría una foto posterior), así que el rango de
+    // "numero" se acota también por arriba y la suma es un recorrido corto de la clave única.
+    @Query(value = "WITH foto AS (" +
+                   "  SELECT numero, saldo_centavos FROM saldos_libro " +
+                   "  WHERE usuario_id = :usuarioId AND registrado_en <= :instante " +
+                   "  ORDER BY registrado_en DESC, numero DESC LIMIT 1), " +
+                   "desde AS (SELECT COALESCE((SELECT numero FROM foto), 0) AS numero) " +
+                   "SELECT COALESCE((SELECT saldo_centavos FROM foto), 0) + " +
+                   "       COALESCE((SELECT SUM(l.delta_saldo_centavos) FROM libro_actividades l " +
+                   "                 WHERE l.usuario_id = :usuarioId " +
+                   "                 AND l.numero BETWEEN (SELECT numero FROM desde) + 1 " +
+                   "                                  AND (SELECT numero FROM desde) + 100 " +
+                   "                 AND l.registrado_en <= :instante), 0)",
+           nativeQuery = true)
+    long obtenerSaldoAl(@Param("usuarioId") Long usuarioId, @Param("instante") LocalDateTime instante);
+
+    // Eventos del usuario posteriores a "numero", en orden (feed de cambios para clientes y cachés)
+    @Query("SELECT e FROM EventoLibro e WHERE e.usuarioId = :usuarioId AND e.numero > :numero ORDER BY e.numero")
+    List<EventoLibro> findEventosDespuesDe(@Param("usuarioId") Long usuarioId,
+                                           @Param("numero") long numero,
+                                           Limit limit);
+}
@@ -0,0 +1,71 @@
+package com.finanzas.repository;
+
+import com.finanzas.dto.EstadoPresupuesto;
+import com.finanzas.entity.Presupuesto;
+import com.finanzas.entity.PresupuestoId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PresupuestoRepository extends JpaRepository<Presupuesto, PresupuestoId> {
+
+    // Presupuestos del usuario y gastos completados del mes, por categoría: las dos lecturas son por
+    // prefijo de clave primaria y como mucho traen una fila por categoría de gasto
+    @Query(value = "SELECT COALESCE(p.categoria, r.categoria) AS categoria, p.monto_centavos AS presupuesto, " +
+                   "COALESCE(r.total_centavos, 0) AS gastado " +
+                   "FROM (SELECT categoria, monto_centavos FROM presupuestos WHERE usuario_id = :usuarioId) p " +
+                   "FULL JOIN (SELECT categoria, total_centavos FROM resumen_mensual " +
+                   "WHERE usuario_id = :usuarioId AND anio = :anio AND mes = :mes AND tipo = 'GASTO') r " +
+                   "ON r.categoria = p.categoria",
+           nativeQuery = true)
+    List<EstadoPresupuesto> obtenerEstadoDelMes(@Param("usuarioId") Long usuarioId,
+                                                @Param("anio") int anio,
+                                                @Param("mes") int mes);
+
+    // Presupuesto de una categoría y lo gastado en el mes: dos búsquedas por clave primaria
+    @Query(value = "SELECT p.categoria AS categoria, p.monto_centavos AS presupuesto, " +
+                   "COALESCE(r.total_centavos, 0) AS gastado " +
+                   "FROM presupuestos p " +
+                   "LEFT JOIN resumen_mensual r ON r.usuario_id = p.usuario_id AND r.anio = :anio AND r.mes = :mes " +
+                   "AND r.tipo = 'GASTO' AND r.categoria = p.categoria " +
+                   "WHERE p.usuario_id = :usuarioId AND p.categoria = :categoria",
+           nativeQuery = true)
+    Optional<EstadoPresupuesto> obtenerEstado(@Param("usuarioId") Long usuarioId,
+                                              @Param("categoria") String categoria,
+                                              @Param("anio") int anio,
+                                              @Param("mes") int mes);
+
+    // Igual, para la categoría y el mes de una actividad de gasto completada (tras editarla o completarla)
+    @Query(value = "SELECT p.categoria AS categoria, p.monto_centavos AS presupuesto, " +
+                   "COALESCE(r.total_centavos, 0) AS gastado " +
+                   "FROM actividades a " +
+                   "JOIN presupuestos p ON p.usuario_id = a.usuario_id AND p.categoria = a.categoria " +
+                   "LEFT JOIN resumen_mensual r ON r.usuario_id = a.usuario_id " +
+                   "AND r.anio = EXTRACT(YEAR FROM a.created_at) AND r.mes = EXTRACT(MONTH FROM a.created_at) " +
+                   "AND r.tipo = 'GASTO' AND r.categoria = a.categoria " +
+                   "WHERE a.id = :id AND a.usuario_id = :usuarioId AND a.tipo = 'GASTO' AND a.estado = 'COMPLETADO'",
+           nativeQuery = true)
+    Optional<EstadoPresupuesto> obtenerEstadoDeActividad(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+
+    // Crear o cambiar el monto sin leer antes la fila
+    @Modifying
+    @Query(value = "INSERT INTO presupuestos (usuario_id, categoria, monto_centavos) " +
+                   "VALUES (:usuarioId, :categoria, :montoCentavos) " +
+                   "ON CONFLICT (usuario_id, categoria) DO UPDATE SET monto_centavos = EXCLUDED.monto_centavos",
+           nativeQuery = true)
+    int guardar(@Param("usuarioId") Long usuarioId,
+                @Param("categoria") String categoria,
+                @Param("montoCentavos") long montoCentavos);
+
+    @Modifying
+    @Query(value = "DELETE FROM presupuestos WHERE usuario_id = :usuarioId AND categoria IN (:categorias)",
+           nativeQuery = true)
+    int eliminar(@Param("usuarioId") Long usuarioId, @Param("categorias") Collection<String> categorias);
+}
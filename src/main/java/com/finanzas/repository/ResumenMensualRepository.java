@@ -0,0 +1,111 @@
+package com.finanzas.repository;
+
+import com.finanzas.dto.TotalCategoria;
+import com.finanzas.dto.TotalMensual;
+import com.finanzas.entity.ResumenMensual;
+import com.finanzas.entity.ResumenMensualId;
+import com.finanzas.entity.TipoActividad;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ResumenMensualRepository extends JpaRepository<ResumenMensual, ResumenMensualId> {
+
+    // Sumar (o restar, con valores negativos) sobre la fila del resumen; la crea si no existe
+    @Modifying
+    @Query(value = "INSERT INTO resumen_mensual (usuario_id, anio, mes, tipo, categoria, total_centavos, cantidad) " +
+                   "VALUES (:usuarioId, :anio, :mes, :tipo, :categoria, :montoCentavos, :cantidad) " +
+                   "ON CONFLICT (usuario_id, anio, mes, tipo, categoria) DO UPDATE " +
+                   "SET total_centavos = resumen_mensual.total_centavos + EXCLUDED.total_centavos, " +
+                   "cantidad = resumen_mensual.cantidad + EXCLUDED.cantidad",
+           nativeQuery = true)
+    int acumular(@Param("usuarioId") Long usuarioId,
+                 @Param("anio") int anio,
+                 @Param("mes") int mes,
+                 @Param("tipo") String tipo,
+                 @Param("categoria") String categoria,
+                 @Param("montoCentavos") long montoCentavos,
+                 @Param("cantidad") long cantidad);
+
+    // Total del mes por tipo, en centavos: lectura por prefijo de la clave primaria (como mucho una fila por categoría)
+    @Query("SELECT COALESCE(SUM(r.total.centavos), 0) FROM ResumenMensual r " +
+           "WHERE r.id.usuarioId = :usuarioId AND r.id.anio = :anio " +
+           "AND r.id.mes = :mes AND r.id.tipo = :tipo")
+    long sumTotalByUsuarioAndMesAndTipo(@Param("usuarioId") Long usuarioId,
+                                        @Param("anio") int anio,
+                                        @Param("mes") int mes,
+                                        @Param("tipo") TipoActividad tipo);
+
+    // Totales por mes y tipo de los meses [desde, hasta]: rango sobre el prefijo (usuario_id, anio, mes)
+    // de la clave primaria, agrupado para devolver como mucho dos filas por mes
+    @Query(value = "SELECT anio AS anio, mes AS mes, tipo AS tipo, CAST(SUM(total_centavos) AS BIGINT) AS total " +
+                   "FROM resumen_mensual " +
+                   "WHERE usuario_id = :usuarioId " +
+                   "AND (anio, mes) BETWEEN (:anioDesde, :mesDesde) AND (:anioHasta, :mesHasta) " +
+                   "GROUP BY anio, mes, tipo",
+           nativeQuery = true)
+    List<TotalMensual> sumarPorMesYTipo(@Param("usuarioId") Long usuarioId,
+                                        @Param("anioDesde") int anioDesde,
+                                        @Param("mesDesde") int mesDesde,
+                                        @Param("anioHasta") int anioHasta,
+                                        @Param("mesHasta") int mesHasta);
+
+    // Totales de un tipo por categoría en los meses [desde, hasta]: como mucho una fila por categoría
+    @Query(value = "SELECT categoria AS categoria, CAST(SUM(total_centavos) AS BIGINT) AS total " +
+                   "FROM resumen_mensual " +
+                   "WHERE usuario_id = :usuarioId AND tipo = :tipo " +
+                   "AND (anio, mes) BETWEEN (:anioDesde, :mesDesde) AND (:anioHasta, :mesHasta) " +
+                   "GROUP BY categoria",
+           nativeQuery = true)
+    List<TotalCategoria> sumarPorCategoria(@Param("usuarioId") Long usuarioId,
+                                           @Param("tipo") String tipo,
+                                           @Param("anioDesde") int anioDesde,
+                                           @Param("mesDesde") int mesDesde,
+                                           @Param("anioHasta") int anioHasta,
+                                           @Param("mesHasta") int mesHasta);
+
+    // Saldo de las actividades completadas anteriores a la posición (fecha, id) en el orden (created_at, id):
+    // la foto de saldos_mensuales del último mes anterior al de "fecha" más las completadas de ese mes
+    // hasta la posición, un tramo de idx_actividades_usuario_estado_fecha de como mucho un mes
+    @Query(value = "SELECT COALESCE((SELECT s.saldo_centavos FROM saldos_mensuales s " +
+                   "  WHERE s.usuario_id = :usuarioId AND (s.anio, s.mes) < (:anio, :mes) " +
+                   "  ORDER BY s.anio DESC, s.mes DESC LIMIT 1), 0) + " +
+                   "COALESCE((SELECT CAST(SUM(aporte_saldo(a.tipo, a.estado, a.monto_centavos)) AS BIGINT) " +
+                   "  FROM actividades a " +
+                   "  WHERE a.usuario_id = :usuarioId AND a.estado = 'COMPLETADO' " +
+                   "  AND a.created_at >= make_timestamp(:anio, :mes, 1, 0, 0, 0) " +
+                   "  AND (a.created_at, a.id) < (:fecha, :id)), 0)",
+           nativeQuery = true)
+    long obtenerSaldoAntesDe(@Param("usuarioId") Long usuarioId,
+                             @Param("anio") int anio,
+                             @Param("mes") int mes,
+                             @Param("fecha") LocalDateTime fecha,
+                             @Param("id") long id);
+
+    // Borrar los resúmenes de un usuario (al eliminar la cuenta)
+    @Modifying
+    @Query("DELETE FROM ResumenMensual r WHERE r.id.usuarioId = :usuarioId")
+    int deleteByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Reconstrucción completa: vaciar y recalcular desde actividades
+    @Modifying
+    @Query(value = "DELETE FROM resumen_mensual", nativeQuery = true)
+    int vaciar();
+
+    @Modifying
+    @Query(value = "INSERT INTO resumen_mensual (usuario_id, anio, mes, tipo, categoria, total_centavos, cantidad) " +
+                   "SELECT a.usuario_id, EXTRACT(YEAR FROM a.created_at), EXTRACT(MONTH FROM a.created_at), " +
+                   "a.tipo, a.categoria, SUM(a.monto_centavos), COUNT(*) " +
+                   "FROM actividades a " +
+                   "WHERE a.estado = 'COMPLETADO' AND a.created_at IS NOT NULL " +
+                   "GROUP BY a.usuario_id, EXTRACT(YEAR FROM a.created_at), EXTRACT(MONTH FROM a.created_at), " +
+                   "a.tipo, a.categoria",
+           nativeQuery = true)
+    int recalcularDesdeActividades();
+}
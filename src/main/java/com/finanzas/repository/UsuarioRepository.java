@@ -1,8 +1,15 @@
 package com.finanzas.repository;
 
+import com.finanzas.dto.UsuarioListado;
 import com.finanzas.entity.Usuario;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +23,29 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     
     // Contar total de usuarios
     long count();
-}
\ No newline at end of file
+
+    // Listado paginado para administración. busqueda llega en minúsculas y con comodines (%texto%), o null
+    @Query(value = "SELECT u.id AS id, u.nombre AS nombre, u.email AS email, u.rol AS rol, " +
+                   "u.fechaRegistro AS fechaRegistro FROM Usuario u " +
+                   "WHERE :busqueda IS NULL OR LOWER(u.email) LIKE :busqueda OR LOWER(u.nombre) LIKE :busqueda",
+           countQuery = "SELECT COUNT(u) FROM Usuario u " +
+                        "WHERE :busqueda IS NULL OR LOWER(u.email) LIKE :busqueda OR LOWER(u.nombre) LIKE :busqueda")
+    Page<UsuarioListado> buscarListado(@Param("busqueda") String busqueda, Pageable pageable);
+
+    // Versión de los datos del usuario (ETag de /dashboard); null si el usuario no existe
+    @Query(value = "SELECT version_datos FROM usuarios WHERE id = :id", nativeQuery = true)
+    Long obtenerVersionDatos(@Param("id") Long id);
+
+    // Incrementar la versión y devolver la nueva (null si el usuario no existe)
+    @Query(value = "WITH incrementada AS (" +
+                   "  UPDATE usuarios SET version_datos = version_datos + 1 WHERE id = :id " +
+                   "  RETURNING version_datos) " +
+                   "SELECT version_datos FROM incrementada",
+           nativeQuery = true)
+    Long incrementarVersionDatos(@Param("id") Long id);
+
+    // Incrementar la versión de varios usuarios en una sentencia (procesos por lotes)
+    @Modifying
+    @Query(value = "UPDATE usuarios SET version_datos = version_datos + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int incrementarVersionesDatos(@Param("ids") Collection<Long> ids);
+}
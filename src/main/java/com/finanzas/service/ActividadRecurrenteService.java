@@ -0,0 +1,174 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.LoteRecurrentes;
+import com.finanzas.entity.ActividadRecurrente;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.Frecuencia;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.repository.ActividadRecurrenteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Plantillas de actividades recurrentes de cada usuario y la generación por lotes de sus actividades
+@Service
+public class ActividadRecurrenteService {
+
+    // Plantillas vencidas a partir de un id, bloqueadas para este lote. SKIP LOCKED: si otra instancia
+    // del proceso está con un lote, este sigue con las plantillas que quedan en vez de esperar.
+    private static final String SQL_VENCIDAS =
+            "SELECT id, usuario_id, descripcion, monto_centavos, tipo, categoria, frecuencia, dia, proxima " +
+            "FROM actividades_recurrentes " +
+            "WHERE activa AND proxima <= ? AND id > ? " +
+            "ORDER BY id LIMIT ? " +
+            "FOR UPDATE SKIP LOCKED";
+
+    // Un nextval por cada bloque de ids que necesita el lote. Como en el optimizador pooled de Hibernate
+    // (allocationSize de Actividad), cada valor es el último id de un bloque de TAMANO_BLOQUE_IDS
+    private static final String SQL_BLOQUES_IDS =
+            "SELECT nextval('actividades_id_seq') FROM generate_series(1, ?)";
+
+    // Igual al INCREMENT BY de actividades_id_seq (V2)
+    private static final int TAMANO_BLOQUE_IDS = 50;
+
+    // El id va numerado desde los bloques; el driver reescribe el lote en INSERT multi-fila
+    private static final String SQL_INSERTAR =
+            "INSERT INTO actividades (id, descripcion, monto_centavos, tipo, categoria, created_at, estado, usuario_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 'PENDIENTE', ?)";
+
+    // Todas las fechas "proxima" del lote en una sentencia
+    private static final String SQL_ADELANTAR =
+            "UPDATE actividades_recurrentes r SET proxima = v.proxima " +
+            "FROM unnest(?, ?) AS v(id, proxima) WHERE r.id = v.id";
+
+    @Autowired
+    private ActividadRecurrenteRepository actividadRecurrenteRepository;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ValidadorActividad validadorActividad;
+
+    @Autowired
+    private VersionDatosService versionDatosService;
+
+    @Autowired
+    private BusquedaService busquedaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public List<ActividadRecurrente> obtenerPorUsuario(Long usuarioId) {
+        return actividadRecurrenteRepository.findByUsuarioId(usuarioId);
+    }
+
+    // Crear una plantilla; la primera actividad es la de la primera fecha desde hoy (incluido).
+    // Lanza IllegalArgumentException con el mensaje para el usuario si algún dato no vale.
+    @Transactional
+    public ActividadRecurrente crear(Long usuarioId, String descripcion, String monto, TipoActividad tipo,
+                                     Categoria categoria, Frecuencia frecuencia, int dia) {
+        String errorDescripcion = validadorActividad.validarDescripcion(descripcion);
+        if (errorDescripcion != null) {
+            throw new IllegalArgumentException(errorDescripcion);
+        }
+        long centavos = validadorActividad.parseCentavos(monto);
+        String errorMonto = validadorActividad.validarRangoCentavos(centavos);
+        if (errorMonto != null) {
+            throw new IllegalArgumentException(errorMonto);
+        }
+        if (!categoria.getTipo().equals(tipo.name())) {
+            throw new IllegalArgumentException("La categoría " + categoria.getNombreFormateado() + " no corresponde al tipo " + tipo);
+        }
+        if (!frecuencia.diaValido(dia)) {
+            throw new IllegalArgumentException("El día debe estar entre " + frecuencia.getDiaMinimo()
+                    + " y " + frecuencia.getDiaMaximo());
+        }
+
+        ActividadRecurrente recurrente = new ActividadRecurrente();
+        recurrente.setDescripcion(descripcion.trim());
+        recurrente.setMonto(Dinero.deCentavos(centavos));
+        recurrente.setTipo(tipo);
+        recurrente.setCategoria(categoria);
+        recurrente.setFrecuencia(frecuencia);
+        recurrente.setDia(dia);
+        recurrente.setProxima(frecuencia.primera(LocalDate.now(), dia));
+        recurrente.setUsuario(usuarioService.obtenerReferencia(usuarioId));
+        return actividadRecurrenteRepository.save(recurrente);
+    }
+
+    @Transactional
+    public boolean eliminar(Long id, Long usuarioId) {
+        return actividadRecurrenteRepository.deleteByIdAndUsuarioId(id, usuarioId) > 0;
+    }
+
+    // Un lote del generador en una transacción: hasta "tamano" plantillas vencidas con id mayor que
+    // "despuesDeId", una actividad pendiente por cada fecha vencida hasta "hasta" (varias si el proceso
+    // no corrió en un tiempo) y su "proxima" adelantada. Si la transacción falla no queda nada del lote
+    // y la siguiente pasada lo repite; si confirma, esas fechas ya no vuelven a estar vencidas.
+    // Las actividades generadas son pendientes, así que resumen_mensual no cambia.
+    @Transactional
+    public LoteRecurrentes generarLote(long despuesDeId, LocalDate hasta, int tamano) {
+        List<Object[]> actividades = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(tamano);
+        List<Date> proximas = new ArrayList<>(tamano);
+        Set<Long> usuarios = new HashSet<>();
+
+        jdbcTemplate.query(SQL_VENCIDAS, fila -> {
+            Frecuencia frecuencia = Frecuencia.valueOf(fila.getString("frecuencia"));
+            int dia = fila.getInt("dia");
+            long usuarioId = fila.getLong("usuario_id");
+            LocalDate fecha = fila.getDate("proxima").toLocalDate();
+            while (!fecha.isAfter(hasta)) {
+                actividades.add(new Object[]{null, fila.getString("descripcion"), fila.getLong("monto_centavos"),
+                        fila.getString("tipo"), fila.getString("categoria"),
+                        Timestamp.valueOf(fecha.atStartOfDay()), usuarioId});
+                fecha = frecuencia.siguiente(fecha, dia);
+            }
+            ids.add(fila.getLong("id"));
+            proximas.add(Date.valueOf(fecha));
+            usuarios.add(usuarioId);
+        }, Date.valueOf(hasta), despuesDeId, tamano);
+
+        if (ids.isEmpty()) {
+            return new LoteRecurrentes(despuesDeId, 0, 0);
+        }
+        numerar(actividades);
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, actividades);
+        jdbcTemplate.update(conexion -> {
+            PreparedStatement sentencia = conexion.prepareStatement(SQL_ADELANTAR);
+            Array arrayIds = conexion.createArrayOf("bigint", ids.toArray());
+            Array arrayProximas = conexion.createArrayOf("date", proximas.toArray());
+            sentencia.setArray(1, arrayIds);
+            sentencia.setArray(2, arrayProximas);
+            return sentencia;
+        });
+        versionDatosService.incrementarVarios(usuarios);
+        // El INSERT por lotes no devuelve los ids: el índice de búsqueda de esos usuarios se reconstruye
+        usuarios.forEach(busquedaService::olvidar);
+        return new LoteRecurrentes(ids.get(ids.size() - 1), ids.size(), actividades.size());
+    }
+
+    // Pone el id (primera columna) de cada fila: la nextval de la secuencia por columna gastaría un
+    // bloque entero de ids en cada fila, así que se piden los bloques del lote en una sentencia
+    private void numerar(List<Object[]> actividades) {
+        int bloques = (actividades.size() + TAMANO_BLOQUE_IDS - 1) / TAMANO_BLOQUE_IDS;
+        List<Long> ultimos = jdbcTemplate.queryForList(SQL_BLOQUES_IDS, Long.class, bloques);
+        for (int i = 0; i < actividades.size(); i++) {
+            long ultimo = ultimos.get(i / TAMANO_BLOQUE_IDS);
+            actividades.get(i)[0] = ultimo - TAMANO_BLOQUE_IDS + 1 + i % TAMANO_BLOQUE_IDS;
+        }
+    }
+}
@@ -1,19 +1,37 @@
 package com.finanzas.service;
 
+import com.finanzas.dto.ActividadApi;
+import com.finanzas.dto.CambioActividades;
+import com.finanzas.dto.CursorActividad;
+import com.finanzas.dto.DatosDashboard;
+import com.finanzas.dto.PaginaActividades;
+import com.finanzas.dto.PaginaActividadesApi;
+import com.finanzas.dto.ResumenDashboard;
 import com.finanzas.entity.Actividad;
 import com.finanzas.entity.Categoria;
+import com.finanzas.entity.ContribucionResumen;
+import com.finanzas.entity.Dinero;
 import com.finanzas.entity.EstadoActividad;
 import com.finanzas.entity.TipoActividad;
 import com.finanzas.entity.Usuario;
 import com.finanzas.repository.ActividadRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ActividadService {
@@ -21,9 +39,56 @@ public class ActividadService {
     @Autowired
     private ActividadRepository actividadRepository;
 
-    // Guardar actividad
+    @Autowired
+    private ResumenMensualService resumenMensualService;
+
+    @Autowired
+    private VersionDatosService versionDatosService;
+
+    @Autowired
+    private TendenciaService tendenciaService;
+
+    @Autowired
+    private BusquedaService busquedaService;
+
+    @Autowired
+    private LibroService libroService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Guardar actividad (alta, edición o cambio de estado) y ajustar resumen_mensual en la misma transacción
+    @Transactional
     public Actividad guardarActividad(Actividad actividad) {
-        return actividadRepository.save(actividad);
+        ContribucionResumen anterior = actividad.getContribucionPersistida();
+        Actividad guardada = actividadRepository.save(actividad);
+
+        ContribucionResumen nueva = ContribucionResumen.de(guardada);
+        resumenMensualService.aplicarCambio(anterior, nueva);
+        guardada.setContribucionPersistida(nueva);
+        versionDatosService.incrementar(guardada.getUsuario().getId());
+        busquedaService.registrar(guardada.getUsuario().getId(), guardada.getId(), guardada.getDescripcion());
+        return guardada;
+    }
+
+    // Guardar un lote de actividades nuevas en una transacción: INSERT agrupados por JDBC
+    // (hibernate.jdbc.batch_size) y un upsert de resumen por fila afectada. Al terminar se
+    // vacía el contexto de persistencia para que la memoria no crezca con el tamaño de la importación.
+    @Transactional
+    public int guardarLote(List<Actividad> actividades) {
+        List<ContribucionResumen> contribuciones = new ArrayList<>(actividades.size());
+        Set<Long> usuarios = new HashSet<>();
+        for (Actividad actividad : actividades) {
+            entityManager.persist(actividad);
+            contribuciones.add(ContribucionResumen.de(actividad));
+            usuarios.add(actividad.getUsuario().getId());
+        }
+        resumenMensualService.acumularLote(contribuciones);
+        usuarios.forEach(versionDatosService::incrementar);
+        entityManager.flush();
+        busquedaService.registrar(actividades);
+        entityManager.clear();
+        return actividades.size();
     }
 
     // Encontrar actividad por ID
@@ -46,60 +111,121 @@ public class ActividadService {
         return actividadRepository.findByUsuarioAndTipoOrderByCreatedAtDesc(usuario, tipo);
     }
 
-    // Calcular total por tipo y mes actual - SOLO ACTIVIDADES COMPLETADAS
-    public BigDecimal calcularTotalPorTipoYMes(Usuario usuario, TipoActividad tipo) {
+    // Calcular total por tipo y mes actual en centavos - SOLO ACTIVIDADES COMPLETADAS (leído de resumen_mensual)
+    public long calcularTotalPorTipoYMes(Usuario usuario, TipoActividad tipo) {
         LocalDate now = LocalDate.now();
-
-        BigDecimal resultado = actividadRepository.sumMontoByUsuarioAndTipoAndMonth(
-                usuario.getId(),
-                tipo.name(),
-                now.getYear(),
-                now.getMonthValue()
-        );
-
-        return resultado != null ? resultado : BigDecimal.ZERO;
+        return resumenMensualService.obtenerTotal(usuario.getId(), now.getYear(), now.getMonthValue(), tipo);
     }
 
-    // Método alternativo más robusto - SOLO ACTIVIDADES COMPLETADAS
-    public BigDecimal calcularTotalPorTipoYMesAlternativo(Usuario usuario, TipoActividad tipo) {
+    // Método alternativo más robusto (en centavos) - SOLO ACTIVIDADES COMPLETADAS
+    public long calcularTotalPorTipoYMesAlternativo(Usuario usuario, TipoActividad tipo) {
         LocalDate now = LocalDate.now();
         LocalDate startDate = LocalDate.of(now.getYear(), now.getMonth(), 1);
-        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
 
-        // Convertir a LocalDateTime para comparar con createdAt (LocalDateTime)
+        // Rango semiabierto: desde el inicio del mes hasta el inicio del mes siguiente (excluido)
         LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(23, 59, 59, 999999999);
+        LocalDateTime endDateTime = startDate.plusMonths(1).atStartOfDay();
 
-        BigDecimal resultado = actividadRepository.sumMontoByUsuarioAndTipoAndDateRange(
+        return actividadRepository.sumMontoByUsuarioAndTipoAndDateRange(
                 usuario.getId(),
                 tipo,
                 startDateTime,
                 endDateTime
         );
+    }
+
+    // =========================
+    // MUTACIONES CON CONTROL DE DUEÑO
+    // Devuelven false (o 0) si la actividad no existe o no pertenece al usuario.
+    // resumen_mensual se ajusta dentro de la misma sentencia; la versión de datos, solo si hubo coincidencias.
+    // =========================
 
-        return resultado != null ? resultado : BigDecimal.ZERO;
+    // Editar actividad (monto en centavos)
+    @Transactional
+    public boolean editarActividad(Long id, Long usuarioId, String descripcion, long montoCentavos,
+                                   TipoActividad tipo, Categoria categoria) {
+        if (conVersion(usuarioId, actividadRepository.editarDeUsuario(id, usuarioId, descripcion, montoCentavos,
+                tipo.name(), categoria.name(), inicioMesActual())) == 0) {
+            return false;
+        }
+        busquedaService.registrar(usuarioId, id, descripcion);
+        return true;
+    }
+
+    // Cambiar estado
+    @Transactional
+    public boolean cambiarEstado(Long id, Long usuarioId, EstadoActividad estado) {
+        return conVersion(usuarioId, actividadRepository.cambiarEstadoDeUsuario(id, usuarioId, estado.name(),
+                inicioMesActual())) > 0;
     }
 
     // Eliminar actividad
-    public void eliminarActividad(Long id) {
-        actividadRepository.deleteById(id);
+    @Transactional
+    public boolean eliminarActividad(Long id, Long usuarioId) {
+        if (conVersion(usuarioId, actividadRepository.eliminarDeUsuario(id, usuarioId, inicioMesActual())) == 0) {
+            return false;
+        }
+        busquedaService.quitar(usuarioId, id);
+        return true;
     }
 
-    // Calcular balance del mes - SOLO ACTIVIDADES COMPLETADAS
-    public BigDecimal calcularBalanceMes(Usuario usuario) {
-        BigDecimal ingresos = calcularTotalPorTipoYMesAlternativo(usuario, TipoActividad.INGRESO);
-        BigDecimal gastos = calcularTotalPorTipoYMesAlternativo(usuario, TipoActividad.GASTO);
+    // Marcar varias pendientes como COMPLETADO; devuelve cuántas cambiaron
+    @Transactional
+    public int completarActividades(Long usuarioId, List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        return (int) conVersion(usuarioId,
+                actividadRepository.completarPendientesDeUsuario(usuarioId, ids, inicioMesActual()));
+    }
 
-        return ingresos.subtract(gastos);
+    // Subir la versión de datos del usuario si la mutación afectó alguna actividad, e invalidar
+    // las tendencias cacheadas si tocó un mes ya cerrado
+    private long conVersion(Long usuarioId, CambioActividades cambio) {
+        if (cambio.getAfectadas() > 0) {
+            versionDatosService.incrementar(usuarioId);
+        }
+        if (cambio.isMesCerrado()) {
+            tendenciaService.registrarCambioEnMesCerrado(usuarioId);
+        }
+        return cambio.getAfectadas();
+    }
+
+    private static LocalDateTime inicioMesActual() {
+        return YearMonth.now().atDay(1).atStartOfDay();
+    }
+
+    // Calcular balance del mes en centavos - SOLO ACTIVIDADES COMPLETADAS
+    public long calcularBalanceMes(Usuario usuario) {
+        long ingresos = calcularTotalPorTipoYMesAlternativo(usuario, TipoActividad.INGRESO);
+        long gastos = calcularTotalPorTipoYMesAlternativo(usuario, TipoActividad.GASTO);
+
+        return ingresos - gastos;
     }
 
-    // Método para obtener totales de forma segura - SOLO ACTIVIDADES COMPLETADAS
-    public BigDecimal calcularTotalPorTipoYMesSeguro(Usuario usuario, TipoActividad tipo) {
-        try {
-            return calcularTotalPorTipoYMes(usuario, tipo);
-        } catch (Exception e) {
-            return calcularTotalPorTipoYMesAlternativo(usuario, tipo);
+    // Datos del dashboard en dos sentencias: primeras páginas de ambas listas y el resumen
+    // (conteos + totales del mes). Sin reintentos: si algo falla, el error llega al controlador.
+    @Transactional(readOnly = true)
+    public DatosDashboard obtenerDatosDashboard(Usuario usuario, int tamano) {
+        List<Actividad> filas = actividadRepository.findPrimerasPaginasDashboard(usuario.getId(), tamano + 1);
+
+        List<Actividad> pendientes = new ArrayList<>();
+        List<Actividad> completadas = new ArrayList<>();
+        for (Actividad actividad : filas) {
+            (actividad.getEstado() == EstadoActividad.PENDIENTE ? pendientes : completadas).add(actividad);
         }
+
+        LocalDate now = LocalDate.now();
+        ResumenDashboard resumen = actividadRepository.obtenerResumenDashboard(
+                usuario.getId(), now.getYear(), now.getMonthValue());
+
+        return new DatosDashboard(
+                armarPagina(pendientes, tamano),
+                conSaldos(armarPagina(completadas, tamano), resumen.getSaldoCompletadas()),
+                resumen.getTotalPendientes(),
+                resumen.getTotalCompletadas(),
+                resumen.getTotalIngresos(),
+                resumen.getTotalGastos());
     }
 
     // =========================
@@ -111,6 +237,74 @@ public class ActividadService {
         return actividadRepository.findByUsuarioAndEstadoOrderByCreatedAtDesc(usuario, estado);
     }
 
+    // Obtener una página de actividades por usuario y estado (paginación por cursor)
+    public PaginaActividades obtenerPaginaPorUsuarioYEstado(Usuario usuario, EstadoActividad estado,
+                                                            String cursor, int tamano) {
+        CursorActividad posicion = CursorActividad.decodificar(cursor);
+        // Se pide una fila de más para saber si existe una página siguiente sin hacer un COUNT
+        Limit limite = Limit.of(tamano + 1);
+
+        List<Actividad> filas = posicion == null
+                ? actividadRepository.findPrimeraPaginaPorUsuarioYEstado(usuario.getId(), estado, limite)
+                : actividadRepository.findPaginaPorUsuarioYEstadoDespuesDe(
+                        usuario.getId(), estado, posicion.createdAt(), posicion.id(), limite);
+
+        PaginaActividades pagina = armarPagina(filas, tamano);
+        if (estado != EstadoActividad.COMPLETADO || pagina.actividades().isEmpty()) {
+            return pagina;
+        }
+        // Saldo tras la primera fila: el actual en la primera página; si no, el de todo lo anterior al cursor
+        long saldo = posicion == null
+                ? libroService.obtenerSaldo(usuario.getId(), null).saldoCentavos()
+                : resumenMensualService.obtenerSaldoAntesDe(usuario.getId(), posicion.createdAt(), posicion.id());
+        return conSaldos(pagina, saldo);
+    }
+
+    // Saldo acumulado de cada completada de la página, de la más nueva a la más antigua: cada fila es la
+    // anterior menos su aporte, así que la página entera sale de un solo saldo base y no de una SUM por fila
+    private PaginaActividades conSaldos(PaginaActividades pagina, long saldoTrasLaPrimera) {
+        Map<Long, Dinero> saldos = new HashMap<>();
+        long saldo = saldoTrasLaPrimera;
+        for (Actividad actividad : pagina.actividades()) {
+            saldos.put(actividad.getId(), Dinero.deCentavos(saldo));
+            long centavos = actividad.getMonto().centavos();
+            saldo -= actividad.getTipo() == TipoActividad.INGRESO ? centavos : -centavos;
+        }
+        return new PaginaActividades(pagina.actividades(), pagina.siguienteCursor(), saldos);
+    }
+
+    // Página para /api/v1/actividades: el keyset de las listas del dashboard leyendo solo columnas
+    public PaginaActividadesApi obtenerPaginaApi(Long usuarioId, EstadoActividad estado, String cursor, int tamano) {
+        CursorActividad posicion = CursorActividad.decodificar(cursor);
+        Limit limite = Limit.of(tamano + 1);
+
+        List<ActividadApi> filas = posicion == null
+                ? actividadRepository.findPrimeraPaginaApi(usuarioId, estado, limite)
+                : actividadRepository.findPaginaApiDespuesDe(usuarioId, estado, posicion.createdAt(), posicion.id(), limite);
+
+        if (filas.size() <= tamano) {
+            return new PaginaActividadesApi(filas, null);
+        }
+        List<ActividadApi> pagina = filas.subList(0, tamano);
+        ActividadApi ultima = pagina.get(tamano - 1);
+        return new PaginaActividadesApi(pagina, new CursorActividad(ultima.fecha(), ultima.id()).codificar());
+    }
+
+    // Conteos por estado, totales del mes y saldo de las completadas: el resumen del dashboard sin sus listas
+    public ResumenDashboard obtenerResumen(Long usuarioId) {
+        LocalDate now = LocalDate.now();
+        return actividadRepository.obtenerResumenDashboard(usuarioId, now.getYear(), now.getMonthValue());
+    }
+
+    // "filas" trae hasta tamano + 1 elementos; el sobrante solo indica que hay página siguiente
+    private PaginaActividades armarPagina(List<Actividad> filas, int tamano) {
+        if (filas.size() <= tamano) {
+            return new PaginaActividades(filas, null);
+        }
+        List<Actividad> pagina = filas.subList(0, tamano);
+        return new PaginaActividades(pagina, CursorActividad.desde(pagina.get(tamano - 1)).codificar());
+    }
+
     // Obtener actividades por usuario, tipo y estado
     public List<Actividad> obtenerPorUsuarioYTipoYEstado(Usuario usuario, TipoActividad tipo, EstadoActividad estado) {
         return actividadRepository.findByUsuarioAndTipoAndEstadoOrderByCreatedAtDesc(usuario, tipo, estado);
@@ -0,0 +1,236 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.DescripcionActividad;
+import com.finanzas.dto.ResultadoBusqueda;
+import com.finanzas.entity.Actividad;
+import com.finanzas.repository.ActividadRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Búsqueda por descripción en el historial del usuario (búsqueda mientras se escribe) sin LIKE '%x%'
+// sobre actividades. Cada usuario tiene un IndiceTrigramas en memoria que se construye en la primera
+// búsqueda y después se mantiene con las mutaciones de ActividadService al confirmarse.
+// Los índices comparten un presupuesto de memoria (finanzas.busqueda.memoria-maxima): al pasarlo se
+// descartan los de los usuarios que llevan más tiempo sin buscar. Igual que TendenciaService, el estado
+// es por proceso: se asume una sola instancia.
+@Service
+public class BusquedaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusquedaService.class);
+
+    public static final int MAX_RESULTADOS = 50;
+    // Como la descripción más larga que acepta ValidadorActividad
+    public static final int MAX_CONSULTA = 60;
+
+    @Autowired
+    private ActividadRepository actividadRepository;
+
+    private final long memoriaMaxima;
+
+    // Índices por usuario en orden de acceso (el primero es el que lleva más tiempo sin usarse).
+    // El mapa, las generaciones y los bytes en uso se protegen con el monitor de "indices".
+    private final LinkedHashMap<Long, Entrada> indices = new LinkedHashMap<>(256, 0.75f, true);
+
+    // Sube con cada cambio confirmado. Un índice construido mientras cambiaban los datos del usuario
+    // (generación distinta al terminar) se usa para esa búsqueda pero no se guarda.
+    private final Map<Long, Long> generaciones = new HashMap<>();
+    private long bytesEnUso;
+
+    public BusquedaService(@Value("${finanzas.busqueda.memoria-maxima:64MB}") DataSize memoriaMaxima,
+                           MeterRegistry registry) {
+        this.memoriaMaxima = memoriaMaxima.toBytes();
+        Gauge.builder("finanzas.busqueda.memoria", this, s -> s.bytesEnUso())
+                .description("Memoria estimada de los índices de búsqueda en caché")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("finanzas.busqueda.indices", this, s -> s.indicesEnCache())
+                .description("Usuarios con índice de búsqueda en caché")
+                .register(registry);
+    }
+
+    // Las primeras "limite" actividades cuya descripción contiene todas las palabras de la consulta.
+    // La búsqueda en el índice no toca la BD; las filas encontradas se leen con una sentencia por id.
+    @Transactional(readOnly = true)
+    public ResultadoBusqueda buscar(Long usuarioId, String consulta, int limite) {
+        IndiceTrigramas.Coincidencias coincidencias = obtenerIndice(usuarioId)
+                .buscar(consulta, Math.min(limite, MAX_RESULTADOS));
+        if (coincidencias.ids().length == 0) {
+            return new ResultadoBusqueda(consulta, coincidencias.total(), List.of());
+        }
+
+        List<Long> ids = new ArrayList<>(coincidencias.ids().length);
+        for (long id : coincidencias.ids()) {
+            ids.add(id);
+        }
+        Map<Long, Actividad> porId = new HashMap<>();
+        for (Actividad actividad : actividadRepository.findByUsuarioIdAndIdIn(usuarioId, ids)) {
+            porId.put(actividad.getId(), actividad);
+        }
+        // En el orden del índice (id descendente)
+        List<ResultadoBusqueda.Coincidencia> actividades = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Actividad actividad = porId.get(id);
+            if (actividad != null) {
+                actividades.add(ResultadoBusqueda.Coincidencia.de(actividad));
+            }
+        }
+        return new ResultadoBusqueda(consulta, coincidencias.total(), actividades);
+    }
+
+    // =========================
+    // Mantenimiento (lo llaman las mutaciones dentro de su transacción; se aplica al confirmar)
+    // =========================
+
+    // Alta o cambio de descripción de una actividad
+    public void registrar(Long usuarioId, Long id, String descripcion) {
+        alConfirmar(usuarioId, indice -> indice.agregar(id, descripcion));
+    }
+
+    // Altas de un lote (importación). Los datos se copian ya: las entidades se desprenden al terminar el lote.
+    public void registrar(List<Actividad> actividades) {
+        Map<Long, List<Actividad>> porUsuario = new HashMap<>();
+        for (Actividad actividad : actividades) {
+            porUsuario.computeIfAbsent(actividad.getUsuario().getId(), u -> new ArrayList<>()).add(actividad);
+        }
+        porUsuario.forEach((usuarioId, delUsuario) -> {
+            long[] ids = new long[delUsuario.size()];
+            String[] descripciones = new String[delUsuario.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = delUsuario.get(i).getId();
+                descripciones[i] = delUsuario.get(i).getDescripcion();
+            }
+            alConfirmar(usuarioId, indice -> {
+                for (int i = 0; i < ids.length; i++) {
+                    indice.agregar(ids[i], descripciones[i]);
+                }
+            });
+        });
+    }
+
+    public void quitar(Long usuarioId, Long id) {
+        alConfirmar(usuarioId, indice -> indice.quitar(id));
+    }
+
+    // Descartar el índice del usuario (cambios que no pasan por aquí fila a fila, o cuenta eliminada);
+    // se vuelve a construir en su próxima búsqueda
+    public void olvidar(Long usuarioId) {
+        alConfirmar(usuarioId, null);
+    }
+
+    // =========================
+    // Caché
+    // =========================
+
+    private IndiceTrigramas obtenerIndice(Long usuarioId) {
+        long generacion;
+        synchronized (indices) {
+            Entrada entrada = indices.get(usuarioId);
+            if (entrada != null) {
+                return entrada.indice;
+            }
+            generacion = generaciones.getOrDefault(usuarioId, 0L);
+        }
+
+        long inicio = System.nanoTime();
+        IndiceTrigramas indice = new IndiceTrigramas();
+        try (Stream<DescripcionActividad> descripciones = actividadRepository.streamDescripciones(usuarioId)) {
+            descripciones.forEach(d -> indice.agregar(d.getId(), d.getDescripcion()));
+        }
+        long bytes = indice.getBytesEstimados();
+        logger.debug("Índice de búsqueda construido usuario={} actividades={} bytes≈{} en {} ms",
+                usuarioId, indice.getActividades(), bytes, (System.nanoTime() - inicio) / 1_000_000);
+
+        synchronized (indices) {
+            if (generaciones.getOrDefault(usuarioId, 0L) == generacion && !indices.containsKey(usuarioId)) {
+                indices.put(usuarioId, new Entrada(indice, bytes));
+                bytesEnUso += bytes;
+                liberarMemoria();
+            }
+        }
+        return indice;
+    }
+
+    // Aplica el cambio al índice en caché tras confirmar la transacción (accion == null: descartarlo)
+    private void alConfirmar(Long usuarioId, Consumer<IndiceTrigramas> accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(usuarioId, accion);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                aplicar(usuarioId, accion);
+            }
+        });
+    }
+
+    private void aplicar(Long usuarioId, Consumer<IndiceTrigramas> accion) {
+        synchronized (indices) {
+            generaciones.merge(usuarioId, 1L, Long::sum);
+            Entrada entrada = indices.get(usuarioId);
+            if (entrada == null) {
+                return;
+            }
+            if (accion == null) {
+                indices.remove(usuarioId);
+                bytesEnUso -= entrada.bytes;
+                return;
+            }
+            accion.accept(entrada.indice);
+            long bytes = entrada.indice.getBytesEstimados();
+            bytesEnUso += bytes - entrada.bytes;
+            entrada.bytes = bytes;
+            liberarMemoria();
+        }
+    }
+
+    // Descartar índices, del menos usado al más reciente, hasta volver al presupuesto
+    private void liberarMemoria() {
+        Iterator<Entrada> entradas = indices.values().iterator();
+        while (bytesEnUso > memoriaMaxima && entradas.hasNext()) {
+            bytesEnUso -= entradas.next().bytes;
+            entradas.remove();
+        }
+    }
+
+    private long bytesEnUso() {
+        synchronized (indices) {
+            return bytesEnUso;
+        }
+    }
+
+    private int indicesEnCache() {
+        synchronized (indices) {
+            return indices.size();
+        }
+    }
+
+    private static final class Entrada {
+
+        private final IndiceTrigramas indice;
+        private long bytes;
+
+        Entrada(IndiceTrigramas indice, long bytes) {
+            this.indice = indice;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.finanzas.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finanzas.entity.Actividad;
+import com.finanzas.repository.ActividadRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Exportación del historial completo de un usuario. Las filas salen de un Stream con cursor del
+// servidor y se escriben de una en una: en memoria solo vive la ventana del fetch size.
+@Service
+public class ExportacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionService.class);
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        JSONL("application/x-ndjson", "jsonl");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Autowired
+    private ActividadRepository actividadRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Escribe todas las actividades del usuario en la salida. La transacción mantiene abierto el cursor.
+    @Transactional(readOnly = true)
+    public long exportar(Long usuarioId, Formato formato, OutputStream salida) throws IOException {
+        long filas;
+        try (Stream<Actividad> actividades = actividadRepository.streamPorUsuario(usuarioId)) {
+            filas = formato == Formato.CSV
+                    ? escribirCsv(actividades.iterator(), salida)
+                    : escribirJsonl(actividades.iterator(), salida);
+        }
+        logger.info("Exportación {} usuario={} filas={}", formato, usuarioId, filas);
+        return filas;
+    }
+
+    // Mismas columnas que acepta la importación, para poder reimportar el archivo
+    private long escribirCsv(Iterator<Actividad> actividades, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANO_BUFFER);
+        DecimalFormat formatoMonto = formatoMontoColombiano();
+        writer.write("id;fecha;descripcion;monto;tipo;categoria;estado\n");
+        long filas = 0;
+        while (actividades.hasNext()) {
+            Actividad a = actividades.next();
+            writer.write(String.valueOf(a.getId()));
+            writer.write(';');
+            writer.write(a.getCreatedAt() != null ? a.getCreatedAt().toString() : "");
+            writer.write(';');
+            writer.write(campoCsv(a.getDescripcion()));
+            writer.write(';');
+            writer.write(a.getMonto() != null ? formatoMonto.format(a.getMonto().getValor()) : "");
+            writer.write(';');
+            writer.write(a.getTipo() != null ? a.getTipo().name() : "");
+            writer.write(';');
+            writer.write(a.getCategoria() != null ? a.getCategoria().name() : "");
+            writer.write(';');
+            writer.write(a.getEstado() != null ? a.getEstado().name() : "");
+            writer.write('\n');
+            // Sacar la entidad del contexto de persistencia para que no se acumule
+            entityManager.detach(a);
+            filas++;
+        }
+        writer.flush();
+        return filas;
+    }
+
+    private long escribirJsonl(Iterator<Actividad> actividades, OutputStream salida) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(salida);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Un objeto por línea, sin el espacio que Jackson pone por defecto entre valores raíz
+        json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        long filas = 0;
+        while (actividades.hasNext()) {
+            Actividad a = actividades.next();
+            json.writeStartObject();
+            json.writeNumberField("id", a.getId());
+            json.writeStringField("fecha", a.getCreatedAt() != null ? a.getCreatedAt().toString() : null);
+            json.writeStringField("descripcion", a.getDescripcion());
+            json.writeNumberField("monto", a.getMonto().getValor());
+            json.writeStringField("tipo", a.getTipo() != null ? a.getTipo().name() : null);
+            json.writeStringField("categoria", a.getCategoria() != null ? a.getCategoria().name() : null);
+            json.writeStringField("estado", a.getEstado() != null ? a.getEstado().name() : null);
+            json.writeEndObject();
+            entityManager.detach(a);
+            filas++;
+        }
+        if (filas > 0) {
+            json.writeRaw('\n');
+        }
+        json.flush();
+        return filas;
+    }
+
+    // Entre comillas solo si el texto trae separador, comillas o saltos de línea
+    private String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(';') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    // 1.234.567,5: el mismo formato que entiende ParserMontoColombiano
+    private DecimalFormat formatoMontoColombiano() {
+        DecimalFormatSymbols simbolos = new DecimalFormatSymbols();
+        simbolos.setGroupingSeparator('.');
+        simbolos.setDecimalSeparator(',');
+        DecimalFormat formato = new DecimalFormat("#,##0.##", simbolos);
+        return formato;
+    }
+}
@@ -0,0 +1,93 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.LoteRecurrentes;
+import com.finanzas.dto.ResultadoGeneracion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Proceso programado que crea las actividades de las plantillas recurrentes vencidas de todos los
+// usuarios. Recorre las plantillas por id (keyset) en lotes de tamano-lote, cada uno en su propia
+// transacción con los INSERT agrupados por JDBC. Cortarlo a medias no deja nada a medio hacer: los
+// lotes confirmados ya adelantaron su "proxima" y la siguiente pasada sigue con el resto.
+// Publica finanzas.recurrentes.actividades y finanzas.recurrentes.generacion en /actuator/metrics.
+@Service
+public class GeneracionRecurrentesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneracionRecurrentesService.class);
+
+    @Autowired
+    private ActividadRecurrenteService actividadRecurrenteService;
+
+    @Value("${finanzas.recurrentes.tamano-lote:1000}")
+    private int tamanoLote;
+
+    private final Counter actividadesGeneradas;
+    private final Timer tiempoGeneracion;
+
+    // Una pasada a la vez por instancia (el cron y una ejecución manual pueden coincidir)
+    private final AtomicBoolean enEjecucion = new AtomicBoolean();
+
+    public GeneracionRecurrentesService(MeterRegistry registry) {
+        this.actividadesGeneradas = Counter.builder("finanzas.recurrentes.actividades")
+                .description("Actividades creadas desde plantillas recurrentes")
+                .register(registry);
+        this.tiempoGeneracion = Timer.builder("finanzas.recurrentes.generacion")
+                .description("Duración de cada pasada del generador de actividades recurrentes")
+                .register(registry);
+    }
+
+    // Todos los días a las 00:15 (las semanales pueden tocar cualquier día)
+    @Scheduled(cron = "${finanzas.recurrentes.cron:0 15 0 * * *}")
+    public void generarProgramado() {
+        generar(LocalDate.now());
+    }
+
+    // Generar todo lo vencido hasta "hasta" (incluido). Devuelve null si ya había una pasada en curso.
+    public ResultadoGeneracion generar(LocalDate hasta) {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            logger.warn("Generación de recurrentes ya en curso; se omite esta ejecución");
+            return null;
+        }
+        try {
+            long inicio = System.nanoTime();
+            long ultimoId = 0;
+            int lotes = 0;
+            long plantillas = 0;
+            long actividades = 0;
+            LoteRecurrentes lote;
+            do {
+                lote = actividadRecurrenteService.generarLote(ultimoId, hasta, tamanoLote);
+                ultimoId = lote.ultimoId();
+                plantillas += lote.plantillas();
+                actividades += lote.actividades();
+                actividadesGeneradas.increment(lote.actividades());
+                if (lote.plantillas() > 0) {
+                    lotes++;
+                    logger.debug("Lote de recurrentes hasta id={}: {} plantillas, {} actividades",
+                            ultimoId, lote.plantillas(), lote.actividades());
+                }
+            } while (lote.plantillas() == tamanoLote);
+
+            Duration duracion = Duration.ofNanos(System.nanoTime() - inicio);
+            tiempoGeneracion.record(duracion);
+            ResultadoGeneracion resultado = new ResultadoGeneracion(hasta, lotes, plantillas, actividades, duracion);
+            logger.info("Recurrentes generadas hasta {}: {} actividades de {} plantillas en {} lotes, {} ms ({} filas/s)",
+                    hasta, actividades, plantillas, lotes, duracion.toMillis(),
+                    Math.round(resultado.actividadesPorSegundo()));
+            return resultado;
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.ResultadoImportacion;
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.EstadoActividad;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.entity.Usuario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Importación masiva de actividades desde CSV. El archivo se lee registro a registro y las filas
+// válidas se guardan por lotes (una transacción por lote), así la memoria no depende del tamaño
+// del archivo y un error en una fila no descarta las demás.
+@Service
+public class ImportacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionService.class);
+
+    private static final List<String> COLUMNAS_OBLIGATORIAS =
+            List.of("fecha", "descripcion", "monto", "tipo", "categoria");
+
+    private static final DateTimeFormatter FECHA_COLOMBIANA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Autowired
+    private ActividadService actividadService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ValidadorActividad validadorActividad;
+
+    @Value("${finanzas.importacion.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Value("${finanzas.importacion.max-errores-reportados:200}")
+    private int maxErroresReportados;
+
+    @Value("${finanzas.importacion.max-caracteres-campo:1000}")
+    private int maxCaracteresCampo;
+
+    @Value("${finanzas.importacion.max-caracteres-registro:4000}")
+    private int maxCaracteresRegistro;
+
+    // Columnas: fecha, descripcion, monto, tipo, categoria y opcionalmente estado (por defecto COMPLETADO).
+    // Lanza IllegalArgumentException si la cabecera no sirve; los errores por fila van al resultado.
+    public ResultadoImportacion importarCsv(Long usuarioId, InputStream entrada) throws IOException {
+        ResultadoImportacion resultado = new ResultadoImportacion(maxErroresReportados);
+        LectorCsv lector = new LectorCsv(new BufferedReader(
+                new InputStreamReader(entrada, StandardCharsets.UTF_8)), maxCaracteresCampo, maxCaracteresRegistro);
+
+        List<String> cabecera = lector.leerRegistro();
+        if (cabecera == null) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+        Map<String, Integer> columnas = indexarCabecera(cabecera);
+
+        List<Actividad> lote = new ArrayList<>(tamanoLote);
+        Usuario usuario = usuarioService.obtenerReferencia(usuarioId);
+        while (true) {
+            try {
+                List<String> registro = lector.leerRegistro();
+                if (registro == null) {
+                    break;
+                }
+                lote.add(crearActividad(registro, columnas, usuario));
+            } catch (IllegalArgumentException e) {
+                resultado.rechazar(lector.getLineaRegistro(), e.getMessage());
+                continue;
+            }
+            if (lote.size() == tamanoLote) {
+                resultado.sumarImportadas(actividadService.guardarLote(lote));
+                lote = new ArrayList<>(tamanoLote);
+                // El lote anterior vació el contexto de persistencia: la referencia debe ser nueva
+                usuario = usuarioService.obtenerReferencia(usuarioId);
+            }
+        }
+        if (!lote.isEmpty()) {
+            resultado.sumarImportadas(actividadService.guardarLote(lote));
+        }
+
+        logger.info("Importación CSV usuario={} importadas={} rechazadas={}",
+                usuarioId, resultado.getImportadas(), resultado.getRechazadas());
+        return resultado;
+    }
+
+    private Map<String, Integer> indexarCabecera(List<String> cabecera) {
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < cabecera.size(); i++) {
+            String nombre = cabecera.get(i).trim().toLowerCase(Locale.ROOT);
+            columnas.put(nombre, i);
+        }
+        for (String obligatoria : COLUMNAS_OBLIGATORIAS) {
+            if (!columnas.containsKey(obligatoria)) {
+                throw new IllegalArgumentException("Falta la columna '" + obligatoria
+                        + "'. Cabecera esperada: fecha;descripcion;monto;tipo;categoria[;estado]");
+            }
+        }
+        return columnas;
+    }
+
+    private Actividad crearActividad(List<String> registro, Map<String, Integer> columnas, Usuario usuario) {
+        String descripcion = campo(registro, columnas, "descripcion");
+        String errorDescripcion = validadorActividad.validarDescripcion(descripcion);
+        if (errorDescripcion != null) {
+            throw new IllegalArgumentException(errorDescripcion);
+        }
+
+        long centavos = validadorActividad.parseCentavos(campo(registro, columnas, "monto"));
+        String errorMonto = validadorActividad.validarRangoCentavos(centavos);
+        if (errorMonto != null) {
+            throw new IllegalArgumentException(errorMonto);
+        }
+
+        TipoActividad tipo = valorEnum(TipoActividad.class, campo(registro, columnas, "tipo"), "Tipo");
+        Categoria categoria = valorEnum(Categoria.class, campo(registro, columnas, "categoria"), "Categoría");
+        if (!categoria.getTipo().equals(tipo.name())) {
+            throw new IllegalArgumentException("La categoría " + categoria + " no corresponde al tipo " + tipo);
+        }
+
+        EstadoActividad estado = EstadoActividad.COMPLETADO;
+        String estadoTexto = columnas.containsKey("estado") ? campo(registro, columnas, "estado") : "";
+        if (!estadoTexto.isEmpty()) {
+            estado = valorEnum(EstadoActividad.class, estadoTexto, "Estado");
+        }
+
+        Actividad actividad = new Actividad();
+        actividad.setDescripcion(descripcion.trim());
+        actividad.setMonto(Dinero.deCentavos(centavos));
+        actividad.setTipo(tipo);
+        actividad.setCategoria(categoria);
+        actividad.setEstado(estado);
+        actividad.setCreatedAt(parseFecha(campo(registro, columnas, "fecha")));
+        actividad.setUsuario(usuario);
+        return actividad;
+    }
+
+    private String campo(List<String> registro, Map<String, Integer> columnas, String nombre) {
+        int indice = columnas.get(nombre);
+        return indice < registro.size() ? registro.get(indice) : "";
+    }
+
+    // Acepta 2025-10-01 (ISO), 01/10/2025 o la fecha y hora completa que produce la exportación
+    private LocalDateTime parseFecha(String texto) {
+        try {
+            if (texto.indexOf('T') >= 0) {
+                return LocalDateTime.parse(texto);
+            }
+            return texto.indexOf('/') >= 0
+                    ? LocalDate.parse(texto, FECHA_COLOMBIANA).atStartOfDay()
+                    : LocalDate.parse(texto).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha inválida '" + texto + "'. Use 2025-10-01 o 01/10/2025");
+        }
+    }
+
+    private <E extends Enum<E>> E valorEnum(Class<E> tipoEnum, String texto, String nombreCampo) {
+        try {
+            return Enum.valueOf(tipoEnum, texto.trim().toUpperCase(Locale.ROOT).replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(nombreCampo + " inválido: '" + texto + "'");
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.finanzas.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Índice invertido de trigramas sobre las descripciones de las actividades de un usuario.
+// Cada trigrama de cada palabra apunta a la lista ordenada (long[]) de ids que lo contienen; buscar
+// es intersecar las listas de los trigramas de la consulta y confirmar las candidatas contra el texto.
+// Las descripciones son cortas (máximo 60 caracteres, ver ValidadorActividad), así que por actividad
+// hay como mucho unas decenas de entradas. Textos y consultas se comparan normalizados: minúsculas,
+// sin tildes (piña = pina) y con cualquier signo convertido en espacio.
+// Los métodos son synchronized: un índice lo leen las búsquedas y lo cambian las mutaciones confirmadas.
+final class IndiceTrigramas {
+
+    // Bytes aproximados de cada estructura, para el presupuesto de memoria de BusquedaService
+    private static final int BYTES_POR_ACTIVIDAD = 16 + 56;
+    private static final int BYTES_POR_TRIGRAMA = 96;
+    private static final int BYTES_POR_ENTRADA = 8;
+
+    // Actividades ordenadas por id; textos[i] es la descripción normalizada de ids[i], null si se borró
+    private long[] ids = new long[16];
+    private String[] textos = new String[16];
+    private int tamano;
+    private int borradas;
+    private long caracteres;
+
+    private final Map<Long, ListaIds> trigramas = new HashMap<>();
+    private long entradas;
+
+    // Ids coincidentes de mayor a menor (como mucho "limite") y cuántas coincidencias hay en total
+    record Coincidencias(long[] ids, int total) {
+
+        static final Coincidencias NINGUNA = new Coincidencias(new long[0], 0);
+    }
+
+    // Alta o cambio de descripción
+    synchronized void agregar(long id, String descripcion) {
+        String texto = normalizar(descripcion);
+        int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+        if (posicion >= 0) {
+            if (textos[posicion] != null) {
+                quitarTrigramas(id, textos[posicion]);
+                caracteres -= textos[posicion].length();
+            } else {
+                borradas--;
+            }
+            textos[posicion] = texto;
+        } else {
+            insertar(-posicion - 1, id, texto);
+        }
+        caracteres += texto.length();
+        for (long trigrama : trigramasDe(texto)) {
+            trigramas.computeIfAbsent(trigrama, t -> new ListaIds()).agregar(id);
+            entradas++;
+        }
+    }
+
+    synchronized void quitar(long id) {
+        int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+        if (posicion < 0 || textos[posicion] == null) {
+            return;
+        }
+        quitarTrigramas(id, textos[posicion]);
+        caracteres -= textos[posicion].length();
+        textos[posicion] = null;
+        borradas++;
+        if (borradas > 64 && borradas > tamano / 2) {
+            compactar();
+        }
+    }
+
+    // Actividades cuya descripción contiene todas las palabras de la consulta (como subcadenas),
+    // de la más nueva a la más antigua según el id
+    synchronized Coincidencias buscar(String consulta, int limite) {
+        String[] palabras = palabras(normalizar(consulta));
+        if (palabras.length == 0) {
+            return Coincidencias.NINGUNA;
+        }
+
+        Set<Long> claves = new HashSet<>();
+        for (String palabra : palabras) {
+            claves.addAll(trigramasDe(palabra));
+        }
+        if (claves.isEmpty()) {
+            // Solo palabras de una o dos letras: recorrer todos los textos, que están en memoria
+            return recorrer(palabras, limite);
+        }
+
+        ListaIds[] listas = new ListaIds[claves.size()];
+        int n = 0;
+        for (long clave : claves) {
+            ListaIds lista = trigramas.get(clave);
+            if (lista == null) {
+                return Coincidencias.NINGUNA;
+            }
+            listas[n++] = lista;
+        }
+        Arrays.sort(listas, (a, b) -> Integer.compare(a.tamano, b.tamano));
+
+        // Intersección empezando por la lista más corta
+        long[] candidatas = Arrays.copyOf(listas[0].ids, listas[0].tamano);
+        int cantidad = candidatas.length;
+        for (int i = 1; i < listas.length && cantidad > 0; i++) {
+            cantidad = intersecar(candidatas, cantidad, listas[i]);
+        }
+
+        long[] encontradas = new long[Math.min(limite, cantidad)];
+        int total = 0;
+        for (int i = cantidad - 1; i >= 0; i--) {
+            if (contieneTodas(textos[Arrays.binarySearch(ids, 0, tamano, candidatas[i])], palabras)) {
+                if (total < encontradas.length) {
+                    encontradas[total] = candidatas[i];
+                }
+                total++;
+            }
+        }
+        return new Coincidencias(Arrays.copyOf(encontradas, Math.min(total, encontradas.length)), total);
+    }
+
+    synchronized int getActividades() {
+        return tamano - borradas;
+    }
+
+    synchronized long getBytesEstimados() {
+        return (long) ids.length * 16 + caracteres + (long) BYTES_POR_ACTIVIDAD * (tamano - borradas)
+                + BYTES_POR_ENTRADA * entradas + (long) BYTES_POR_TRIGRAMA * trigramas.size();
+    }
+
+    // =========================
+    // Texto
+    // =========================
+
+    // Minúsculas, sin marcas diacríticas y con todo lo que no sea letra o dígito como un solo espacio
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder normalizado = new StringBuilder(descompuesto.length());
+        boolean espacio = true;
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalizado.append(c);
+                espacio = false;
+            } else if (!espacio) {
+                normalizado.append(' ');
+                espacio = true;
+            }
+        }
+        int fin = normalizado.length();
+        if (fin > 0 && normalizado.charAt(fin - 1) == ' ') {
+            normalizado.setLength(fin - 1);
+        }
+        return normalizado.toString();
+    }
+
+    private static String[] palabras(String normalizado) {
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" ");
+    }
+
+    // Trigramas distintos de cada palabra (no cruzan espacios), codificados como tres char en un long
+    private static Set<Long> trigramasDe(String texto) {
+        Set<Long> resultado = new HashSet<>();
+        int inicioPalabra = 0;
+        for (int i = 0; i <= texto.length(); i++) {
+            if (i == texto.length() || texto.charAt(i) == ' ') {
+                for (int j = inicioPalabra; j + 3 <= i; j++) {
+                    resultado.add(((long) texto.charAt(j) << 32) | ((long) texto.charAt(j + 1) << 16) | texto.charAt(j + 2));
+                }
+                inicioPalabra = i + 1;
+            }
+        }
+        return resultado;
+    }
+
+    private static boolean contieneTodas(String texto, String[] palabras) {
+        for (String palabra : palabras) {
+            if (!texto.contains(palabra)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // =========================
+    // Estructura
+    // =========================
+
+    private Coincidencias recorrer(String[] palabras, int limite) {
+        long[] encontradas = new long[limite];
+        int total = 0;
+        for (int i = tamano - 1; i >= 0; i--) {
+            if (textos[i] != null && contieneTodas(textos[i], palabras)) {
+                if (total < limite) {
+                    encontradas[total] = ids[i];
+                }
+                total++;
+            }
+        }
+        return new Coincidencias(Arrays.copyOf(encontradas, Math.min(total, limite)), total);
+    }
+
+    // Deja en candidatas[0..n) las que también están en "lista"; devuelve el nuevo n
+    private static int intersecar(long[] candidatas, int cantidad, ListaIds lista) {
+        int quedan = 0;
+        int j = 0;
+        for (int i = 0; i < cantidad && j < lista.tamano; i++) {
+            long id = candidatas[i];
+            while (j < lista.tamano && lista.ids[j] < id) {
+                j++;
+            }
+            if (j < lista.tamano && lista.ids[j] == id) {
+                candidatas[quedan++] = id;
+            }
+        }
+        return quedan;
+    }
+
+    private void quitarTrigramas(long id, String texto) {
+        for (long trigrama : trigramasDe(texto)) {
+            ListaIds lista = trigramas.get(trigrama);
+            if (lista != null && lista.quitar(id)) {
+                entradas--;
+                if (lista.tamano == 0) {
+                    trigramas.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    // Los ids crecen con la secuencia: casi siempre se añade al final
+    private void insertar(int posicion, long id, String texto) {
+        if (tamano == ids.length) {
+            ids = Arrays.copyOf(ids, tamano * 2);
+            textos = Arrays.copyOf(textos, tamano * 2);
+        }
+        System.arraycopy(ids, posicion, ids, posicion + 1, tamano - posicion);
+        System.arraycopy(textos, posicion, textos, posicion + 1, tamano - posicion);
+        ids[posicion] = id;
+        textos[posicion] = texto;
+        tamano++;
+    }
+
+    private void compactar() {
+        int quedan = 0;
+        for (int i = 0; i < tamano; i++) {
+            if (textos[i] != null) {
+                ids[quedan] = ids[i];
+                textos[quedan] = textos[i];
+                quedan++;
+            }
+        }
+        Arrays.fill(textos, quedan, tamano, null);
+        tamano = quedan;
+        borradas = 0;
+    }
+
+    // Lista ordenada de ids sin repetidos, sobre un long[] que crece al doble
+    private static final class ListaIds {
+
+        private long[] ids = new long[4];
+        private int tamano;
+
+        void agregar(long id) {
+            if (tamano > 0 && ids[tamano - 1] >= id) {
+                int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+                if (posicion >= 0) {
+                    return;
+                }
+                insertarEn(-posicion - 1, id);
+                return;
+            }
+            insertarEn(tamano, id);
+        }
+
+        boolean quitar(long id) {
+            int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+            if (posicion < 0) {
+                return false;
+            }
+            System.arraycopy(ids, posicion + 1, ids, posicion, tamano - posicion - 1);
+            tamano--;
+            return true;
+        }
+
+        private void insertarEn(int posicion, long id) {
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            System.arraycopy(ids, posicion, ids, posicion + 1, tamano - posicion);
+            ids[posicion] = id;
+            tamano++;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.finanzas.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lector CSV por registros, sin cargar el archivo completo: respeta comillas dobles
+// (con "" como comilla escapada) y saltos de línea dentro de campos entre comillas.
+// El separador se detecta en la cabecera: ';' si aparece (habitual en extractos colombianos,
+// donde la coma es el separador decimal) o ',' en caso contrario.
+// Campos y registros tienen un largo máximo: unas comillas sin cerrar o un archivo sin saltos de
+// línea no acumulan el resto del archivo en memoria, solo invalidan ese registro.
+class LectorCsv {
+
+    private final Reader reader;
+    private final int maxCaracteresCampo;
+    private final int maxCaracteresRegistro;
+    private char separador;
+    private boolean separadorDetectado;
+    private int linea;
+    private int lineaInicioRegistro;
+    private int siguiente = -2;
+    private boolean inicioArchivo = true;
+
+    LectorCsv(Reader reader, int maxCaracteresCampo, int maxCaracteresRegistro) {
+        this.reader = reader;
+        this.maxCaracteresCampo = maxCaracteresCampo;
+        this.maxCaracteresRegistro = maxCaracteresRegistro;
+    }
+
+    // Línea del archivo (1 = cabecera) donde empezó el último registro leído
+    int getLineaRegistro() {
+        return lineaInicioRegistro;
+    }
+
+    // Siguiente registro o null al final del archivo. Las líneas vacías se saltan.
+    // Un registro demasiado largo se descarta hasta el siguiente salto de línea y lanza
+    // IllegalArgumentException; la lectura puede seguir con el registro siguiente.
+    List<String> leerRegistro() throws IOException {
+        while (true) {
+            int c = leer();
+            if (inicioArchivo) {
+                inicioArchivo = false;
+                // BOM de archivos guardados desde Excel
+                if (c == '\uFEFF') {
+                    continue;
+                }
+            }
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                consumirFinDeLinea(c);
+                continue;
+            }
+            devolver(c);
+            lineaInicioRegistro = linea + 1;
+            return leerCampos();
+        }
+    }
+
+    private List<String> leerCampos() throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        boolean primeraLinea = !separadorDetectado;
+        StringBuilder lineaCruda = primeraLinea ? new StringBuilder() : null;
+        int largo = 0;
+
+        while (true) {
+            if (largo > maxCaracteresRegistro || campo.length() > maxCaracteresCampo) {
+                descartarHastaFinDeLinea();
+                throw new IllegalArgumentException(largo > maxCaracteresRegistro
+                        ? "Registro de más de " + maxCaracteresRegistro + " caracteres (¿comillas sin cerrar?)"
+                        : "Campo de más de " + maxCaracteresCampo + " caracteres");
+            }
+            int c = leer();
+            if (c != -1 && c != '\r' && c != '\n') {
+                largo++;
+                if (primeraLinea) {
+                    lineaCruda.append((char) c);
+                }
+            }
+            if (entreComillas) {
+                if (c == -1) {
+                    break;
+                }
+                if (c == '"') {
+                    int d = leer();
+                    if (d == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        devolver(d);
+                    }
+                } else {
+                    if (c == '\n') {
+                        linea++;
+                    }
+                    campo.append((char) c);
+                }
+                continue;
+            }
+            if (c == -1 || c == '\r' || c == '\n') {
+                if (c != -1) {
+                    consumirFinDeLinea(c);
+                }
+                break;
+            }
+            if (primeraLinea && !separadorDetectado) {
+                // El separador se decide con la primera línea completa; hasta entonces se acumula
+                campo.append((char) c);
+                continue;
+            }
+            if (c == '"' && campo.length() == 0) {
+                entreComillas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString().trim());
+                campo.setLength(0);
+            } else {
+                campo.append((char) c);
+            }
+        }
+
+        if (primeraLinea) {
+            separador = lineaCruda.indexOf(";") >= 0 ? ';' : ',';
+            separadorDetectado = true;
+            return dividirCabecera(lineaCruda.toString());
+        }
+        campos.add(campo.toString().trim());
+        return campos;
+    }
+
+    // La cabecera no lleva comillas ni separadores escapados: basta con dividirla
+    private List<String> dividirCabecera(String cabecera) {
+        List<String> campos = new ArrayList<>();
+        for (String campo : cabecera.split(String.valueOf(separador), -1)) {
+            campos.add(campo.replace("\"", "").trim());
+        }
+        return campos;
+    }
+
+    // Tras pasar el límite: lo que queda hasta el salto de línea se lee sin guardarlo, sin tener
+    // en cuenta las comillas (pueden ser justo las que no se cerraron)
+    private void descartarHastaFinDeLinea() throws IOException {
+        int c = leer();
+        while (c != -1 && c != '\r' && c != '\n') {
+            c = leer();
+        }
+        if (c != -1) {
+            consumirFinDeLinea(c);
+        }
+    }
+
+    private void consumirFinDeLinea(int c) throws IOException {
+        linea++;
+        if (c == '\r') {
+            int d = leer();
+            if (d != '\n') {
+                devolver(d);
+            }
+        }
+    }
+
+    private int leer() throws IOException {
+        if (siguiente != -2) {
+            int c = siguiente;
+            siguiente = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void devolver(int c) {
+        siguiente = c;
+    }
+}
@@ -0,0 +1,39 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.SaldoLibro;
+import com.finanzas.entity.EventoLibro;
+import com.finanzas.repository.LibroRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Saldos y cambios leídos del libro de actividades (V8__libro_actividades.sql). Las ediciones y cambios
+// de estado pisan la fila de la actividad, pero cada uno deja un evento con su efecto sobre el saldo;
+// con una foto cada 100 eventos, cualquier saldo pasado es una foto más unos pocos eventos.
+@Service
+public class LibroService {
+
+    public static final int MAX_EVENTOS = 500;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    // Saldo actual (instante null) o tal como estaba en "instante"
+    public SaldoLibro obtenerSaldo(Long usuarioId, LocalDateTime instante) {
+        if (instante == null || !instante.isBefore(LocalDateTime.now())) {
+            return new SaldoLibro(null, libroRepository.obtenerSaldoActual(usuarioId));
+        }
+        return new SaldoLibro(instante, libroRepository.obtenerSaldoAl(usuarioId, instante));
+    }
+
+    // Eventos posteriores a "despuesDe" (0 = desde el principio); el cliente sigue con el último número recibido
+    public List<EventoLibro> obtenerEventos(Long usuarioId, long despuesDe, int limite) {
+        if (limite < 1 || limite > MAX_EVENTOS) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_EVENTOS);
+        }
+        return libroRepository.findEventosDespuesDe(usuarioId, despuesDe, Limit.of(limite));
+    }
+}
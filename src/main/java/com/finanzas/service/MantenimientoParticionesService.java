@@ -0,0 +1,43 @@
+package com.finanzas.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+// Crea por adelantado las particiones mensuales de actividades (solo con el perfil "particionado")
+@Service
+@Profile("particionado")
+public class MantenimientoParticionesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MantenimientoParticionesService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${finanzas.particiones.meses-adelante:3}")
+    private int mesesAdelante;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        asegurarParticiones();
+    }
+
+    // El día 1 de cada mes a las 00:05
+    @Scheduled(cron = "0 5 0 1 * *")
+    public void asegurarParticiones() {
+        LocalDate hoy = LocalDate.now();
+        Integer creadas = jdbcTemplate.queryForObject(
+                "SELECT crear_particiones_actividades(?, ?)", Integer.class,
+                hoy, hoy.plusMonths(mesesAdelante));
+        logger.info("Particiones de actividades verificadas hasta {}: {} nuevas", hoy.plusMonths(mesesAdelante), creadas);
+    }
+}
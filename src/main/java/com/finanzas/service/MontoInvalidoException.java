@@ -0,0 +1,17 @@
+package com.finanzas.service;
+
+// Monto que no se pudo interpretar. posicion es 1-based sobre el texto recibido, o -1 si el
+// error no corresponde a un carácter concreto (vacío, sin dígitos, cero).
+public class MontoInvalidoException extends IllegalArgumentException {
+
+    private final int posicion;
+
+    public MontoInvalidoException(String mensaje, int posicion) {
+        super(mensaje);
+        this.posicion = posicion;
+    }
+
+    public int getPosicion() {
+        return posicion;
+    }
+}
@@ -0,0 +1,107 @@
+package com.finanzas.service;
+
+// Parser de montos en formato colombiano ("1.000", "1.000,50", "$ 25.000 COP") a centavos.
+// Recorre el texto una sola vez y no crea objetos salvo para lanzar el error, a diferencia de la
+// versión anterior (cinco String.replace, un split y un BigDecimal por monto).
+//
+// Reglas:
+//  - Espacios, '$', '€' y "COP"/"cop" se ignoran en cualquier posición.
+//  - Antes de la coma, '.' es separador de miles y se ignora.
+//  - Una sola coma decimal, seguida de como máximo 2 dígitos.
+//  - El resultado debe ser mayor que cero.
+public final class ParserMontoColombiano {
+
+    // Mayor parte entera que cabe en un long de centavos
+    private static final long MAX_ENTERO = (Long.MAX_VALUE - 99) / 100;
+
+    private ParserMontoColombiano() {
+    }
+
+    public static long aCentavos(CharSequence texto) {
+        if (texto == null) {
+            throw new MontoInvalidoException("El monto no puede estar vacío", -1);
+        }
+
+        // Mismos límites que String.trim()
+        int inicio = 0;
+        int fin = texto.length();
+        while (inicio < fin && texto.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && texto.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        if (inicio == fin) {
+            throw new MontoInvalidoException("El monto no puede estar vacío", -1);
+        }
+
+        long entero = 0;
+        long fraccion = 0;
+        int decimales = 0;
+        boolean enDecimales = false;
+        boolean hayDigitos = false;
+
+        for (int i = inicio; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                int digito = c - '0';
+                hayDigitos = true;
+                if (enDecimales) {
+                    if (decimales == 2) {
+                        throw new MontoInvalidoException(
+                                "El monto admite como máximo 2 decimales (posición " + (i + 1) + ")", i + 1);
+                    }
+                    fraccion = fraccion * 10 + digito;
+                    decimales++;
+                } else {
+                    if (entero > (MAX_ENTERO - digito) / 10) {
+                        throw new MontoInvalidoException("El monto es demasiado grande", i + 1);
+                    }
+                    entero = entero * 10 + digito;
+                }
+                continue;
+            }
+            if (c == ' ' || c == '$' || c == '€') {
+                continue;
+            }
+            if (esMoneda(texto, i, fin)) {
+                i += 2;
+                continue;
+            }
+            if (!enDecimales && c == '.') {
+                continue;
+            }
+            if (!enDecimales && c == ',') {
+                enDecimales = true;
+                continue;
+            }
+            throw new MontoInvalidoException("Formato de monto inválido en la posición " + (i + 1)
+                    + " ('" + c + "'). Use formato colombiano: 1.000 o 1.000,00", i + 1);
+        }
+
+        if (!hayDigitos) {
+            throw new MontoInvalidoException("Formato de monto inválido. Use formato colombiano: 1.000 o 1.000,00", -1);
+        }
+
+        long centavos = entero * 100 + (decimales == 1 ? fraccion * 10 : fraccion);
+        if (centavos == 0) {
+            throw new MontoInvalidoException("El monto debe ser mayor a 0", -1);
+        }
+        return centavos;
+    }
+
+    // "COP" o "cop" empezando en i
+    private static boolean esMoneda(CharSequence texto, int i, int fin) {
+        if (i + 3 > fin) {
+            return false;
+        }
+        char c = texto.charAt(i);
+        if (c == 'C') {
+            return texto.charAt(i + 1) == 'O' && texto.charAt(i + 2) == 'P';
+        }
+        if (c == 'c') {
+            return texto.charAt(i + 1) == 'o' && texto.charAt(i + 2) == 'p';
+        }
+        return false;
+    }
+}
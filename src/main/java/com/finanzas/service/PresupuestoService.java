@@ -0,0 +1,114 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.EstadoPresupuesto;
+import com.finanzas.dto.PresupuestoCategoria;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.repository.PresupuestoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Presupuestos mensuales por categoría de gasto. Lo gastado no se suma aquí: resumen_mensual ya lleva
+// el total de cada (usuario, mes, tipo, categoría), ajustado en la misma transacción que cada alta,
+// edición, cambio de estado o borrado. Comprobar un presupuesto es una lectura por clave primaria.
+@Service
+public class PresupuestoService {
+
+    @Autowired
+    private PresupuestoRepository presupuestoRepository;
+
+    @Autowired
+    private ValidadorActividad validadorActividad;
+
+    // Todas las categorías de gasto en el orden del enum, con o sin presupuesto, para el mes dado
+    @Transactional(readOnly = true)
+    public List<PresupuestoCategoria> obtenerEstado(Long usuarioId, YearMonth mes) {
+        Long[] presupuestos = new Long[Categoria.todas().size()];
+        long[] gastados = new long[Categoria.todas().size()];
+        for (EstadoPresupuesto fila : presupuestoRepository.obtenerEstadoDelMes(usuarioId, mes.getYear(), mes.getMonthValue())) {
+            int indice = Categoria.valueOf(fila.getCategoria()).ordinal();
+            presupuestos[indice] = fila.getPresupuesto();
+            gastados[indice] = fila.getGastado();
+        }
+
+        List<Categoria> categorias = Categoria.getCategoriasPorTipo(TipoActividad.GASTO);
+        List<PresupuestoCategoria> estado = new ArrayList<>(categorias.size());
+        for (Categoria categoria : categorias) {
+            Long presupuesto = presupuestos[categoria.ordinal()];
+            estado.add(new PresupuestoCategoria(categoria, categoria.getNombreFormateado(),
+                    presupuesto != null ? Dinero.deCentavos(presupuesto) : null,
+                    Dinero.deCentavos(gastados[categoria.ordinal()])));
+        }
+        return estado;
+    }
+
+    // Guardar los montos del formulario (formato colombiano); un monto vacío quita el presupuesto.
+    // Se validan todos antes de escribir: con un monto inválido no se guarda ninguno.
+    @Transactional
+    public void guardar(Long usuarioId, Map<Categoria, String> montos) {
+        Map<Categoria, Long> nuevos = new EnumMap<>(Categoria.class);
+        List<String> quitar = new ArrayList<>();
+        for (Map.Entry<Categoria, String> entrada : montos.entrySet()) {
+            Categoria categoria = entrada.getKey();
+            if (!TipoActividad.GASTO.name().equals(categoria.getTipo())) {
+                throw new IllegalArgumentException(categoria.getNombreFormateado() + " no es una categoría de gasto");
+            }
+            String monto = entrada.getValue();
+            if (monto == null || monto.isBlank()) {
+                quitar.add(categoria.name());
+                continue;
+            }
+            long centavos = validadorActividad.parseCentavos(monto.trim());
+            if (centavos <= 0) {
+                throw new IllegalArgumentException("El presupuesto de " + categoria.getNombreFormateado() + " debe ser mayor que cero");
+            }
+            nuevos.put(categoria, centavos);
+        }
+
+        nuevos.forEach((categoria, centavos) -> presupuestoRepository.guardar(usuarioId, categoria.name(), centavos));
+        if (!quitar.isEmpty()) {
+            presupuestoRepository.eliminar(usuarioId, quitar);
+        }
+    }
+
+    // Aviso para un gasto pendiente recién creado: si completarlo deja la categoría por encima del
+    // presupuesto del mes actual. null si no hay presupuesto o no se supera.
+    @Transactional(readOnly = true)
+    public String avisoGastoPendiente(Long usuarioId, Categoria categoria, long montoCentavos) {
+        YearMonth mes = YearMonth.now();
+        return presupuestoRepository.obtenerEstado(usuarioId, categoria.name(), mes.getYear(), mes.getMonthValue())
+                .filter(e -> e.getGastado() + montoCentavos > e.getPresupuesto())
+                .map(e -> "Si completas este gasto superarás el presupuesto de " + categoria.getNombreFormateado()
+                        + ": " + pesos(e.getGastado() + montoCentavos) + " de " + pesos(e.getPresupuesto()))
+                .orElse(null);
+    }
+
+    // Aviso tras completar o editar una actividad: si es un gasto completado y su categoría quedó por
+    // encima del presupuesto en el mes de la actividad. null si no aplica.
+    @Transactional(readOnly = true)
+    public String avisoActividad(Long id, Long usuarioId) {
+        return presupuestoRepository.obtenerEstadoDeActividad(id, usuarioId)
+                .filter(e -> e.getGastado() > e.getPresupuesto())
+                .map(e -> "Superaste el presupuesto de " + Categoria.valueOf(e.getCategoria()).getNombreFormateado()
+                        + ": " + pesos(e.getGastado()) + " gastados de " + pesos(e.getPresupuesto()))
+                .orElse(null);
+    }
+
+    // $1.234.567, como los totales del dashboard
+    private static String pesos(long centavos) {
+        DecimalFormatSymbols simbolos = new DecimalFormatSymbols();
+        simbolos.setGroupingSeparator('.');
+        simbolos.setDecimalSeparator(',');
+        return "$" + new DecimalFormat("#,##0", simbolos).format(Dinero.deCentavos(centavos).getValor());
+    }
+}
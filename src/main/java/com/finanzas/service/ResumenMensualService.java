@@ -0,0 +1,154 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.DesgloseCategorias;
+import com.finanzas.dto.SaldoAlDia;
+import com.finanzas.dto.TotalCategoria;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.ContribucionResumen;
+import com.finanzas.entity.ResumenMensualId;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.repository.ResumenMensualRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ResumenMensualService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumenMensualService.class);
+
+    @Autowired
+    private ResumenMensualRepository resumenMensualRepository;
+
+    @Autowired
+    private TendenciaService tendenciaService;
+
+    // Aplicar el paso de una actividad de "anterior" a "nueva" (cualquiera puede ser null).
+    // Debe correr dentro de la misma transacción que escribe la actividad.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aplicarCambio(ContribucionResumen anterior, ContribucionResumen nueva) {
+        if (anterior == null && nueva == null) {
+            return;
+        }
+        if (anterior != null && anterior.mismoAporte(nueva)) {
+            return;
+        }
+        if (anterior != null) {
+            acumular(anterior, -anterior.montoCentavos(), -1);
+        }
+        if (nueva != null) {
+            acumular(nueva, nueva.montoCentavos(), 1);
+        }
+    }
+
+    // Aplicar de una vez los aportes de un lote de actividades nuevas: se agrupan por fila
+    // del resumen para hacer un upsert por (usuario, mes, tipo, categoría) y no uno por actividad.
+    // Sumas y cantidades se acumulan en un long[] por fila para no crear objetos por actividad.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acumularLote(Collection<ContribucionResumen> contribuciones) {
+        Map<ResumenMensualId, long[]> acumulados = new HashMap<>();
+        for (ContribucionResumen c : contribuciones) {
+            if (c == null) {
+                continue;
+            }
+            long[] acumulado = acumulados.computeIfAbsent(
+                    new ResumenMensualId(c.usuarioId(), c.anio(), c.mes(), c.tipo(), c.categoria()),
+                    clave -> new long[2]);
+            acumulado[0] += c.montoCentavos();
+            acumulado[1]++;
+        }
+        Set<Long> conMesesCerrados = new HashSet<>();
+        YearMonth actual = YearMonth.now();
+        acumulados.forEach((clave, acumulado) -> {
+            resumenMensualRepository.acumular(clave.getUsuarioId(),
+                    clave.getAnio(), clave.getMes(), clave.getTipo().name(), clave.getCategoria().name(),
+                    acumulado[0], acumulado[1]);
+            if (YearMonth.of(clave.getAnio(), clave.getMes()).isBefore(actual)) {
+                conMesesCerrados.add(clave.getUsuarioId());
+            }
+        });
+        conMesesCerrados.forEach(tendenciaService::registrarCambioEnMesCerrado);
+    }
+
+    // Total del mes por tipo leído del resumen, en centavos
+    @Transactional(readOnly = true)
+    public long obtenerTotal(Long usuarioId, int anio, int mes, TipoActividad tipo) {
+        return resumenMensualRepository.sumTotalByUsuarioAndMesAndTipo(usuarioId, anio, mes, tipo);
+    }
+
+    // Desglose por categoría de un tipo en los meses [desde, hasta]: una consulta agrupada y una pasada
+    // sobre un long[] indexado por ordinal; nombres y listas por tipo vienen precalculados del enum
+    @Transactional(readOnly = true)
+    public DesgloseCategorias obtenerDesglose(Long usuarioId, TipoActividad tipo, YearMonth desde, YearMonth hasta) {
+        long[] totales = new long[Categoria.todas().size()];
+        long total = 0;
+        for (TotalCategoria fila : resumenMensualRepository.sumarPorCategoria(usuarioId, tipo.name(),
+                desde.getYear(), desde.getMonthValue(), hasta.getYear(), hasta.getMonthValue())) {
+            totales[Categoria.valueOf(fila.getCategoria()).ordinal()] += fila.getTotal();
+            total += fila.getTotal();
+        }
+
+        List<Categoria> categorias = Categoria.getCategoriasPorTipo(tipo);
+        List<DesgloseCategorias.PorcionCategoria> porciones = new ArrayList<>(categorias.size());
+        for (Categoria categoria : categorias) {
+            long totalCategoria = totales[categoria.ordinal()];
+            double porcentaje = total == 0 ? 0 : Math.round(totalCategoria * 10_000.0 / total) / 100.0;
+            porciones.add(new DesgloseCategorias.PorcionCategoria(
+                    categoria, categoria.getNombreFormateado(), totalCategoria, porcentaje));
+        }
+        return new DesgloseCategorias(tipo, desde, hasta, total, porciones);
+    }
+
+    // Saldo al final del día según la fecha de las actividades (no según cuándo se registraron, ver LibroService)
+    @Transactional(readOnly = true)
+    public SaldoAlDia obtenerSaldoAlDia(Long usuarioId, LocalDate dia) {
+        return new SaldoAlDia(dia, obtenerSaldoAntesDe(usuarioId, dia.plusDays(1).atStartOfDay(), 0));
+    }
+
+    // Saldo de las completadas anteriores a (fecha, id) en el orden de las listas: una foto mensual
+    // más como mucho un mes de actividades, sin importar cuánto historial tenga el usuario
+    @Transactional(readOnly = true)
+    public long obtenerSaldoAntesDe(Long usuarioId, LocalDateTime fecha, long id) {
+        return resumenMensualRepository.obtenerSaldoAntesDe(
+                usuarioId, fecha.getYear(), fecha.getMonthValue(), fecha, id);
+    }
+
+    // Borrar los resúmenes de un usuario
+    @Transactional
+    public void eliminarPorUsuario(Long usuarioId) {
+        resumenMensualRepository.deleteByUsuarioId(usuarioId);
+        tendenciaService.olvidar(usuarioId);
+    }
+
+    // Recalcular todo el resumen desde la tabla de actividades (backfill o reparación)
+    @Transactional
+    public int reconstruir() {
+        long inicio = System.currentTimeMillis();
+        int borradas = resumenMensualRepository.vaciar();
+        int creadas = resumenMensualRepository.recalcularDesdeActividades();
+        tendenciaService.olvidarTodo();
+        logger.info("resumen_mensual reconstruido: {} filas borradas, {} filas creadas en {} ms",
+                borradas, creadas, System.currentTimeMillis() - inicio);
+        return creadas;
+    }
+
+    private void acumular(ContribucionResumen c, long montoCentavos, long cantidad) {
+        resumenMensualRepository.acumular(c.usuarioId(), c.anio(), c.mes(),
+                c.tipo().name(), c.categoria().name(), montoCentavos, cantidad);
+        tendenciaService.registrarCambio(c.usuarioId(), c.anio(), c.mes());
+    }
+}
@@ -0,0 +1,142 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.PuntoTendencia;
+import com.finanzas.dto.TotalMensual;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.repository.ResumenMensualRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ingresos y gastos por mes de los últimos N meses (como mucho MAX_MESES), leídos de resumen_mensual.
+// Los meses cerrados solo cambian con ediciones de actividades antiguas, así que se guardan en una caché
+// acotada (LRU por usuario) que no caduca por tiempo; el mes actual se consulta siempre.
+// Cualquier escritura del resumen sobre un mes cerrado invalida la caché del usuario al confirmar.
+// Igual que VersionDatosService, la caché es por proceso: se asume una sola instancia.
+@Service
+public class TendenciaService {
+
+    public static final int MAX_MESES = 24;
+
+    @Autowired
+    private ResumenMensualRepository resumenMensualRepository;
+
+    private final Map<Long, MesesCerrados> cache;
+
+    // Sube con cada cambio confirmado en un mes cerrado. Una entrada calculada con una generación
+    // anterior no vale aunque se haya guardado después de la invalidación (lectura concurrente con el cambio).
+    private final Map<Long, Long> generaciones = new ConcurrentHashMap<>();
+    private final AtomicLong generacionGlobal = new AtomicLong();
+
+    public TendenciaService(@Value("${finanzas.tendencias.usuarios-en-cache:10000}") int usuariosEnCache) {
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MesesCerrados> mayor) {
+                return size() > usuariosEnCache;
+            }
+        });
+    }
+
+    // Serie de "meses" puntos terminando en el mes actual, incluidos los meses sin movimientos.
+    // Con la caché al día es una sentencia sobre el mes actual; si no, una sobre todo el rango.
+    public List<PuntoTendencia> obtener(Long usuarioId, int meses) {
+        if (meses < 1 || meses > MAX_MESES) {
+            throw new IllegalArgumentException("El número de meses debe estar entre 1 y " + MAX_MESES);
+        }
+        YearMonth actual = YearMonth.now();
+        long generacion = generacion(usuarioId);
+
+        MesesCerrados cerrados = cache.get(usuarioId);
+        Map<YearMonth, long[]> totales;
+        if (cerrados != null && cerrados.vigente(actual, generacion)) {
+            totales = new HashMap<>(cerrados.totales());
+            totales.putAll(agrupar(consultar(usuarioId, actual, actual)));
+        } else {
+            // Siempre el rango máximo: la entrada sirve después para cualquier número de meses
+            totales = agrupar(consultar(usuarioId, actual.minusMonths(MAX_MESES - 1), actual));
+            Map<YearMonth, long[]> soloCerrados = new HashMap<>(totales);
+            soloCerrados.remove(actual);
+            cache.put(usuarioId, new MesesCerrados(actual, generacion, soloCerrados));
+        }
+
+        List<PuntoTendencia> serie = new ArrayList<>(meses);
+        for (YearMonth mes = actual.minusMonths(meses - 1); !mes.isAfter(actual); mes = mes.plusMonths(1)) {
+            long[] total = totales.getOrDefault(mes, new long[2]);
+            serie.add(new PuntoTendencia(mes, total[0], total[1]));
+        }
+        return serie;
+    }
+
+    // Avisar de una escritura en resumen_mensual; solo importa si el mes ya está cerrado
+    public void registrarCambio(Long usuarioId, int anio, int mes) {
+        if (YearMonth.of(anio, mes).isBefore(YearMonth.now())) {
+            registrarCambioEnMesCerrado(usuarioId);
+        }
+    }
+
+    // La invalidación espera a que la transacción confirme: antes, otra petición leería los datos
+    // viejos y los volvería a guardar en la caché
+    public void registrarCambioEnMesCerrado(Long usuarioId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            olvidar(usuarioId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                olvidar(usuarioId);
+            }
+        });
+    }
+
+    public void olvidar(Long usuarioId) {
+        generaciones.merge(usuarioId, 1L, Long::sum);
+        cache.remove(usuarioId);
+    }
+
+    // Tras reconstruir el resumen completo
+    public void olvidarTodo() {
+        generacionGlobal.incrementAndGet();
+        cache.clear();
+    }
+
+    private long generacion(Long usuarioId) {
+        return generacionGlobal.get() + generaciones.getOrDefault(usuarioId, 0L);
+    }
+
+    private List<TotalMensual> consultar(Long usuarioId, YearMonth desde, YearMonth hasta) {
+        return resumenMensualRepository.sumarPorMesYTipo(usuarioId,
+                desde.getYear(), desde.getMonthValue(), hasta.getYear(), hasta.getMonthValue());
+    }
+
+    // {ingresos, gastos} por mes
+    private static Map<YearMonth, long[]> agrupar(List<TotalMensual> filas) {
+        Map<YearMonth, long[]> totales = new HashMap<>();
+        for (TotalMensual fila : filas) {
+            long[] total = totales.computeIfAbsent(YearMonth.of(fila.getAnio(), fila.getMes()), mes -> new long[2]);
+            total[TipoActividad.INGRESO.name().equals(fila.getTipo()) ? 0 : 1] += fila.getTotal();
+        }
+        return totales;
+    }
+
+    // Meses cerrados de un usuario tal como estaban en "generacion", calculados durante "mesActual"
+    // (al cambiar de mes, el que era actual pasa a cerrado y la entrada ya no lo tiene)
+    private record MesesCerrados(YearMonth mesActual, long generacion, Map<YearMonth, long[]> totales) {
+
+        boolean vigente(YearMonth actual, long generacionActual) {
+            return mesActual.equals(actual) && generacion == generacionActual;
+        }
+    }
+}
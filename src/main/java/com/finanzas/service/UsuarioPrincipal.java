@@ -0,0 +1,56 @@
+package com.finanzas.service;
+
+import com.finanzas.entity.RolUsuario;
+import com.finanzas.entity.Usuario;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Usuario autenticado guardado en la sesión. Lleva lo que los controladores necesitan
+// (id, nombre, rol, contraseña temporal) para no volver a consultar la BD en cada petición.
+public class UsuarioPrincipal implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String email;
+    private final String nombre;
+    private final RolUsuario rol;
+    private final List<GrantedAuthority> authorities;
+    private String password;
+    private boolean passwordTemporal;
+
+    public UsuarioPrincipal(Usuario usuario) {
+        this.id = usuario.getId();
+        this.email = usuario.getEmail();
+        this.nombre = usuario.getNombre();
+        this.rol = usuario.getRol();
+        this.password = usuario.getPassword();
+        this.passwordTemporal = usuario.isPasswordTemporal();
+        // Convertir el rol del usuario a authorities de Spring Security
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + usuario.getRol().name()));
+    }
+
+    public Long getId() { return id; }
+    public String getEmail() { return email; }
+    public String getNombre() { return nombre; }
+    public RolUsuario getRol() { return rol; }
+
+    public boolean isPasswordTemporal() { return passwordTemporal; }
+    public void setPasswordTemporal(boolean passwordTemporal) { this.passwordTemporal = passwordTemporal; }
+
+    @Override
+    public String getUsername() { return email; }
+
+    @Override
+    public String getPassword() { return password; }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+
+    // El hash no se queda en la sesión después de autenticar
+    @Override
+    public void eraseCredentials() { this.password = null; }
+}
@@ -1,12 +1,24 @@
 package com.finanzas.service;
 
+import com.finanzas.dto.EstadisticasUsuario;
+import com.finanzas.dto.UsuarioAdmin;
+import com.finanzas.dto.UsuarioListado;
 import com.finanzas.entity.Usuario;
+import com.finanzas.repository.ActividadRepository;
 import com.finanzas.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class UsuarioService {
@@ -17,13 +29,25 @@ public class UsuarioService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ResumenMensualService resumenMensualService;
+
+    @Autowired
+    private ActividadRepository actividadRepository;
+
+    @Autowired
+    private VersionDatosService versionDatosService;
+
+    @Autowired
+    private BusquedaService busquedaService;
+
     // Guardar usuario (encriptando password)
     public Usuario guardarUsuario(Usuario usuario) {
         // Asegurar que la contraseña siempre se encripte
         if (usuario.getPassword() != null && !usuario.getPassword().startsWith("$2a$")) {
             usuario.setPassword(passwordEncoder.encode(usuario.getPassword()));
         }
-        return usuarioRepository.save(usuario);
+        return conVersion(usuarioRepository.save(usuario));
     }
 
     // Encontrar usuario por ID
@@ -31,6 +55,11 @@ public class UsuarioService {
         return usuarioRepository.findById(id);
     }
 
+    // Referencia al usuario por ID sin consultarlo (proxy de JPA; solo se inicializa si se lee algo además del id)
+    public Usuario obtenerReferencia(Long id) {
+        return usuarioRepository.getReferenceById(id);
+    }
+
     // Encontrar usuario por email
     public Optional<Usuario> encontrarPorEmail(String email) {
         return usuarioRepository.findByEmail(email);
@@ -46,14 +75,55 @@ public class UsuarioService {
         return usuarioRepository.findAll();
     }
 
+    // Página del listado de administración: una consulta para los usuarios de la página (proyección,
+    // sin cargar entidades) y un GROUP BY sobre actividades solo para esos ids
+    @Transactional(readOnly = true)
+    public Page<UsuarioAdmin> listarParaAdmin(String busqueda, Pageable pageable) {
+        String patron = busqueda == null || busqueda.isBlank()
+                ? null
+                : "%" + busqueda.trim().toLowerCase(Locale.ROOT) + "%";
+        Page<UsuarioListado> usuarios = usuarioRepository.buscarListado(patron, pageable);
+        if (usuarios.isEmpty()) {
+            return usuarios.map(u -> UsuarioAdmin.de(u, null));
+        }
+
+        LocalDate inicioMes = LocalDate.now().withDayOfMonth(1);
+        List<Long> ids = usuarios.map(UsuarioListado::getId).getContent();
+        Map<Long, EstadisticasUsuario> estadisticas = actividadRepository
+                .obtenerEstadisticasPorUsuario(ids, inicioMes.atStartOfDay(), inicioMes.plusMonths(1).atStartOfDay())
+                .stream()
+                .collect(Collectors.toMap(EstadisticasUsuario::getUsuarioId, Function.identity()));
+        return usuarios.map(u -> UsuarioAdmin.de(u, estadisticas.get(u.getId())));
+    }
+
     // Contar total de usuarios
     public long contarUsuarios() {
         return usuarioRepository.count();
     }
 
-    // Eliminar usuario
+    // Eliminar usuario: resúmenes y actividades con un DELETE cada uno; la cascada de la
+    // colección encuentra la lista ya vacía en vez de borrar las actividades por lotes
+    @Transactional
     public void eliminarUsuario(Long id) {
+        resumenMensualService.eliminarPorUsuario(id);
+        actividadRepository.deleteByUsuarioId(id);
         usuarioRepository.deleteById(id);
+        versionDatosService.olvidar(id);
+        busquedaService.olvidar(id);
+    }
+
+    // Cambiar la contraseña de un usuario ya cargado y quitar el flag de contraseña temporal
+    public Usuario cambiarPassword(Usuario usuario, String nuevaPassword) {
+        usuario.setPassword(passwordEncoder.encode(nuevaPassword));
+        usuario.setPasswordTemporal(false);
+        return conVersion(usuarioRepository.save(usuario));
+    }
+
+    // Restablecer la contraseña (admin): queda marcada como temporal hasta que el usuario la cambie
+    public Usuario restablecerPassword(Usuario usuario, String passwordTemporal) {
+        usuario.setPassword(passwordEncoder.encode(passwordTemporal));
+        usuario.setPasswordTemporal(true);
+        return conVersion(usuarioRepository.save(usuario));
     }
 
     // Método específico para cambiar contraseña
@@ -62,9 +132,15 @@ public class UsuarioService {
         if (usuarioOpt.isPresent()) {
             Usuario usuario = usuarioOpt.get();
             usuario.setPassword(passwordEncoder.encode(nuevaPassword));
-            usuarioRepository.save(usuario);
+            conVersion(usuarioRepository.save(usuario));
             return true;
         }
         return false;
     }
+
+    // Cualquier cambio en la cuenta invalida el dashboard cacheado del usuario (ETag)
+    private Usuario conVersion(Usuario guardado) {
+        versionDatosService.incrementar(guardado.getId());
+        return guardado;
+    }
 }
\ No newline at end of file
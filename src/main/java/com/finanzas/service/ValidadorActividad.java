@@ -0,0 +1,188 @@
+package com.finanzas.service;
+
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.TipoActividad;
+import org.springframework.stereotype.Component;
+
+// Reglas de validación de actividades compartidas por el dashboard y la importación CSV
+@Component
+public class ValidadorActividad {
+
+    // Rango permitido de montos, en centavos
+    private static final long MONTO_MINIMO_CENTAVOS = 1_000_00L;
+    private static final long MONTO_MAXIMO_CENTAVOS = 40_000_000_00L;
+
+    // Límites de la descripción
+    private static final int MAX_LONGITUD = 60;
+    private static final int MAX_PALABRAS = 5;
+    private static final int MAX_LONGITUD_PALABRA = 15;
+    private static final int MAX_DIGITOS_SEGUIDOS = 10;
+
+    // Validación de descripción: devuelve el mensaje de error o null si es válida.
+    // Recorre el texto a mano en lugar de usar String.matches/split: se llama por cada fila de una
+    // importación, y así no compila expresiones regulares ni crea arrays ni sets por llamada.
+    // Los mensajes y su prioridad son los mismos que tenía la versión con expresiones regulares.
+    public String validarDescripcion(String descripcion) {
+        // Validar que no esté vacía
+        if (descripcion == null) {
+            return "La descripción no puede estar vacía";
+        }
+
+        // Limpiar espacios (trim devuelve la misma cadena si no hay nada que quitar)
+        descripcion = descripcion.trim();
+        if (descripcion.isEmpty()) {
+            return "La descripción no puede estar vacía";
+        }
+
+        // Validar longitud total (máximo 60 caracteres)
+        int longitud = descripcion.length();
+        if (longitud > MAX_LONGITUD) {
+            return "La descripción no puede superar los 60 caracteres";
+        }
+
+        // Una pasada: caracteres permitidos, dígitos, palabras y límites de cada palabra
+        boolean soloDigitos = true;
+        boolean tieneFinDeLinea = false;
+        int digitosSeguidos = 0;
+        int maxDigitosSeguidos = 0;
+        int palabras = 0;
+        int[] inicioPalabra = new int[MAX_PALABRAS];
+        int[] finPalabra = new int[MAX_PALABRAS];
+        boolean enPalabra = false;
+
+        for (int i = 0; i < longitud; i++) {
+            char c = descripcion.charAt(i);
+            if (esEspacio(c)) {
+                tieneFinDeLinea |= c == '\n' || c == '\r';
+                soloDigitos = false;
+                digitosSeguidos = 0;
+                if (enPalabra && palabras <= MAX_PALABRAS) {
+                    finPalabra[palabras - 1] = i;
+                }
+                enPalabra = false;
+                continue;
+            }
+            // Validar que solo contenga letras, números y espacios (sin símbolos como $ % & / ( ) " etc.)
+            if (!esLetra(c) && !esDigito(c)) {
+                return "La descripción solo puede contener letras, números y espacios";
+            }
+            if (esDigito(c)) {
+                digitosSeguidos++;
+                maxDigitosSeguidos = Math.max(maxDigitosSeguidos, digitosSeguidos);
+            } else {
+                soloDigitos = false;
+                digitosSeguidos = 0;
+            }
+            if (!enPalabra) {
+                enPalabra = true;
+                palabras++;
+                if (palabras <= MAX_PALABRAS) {
+                    inicioPalabra[palabras - 1] = i;
+                }
+            }
+        }
+        if (enPalabra && palabras <= MAX_PALABRAS) {
+            finPalabra[palabras - 1] = longitud;
+        }
+
+        // Validar que no sea solo números
+        if (soloDigitos) {
+            return "La descripción no puede ser solo un número";
+        }
+
+        // Validar que no contenga números excesivamente largos (más de 10 dígitos seguidos).
+        // La expresión original (".*\\d{11,}.*") no cruzaba saltos de línea: se conserva ese comportamiento.
+        if (maxDigitosSeguidos > MAX_DIGITOS_SEGUIDOS && !tieneFinDeLinea) {
+            return "Los números en la descripción no pueden tener más de 10 dígitos seguidos";
+        }
+
+        // Validar número máximo de palabras (máximo 5)
+        if (palabras > MAX_PALABRAS) {
+            return "La descripción no puede tener más de 5 palabras";
+        }
+
+        // Validar palabras repetidas, longitud y letras repetidas, palabra por palabra
+        for (int p = 0; p < palabras; p++) {
+            int inicio = inicioPalabra[p];
+            int largo = finPalabra[p] - inicio;
+
+            // Validar longitud de palabra (máximo 15 caracteres)
+            if (largo > MAX_LONGITUD_PALABRA) {
+                return "Cada palabra debe tener como máximo 15 caracteres";
+            }
+
+            // Validar que no haya palabras repetidas (sin distinguir mayúsculas)
+            for (int q = 0; q < p; q++) {
+                if (finPalabra[q] - inicioPalabra[q] == largo
+                        && descripcion.regionMatches(true, inicioPalabra[q], descripcion, inicio, largo)) {
+                    return "No se pueden repetir palabras en la descripción";
+                }
+            }
+
+            // Validar que no se repita la misma letra más de 2 veces seguidas (por ejemplo "aaa")
+            for (int i = inicio + 2; i < inicio + largo; i++) {
+                char c = descripcion.charAt(i);
+                if (esLetra(c) && descripcion.charAt(i - 1) == c && descripcion.charAt(i - 2) == c) {
+                    return "No se puede repetir la misma letra más de 2 veces seguidas";
+                }
+            }
+        }
+
+        // ✅ Si pasa todas las validaciones, retorna null (sin error)
+        return null;
+    }
+
+    // Todas las reglas de una actividad completa, en el orden en que las aplican el dashboard y la
+    // importación: descripción, rango del monto y categoría del tipo. Devuelve el primer error o null.
+    public String validar(String descripcion, long centavos, TipoActividad tipo, Categoria categoria) {
+        String error = validarDescripcion(descripcion);
+        if (error != null) {
+            return error;
+        }
+        error = validarRangoCentavos(centavos);
+        if (error != null) {
+            return error;
+        }
+        if (!categoria.getTipo().equals(tipo.name())) {
+            return "La categoría " + categoria.getNombreFormateado() + " no corresponde al tipo " + tipo;
+        }
+        return null;
+    }
+
+    // [a-zA-ZáéíóúÁÉÍÓÚñÑ]
+    private static boolean esLetra(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+            return true;
+        }
+        return switch (c) {
+            case 'á', 'é', 'í', 'ó', 'ú', 'Á', 'É', 'Í', 'Ó', 'Ú', 'ñ', 'Ñ' -> true;
+            default -> false;
+        };
+    }
+
+    // \d sin UNICODE_CHARACTER_CLASS
+    private static boolean esDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // \s sin UNICODE_CHARACTER_CLASS: espacio, \t, \n, \x0B, \f, \r
+    private static boolean esEspacio(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    // Monto en formato colombiano (1.000 o 1.000,50) a centavos; lanza MontoInvalidoException
+    public long parseCentavos(String monto) {
+        return ParserMontoColombiano.aCentavos(monto);
+    }
+
+    // Validar rango colombiano: mínimo 1.000, máximo 40.000.000. Devuelve el mensaje de error o null.
+    public String validarRangoCentavos(long centavos) {
+        if (centavos < MONTO_MINIMO_CENTAVOS) {
+            return "El monto mínimo es $1.000";
+        }
+        if (centavos > MONTO_MAXIMO_CENTAVOS) {
+            return "El monto máximo es $40.000.000";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.finanzas.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+// Reglas de formato del registro de usuarios (las mismas que valida el frontend).
+// Las expresiones regulares se compilan una sola vez en lugar de en cada String.matches/split.
+@Component
+public class ValidadorUsuario {
+
+    private static final Pattern FORMATO_NOMBRE = Pattern.compile("^[a-zA-ZáéíóúÁÉÍÓÚñÑ\\s]{3,50}$");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    private static final String DOMINIO_PERMITIDO = "@gmail.com";
+
+    // Devuelve el primer error de nombre, email o contraseña, o null si el formulario es válido
+    public String validarRegistro(String nombre, String email, String password) {
+        // 1. Validar formato del nombre
+        if (!FORMATO_NOMBRE.matcher(nombre).matches()) {
+            return "Formato de nombre inválido";
+        }
+
+        // 2. Validar que el nombre tenga 1-2 palabras
+        String[] palabras = ESPACIOS.split(nombre.trim());
+        if (palabras.length < 1 || palabras.length > 2) {
+            return "El nombre debe contener 1 o 2 palabras";
+        }
+
+        // 3. Validar longitud de cada palabra
+        for (String palabra : palabras) {
+            if (palabra.length() < 3 || palabra.length() > 20) {
+                return "Cada palabra debe tener entre 3 y 20 caracteres";
+            }
+        }
+
+        // 4. Validar formato de email (solo Gmail)
+        if (!email.endsWith(DOMINIO_PERMITIDO)) {
+            return "Solo se aceptan cuentas @gmail.com";
+        }
+
+        // 5. Validar parte local del email (lo que va antes del primer @)
+        int arroba = email.indexOf('@');
+        if (arroba < 3 || arroba > 20) {
+            return "El email debe tener entre 3 y 20 caracteres antes del @";
+        }
+        for (int i = 0; i < arroba; i++) {
+            char c = email.charAt(i);
+            boolean permitido = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.';
+            if (!permitido) {
+                return "El email contiene caracteres no permitidos";
+            }
+        }
+
+        // 6. Validar contraseña (mínimo 8 caracteres)
+        if (password.length() < 8) {
+            return "La contraseña debe tener al menos 8 caracteres";
+        }
+
+        return null;
+    }
+}
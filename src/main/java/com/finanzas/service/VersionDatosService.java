@@ -0,0 +1,70 @@
+package com.finanzas.service;
+
+import com.finanzas.repository.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Versión monótona de los datos de cada usuario (usuarios.version_datos), base del ETag de /dashboard.
+// La columna es la fuente de verdad; aquí se guarda una copia en memoria para que comprobar la versión
+// no consulte la BD. La copia es por proceso, igual que las sesiones: se asume una sola instancia.
+@Service
+public class VersionDatosService {
+
+    private final Map<Long, Long> versiones = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    // Versión actual; solo se lee de la BD la primera vez que se pide para un usuario
+    public long obtener(Long usuarioId) {
+        Long version = versiones.computeIfAbsent(usuarioId, usuarioRepository::obtenerVersionDatos);
+        return version != null ? version : 0;
+    }
+
+    // Subir la versión dentro de la transacción que cambia los datos. La copia en memoria se actualiza
+    // al confirmar, para no anunciar una versión cuyos datos otras peticiones todavía no pueden leer;
+    // si la transacción se deshace, la columna vuelve atrás sola y la copia no se toca.
+    @Transactional
+    public void incrementar(Long usuarioId) {
+        Long nueva = usuarioRepository.incrementarVersionDatos(usuarioId);
+        if (nueva == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versiones.merge(usuarioId, nueva, Math::max);
+            }
+        });
+    }
+
+    // Subir la versión de varios usuarios con una sola sentencia. En vez de calcular cada versión nueva
+    // se descartan las copias al confirmar: la siguiente lectura de cada usuario va a la BD.
+    @Transactional
+    public void incrementarVarios(Collection<Long> usuarioIds) {
+        if (usuarioIds.isEmpty()) {
+            return;
+        }
+        usuarioRepository.incrementarVersionesDatos(usuarioIds);
+        List<Long> afectados = List.copyOf(usuarioIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                afectados.forEach(versiones::remove);
+            }
+        });
+    }
+
+    // Quitar la copia en memoria (usuario eliminado)
+    public void olvidar(Long usuarioId) {
+        versiones.remove(usuarioId);
+    }
+}
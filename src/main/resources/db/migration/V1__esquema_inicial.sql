@@ -0,0 +1,43 @@
+-- Esquema inicial (antes lo generaba Hibernate con ddl-auto=create-drop)
+
+CREATE TABLE usuarios (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email             VARCHAR(255) NOT NULL UNIQUE,
+    password          VARCHAR(255) NOT NULL,
+    nombre            VARCHAR(255) NOT NULL,
+    rol               VARCHAR(255) NOT NULL,
+    fecha_registro    TIMESTAMP(6),
+    password_temporal BOOLEAN      NOT NULL DEFAULT FALSE
+);
+
+CREATE TABLE actividades (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    descripcion VARCHAR(255)   NOT NULL,
+    monto       NUMERIC(38, 2) NOT NULL,
+    tipo        VARCHAR(255)   NOT NULL,
+    categoria   VARCHAR(255)   NOT NULL,
+    created_at  TIMESTAMP(6)   NOT NULL DEFAULT LOCALTIMESTAMP,
+    estado      VARCHAR(255)   NOT NULL,
+    usuario_id  BIGINT         NOT NULL REFERENCES usuarios (id)
+);
+
+-- Listas del dashboard: WHERE usuario_id = ? AND estado = ? ORDER BY created_at DESC, id DESC (keyset)
+CREATE INDEX idx_actividades_usuario_estado_fecha
+    ON actividades (usuario_id, estado, created_at, id);
+
+-- Totales por mes: WHERE usuario_id = ? AND tipo = ? AND estado = ? AND created_at en [inicio, fin).
+-- INCLUDE (monto) permite resolver la suma solo con el índice.
+CREATE INDEX idx_actividades_usuario_tipo_estado_fecha
+    ON actividades (usuario_id, tipo, estado, created_at) INCLUDE (monto);
+
+CREATE TABLE resumen_mensual (
+    usuario_id BIGINT         NOT NULL REFERENCES usuarios (id) ON DELETE CASCADE,
+    anio       INTEGER        NOT NULL,
+    mes        INTEGER        NOT NULL,
+    tipo       VARCHAR(255)   NOT NULL,
+    categoria  VARCHAR(255)   NOT NULL,
+    total      NUMERIC(38, 2) NOT NULL DEFAULT 0,
+    cantidad   BIGINT         NOT NULL DEFAULT 0,
+    -- El usuario va primero: las lecturas son siempre "un usuario, un mes"
+    PRIMARY KEY (usuario_id, anio, mes, tipo, categoria)
+);
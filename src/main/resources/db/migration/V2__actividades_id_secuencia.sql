@@ -0,0 +1,12 @@
+-- actividades.id pasa de IDENTITY a una secuencia con incremento 50 (optimizador pooled de Hibernate)
+-- para poder insertar por lotes JDBC.
+
+ALTER TABLE actividades ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE actividades_id_seq INCREMENT BY 50 OWNED BY actividades.id;
+
+-- Dejar margen de un bloque completo sobre el id más alto existente
+SELECT setval('actividades_id_seq', COALESCE(MAX(id), 0) + 50) FROM actividades;
+
+-- Los INSERT hechos fuera de Hibernate siguen obteniendo id de la misma secuencia
+ALTER TABLE actividades ALTER COLUMN id SET DEFAULT nextval('actividades_id_seq');
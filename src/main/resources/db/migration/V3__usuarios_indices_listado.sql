@@ -0,0 +1,4 @@
+-- Índices para ordenar el listado paginado de administración sin recorrer toda la tabla.
+-- Incluyen id porque el listado lo usa como desempate del orden.
+CREATE INDEX idx_usuarios_nombre_id ON usuarios (nombre, id);
+CREATE INDEX idx_usuarios_fecha_registro_id ON usuarios (fecha_registro, id);
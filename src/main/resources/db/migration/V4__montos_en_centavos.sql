@@ -0,0 +1,12 @@
+-- Montos en centavos (BIGINT) en lugar de NUMERIC: filas más pequeñas y sumas con aritmética entera.
+-- El tope por actividad es 40.000.000 COP (4e9 centavos), así que BIGINT sobra también para los acumulados.
+
+ALTER TABLE actividades
+    ALTER COLUMN monto TYPE BIGINT USING round(monto * 100)::BIGINT;
+ALTER TABLE actividades RENAME COLUMN monto TO monto_centavos;
+
+ALTER TABLE resumen_mensual
+    ALTER COLUMN total DROP DEFAULT,
+    ALTER COLUMN total TYPE BIGINT USING round(total * 100)::BIGINT,
+    ALTER COLUMN total SET DEFAULT 0;
+ALTER TABLE resumen_mensual RENAME COLUMN total TO total_centavos;
@@ -0,0 +1,3 @@
+-- Versión de los datos de cada usuario: sube con cualquier cambio en sus actividades o en su cuenta.
+-- Es la fuente de verdad del ETag de /dashboard (la aplicación guarda una copia en memoria).
+ALTER TABLE usuarios ADD COLUMN version_datos BIGINT NOT NULL DEFAULT 0;
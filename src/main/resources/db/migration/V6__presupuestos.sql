@@ -0,0 +1,8 @@
+-- Presupuesto mensual por categoría de gasto: el mismo monto para todos los meses.
+-- Lo gastado sale de resumen_mensual (misma clave salvo el mes), así que comparar es una lectura por clave primaria.
+CREATE TABLE presupuestos (
+    usuario_id     BIGINT       NOT NULL REFERENCES usuarios (id) ON DELETE CASCADE,
+    categoria      VARCHAR(255) NOT NULL,
+    monto_centavos BIGINT       NOT NULL CHECK (monto_centavos > 0),
+    PRIMARY KEY (usuario_id, categoria)
+);
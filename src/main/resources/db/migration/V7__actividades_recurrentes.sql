@@ -0,0 +1,22 @@
+-- Plantillas de actividades que se repiten (arriendo, salario...). Un proceso programado crea las
+-- actividades de cada fecha vencida y adelanta "proxima" en la misma transacción: volver a
+-- ejecutarlo (o reanudarlo tras un fallo) no duplica ningún periodo.
+CREATE TABLE actividades_recurrentes (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    usuario_id     BIGINT       NOT NULL REFERENCES usuarios (id) ON DELETE CASCADE,
+    descripcion    VARCHAR(255) NOT NULL,
+    monto_centavos BIGINT       NOT NULL CHECK (monto_centavos > 0),
+    tipo           VARCHAR(255) NOT NULL,
+    categoria      VARCHAR(255) NOT NULL,
+    -- MENSUAL: dia = día del mes (1-31, se ajusta al último día en meses cortos); SEMANAL: dia = 1 (lunes) a 7
+    frecuencia     VARCHAR(255) NOT NULL,
+    dia            INTEGER      NOT NULL,
+    proxima        DATE         NOT NULL,
+    activa         BOOLEAN      NOT NULL DEFAULT TRUE
+);
+
+-- Lista de plantillas del usuario
+CREATE INDEX idx_recurrentes_usuario ON actividades_recurrentes (usuario_id, id);
+
+-- Recorrido del generador por id (keyset) filtrando las vencidas sin ir a la tabla
+CREATE INDEX idx_recurrentes_activas ON actividades_recurrentes (id, proxima) WHERE activa;
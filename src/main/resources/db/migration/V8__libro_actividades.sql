@@ -0,0 +1,202 @@
+-- Libro de eventos de actividades: solo se añaden filas (alta, edición, cambio de estado, borrado).
+-- Cada evento lleva lo que cambia el saldo del usuario (ingresos menos gastos COMPLETADOS), así que
+-- cualquier saldo, actual o pasado, es una foto de saldos_libro más los pocos eventos posteriores.
+-- Lo escriben triggers sobre actividades: cubren por igual los save de JPA, los INSERT por lotes
+-- (importación, recurrentes) y las mutaciones de una sola sentencia, sin sentencias extra desde Java.
+CREATE TABLE libro_actividades (
+    id                   BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    usuario_id           BIGINT       NOT NULL REFERENCES usuarios (id) ON DELETE CASCADE,
+    -- Correlativo por usuario sin huecos: orden de los eventos del usuario
+    numero               BIGINT       NOT NULL,
+    -- Sin clave foránea: el evento sobrevive al borrado de la actividad
+    actividad_id         BIGINT       NOT NULL,
+    evento               VARCHAR(20)  NOT NULL,
+    -- Estado de la actividad después del evento (antes del borrado, en ELIMINADA)
+    tipo                 VARCHAR(255) NOT NULL,
+    categoria            VARCHAR(255) NOT NULL,
+    monto_centavos       BIGINT       NOT NULL,
+    estado               VARCHAR(255) NOT NULL,
+    delta_saldo_centavos BIGINT       NOT NULL,
+    registrado_en        TIMESTAMP(6) NOT NULL,
+    UNIQUE (usuario_id, numero)
+);
+
+-- Último evento, saldo actual y actividades por estado de cada usuario. Actualizar esta fila serializa
+-- los eventos de un mismo usuario, así que "numero" sigue el orden de confirmación y registrado_en no
+-- retrocede. Los conteos le ahorran al dashboard un COUNT(*) sobre las actividades del usuario.
+CREATE TABLE libro_cabeza (
+    usuario_id     BIGINT PRIMARY KEY REFERENCES usuarios (id) ON DELETE CASCADE,
+    numero         BIGINT NOT NULL,
+    saldo_centavos BIGINT NOT NULL,
+    pendientes     BIGINT NOT NULL,
+    completadas    BIGINT NOT NULL
+);
+
+-- Saldo del usuario después del evento "numero", cada 100 eventos (ver LibroRepository.obtenerSaldoAl)
+CREATE TABLE saldos_libro (
+    usuario_id     BIGINT       NOT NULL REFERENCES usuarios (id) ON DELETE CASCADE,
+    numero         BIGINT       NOT NULL,
+    saldo_centavos BIGINT       NOT NULL,
+    registrado_en  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (usuario_id, numero)
+);
+
+-- Foto más reciente anterior a un instante (una sentencia grande deja varias con la misma hora)
+CREATE INDEX idx_saldos_libro_fecha ON saldos_libro (usuario_id, registrado_en, numero);
+
+-- Lo que aporta una actividad al saldo
+CREATE FUNCTION aporte_saldo(tipo VARCHAR, estado VARCHAR, monto_centavos BIGINT) RETURNS BIGINT AS $$
+    SELECT CASE WHEN estado <> 'COMPLETADO' THEN 0
+                WHEN tipo = 'INGRESO' THEN monto_centavos
+                ELSE -monto_centavos END
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Un evento por actividad afectada, en el orden del array
+CREATE TYPE cambio_libro AS (
+    usuario_id           BIGINT,
+    actividad_id         BIGINT,
+    evento               VARCHAR(20),
+    tipo                 VARCHAR(255),
+    categoria            VARCHAR(255),
+    monto_centavos       BIGINT,
+    estado               VARCHAR(255),
+    delta_saldo_centavos BIGINT,
+    delta_pendientes     INTEGER,
+    delta_completadas    INTEGER
+);
+
+-- Añade los eventos de una sentencia: una actualización de la cabeza por usuario (no por fila: varias
+-- actualizaciones de la misma fila en una transacción alargan su cadena de versiones y cada una cuesta
+-- más que la anterior), los eventos numerados a continuación y una foto en cada múltiplo de 100.
+CREATE FUNCTION registrar_en_libro(cambios cambio_libro[]) RETURNS VOID AS $$
+DECLARE
+    cada  CONSTANT INTEGER := 100;
+    ahora TIMESTAMP(6);
+BEGIN
+    IF cambios IS NULL THEN
+        RETURN;
+    END IF;
+
+    -- Por usuario en orden, para que dos sentencias sobre los mismos usuarios no se bloqueen en cruz
+    INSERT INTO libro_cabeza AS c (usuario_id, numero, saldo_centavos, pendientes, completadas)
+    SELECT usuario_id, COUNT(*), SUM(delta_saldo_centavos), SUM(delta_pendientes), SUM(delta_completadas)
+    FROM unnest(cambios)
+    GROUP BY usuario_id
+    ORDER BY usuario_id
+    ON CONFLICT (usuario_id) DO UPDATE
+        SET numero = c.numero + EXCLUDED.numero, saldo_centavos = c.saldo_centavos + EXCLUDED.saldo_centavos,
+            pendientes = c.pendientes + EXCLUDED.pendientes, completadas = c.completadas + EXCLUDED.completadas;
+    -- La hora se toma con las cabezas ya bloqueadas, para que siga el orden de "numero"
+    ahora := clock_timestamp()::timestamp;
+
+    -- La cabeza ya incluye esta sentencia: numero y saldo de cada evento se cuentan hacia atrás desde ella
+    WITH numerados AS (
+        SELECT x.usuario_id, x.actividad_id, x.evento, x.tipo, x.categoria, x.monto_centavos, x.estado,
+               x.delta_saldo_centavos,
+               h.numero - COUNT(*) OVER usuario + ROW_NUMBER() OVER hasta_aqui AS numero,
+               h.saldo_centavos - SUM(x.delta_saldo_centavos) OVER usuario
+                   + SUM(x.delta_saldo_centavos) OVER hasta_aqui AS saldo_centavos
+        FROM unnest(cambios) WITH ORDINALITY AS x (usuario_id, actividad_id, evento, tipo, categoria,
+                                                    monto_centavos, estado, delta_saldo_centavos,
+                                                    delta_pendientes, delta_completadas, orden)
+        JOIN libro_cabeza h ON h.usuario_id = x.usuario_id
+        WINDOW usuario AS (PARTITION BY x.usuario_id),
+               hasta_aqui AS (PARTITION BY x.usuario_id ORDER BY x.orden)
+    ), eventos AS (
+        INSERT INTO libro_actividades (usuario_id, numero, actividad_id, evento, tipo, categoria,
+                                       monto_centavos, estado, delta_saldo_centavos, registrado_en)
+        SELECT usuario_id, numero, actividad_id, evento, tipo, categoria,
+               monto_centavos, estado, delta_saldo_centavos, ahora
+        FROM numerados
+    )
+    INSERT INTO saldos_libro (usuario_id, numero, saldo_centavos, registrado_en)
+    SELECT usuario_id, numero, saldo_centavos, ahora
+    FROM numerados
+    WHERE numero % cada = 0;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Cuánto suma una actividad en el conteo de un estado (1 o 0)
+CREATE FUNCTION cuenta_estado(estado VARCHAR, buscado VARCHAR) RETURNS INTEGER AS $$
+    SELECT CASE WHEN estado = buscado THEN 1 ELSE 0 END
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Triggers por sentencia con tablas de transición: los INSERT por lotes (reWriteBatchedInserts) y
+-- los UPDATE/DELETE de varias filas llegan como una sola llamada
+CREATE FUNCTION libro_al_insertar() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM registrar_en_libro(array_agg(
+        ROW(usuario_id, id, 'CREADA', tipo, categoria, monto_centavos, estado,
+            aporte_saldo(tipo, estado, monto_centavos),
+            cuenta_estado(estado, 'PENDIENTE'), cuenta_estado(estado, 'COMPLETADO')
+        )::cambio_libro ORDER BY usuario_id, id))
+    FROM nuevas;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION libro_al_actualizar() RETURNS TRIGGER AS $$
+BEGIN
+    -- Solo cambio de estado: ESTADO; cualquier otro cambio: EDITADA; un save de JPA sin cambios no deja evento
+    PERFORM registrar_en_libro(array_agg(
+        ROW(n.usuario_id, n.id,
+            CASE WHEN (n.descripcion, n.monto_centavos, n.tipo, n.categoria)
+                      = (v.descripcion, v.monto_centavos, v.tipo, v.categoria) THEN 'ESTADO' ELSE 'EDITADA' END,
+            n.tipo, n.categoria, n.monto_centavos, n.estado,
+            aporte_saldo(n.tipo, n.estado, n.monto_centavos) - aporte_saldo(v.tipo, v.estado, v.monto_centavos),
+            cuenta_estado(n.estado, 'PENDIENTE') - cuenta_estado(v.estado, 'PENDIENTE'),
+            cuenta_estado(n.estado, 'COMPLETADO') - cuenta_estado(v.estado, 'COMPLETADO')
+        )::cambio_libro ORDER BY n.usuario_id, n.id))
+    FROM nuevas n
+    JOIN viejas v ON v.id = n.id
+    WHERE (n.descripcion, n.monto_centavos, n.tipo, n.categoria, n.estado)
+          IS DISTINCT FROM (v.descripcion, v.monto_centavos, v.tipo, v.categoria, v.estado);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION libro_al_borrar() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM registrar_en_libro(array_agg(
+        ROW(usuario_id, id, 'ELIMINADA', tipo, categoria, monto_centavos, estado,
+            -aporte_saldo(tipo, estado, monto_centavos),
+            -cuenta_estado(estado, 'PENDIENTE'), -cuenta_estado(estado, 'COMPLETADO')
+        )::cambio_libro ORDER BY usuario_id, id))
+    FROM viejas;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Las actividades ya existentes entran como CREADA en el orden de su fecha
+INSERT INTO libro_actividades (usuario_id, numero, actividad_id, evento, tipo, categoria,
+                               monto_centavos, estado, delta_saldo_centavos, registrado_en)
+SELECT usuario_id, ROW_NUMBER() OVER (PARTITION BY usuario_id ORDER BY created_at, id), id, 'CREADA',
+       tipo, categoria, monto_centavos, estado, aporte_saldo(tipo, estado, monto_centavos), created_at
+FROM actividades;
+
+INSERT INTO saldos_libro (usuario_id, numero, saldo_centavos, registrado_en)
+SELECT usuario_id, numero, saldo, registrado_en
+FROM (SELECT usuario_id, numero, registrado_en,
+             SUM(delta_saldo_centavos) OVER (PARTITION BY usuario_id ORDER BY numero) AS saldo
+      FROM libro_actividades) l
+WHERE numero % 100 = 0;
+
+-- Cada actividad tiene aquí un solo evento, con su estado actual
+INSERT INTO libro_cabeza (usuario_id, numero, saldo_centavos, pendientes, completadas)
+SELECT usuario_id, MAX(numero), SUM(delta_saldo_centavos),
+       SUM(cuenta_estado(estado, 'PENDIENTE')), SUM(cuenta_estado(estado, 'COMPLETADO'))
+FROM libro_actividades
+GROUP BY usuario_id;
+
+-- El perfil "particionado" (db/particionado) los vuelve a crear sobre la tabla particionada
+CREATE TRIGGER trg_actividades_libro_insertar
+    AFTER INSERT ON actividades REFERENCING NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION libro_al_insertar();
+
+CREATE TRIGGER trg_actividades_libro_actualizar
+    AFTER UPDATE ON actividades REFERENCING OLD TABLE AS viejas NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION libro_al_actualizar();
+
+CREATE TRIGGER trg_actividades_libro_borrar
+    AFTER DELETE ON actividades REFERENCING OLD TABLE AS viejas
+    FOR EACH STATEMENT EXECUTE FUNCTION libro_al_borrar();
@@ -0,0 +1,113 @@
+-- Saldo acumulado (ingresos menos gastos COMPLETADOS, en centavos) de cada usuario al cierre de cada mes
+-- con actividad completada, según la fecha de las actividades (created_at). El saldo a una fecha es la
+-- foto del último mes anterior más las completadas de ese mes hasta la fecha (ver
+-- ResumenMensualRepository.obtenerSaldoAntesDe): una fila y como mucho un mes de actividades.
+-- Se mantiene desde resumen_mensual, que ya recibe el aporte de cada mutación (save de JPA, lotes y
+-- mutaciones de una sola sentencia), con triggers por sentencia como los del libro (V8).
+CREATE TABLE saldos_mensuales (
+    usuario_id     BIGINT  NOT NULL REFERENCES usuarios (id) ON DELETE CASCADE,
+    anio           INTEGER NOT NULL,
+    mes            INTEGER NOT NULL,
+    saldo_centavos BIGINT  NOT NULL,
+    PRIMARY KEY (usuario_id, anio, mes)
+);
+
+-- Cambio del total de un mes; ingresos suman y gastos restan
+CREATE TYPE cambio_saldo_mensual AS (
+    usuario_id     BIGINT,
+    anio           INTEGER,
+    mes            INTEGER,
+    delta_centavos BIGINT
+);
+
+-- Aplica los cambios de una sentencia sobre resumen_mensual: cada foto suma los cambios de su mes y de
+-- los anteriores. Un mes sin foto (crear_meses) parte de la foto anterior tal como estaba antes de esta
+-- sentencia: todo mes con actividad completada tiene foto, así que entre las dos el saldo no cambió.
+-- Un mes nuevo suele ser el actual, así que casi siempre se actualiza una sola fila.
+CREATE FUNCTION mover_saldos_mensuales(cambios cambio_saldo_mensual[], crear_meses BOOLEAN) RETURNS VOID AS $$
+BEGIN
+    IF cambios IS NULL THEN
+        RETURN;
+    END IF;
+
+    IF crear_meses THEN
+        INSERT INTO saldos_mensuales (usuario_id, anio, mes, saldo_centavos)
+        SELECT c.usuario_id, c.anio, c.mes,
+               COALESCE((SELECT s.saldo_centavos FROM saldos_mensuales s
+                         WHERE s.usuario_id = c.usuario_id AND (s.anio, s.mes) < (c.anio, c.mes)
+                         ORDER BY s.anio DESC, s.mes DESC LIMIT 1), 0)
+        FROM (SELECT DISTINCT usuario_id, anio, mes FROM unnest(cambios)) c
+        ORDER BY c.usuario_id, c.anio, c.mes
+        ON CONFLICT (usuario_id, anio, mes) DO NOTHING;
+    END IF;
+
+    UPDATE saldos_mensuales s
+    SET saldo_centavos = s.saldo_centavos + a.delta_centavos
+    FROM (SELECT f.usuario_id, f.anio, f.mes, SUM(c.delta_centavos) AS delta_centavos
+          FROM unnest(cambios) c
+          JOIN saldos_mensuales f ON f.usuario_id = c.usuario_id AND (f.anio, f.mes) >= (c.anio, c.mes)
+          GROUP BY f.usuario_id, f.anio, f.mes) a
+    WHERE s.usuario_id = a.usuario_id AND s.anio = a.anio AND s.mes = a.mes
+      AND a.delta_centavos <> 0;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION signo_tipo(tipo VARCHAR) RETURNS INTEGER AS $$
+    SELECT CASE WHEN tipo = 'INGRESO' THEN 1 ELSE -1 END
+$$ LANGUAGE sql IMMUTABLE;
+
+-- El upsert de acumular (INSERT ... ON CONFLICT DO UPDATE) dispara los dos: las filas nuevas llegan
+-- en "nuevas" del INSERT y las que ya existían en las tablas del UPDATE
+CREATE FUNCTION saldos_al_insertar_resumen() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM mover_saldos_mensuales(array_agg(
+        ROW(usuario_id, anio, mes, signo_tipo(tipo) * total_centavos)::cambio_saldo_mensual), true)
+    FROM nuevas
+    WHERE total_centavos <> 0;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION saldos_al_actualizar_resumen() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM mover_saldos_mensuales(array_agg(
+        ROW(n.usuario_id, n.anio, n.mes,
+            signo_tipo(n.tipo) * (n.total_centavos - v.total_centavos))::cambio_saldo_mensual), true)
+    FROM nuevas n
+    JOIN viejas v ON (v.usuario_id, v.anio, v.mes, v.tipo, v.categoria)
+                   = (n.usuario_id, n.anio, n.mes, n.tipo, n.categoria)
+    WHERE n.total_centavos <> v.total_centavos;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Un mes que pierde filas del resumen ya tiene foto; no se crean meses (en la cascada del borrado de un
+-- usuario su fila ya puede no estar)
+CREATE FUNCTION saldos_al_borrar_resumen() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM mover_saldos_mensuales(array_agg(
+        ROW(usuario_id, anio, mes, -signo_tipo(tipo) * total_centavos)::cambio_saldo_mensual), false)
+    FROM viejas
+    WHERE total_centavos <> 0;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Fotos de los meses ya resumidos: suma acumulada por usuario en orden de mes
+INSERT INTO saldos_mensuales (usuario_id, anio, mes, saldo_centavos)
+SELECT usuario_id, anio, mes,
+       SUM(SUM(signo_tipo(tipo) * total_centavos)) OVER (PARTITION BY usuario_id ORDER BY anio, mes)
+FROM resumen_mensual
+GROUP BY usuario_id, anio, mes;
+
+CREATE TRIGGER trg_resumen_saldos_insertar
+    AFTER INSERT ON resumen_mensual REFERENCING NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION saldos_al_insertar_resumen();
+
+CREATE TRIGGER trg_resumen_saldos_actualizar
+    AFTER UPDATE ON resumen_mensual REFERENCING OLD TABLE AS viejas NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION saldos_al_actualizar_resumen();
+
+CREATE TRIGGER trg_resumen_saldos_borrar
+    AFTER DELETE ON resumen_mensual REFERENCING OLD TABLE AS viejas
+    FOR EACH STATEMENT EXECUTE FUNCTION saldos_al_borrar_resumen();
@@ -0,0 +1,86 @@
+-- Opcional (perfil "particionado"): actividades particionada por rango mensual de created_at.
+-- Las consultas del dashboard filtran siempre por un mes o recorren los meses más recientes,
+-- así que el planificador descarta las particiones que no tocan.
+-- Va después de la última migración (V9) y parte del esquema actual, así que se puede activar sobre
+-- una base ya migrada: conserva monto_centavos, el default de la secuencia de V2 y los triggers del
+-- libro de V8 (los de saldos mensuales de V9 están en resumen_mensual y no se tocan). Al añadir una
+-- migración, esta se renombra para seguir siendo la última y se ajusta a lo que cambie en actividades.
+
+ALTER TABLE actividades RENAME TO actividades_sin_particionar;
+ALTER INDEX idx_actividades_usuario_estado_fecha RENAME TO idx_actividades_sin_particionar_1;
+ALTER INDEX idx_actividades_usuario_tipo_estado_fecha RENAME TO idx_actividades_sin_particionar_2;
+
+-- La secuencia pertenece a la columna de la tabla vieja: sin esto el DROP del final se la lleva
+ALTER SEQUENCE actividades_id_seq OWNED BY NONE;
+
+-- La clave de partición debe formar parte de la clave primaria
+CREATE TABLE actividades (
+    id             BIGINT       NOT NULL DEFAULT nextval('actividades_id_seq'),
+    descripcion    VARCHAR(255) NOT NULL,
+    monto_centavos BIGINT       NOT NULL,
+    tipo           VARCHAR(255) NOT NULL,
+    categoria      VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL DEFAULT LOCALTIMESTAMP,
+    estado         VARCHAR(255) NOT NULL,
+    usuario_id     BIGINT       NOT NULL REFERENCES usuarios (id),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE actividades_id_seq OWNED BY actividades.id;
+
+CREATE INDEX idx_actividades_usuario_estado_fecha
+    ON actividades (usuario_id, estado, created_at, id);
+
+CREATE INDEX idx_actividades_usuario_tipo_estado_fecha
+    ON actividades (usuario_id, tipo, estado, created_at) INCLUDE (monto_centavos);
+
+-- Crea (si faltan) las particiones mensuales que cubren [desde, hasta]. Devuelve cuántas creó.
+CREATE OR REPLACE FUNCTION crear_particiones_actividades(desde DATE, hasta DATE) RETURNS INTEGER AS $$
+DECLARE
+    mes     DATE    := date_trunc('month', desde)::date;
+    creadas INTEGER := 0;
+    nombre  TEXT;
+BEGIN
+    WHILE mes <= hasta LOOP
+        nombre := format('actividades_%s', to_char(mes, 'YYYY_MM'));
+        IF to_regclass(nombre) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF actividades FOR VALUES FROM (%L) TO (%L)',
+                           nombre, mes, (mes + INTERVAL '1 month')::date);
+            creadas := creadas + 1;
+        END IF;
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN creadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Particiones desde el mes más antiguo con datos hasta tres meses adelante
+SELECT crear_particiones_actividades(
+    COALESCE((SELECT MIN(created_at) FROM actividades_sin_particionar)::date, CURRENT_DATE),
+    (CURRENT_DATE + INTERVAL '3 months')::date);
+
+-- Red de seguridad para fechas fuera de las particiones creadas
+CREATE TABLE actividades_default PARTITION OF actividades DEFAULT;
+
+-- Se copia antes de crear los triggers: estas filas ya están en el libro y no son altas nuevas.
+-- Conservan su id y la secuencia sigue donde estaba.
+INSERT INTO actividades (id, descripcion, monto_centavos, tipo, categoria, created_at, estado, usuario_id)
+SELECT id, descripcion, monto_centavos, tipo, categoria, created_at, estado, usuario_id
+FROM actividades_sin_particionar;
+
+DROP TABLE actividades_sin_particionar;
+
+-- Los mismos triggers por sentencia de V8, ahora sobre la tabla raíz
+CREATE TRIGGER trg_actividades_libro_insertar
+    AFTER INSERT ON actividades REFERENCING NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION libro_al_insertar();
+
+CREATE TRIGGER trg_actividades_libro_actualizar
+    AFTER UPDATE ON actividades REFERENCING OLD TABLE AS viejas NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION libro_al_actualizar();
+
+CREATE TRIGGER trg_actividades_libro_borrar
+    AFTER DELETE ON actividades REFERENCING OLD TABLE AS viejas
+    FOR EACH STATEMENT EXECUTE FUNCTION libro_al_borrar();
+
+ANALYZE actividades;
@@ -0,0 +1,51 @@
+package com.finanzas;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+// Base de datos de los tests con contexto de Spring: un PostgreSQL embebido por ejecución, con las
+// migraciones de Flyway aplicadas al arrancar el primer contexto. Los tests nunca tocan la base de
+// application.properties, y los conteos globales solo ven los datos que crean los propios tests.
+// Uso: @ContextConfiguration(initializers = BaseDatosDePrueba.class) junto a @SpringBootTest
+public class BaseDatosDePrueba implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+	private static final String BASE_DATOS = "finanzas_test";
+
+	private static EmbeddedPostgres postgres;
+
+	@Override
+	public void initialize(ConfigurableApplicationContext contexto) {
+		Map<String, Object> propiedades = Map.of(
+				"spring.datasource.url", servidor().getJdbcUrl("postgres", BASE_DATOS),
+				"spring.datasource.username", "postgres",
+				"spring.datasource.password", "");
+		contexto.getEnvironment().getPropertySources()
+				.addFirst(new MapPropertySource("baseDatosDePrueba", propiedades));
+	}
+
+	// Un servidor compartido por todos los contextos de la ejecución; EmbeddedPostgres lo detiene al salir la JVM
+	private static synchronized EmbeddedPostgres servidor() {
+		if (postgres == null) {
+			try {
+				EmbeddedPostgres servidor = EmbeddedPostgres.builder().start();
+				try (Connection conexion = servidor.getPostgresDatabase().getConnection()) {
+					conexion.createStatement().execute("CREATE DATABASE " + BASE_DATOS);
+				}
+				postgres = servidor;
+			} catch (IOException e) {
+				throw new UncheckedIOException("No se pudo arrancar el PostgreSQL embebido", e);
+			} catch (SQLException e) {
+				throw new IllegalStateException("No se pudo crear la base de datos de prueba", e);
+			}
+		}
+		return postgres;
+	}
+}
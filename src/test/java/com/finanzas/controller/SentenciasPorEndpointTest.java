@@ -0,0 +1,724 @@
+package com.finanzas.controller;
+
+import com.finanzas.BaseDatosDePrueba;
+import com.finanzas.config.MetricasJdbcFilter;
+import com.finanzas.config.RegistroConsultasJdbc;
+import com.finanzas.dto.ResultadoGeneracion;
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.EstadoActividad;
+import com.finanzas.entity.RolUsuario;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.entity.Usuario;
+import com.finanzas.repository.UsuarioRepository;
+import com.finanzas.service.ActividadService;
+import com.finanzas.service.BusquedaService;
+import com.finanzas.service.ExportacionService;
+import com.finanzas.service.GeneracionRecurrentesService;
+import com.finanzas.service.TendenciaService;
+import com.finanzas.service.UsuarioPrincipal;
+import com.finanzas.service.VersionDatosService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Sentencias JDBC por endpoint, contadas con el mismo proxy de DataSource que publica las métricas
+// (MetricasJdbcFilter deja el acumulado de cada petición como atributo). Los datos de prueba tienen
+// cientos de actividades y varias páginas de usuarios: un N+1 (una consulta por fila) rompe estos
+// límites en lugar de pasar desapercibido. Se crean en el PostgreSQL embebido de los tests
+// (BaseDatosDePrueba) y se borran al terminar.
+@SpringBootTest
+@ContextConfiguration(initializers = BaseDatosDePrueba.class)
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SentenciasPorEndpointTest {
+
+	private static final String DOMINIO = "@conteo.test";
+	private static final String EMAIL_REGISTRO = "conteoregistro@gmail.com";
+	private static final String PASSWORD = "Conteo12345";
+
+	private static final int USUARIOS = 80;
+	private static final int ACTIVIDADES_PRINCIPAL = 400;
+	private static final int ACTIVIDADES_POR_USUARIO = 3;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private ActividadService actividadService;
+
+	@Autowired
+	private ExportacionService exportacionService;
+
+	@Autowired
+	private VersionDatosService versionDatosService;
+
+	@Autowired
+	private TendenciaService tendenciaService;
+
+	@Autowired
+	private GeneracionRecurrentesService generacionRecurrentesService;
+
+	@Autowired
+	private BusquedaService busquedaService;
+
+	@Autowired
+	private RegistroConsultasJdbc registroConsultasJdbc;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	private Usuario principal;
+	private Usuario admin;
+	private Usuario borrable;
+
+	@BeforeAll
+	void crearDatos() {
+		borrarDatos();
+		String hash = passwordEncoder.encode(PASSWORD);
+
+		admin = usuarioRepository.save(nuevoUsuario("admin" + DOMINIO, "Admin Conteo", RolUsuario.ADMIN, hash));
+		principal = usuarioRepository.save(nuevoUsuario("principal" + DOMINIO, "Principal Conteo", RolUsuario.USUARIO, hash));
+		borrable = usuarioRepository.save(nuevoUsuario("borrable" + DOMINIO, "Borrable Conteo", RolUsuario.USUARIO, hash));
+		actividadService.guardarLote(actividades(principal, ACTIVIDADES_PRINCIPAL));
+		actividadService.guardarLote(actividades(borrable, ACTIVIDADES_PRINCIPAL));
+
+		for (int i = 0; i < USUARIOS; i++) {
+			Usuario otro = usuarioRepository.save(
+					nuevoUsuario("usuario" + i + DOMINIO, "Usuario Conteo", RolUsuario.USUARIO, hash));
+			actividadService.guardarLote(actividades(otro, ACTIVIDADES_POR_USUARIO));
+		}
+	}
+
+	@AfterAll
+	void borrarDatos() {
+		String usuarios = "SELECT id FROM usuarios WHERE email LIKE '%" + DOMINIO + "' OR email = '" + EMAIL_REGISTRO + "'";
+		jdbcTemplate.update("DELETE FROM actividades WHERE usuario_id IN (" + usuarios + ")");
+		jdbcTemplate.update("DELETE FROM resumen_mensual WHERE usuario_id IN (" + usuarios + ")");
+		jdbcTemplate.update("DELETE FROM usuarios WHERE id IN (" + usuarios + ")");
+	}
+
+	// La versión de datos se lee de la BD solo la primera vez; con la copia en memoria cargada
+	// los conteos no dependen del orden de los tests
+	@BeforeEach
+	void cargarVersiones() {
+		versionDatosService.obtener(principal.getId());
+	}
+
+	// =========================
+	// DashboardController
+	// =========================
+
+	@Test
+	void dashboardLeeListasYResumenEnDosSentencias() throws Exception {
+		assertThat(sentencias(get("/dashboard").with(user(comoPrincipal(principal))))).isEqualTo(2);
+	}
+
+	@Test
+	void dashboardSinCambiosResponde304SinConsultar() throws Exception {
+		// La primera carga crea el token CSRF de la sesión (parte del ETag): se toma el de la segunda
+		MvcResult primera = ejecutar(get("/dashboard").with(user(comoPrincipal(principal))));
+		MockHttpSession sesion = (MockHttpSession) primera.getRequest().getSession();
+		String etag = ejecutar(get("/dashboard").session(sesion).with(user(comoPrincipal(principal))))
+				.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotNull();
+
+		MvcResult segunda = ejecutar(get("/dashboard")
+				.header(HttpHeaders.IF_NONE_MATCH, etag)
+				.session(sesion)
+				.with(user(comoPrincipal(principal))));
+		assertThat(segunda.getResponse().getStatus()).isEqualTo(304);
+		assertThat(sentencias(segunda)).isZero();
+	}
+
+	@Test
+	void cargarMasActividadesEsUnaSentencia() throws Exception {
+		String cursor = LocalDateTime.now().plusDays(1) + "_" + Long.MAX_VALUE;
+		assertThat(sentencias(get("/dashboard/actividades")
+				.param("estado", "PENDIENTE")
+				.param("cursor", cursor)
+				.with(user(comoPrincipal(principal))))).isEqualTo(1);
+	}
+
+	@Test
+	void cargarMasActividadesRechazaEstadoOCursorInvalidosSinConsultar() throws Exception {
+		MvcResult estado = mockMvc.perform(get("/dashboard/actividades")
+				.param("estado", "ARCHIVADO")
+				.with(user(comoPrincipal(principal)))).andReturn();
+		assertThat(estado.getResponse().getStatus()).isEqualTo(400);
+		assertThat(sentencias(estado)).isZero();
+
+		MvcResult cursor = mockMvc.perform(get("/dashboard/actividades")
+				.param("estado", "COMPLETADO")
+				.param("cursor", "no-es-un-cursor")
+				.with(user(comoPrincipal(principal)))).andReturn();
+		assertThat(cursor.getResponse().getStatus()).isEqualTo(400);
+		assertThat(sentencias(cursor)).isZero();
+	}
+
+	@Test
+	void crearActividad() throws Exception {
+		// INSERT + versión de datos + presupuesto de la categoría, y como mucho un nextval al agotar
+		// el bloque de ids de la secuencia
+		assertThat(sentencias(post("/dashboard/actividad/nueva")
+				.param("descripcion", "Almuerzo de trabajo")
+				.param("monto", "45.000")
+				.param("tipo", "GASTO")
+				.param("categoria", "ALIMENTACION")
+				.with(user(comoPrincipal(principal))).with(csrf()))).isLessThanOrEqualTo(4);
+	}
+
+	@Test
+	void editarCambiarEstadoYEliminarSonUnaSentenciaMasLaVersion() throws Exception {
+		List<Long> ids = idsActividades(principal, "COMPLETADO", 3);
+
+		// Más la comprobación del presupuesto de la actividad editada
+		assertThat(sentencias(post("/dashboard/actividad/editar/" + ids.get(0))
+				.param("descripcion", "Mercado editado")
+				.param("monto", "120.000")
+				.param("tipo", "GASTO")
+				.param("categoria", "ALIMENTACION")
+				.with(user(comoPrincipal(principal))).with(csrf()))).isEqualTo(3);
+
+		assertThat(sentencias(post("/dashboard/actividad/cambiar-estado/" + ids.get(1))
+				.param("nuevoEstado", "PENDIENTE")
+				.with(user(comoPrincipal(principal))).with(csrf()))).isEqualTo(2);
+
+		assertThat(sentencias(post("/dashboard/actividad/eliminar/" + ids.get(2))
+				.with(user(comoPrincipal(principal))).with(csrf()))).isEqualTo(2);
+	}
+
+	@Test
+	void completarVariasNoDependeDeCuantasSean() throws Exception {
+		MockHttpServletRequestBuilder peticion = post("/dashboard/actividades/completar")
+				.with(user(comoPrincipal(principal))).with(csrf());
+		for (Long id : idsActividades(principal, "PENDIENTE", 100)) {
+			peticion.param("ids", id.toString());
+		}
+		assertThat(sentencias(peticion)).isEqualTo(2);
+	}
+
+	@Test
+	void importarCsvAgrupaLosInsert() throws Exception {
+		StringBuilder csv = new StringBuilder("fecha;descripcion;monto;tipo;categoria\n");
+		for (int i = 0; i < 500; i++) {
+			csv.append("2025-09-").append(10 + i % 15).append(";Compra importada;")
+					.append(10_000 + i).append(";GASTO;").append(i % 2 == 0 ? "ALIMENTACION" : "TRANSPORTE").append('\n');
+		}
+		MockMultipartFile archivo = new MockMultipartFile("archivo", "actividades.csv", "text/csv",
+				csv.toString().getBytes(StandardCharsets.UTF_8));
+
+		// 500 filas = 1 lote: 10 INSERT por lotes de 50, sus nextval, un upsert por fila del resumen
+		// (mes × categoría) y la versión. Una sentencia por fila daría más de 500.
+		assertThat(sentencias(multipart("/dashboard/importar").file(archivo)
+				.with(user(comoPrincipal(principal))).with(csrf()))).isLessThanOrEqualTo(25);
+	}
+
+	@Test
+	void tendenciasSonUnaSentencia() throws Exception {
+		// Sin caché se leen los 24 meses del resumen; con los meses cerrados en caché, solo el actual
+		tendenciaService.olvidar(principal.getId());
+		assertThat(sentencias(get("/dashboard/tendencias").param("meses", "24")
+				.with(user(comoPrincipal(principal))))).isEqualTo(1);
+		assertThat(sentencias(get("/dashboard/tendencias").param("meses", "12")
+				.with(user(comoPrincipal(principal))))).isEqualTo(1);
+	}
+
+	@Test
+	void desgloseDeCategoriasEsUnaSentencia() throws Exception {
+		assertThat(sentencias(get("/dashboard/categorias").with(user(comoPrincipal(principal))))).isEqualTo(1);
+		assertThat(sentencias(get("/dashboard/categorias")
+				.param("tipo", "INGRESO")
+				.param("desde", YearMonth.now().minusMonths(5).toString())
+				.with(user(comoPrincipal(principal))))).isEqualTo(1);
+	}
+
+	@Test
+	void busquedaConstruyeElIndiceUnaVezYLuegoSoloLeeLasFilas() throws Exception {
+		busquedaService.olvidar(principal.getId());
+
+		// Construir el índice (una lectura por cursor de id y descripción) + las filas encontradas por id
+		assertThat(sentencias(get("/dashboard/buscar").param("q", "prueba")
+				.with(user(comoPrincipal(principal))))).isLessThanOrEqualTo(2);
+		MvcResult segunda = ejecutar(get("/dashboard/buscar").param("q", "GASTO pru")
+				.with(user(comoPrincipal(principal))));
+		assertThat(sentencias(segunda)).isEqualTo(1);
+		assertThat(segunda.getResponse().getContentAsString())
+				.contains("Gasto de prueba").doesNotContain("Ingreso de prueba");
+		assertThat(sentencias(get("/dashboard/buscar").param("q", "inexistente")
+				.with(user(comoPrincipal(principal))))).isZero();
+
+		// Una edición confirmada se ve en la siguiente búsqueda sin reconstruir el índice
+		Long id = idsActividades(principal, "PENDIENTE", 1).get(0);
+		ejecutar(post("/dashboard/actividad/editar/" + id)
+				.param("descripcion", "Matrícula del semestre")
+				.param("monto", "80.000")
+				.param("tipo", "GASTO")
+				.param("categoria", "EDUCACION")
+				.with(user(comoPrincipal(principal))).with(csrf()));
+		MvcResult editada = ejecutar(get("/dashboard/buscar").param("q", "matricula")
+				.with(user(comoPrincipal(principal))));
+		assertThat(sentencias(editada)).isEqualTo(1);
+		assertThat(editada.getResponse().getContentAsString()).contains("\"id\":" + id);
+	}
+
+	@Test
+	void libroDaElSaldoActualYLosPasadosEnUnaSentencia() throws Exception {
+		String saldoReal = "SELECT COALESCE(SUM(aporte_saldo(tipo, estado, monto_centavos)), 0) FROM actividades WHERE usuario_id = ?";
+		long antes = jdbcTemplate.queryForObject(saldoReal, Long.class, principal.getId());
+		MvcResult actual = ejecutar(get("/dashboard/saldo").with(user(comoPrincipal(principal))));
+		assertThat(sentencias(actual)).isEqualTo(1);
+		assertThat(actual.getResponse().getContentAsString()).contains("\"saldoCentavos\":" + antes);
+
+		Thread.sleep(5);
+		LocalDateTime instante = LocalDateTime.now();
+		Thread.sleep(5);
+		ejecutar(post("/dashboard/actividad/cambiar-estado/" + idsActividades(principal, "PENDIENTE", 1).get(0))
+				.param("nuevoEstado", "COMPLETADO")
+				.with(user(comoPrincipal(principal))).with(csrf()));
+		long despues = jdbcTemplate.queryForObject(saldoReal, Long.class, principal.getId());
+		assertThat(despues).isNotEqualTo(antes);
+
+		// Foto más cercana + eventos posteriores, sin recorrer las actividades
+		MvcResult pasado = ejecutar(get("/dashboard/saldo").param("al", instante.toString())
+				.with(user(comoPrincipal(principal))));
+		assertThat(sentencias(pasado)).isEqualTo(1);
+		assertThat(pasado.getResponse().getContentAsString()).contains("\"saldoCentavos\":" + antes);
+		assertThat(ejecutar(get("/dashboard/saldo").with(user(comoPrincipal(principal))))
+				.getResponse().getContentAsString()).contains("\"saldoCentavos\":" + despues);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM saldos_libro WHERE usuario_id = ?",
+				Long.class, principal.getId())).isGreaterThanOrEqualTo(ACTIVIDADES_PRINCIPAL / 100);
+		long ultimo = jdbcTemplate.queryForObject("SELECT numero FROM libro_cabeza WHERE usuario_id = ?",
+				Long.class, principal.getId());
+		MvcResult eventos = ejecutar(get("/dashboard/libro").param("despues", String.valueOf(ultimo - 1))
+				.with(user(comoPrincipal(principal))));
+		assertThat(sentencias(eventos)).isEqualTo(1);
+		assertThat(eventos.getResponse().getContentAsString()).contains("\"evento\":\"ESTADO\"");
+	}
+
+	@Test
+	void saldoAlDiaLeeUnaFotoMensualYComoMuchoUnMes() throws Exception {
+		String saldoReal = "SELECT COALESCE(SUM(aporte_saldo(tipo, estado, monto_centavos)), 0) FROM actividades " +
+				"WHERE usuario_id = ? AND created_at < ?";
+		LocalDate hoy = LocalDate.now();
+		for (LocalDate dia : List.of(hoy, hoy.minusDays(20), hoy.minusDays(45), hoy.minusDays(100),
+				hoy.withDayOfMonth(1).minusDays(1))) {
+			long esperado = jdbcTemplate.queryForObject(saldoReal, Long.class,
+					principal.getId(), dia.plusDays(1).atStartOfDay());
+			MvcResult resultado = ejecutar(get("/dashboard/saldo-al-dia").param("fecha", dia.toString())
+					.with(user(comoPrincipal(principal))));
+			assertThat(sentencias(resultado)).isEqualTo(1);
+			assertThat(resultado.getResponse().getContentAsString()).contains("\"saldoCentavos\":" + esperado);
+		}
+
+		// Las fotos coinciden con el resumen acumulado mes a mes
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM saldos_mensuales s WHERE s.usuario_id = ? AND s.saldo_centavos <> " +
+				"(SELECT COALESCE(SUM(signo_tipo(r.tipo) * r.total_centavos), 0) FROM resumen_mensual r " +
+				" WHERE r.usuario_id = s.usuario_id AND (r.anio, r.mes) <= (s.anio, s.mes))",
+				Long.class, principal.getId())).isZero();
+
+		// Página de completadas: la página más el saldo anterior al cursor; cada fila es la anterior menos su aporte
+		Map<String, Object> fila = jdbcTemplate.queryForMap(
+				"SELECT id, created_at FROM actividades WHERE usuario_id = ? AND estado = 'COMPLETADO' " +
+				"ORDER BY created_at DESC, id DESC OFFSET 30 LIMIT 1", principal.getId());
+		LocalDateTime fecha = ((Timestamp) fila.get("created_at")).toLocalDateTime();
+		long id = ((Number) fila.get("id")).longValue();
+		long esperado = jdbcTemplate.queryForObject(
+				"SELECT COALESCE(SUM(aporte_saldo(tipo, estado, monto_centavos)), 0) FROM actividades " +
+				"WHERE usuario_id = ? AND (created_at, id) < (?, ?)", Long.class, principal.getId(), fecha, id);
+		MvcResult pagina = ejecutar(get("/dashboard/actividades")
+				.param("estado", "COMPLETADO")
+				.param("cursor", fecha + "_" + id)
+				.with(user(comoPrincipal(principal))));
+		assertThat(sentencias(pagina)).isEqualTo(2);
+		@SuppressWarnings("unchecked")
+		List<Actividad> actividades = (List<Actividad>) pagina.getModelAndView().getModel().get("actividades");
+		@SuppressWarnings("unchecked")
+		Map<Long, Dinero> saldos = (Map<Long, Dinero>) pagina.getModelAndView().getModel().get("saldos");
+		assertThat(actividades).hasSizeGreaterThan(1);
+		assertThat(saldos.get(actividades.get(0).getId()).centavos()).isEqualTo(esperado);
+		Actividad primera = actividades.get(0);
+		long aporte = primera.getTipo() == TipoActividad.INGRESO ? primera.getMonto().centavos() : -primera.getMonto().centavos();
+		assertThat(saldos.get(actividades.get(1).getId()).centavos()).isEqualTo(esperado - aporte);
+	}
+
+	@Test
+	void exportarLeeTodoElHistorialConUnaSentencia() throws Exception {
+		// La descarga corre en un hilo asíncrono, fuera del filtro: se mide el servicio directamente
+		RegistroConsultasJdbc.Peticion peticion = registroConsultasJdbc.iniciar(new MockHttpServletRequest());
+		try {
+			exportacionService.exportar(principal.getId(), ExportacionService.Formato.CSV, OutputStream.nullOutputStream());
+		} finally {
+			registroConsultasJdbc.terminar();
+		}
+		assertThat(peticion.getSentencias()).isEqualTo(1);
+	}
+
+	// =========================
+	// PresupuestoController
+	// =========================
+
+	@Test
+	void presupuestosSeLeenDelResumenPorClave() throws Exception {
+		// Un upsert por categoría con monto y un DELETE para las vacías
+		assertThat(sentencias(post("/dashboard/presupuestos")
+				.param("ALIMENTACION", "10.000")
+				.param("TRANSPORTE", "250.000")
+				.param("VIVIENDA", "")
+				.param("SALUD", "")
+				.with(user(comoPrincipal(principal))).with(csrf()))).isEqualTo(3);
+
+		assertThat(sentencias(get("/dashboard/presupuestos").with(user(comoPrincipal(principal))))).isEqualTo(1);
+
+		// Completar un gasto: UPDATE + versión + presupuesto, que con 10.000 de presupuesto ya está superado
+		Long pendiente = jdbcTemplate.queryForObject(
+				"SELECT id FROM actividades WHERE usuario_id = ? AND estado = 'PENDIENTE' AND tipo = 'GASTO' " +
+				"AND categoria = 'ALIMENTACION' ORDER BY id LIMIT 1", Long.class, principal.getId());
+		MvcResult completar = ejecutar(post("/dashboard/actividad/cambiar-estado/" + pendiente)
+				.param("nuevoEstado", "COMPLETADO")
+				.with(user(comoPrincipal(principal))).with(csrf()));
+		assertThat(sentencias(completar)).isEqualTo(3);
+		assertThat(completar.getFlashMap().get("avisoPresupuesto")).asString().contains("Alimentacion");
+	}
+
+	// =========================
+	// RecurrenteController y generador
+	// =========================
+
+	@Test
+	void recurrentesDelUsuario() throws Exception {
+		// Un INSERT; el usuario va como referencia, sin SELECT
+		assertThat(sentencias(post("/dashboard/recurrentes")
+				.param("descripcion", "Arriendo apartamento")
+				.param("monto", "1.200.000")
+				.param("tipo", "GASTO")
+				.param("categoria", "VIVIENDA")
+				.param("frecuencia", "MENSUAL")
+				.param("dia", "31")
+				.with(user(comoPrincipal(principal))).with(csrf()))).isEqualTo(1);
+
+		assertThat(sentencias(get("/dashboard/recurrentes").with(user(comoPrincipal(principal))))).isEqualTo(1);
+
+		Long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM actividades_recurrentes WHERE usuario_id = ?",
+				Long.class, principal.getId());
+		assertThat(sentencias(post("/dashboard/recurrentes/eliminar/" + id)
+				.with(user(comoPrincipal(principal))).with(csrf()))).isEqualTo(1);
+	}
+
+	@Test
+	void generadorDeRecurrentesPorLotesEIdempotente() {
+		// Una plantilla mensual (dos meses vencidos) y una semanal (dos semanas vencidas) por usuario de prueba
+		LocalDate hoy = LocalDate.now();
+		String usuarios = "SELECT id FROM usuarios WHERE email LIKE 'usuario%" + DOMINIO + "'";
+		int mensuales = jdbcTemplate.update("INSERT INTO actividades_recurrentes " +
+				"(usuario_id, descripcion, monto_centavos, tipo, categoria, frecuencia, dia, proxima) " +
+				"SELECT id, 'Salario', 250000000, 'INGRESO', 'SALARIO', 'MENSUAL', 1, ? FROM (" + usuarios + ") u",
+				hoy.minusMonths(1).withDayOfMonth(1));
+		int semanales = jdbcTemplate.update("INSERT INTO actividades_recurrentes " +
+				"(usuario_id, descripcion, monto_centavos, tipo, categoria, frecuencia, dia, proxima) " +
+				"SELECT id, 'Transporte semanal', 5000000, 'GASTO', 'TRANSPORTE', 'SEMANAL', ?, ? FROM (" + usuarios + ") u",
+				hoy.minusDays(13).getDayOfWeek().getValue(), hoy.minusDays(13));
+
+		// Un lote: SELECT de vencidas, bloques de ids, INSERT por lotes, UPDATE de "proxima" y versión de los usuarios
+		long ultimoId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM actividades", Long.class);
+		RegistroConsultasJdbc.Peticion peticion = registroConsultasJdbc.iniciar(new MockHttpServletRequest());
+		ResultadoGeneracion primera;
+		try {
+			primera = generacionRecurrentesService.generar(hoy);
+		} finally {
+			registroConsultasJdbc.terminar();
+		}
+		assertThat(peticion.getSentencias()).isLessThanOrEqualTo(5 * primera.lotes() + 1);
+		// Ids seguidos dentro de cada lote: como mucho un bloque a medio usar por lote, no uno por fila
+		Long rango = jdbcTemplate.queryForObject("SELECT MAX(id) - MIN(id) + 1 FROM actividades WHERE id > ?",
+				Long.class, ultimoId);
+		assertThat(rango).isLessThan(primera.actividades() + 50L * primera.lotes());
+		// Dos fechas vencidas por plantilla de la prueba
+		String generadas = "SELECT COUNT(*) FROM actividades WHERE usuario_id IN (" + usuarios + ") " +
+				"AND descripcion IN ('Salario', 'Transporte semanal')";
+		assertThat(jdbcTemplate.queryForObject(generadas, Long.class)).isEqualTo(2L * (mensuales + semanales));
+
+		// Repetir la pasada del mismo día no crea nada y las plantillas de la prueba quedan al día
+		generacionRecurrentesService.generar(hoy);
+		assertThat(jdbcTemplate.queryForObject(generadas, Long.class)).isEqualTo(2L * (mensuales + semanales));
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM actividades_recurrentes WHERE proxima <= ? " +
+				"AND usuario_id IN (" + usuarios + ")", Long.class, hoy)).isZero();
+	}
+
+	// =========================
+	// ApiActividadesController
+	// =========================
+
+	@Test
+	void apiListaProyeccionesEnUnaSentenciaPorPagina() throws Exception {
+		MvcResult primera = ejecutar(get("/api/v1/actividades").param("estado", "COMPLETADO").param("limite", "5")
+				.with(user(comoPrincipal(principal))));
+		assertThat(sentencias(primera)).isEqualTo(1);
+		assertThat(primera.getResponse().getHeader("X-CSRF-TOKEN")).isNotBlank();
+		String json = primera.getResponse().getContentAsString();
+		assertThat(json).contains("\"montoCentavos\":", "\"siguienteCursor\":\"").doesNotContain("usuario");
+
+		String cursor = JsonPath.read(json, "$.siguienteCursor");
+		MvcResult segunda = ejecutar(get("/api/v1/actividades").param("estado", "COMPLETADO").param("limite", "5")
+				.param("cursor", cursor).with(user(comoPrincipal(principal))));
+		assertThat(sentencias(segunda)).isEqualTo(1);
+		List<Integer> ids = JsonPath.read(segunda.getResponse().getContentAsString(), "$.actividades[*].id");
+		assertThat(ids).hasSize(5).doesNotContainAnyElementsOf(JsonPath.<List<Integer>>read(json, "$.actividades[*].id"));
+
+		assertThat(sentencias(get("/api/v1/actividades/totales").with(user(comoPrincipal(principal))))).isEqualTo(1);
+	}
+
+	@Test
+	void apiRechazaCursorEstadoOLimiteInvalidosSinConsultar() throws Exception {
+		MvcResult cursor = mockMvc.perform(get("/api/v1/actividades").param("estado", "COMPLETADO")
+				.param("cursor", "no-es-un-cursor").with(user(comoPrincipal(principal)))).andReturn();
+		assertThat(cursor.getResponse().getStatus()).isEqualTo(400);
+		assertThat(JsonPath.<String>read(cursor.getResponse().getContentAsString(), "$.error")).isNotBlank();
+		assertThat(sentencias(cursor)).isZero();
+
+		MvcResult estado = mockMvc.perform(get("/api/v1/actividades").param("estado", "ARCHIVADO")
+				.with(user(comoPrincipal(principal)))).andReturn();
+		assertThat(estado.getResponse().getStatus()).isEqualTo(400);
+		assertThat(estado.getResponse().getContentAsString()).contains("Datos inválidos en la petición");
+		assertThat(sentencias(estado)).isZero();
+
+		for (String limite : new String[]{"0", String.valueOf(ApiActividadesController.MAX_LIMITE + 1)}) {
+			MvcResult fueraDeRango = mockMvc.perform(get("/api/v1/actividades").param("estado", "COMPLETADO")
+					.param("limite", limite).with(user(comoPrincipal(principal)))).andReturn();
+			assertThat(fueraDeRango.getResponse().getStatus()).isEqualTo(400);
+			assertThat(fueraDeRango.getResponse().getContentAsString()).contains("El límite debe estar entre 1 y");
+			assertThat(sentencias(fueraDeRango)).isZero();
+		}
+	}
+
+	@Test
+	void apiMutacionesValidanYSoloTocanActividadesPropias() throws Exception {
+		MvcResult creada = ejecutar(post("/api/v1/actividades").with(user(comoPrincipal(principal))).with(csrf())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"descripcion\":\"Taxi aeropuerto\",\"montoCentavos\":3500000,\"tipo\":\"GASTO\",\"categoria\":\"TRANSPORTE\"}"));
+		assertThat(creada.getResponse().getStatus()).isEqualTo(201);
+		// INSERT + versión de datos, y como mucho un nextval al agotar el bloque de ids
+		assertThat(sentencias(creada)).isLessThanOrEqualTo(3);
+		long id = ((Number) JsonPath.read(creada.getResponse().getContentAsString(), "$.id")).longValue();
+
+		// Mismas reglas que el dashboard y la importación, sin tocar la BD
+		MvcResult invalida = mockMvc.perform(post("/api/v1/actividades").with(user(comoPrincipal(principal))).with(csrf())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"descripcion\":\"Taxi\",\"montoCentavos\":3500000,\"tipo\":\"INGRESO\",\"categoria\":\"TRANSPORTE\"}"))
+				.andReturn();
+		assertThat(invalida.getResponse().getStatus()).isEqualTo(400);
+		assertThat(invalida.getResponse().getContentAsString()).contains("no corresponde al tipo");
+		assertThat(sentencias(invalida)).isZero();
+
+		assertThat(sentencias(put("/api/v1/actividades/" + id + "/estado").with(user(comoPrincipal(principal))).with(csrf())
+				.contentType(MediaType.APPLICATION_JSON).content("{\"estado\":\"COMPLETADO\"}"))).isEqualTo(2);
+		assertThat(sentencias(put("/api/v1/actividades/" + id).with(user(comoPrincipal(principal))).with(csrf())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"descripcion\":\"Taxi al aeropuerto\",\"montoCentavos\":4000000,\"tipo\":\"GASTO\",\"categoria\":\"TRANSPORTE\"}")))
+				.isEqualTo(2);
+
+		// Actividad de otro usuario: 404 como si no existiera
+		Long ajena = jdbcTemplate.queryForObject("SELECT a.id FROM actividades a JOIN usuarios u ON u.id = a.usuario_id " +
+				"WHERE u.email = ? ORDER BY a.id LIMIT 1", Long.class, "usuario0" + DOMINIO);
+		String estadoAjena = jdbcTemplate.queryForObject("SELECT estado FROM actividades WHERE id = ?", String.class, ajena);
+		assertThat(mockMvc.perform(put("/api/v1/actividades/" + ajena + "/estado").with(user(comoPrincipal(principal))).with(csrf())
+				.contentType(MediaType.APPLICATION_JSON).content("{\"estado\":\"PENDIENTE\"}"))
+				.andReturn().getResponse().getStatus()).isEqualTo(404);
+		assertThat(mockMvc.perform(put("/api/v1/actividades/" + ajena).with(user(comoPrincipal(principal))).with(csrf())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"descripcion\":\"Ajena\",\"montoCentavos\":4000000,\"tipo\":\"GASTO\",\"categoria\":\"TRANSPORTE\"}"))
+				.andReturn().getResponse().getStatus()).isEqualTo(404);
+		assertThat(mockMvc.perform(delete("/api/v1/actividades/" + ajena).with(user(comoPrincipal(principal))).with(csrf()))
+				.andReturn().getResponse().getStatus()).isEqualTo(404);
+		assertThat(jdbcTemplate.queryForObject("SELECT estado FROM actividades WHERE id = ?", String.class, ajena))
+				.isEqualTo(estadoAjena);
+
+		assertThat(sentencias(delete("/api/v1/actividades/" + id).with(user(comoPrincipal(principal))).with(csrf()))).isEqualTo(2);
+
+		// Sin sesión la API responde 401 en lugar de redirigir al login
+		assertThat(mockMvc.perform(get("/api/v1/actividades").param("estado", "PENDIENTE"))
+				.andReturn().getResponse().getStatus()).isEqualTo(401);
+	}
+
+	// =========================
+	// AdminController
+	// =========================
+
+	@Test
+	void listadoDeAdministracionNoConsultaPorUsuario() throws Exception {
+		// Total de usuarios, página, COUNT de la página y estadísticas agrupadas de sus usuarios
+		assertThat(sentencias(get("/admin/dashboard").with(user(comoPrincipal(admin))))).isEqualTo(4);
+		assertThat(sentencias(get("/admin/dashboard")
+				.param("pagina", "2")
+				.param("orden", "nombre")
+				.param("direccion", "desc")
+				.with(user(comoPrincipal(admin))))).isEqualTo(4);
+		assertThat(sentencias(get("/admin/dashboard")
+				.param("busqueda", "conteo")
+				.with(user(comoPrincipal(admin))))).isEqualTo(4);
+	}
+
+	@Test
+	void restablecerPassword() throws Exception {
+		Long id = usuarioRepository.findByEmail("usuario0" + DOMINIO).orElseThrow().getId();
+		// SELECT del usuario, UPDATE y versión de datos
+		assertThat(sentencias(post("/admin/usuario/" + id + "/reset-password")
+				.with(user(comoPrincipal(admin))).with(csrf()))).isEqualTo(3);
+	}
+
+	@Test
+	void eliminarUsuarioNoDependeDeSusActividades() throws Exception {
+		assertThat(sentencias(post("/admin/usuario/" + borrable.getId() + "/eliminar")
+				.with(user(comoPrincipal(admin))).with(csrf()))).isLessThanOrEqualTo(5);
+		assertThat(usuarioRepository.existsById(borrable.getId())).isFalse();
+	}
+
+	// =========================
+	// AuthController y login
+	// =========================
+
+	@Test
+	void paginasSinDatosNoConsultan() throws Exception {
+		assertThat(sentencias(get("/login"))).isZero();
+		assertThat(sentencias(get("/register"))).isZero();
+		assertThat(sentencias(get("/cambiar-password").with(user(comoPrincipal(principal))))).isZero();
+	}
+
+	@Test
+	void loginEsUnaSentencia() throws Exception {
+		assertThat(sentencias(formLogin("/login").user("principal" + DOMINIO).password(PASSWORD))).isEqualTo(1);
+	}
+
+	@Test
+	void registro() throws Exception {
+		// Comprobar el email, INSERT y versión de datos
+		assertThat(sentencias(post("/register")
+				.param("nombre", "Registro Conteo")
+				.param("email", EMAIL_REGISTRO)
+				.param("password", PASSWORD)
+				.with(csrf()))).isEqualTo(3);
+	}
+
+	@Test
+	void cambiarPassword() throws Exception {
+		Usuario usuario = usuarioRepository.findByEmail("usuario1" + DOMINIO).orElseThrow();
+		// SELECT del usuario, UPDATE y versión de datos
+		assertThat(sentencias(post("/cambiar-password")
+				.param("currentPassword", PASSWORD)
+				.param("newPassword", PASSWORD + "nueva")
+				.param("confirmPassword", PASSWORD + "nueva")
+				.with(user(comoPrincipal(usuario))).with(csrf()))).isEqualTo(3);
+	}
+
+	// =========================
+	// Utilidades
+	// =========================
+
+	private int sentencias(RequestBuilder peticion) throws Exception {
+		return sentencias(ejecutar(peticion));
+	}
+
+	private int sentencias(MvcResult resultado) {
+		RegistroConsultasJdbc.Peticion consultas = (RegistroConsultasJdbc.Peticion)
+				resultado.getRequest().getAttribute(MetricasJdbcFilter.ATRIBUTO_CONSULTAS);
+		assertThat(consultas).as("acumulado de sentencias de la petición").isNotNull();
+		return consultas.getSentencias();
+	}
+
+	// Falla si el endpoint terminó en error: un conteo bajo por una excepción temprana no vale
+	private MvcResult ejecutar(RequestBuilder peticion) throws Exception {
+		MvcResult resultado = mockMvc.perform(peticion).andReturn();
+		assertThat(resultado.getResponse().getStatus()).as("estado HTTP").isLessThan(400);
+		assertThat(resultado.getFlashMap() == null ? null : resultado.getFlashMap().get("error"))
+				.as("mensaje de error").isNull();
+		assertThat(resultado.getModelAndView() == null ? null : resultado.getModelAndView().getModel().get("error"))
+				.as("error en el modelo").isNull();
+		return resultado;
+	}
+
+	private List<Long> idsActividades(Usuario usuario, String estado, int cantidad) {
+		return jdbcTemplate.queryForList(
+				"SELECT id FROM actividades WHERE usuario_id = ? AND estado = ? ORDER BY id LIMIT ?",
+				Long.class, usuario.getId(), estado, cantidad);
+	}
+
+	private static UsuarioPrincipal comoPrincipal(Usuario usuario) {
+		return new UsuarioPrincipal(usuario);
+	}
+
+	private static Usuario nuevoUsuario(String email, String nombre, RolUsuario rol, String hash) {
+		Usuario usuario = new Usuario();
+		usuario.setEmail(email);
+		usuario.setNombre(nombre);
+		usuario.setRol(rol);
+		usuario.setPassword(hash);
+		usuario.setFechaRegistro(LocalDateTime.now());
+		return usuario;
+	}
+
+	// Mitad pendientes y mitad completadas, repartidas en los últimos tres meses
+	private static List<Actividad> actividades(Usuario usuario, int cantidad) {
+		List<Actividad> actividades = new ArrayList<>(cantidad);
+		LocalDateTime ahora = LocalDateTime.now();
+		for (int i = 0; i < cantidad; i++) {
+			boolean ingreso = i % 4 == 0;
+			Actividad actividad = new Actividad();
+			actividad.setUsuario(usuario);
+			actividad.setDescripcion(ingreso ? "Ingreso de prueba" : "Gasto de prueba");
+			actividad.setMonto(Dinero.deCentavos((5_000 + i) * 100L));
+			actividad.setTipo(ingreso ? TipoActividad.INGRESO : TipoActividad.GASTO);
+			actividad.setCategoria(ingreso ? Categoria.SALARIO : Categoria.ALIMENTACION);
+			actividad.setEstado(i % 2 == 0 ? EstadoActividad.PENDIENTE : EstadoActividad.COMPLETADO);
+			actividad.setCreatedAt(ahora.minusHours(i * 5L));
+			actividades.add(actividad);
+		}
+		return actividades;
+	}
+}
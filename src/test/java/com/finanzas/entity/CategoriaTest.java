@@ -0,0 +1,35 @@
+package com.finanzas.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Metadatos precalculados de Categoria frente a calcularlos desde values()
+class CategoriaTest {
+
+	@Test
+	void listasPorTipoEnElOrdenDelEnum() {
+		for (TipoActividad tipo : TipoActividad.values()) {
+			List<Categoria> esperadas = new ArrayList<>();
+			for (Categoria categoria : Categoria.values()) {
+				if (categoria.getTipo().equals(tipo.name())) {
+					esperadas.add(categoria);
+				}
+			}
+			assertThat(Categoria.getCategoriasPorTipo(tipo)).containsExactlyElementsOf(esperadas);
+			assertThat(Categoria.porTipo().get(tipo)).isSameAs(Categoria.getCategoriasPorTipo(tipo));
+		}
+		assertThat(Categoria.todas()).containsExactly(Categoria.values());
+	}
+
+	@Test
+	void nombresFormateados() {
+		assertThat(Categoria.OTROS_GASTOS.getNombreFormateado()).isEqualTo("Otros gastos");
+		assertThat(Categoria.ALIMENTACION.getNombreFormateado()).isEqualTo("Alimentacion");
+		assertThat(Categoria.nombres()).hasSize(Categoria.values().length)
+				.containsEntry(Categoria.OTROS_INGRESOS, "Otros ingresos");
+	}
+}
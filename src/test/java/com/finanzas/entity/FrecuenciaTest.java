@@ -0,0 +1,75 @@
+package com.finanzas.entity;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Fechas de las plantillas recurrentes: el generador avanza "proxima" solo con primera y siguiente
+class FrecuenciaTest {
+
+	@Test
+	void mensualEnDia31UsaElUltimoDiaDeLosMesesCortos() {
+		LocalDate enero = Frecuencia.MENSUAL.primera(LocalDate.of(2025, 1, 10), 31);
+		assertThat(enero).isEqualTo(LocalDate.of(2025, 1, 31));
+
+		LocalDate febrero = Frecuencia.MENSUAL.siguiente(enero, 31);
+		assertThat(febrero).isEqualTo(LocalDate.of(2025, 2, 28));
+		// Después de un mes corto vuelve al 31, no se queda en el 28
+		assertThat(Frecuencia.MENSUAL.siguiente(febrero, 31)).isEqualTo(LocalDate.of(2025, 3, 31));
+		assertThat(Frecuencia.MENSUAL.siguiente(LocalDate.of(2025, 3, 31), 31)).isEqualTo(LocalDate.of(2025, 4, 30));
+	}
+
+	@Test
+	void mensualEnBisiestoCaeEl29DeFebrero() {
+		assertThat(Frecuencia.MENSUAL.siguiente(LocalDate.of(2024, 1, 30), 30)).isEqualTo(LocalDate.of(2024, 2, 29));
+		assertThat(Frecuencia.MENSUAL.primera(LocalDate.of(2024, 2, 15), 29)).isEqualTo(LocalDate.of(2024, 2, 29));
+		assertThat(Frecuencia.MENSUAL.primera(LocalDate.of(2025, 2, 15), 29)).isEqualTo(LocalDate.of(2025, 2, 28));
+		assertThat(Frecuencia.MENSUAL.siguiente(LocalDate.of(2024, 2, 29), 29)).isEqualTo(LocalDate.of(2024, 3, 29));
+	}
+
+	@Test
+	void mensualConElDiaYaPasadoEmpiezaElMesSiguiente() {
+		assertThat(Frecuencia.MENSUAL.primera(LocalDate.of(2025, 3, 15), 15)).isEqualTo(LocalDate.of(2025, 3, 15));
+		assertThat(Frecuencia.MENSUAL.primera(LocalDate.of(2025, 3, 16), 15)).isEqualTo(LocalDate.of(2025, 4, 15));
+		assertThat(Frecuencia.MENSUAL.primera(LocalDate.of(2025, 12, 20), 1)).isEqualTo(LocalDate.of(2026, 1, 1));
+	}
+
+	@Test
+	void semanalEmpiezaEnElProximoDiaDeLaSemanaIncluidoHoy() {
+		LocalDate miercoles = LocalDate.of(2025, 1, 1);
+		assertThat(Frecuencia.SEMANAL.primera(miercoles, DayOfWeek.WEDNESDAY.getValue())).isEqualTo(miercoles);
+		assertThat(Frecuencia.SEMANAL.primera(miercoles, DayOfWeek.MONDAY.getValue())).isEqualTo(LocalDate.of(2025, 1, 6));
+		assertThat(Frecuencia.SEMANAL.siguiente(LocalDate.of(2024, 12, 30), 1)).isEqualTo(LocalDate.of(2025, 1, 6));
+	}
+
+	@Test
+	void diasValidosPorFrecuencia() {
+		assertThat(Frecuencia.MENSUAL.diaValido(31)).isTrue();
+		assertThat(Frecuencia.MENSUAL.diaValido(0)).isFalse();
+		assertThat(Frecuencia.MENSUAL.diaValido(32)).isFalse();
+		assertThat(Frecuencia.SEMANAL.diaValido(7)).isTrue();
+		assertThat(Frecuencia.SEMANAL.diaValido(8)).isFalse();
+	}
+
+	// Doce pasos mensuales desde cualquier primera fecha: una ocurrencia por mes, en el día pedido o el
+	// último del mes, sin que un mes corto desplace las siguientes
+	@Property
+	void mensualDaUnaFechaPorMesEnElDiaPedidoOElUltimo(@ForAll @IntRange(min = 1, max = 31) int dia,
+													  @ForAll @IntRange(min = 0, max = 3650) int diasDesde2020) {
+		LocalDate fecha = Frecuencia.MENSUAL.primera(LocalDate.of(2020, 1, 1).plusDays(diasDesde2020), dia);
+		for (int i = 0; i < 12; i++) {
+			YearMonth mes = YearMonth.from(fecha);
+			assertThat(fecha.getDayOfMonth()).isEqualTo(Math.min(dia, mes.lengthOfMonth()));
+			LocalDate siguiente = Frecuencia.MENSUAL.siguiente(fecha, dia);
+			assertThat(YearMonth.from(siguiente)).isEqualTo(mes.plusMonths(1));
+			fecha = siguiente;
+		}
+	}
+}
@@ -1,9 +1,12 @@
 package com.finanzas.finanzas_app;
 
+import com.finanzas.BaseDatosDePrueba;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
 
 @SpringBootTest
+@ContextConfiguration(initializers = BaseDatosDePrueba.class)
 class FinanzasAppApplicationTests {
 
 	@Test
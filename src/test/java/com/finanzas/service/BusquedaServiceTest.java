@@ -0,0 +1,131 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.DescripcionActividad;
+import com.finanzas.repository.ActividadRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Presupuesto de memoria de los índices de búsqueda: caben dos usuarios y el tercero desplaza al que
+// lleva más tiempo sin buscar. Cada construcción de un índice es una lectura de streamDescripciones.
+class BusquedaServiceTest {
+
+	private static final List<String> DESCRIPCIONES = List.of("Mercado del mes", "Arriendo apartamento",
+			"Taxi al aeropuerto", "Almuerzo de trabajo", "Matrícula del semestre", "Café con pan");
+
+	private ActividadRepository actividadRepository;
+	private SimpleMeterRegistry registry;
+	private BusquedaService busquedaService;
+
+	@BeforeEach
+	void crearServicio() {
+		IndiceTrigramas referencia = new IndiceTrigramas();
+		for (int i = 0; i < DESCRIPCIONES.size(); i++) {
+			referencia.agregar(i, DESCRIPCIONES.get(i));
+		}
+		// Dos índices y medio como los de la prueba
+		DataSize memoria = DataSize.ofBytes(referencia.getBytesEstimados() * 5 / 2);
+
+		actividadRepository = mock(ActividadRepository.class);
+		when(actividadRepository.streamDescripciones(anyLong()))
+				.thenAnswer(invocacion -> descripciones(invocacion.getArgument(0)));
+		when(actividadRepository.findByUsuarioIdAndIdIn(anyLong(), any())).thenReturn(List.of());
+
+		registry = new SimpleMeterRegistry();
+		busquedaService = new BusquedaService(memoria, registry);
+		ReflectionTestUtils.setField(busquedaService, "actividadRepository", actividadRepository);
+	}
+
+	@Test
+	void alPasarElPresupuestoDescartaElIndiceMenosUsado() {
+		busquedaService.buscar(1L, "mercado", 10);
+		busquedaService.buscar(2L, "mercado", 10);
+		assertThat(indicesEnCache()).isEqualTo(2);
+
+		// El usuario 1 vuelve a buscar: el 2 pasa a ser el que lleva más tiempo sin usarse
+		busquedaService.buscar(1L, "taxi", 10);
+		busquedaService.buscar(3L, "mercado", 10);
+		assertThat(indicesEnCache()).isEqualTo(2);
+		assertThat(memoriaEnUso()).isLessThanOrEqualTo(memoriaMaxima());
+
+		busquedaService.buscar(1L, "cafe", 10);
+		busquedaService.buscar(3L, "cafe", 10);
+		verify(actividadRepository, times(1)).streamDescripciones(1L);
+		verify(actividadRepository, times(1)).streamDescripciones(3L);
+
+		// El descartado se reconstruye en su siguiente búsqueda
+		busquedaService.buscar(2L, "mercado", 10);
+		verify(actividadRepository, times(2)).streamDescripciones(2L);
+	}
+
+	@Test
+	void unIndiceQueCreceTambienRespetaElPresupuesto() {
+		busquedaService.buscar(1L, "mercado", 10);
+		busquedaService.buscar(2L, "mercado", 10);
+
+		// Sin transacción cada alta se aplica de inmediato. El usuario 2 crece hasta pasar el presupuesto
+		// entre los dos; sale el 1, que lleva más tiempo sin buscar, y no el que acaba de cambiar
+		for (int i = 0; indicesEnCache() == 2; i++) {
+			assertThat(i).as("altas hasta pasar el presupuesto").isLessThan(1000);
+			busquedaService.registrar(2L, 2000L + i, "Supermercado " + i + ": " + DESCRIPCIONES.get(i % DESCRIPCIONES.size()));
+		}
+		assertThat(indicesEnCache()).isEqualTo(1);
+		assertThat(memoriaEnUso()).isLessThanOrEqualTo(memoriaMaxima());
+
+		busquedaService.buscar(2L, "supermercado", 10);
+		verify(actividadRepository, times(1)).streamDescripciones(2L);
+		busquedaService.buscar(1L, "mercado", 10);
+		verify(actividadRepository, times(2)).streamDescripciones(1L);
+	}
+
+	@Test
+	void olvidarLiberaLaMemoriaDelUsuario() {
+		busquedaService.buscar(1L, "mercado", 10);
+		assertThat(memoriaEnUso()).isPositive();
+
+		busquedaService.olvidar(1L);
+		assertThat(indicesEnCache()).isZero();
+		assertThat(memoriaEnUso()).isZero();
+	}
+
+	private Stream<DescripcionActividad> descripciones(long usuarioId) {
+		return DESCRIPCIONES.stream().map(texto -> new DescripcionActividad() {
+			private final long id = usuarioId * 1000 + DESCRIPCIONES.indexOf(texto);
+
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getDescripcion() {
+				return texto;
+			}
+		});
+	}
+
+	private long memoriaMaxima() {
+		return (long) ReflectionTestUtils.getField(busquedaService, "memoriaMaxima");
+	}
+
+	private double memoriaEnUso() {
+		return registry.get("finanzas.busqueda.memoria").gauge().value();
+	}
+
+	private double indicesEnCache() {
+		return registry.get("finanzas.busqueda.indices").gauge().value();
+	}
+}
@@ -0,0 +1,58 @@
+package com.finanzas.service;
+
+import com.finanzas.dto.ResultadoImportacion;
+import com.finanzas.entity.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Informe de errores de la importación: cada fila rechazada con la línea del archivo donde empieza
+class ImportacionServiceTest {
+
+	private ImportacionService importacionService;
+
+	@BeforeEach
+	void crearServicio() {
+		ActividadService actividadService = mock(ActividadService.class);
+		when(actividadService.guardarLote(anyList())).thenAnswer(invocacion -> invocacion.<List<?>>getArgument(0).size());
+		UsuarioService usuarioService = mock(UsuarioService.class);
+		when(usuarioService.obtenerReferencia(anyLong())).thenReturn(new Usuario());
+
+		importacionService = new ImportacionService();
+		ReflectionTestUtils.setField(importacionService, "actividadService", actividadService);
+		ReflectionTestUtils.setField(importacionService, "usuarioService", usuarioService);
+		ReflectionTestUtils.setField(importacionService, "validadorActividad", new ValidadorActividad());
+		ReflectionTestUtils.setField(importacionService, "tamanoLote", 2);
+		ReflectionTestUtils.setField(importacionService, "maxErroresReportados", 10);
+		ReflectionTestUtils.setField(importacionService, "maxCaracteresCampo", 300);
+		ReflectionTestUtils.setField(importacionService, "maxCaracteresRegistro", 400);
+	}
+
+	@Test
+	void erroresConLaLineaDondeEmpiezaCadaRegistro() throws IOException {
+		String csv = "\uFEFFfecha;descripcion;monto;tipo;categoria\r\n" +
+				"01/10/2025;Mercado;180.000;GASTO;ALIMENTACION\r\n" +
+				"2025-10-02;\"Taxi\nal aeropuerto\";no es monto;GASTO;TRANSPORTE\r\n" +
+				"2025-10-03;\"Sin cerrar " + "x".repeat(500) + "\r\n" +
+				"2025-10-04;Salario;3.000.000;INGRESO;SALARIO\r\n" +
+				"2025-10-05;Salario;3.000.000;INGRESO;VIVIENDA\r\n";
+		ResultadoImportacion resultado = importacionService.importarCsv(1L,
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(resultado.getImportadas()).isEqualTo(2);
+		assertThat(resultado.getRechazadas()).isEqualTo(3);
+		assertThat(resultado.getErrores()).extracting(ResultadoImportacion.ErrorFila::linea).containsExactly(3, 5, 7);
+		assertThat(resultado.getErrores().get(1).mensaje()).contains("300 caracteres");
+	}
+}
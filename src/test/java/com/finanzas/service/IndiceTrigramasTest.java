@@ -0,0 +1,130 @@
+package com.finanzas.service;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Propiedades del índice de trigramas frente a filtrar todas las descripciones con contains
+class IndiceTrigramasTest {
+
+	// Palabras cortas y repetidas para que las consultas tengan coincidencias, con tildes y mayúsculas
+	private static final String[] PALABRAS = {"pan", "Piña", "pina", "mercado", "MERCADO", "arriendo", "bus",
+			"taxi", "café", "cafe", "de", "la", "a", "ñame", "12", "2024", "mes"};
+
+	// Operación sobre el índice: alta/cambio de descripción (texto != null) o borrado (texto == null)
+	record Operacion(long id, String texto) {
+	}
+
+	@Provide
+	Arbitrary<List<Operacion>> operaciones() {
+		Arbitrary<String> descripcion = Combinators.combine(
+						Arbitraries.of(PALABRAS).list().ofMinSize(1).ofMaxSize(5),
+						Arbitraries.of(" ", "-", ", "))
+				.as((palabras, separador) -> String.join(separador, palabras));
+		Arbitrary<Operacion> operacion = Combinators.combine(
+						Arbitraries.longs().between(1, 200),
+						Arbitraries.frequencyOf(
+								Tuple.of(4, descripcion),
+								Tuple.of(1, Arbitraries.just((String) null))))
+				.as(Operacion::new);
+		return operacion.list().ofMaxSize(300);
+	}
+
+	@Provide
+	Arbitrary<String> consultas() {
+		Arbitrary<String> fragmento = Arbitraries.of(PALABRAS)
+				.flatMap(p -> Arbitraries.integers().between(1, p.length()).map(n -> p.substring(0, n)));
+		return fragmento.list().ofMinSize(1).ofMaxSize(3).map(f -> String.join(" ", f));
+	}
+
+	@Property(tries = 300)
+	void coincideConRecorrerTodasLasDescripciones(@ForAll("operaciones") List<Operacion> operaciones,
+												  @ForAll("consultas") String consulta) {
+		IndiceTrigramas indice = new IndiceTrigramas();
+		Map<Long, String> descripciones = new TreeMap<>();
+		for (Operacion operacion : operaciones) {
+			if (operacion.texto() == null) {
+				indice.quitar(operacion.id());
+				descripciones.remove(operacion.id());
+			} else {
+				indice.agregar(operacion.id(), operacion.texto());
+				descripciones.put(operacion.id(), operacion.texto());
+			}
+		}
+
+		String[] palabras = IndiceTrigramas.normalizar(consulta).split(" ");
+		List<Long> esperadas = new ArrayList<>();
+		descripciones.forEach((id, texto) -> {
+			String normalizado = IndiceTrigramas.normalizar(texto);
+			for (String palabra : palabras) {
+				if (!normalizado.contains(palabra)) {
+					return;
+				}
+			}
+			esperadas.add(0, id);
+		});
+
+		IndiceTrigramas.Coincidencias coincidencias = indice.buscar(consulta, 10);
+		assertThat(coincidencias.total()).isEqualTo(esperadas.size());
+		assertThat(coincidencias.ids()).containsExactly(
+				esperadas.subList(0, Math.min(10, esperadas.size())).stream().mapToLong(Long::longValue).toArray());
+		assertThat(indice.getActividades()).isEqualTo(descripciones.size());
+	}
+
+	@Property(tries = 1)
+	void casosConocidos() {
+		IndiceTrigramas indice = new IndiceTrigramas();
+		indice.agregar(1, "Jugo de piña");
+		indice.agregar(2, "Mercado del mes");
+		indice.agregar(3, "Café con pan");
+
+		assertThat(IndiceTrigramas.normalizar("  Piña,  CAFÉ!! ")).isEqualTo("pina cafe");
+		assertThat(indice.buscar("PINA", 10).ids()).containsExactly(1);
+		assertThat(indice.buscar("me", 10).ids()).containsExactly(2);
+		assertThat(indice.buscar("caf pan", 10).ids()).containsExactly(3);
+		assertThat(indice.buscar("mercado pan", 10).total()).isZero();
+		assertThat(indice.buscar("  ¿? ", 10).total()).isZero();
+
+		indice.agregar(2, "Arriendo");
+		assertThat(indice.buscar("mercado", 10).total()).isZero();
+		assertThat(indice.buscar("arriendo", 10).ids()).containsExactly(2);
+		indice.quitar(2);
+		assertThat(indice.buscar("arriendo", 10).total()).isZero();
+	}
+
+	// Orden de los resultados: de la más nueva a la más antigua por id, sin importar el orden de alta,
+	// y el total cuenta también las que quedan fuera del límite
+	@Property(tries = 1)
+	void ordenPorIdDescendenteConLimite() {
+		IndiceTrigramas indice = new IndiceTrigramas();
+		indice.agregar(5, "Mercado de la semana");
+		indice.agregar(1, "Mercado");
+		indice.agregar(9, "Mercado del mes");
+		indice.agregar(3, "Taxi al mercado");
+		indice.agregar(7, "Arriendo");
+
+		IndiceTrigramas.Coincidencias primeras = indice.buscar("mercado", 2);
+		assertThat(primeras.ids()).containsExactly(9, 5);
+		assertThat(primeras.total()).isEqualTo(4);
+
+		// Cambiar la descripción no mueve la actividad: el orden sigue siendo el del id
+		indice.agregar(1, "Mercado grande");
+		assertThat(indice.buscar("mercado", 10).ids()).containsExactly(9, 5, 3, 1);
+
+		// Palabras cortas (sin trigramas) recorren los textos y respetan el mismo orden
+		IndiceTrigramas.Coincidencias cortas = indice.buscar("me", 3);
+		assertThat(cortas.ids()).containsExactly(9, 5, 3);
+		assertThat(cortas.total()).isEqualTo(4);
+	}
+}
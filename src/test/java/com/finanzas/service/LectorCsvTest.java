@@ -0,0 +1,105 @@
+package com.finanzas.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Registros del lector CSV: comillas, saltos de línea, separador, BOM y líneas de cada registro
+class LectorCsvTest {
+
+	@Test
+	void comillasEscapadasYSaltosDeLineaDentroDeComillas() throws IOException {
+		LectorCsv lector = lector("fecha;descripcion;monto\n" +
+				"2025-10-01;\"Almuerzo \"\"ejecutivo\"\"\";25.000\n" +
+				"2025-10-02;\"Mercado\nde la semana\";180.000\n" +
+				"2025-10-03;\"Con ; dentro\";1.000\n");
+		assertThat(lector.leerRegistro()).containsExactly("fecha", "descripcion", "monto");
+		assertThat(lector.getLineaRegistro()).isEqualTo(1);
+
+		assertThat(lector.leerRegistro()).containsExactly("2025-10-01", "Almuerzo \"ejecutivo\"", "25.000");
+		assertThat(lector.getLineaRegistro()).isEqualTo(2);
+		assertThat(lector.leerRegistro()).containsExactly("2025-10-02", "Mercado\nde la semana", "180.000");
+		assertThat(lector.getLineaRegistro()).isEqualTo(3);
+		// El salto dentro de las comillas cuenta como línea del archivo
+		assertThat(lector.leerRegistro()).containsExactly("2025-10-03", "Con ; dentro", "1.000");
+		assertThat(lector.getLineaRegistro()).isEqualTo(5);
+		assertThat(lector.leerRegistro()).isNull();
+	}
+
+	@Test
+	void finDeLineaCrlfYLineasVacias() throws IOException {
+		LectorCsv lector = lector("fecha;monto\r\n2025-10-01;1.000\r\n\r\n\r\n2025-10-02;2.000\r\n");
+		assertThat(lector.leerRegistro()).containsExactly("fecha", "monto");
+		assertThat(lector.leerRegistro()).containsExactly("2025-10-01", "1.000");
+		assertThat(lector.leerRegistro()).containsExactly("2025-10-02", "2.000");
+		assertThat(lector.getLineaRegistro()).isEqualTo(5);
+		assertThat(lector.leerRegistro()).isNull();
+	}
+
+	@Test
+	void bomAlInicioNoQuedaEnLaCabecera() throws IOException {
+		LectorCsv lector = lector("\uFEFFfecha;monto\n2025-10-01;1.000");
+		assertThat(lector.leerRegistro()).containsExactly("fecha", "monto");
+		// Sin salto de línea final
+		assertThat(lector.leerRegistro()).containsExactly("2025-10-01", "1.000");
+		assertThat(lector.leerRegistro()).isNull();
+	}
+
+	@Test
+	void separadorSegunLaCabecera() throws IOException {
+		// Con ';' en la cabecera la coma es la decimal
+		LectorCsv puntoYComa = lector("fecha;monto\n2025-10-01;1.500,50\n");
+		puntoYComa.leerRegistro();
+		assertThat(puntoYComa.leerRegistro()).containsExactly("2025-10-01", "1.500,50");
+
+		LectorCsv coma = lector("fecha,descripcion,monto\n2025-10-01,Taxi,\"1.500,50\"\n");
+		assertThat(coma.leerRegistro()).containsExactly("fecha", "descripcion", "monto");
+		assertThat(coma.leerRegistro()).containsExactly("2025-10-01", "Taxi", "1.500,50");
+	}
+
+	@Test
+	void comillasSinCerrarSoloInvalidanSuRegistro() throws IOException {
+		LectorCsv lector = lector("fecha;descripcion\n" +
+				"2025-10-01;\"sin cerrar " + "x".repeat(200) + "\n" +
+				"2025-10-02;Taxi\n", 100, 150);
+		lector.leerRegistro();
+		assertThatThrownBy(lector::leerRegistro).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("100 caracteres");
+		assertThat(lector.getLineaRegistro()).isEqualTo(2);
+
+		// Lo que quedaba de la línea se descartó: la lectura sigue en la siguiente
+		assertThat(lector.leerRegistro()).containsExactly("2025-10-02", "Taxi");
+		assertThat(lector.getLineaRegistro()).isEqualTo(3);
+	}
+
+	@Test
+	void archivoSinSaltosDeLineaNoSeAcumula() throws IOException {
+		StringBuilder registro = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			registro.append("campo").append(i).append(';');
+		}
+		LectorCsv lector = lector("fecha;monto\n" + registro, 100, 150);
+		lector.leerRegistro();
+		assertThatThrownBy(lector::leerRegistro).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Registro de más de 150 caracteres");
+		assertThat(lector.leerRegistro()).isNull();
+	}
+
+	@Test
+	void cabeceraDemasiadoLargaSeRechaza() {
+		LectorCsv lector = lector("x".repeat(500) + "\n", 100, 150);
+		assertThatThrownBy(lector::leerRegistro).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static LectorCsv lector(String contenido) {
+		return lector(contenido, 1000, 4000);
+	}
+
+	private static LectorCsv lector(String contenido, int maxCampo, int maxRegistro) {
+		return new LectorCsv(new StringReader(contenido), maxCampo, maxRegistro);
+	}
+}
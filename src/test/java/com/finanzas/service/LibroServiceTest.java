@@ -0,0 +1,278 @@
+package com.finanzas.service;
+
+import com.finanzas.BaseDatosDePrueba;
+import com.finanzas.dto.DatosDashboard;
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.EstadoActividad;
+import com.finanzas.entity.EventoLibro;
+import com.finanzas.entity.RolUsuario;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.entity.TipoEvento;
+import com.finanzas.entity.Usuario;
+import com.finanzas.repository.ActividadRepository;
+import com.finanzas.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Libro de actividades escrito por los triggers de V8: qué evento deja cada mutación, con qué aporte al
+// saldo, numerado sin huecos, con una foto cada 100 eventos, y los saldos pasados que se leen de él.
+@SpringBootTest
+@ContextConfiguration(initializers = BaseDatosDePrueba.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LibroServiceTest {
+
+	private static final String DOMINIO = "@libro.test";
+
+	@Autowired
+	private LibroService libroService;
+
+	@Autowired
+	private ActividadService actividadService;
+
+	@Autowired
+	private ActividadRepository actividadRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private int usuarios;
+
+	@AfterAll
+	void borrarDatos() {
+		String ids = "SELECT id FROM usuarios WHERE email LIKE '%" + DOMINIO + "'";
+		jdbcTemplate.update("DELETE FROM actividades WHERE usuario_id IN (" + ids + ")");
+		jdbcTemplate.update("DELETE FROM usuarios WHERE id IN (" + ids + ")");
+	}
+
+	@Test
+	void cambiarMontoOCategoriaEsEditadaYSoloElEstadoEsEstado() {
+		Usuario usuario = nuevoUsuario();
+		Actividad gasto = actividadService.guardarActividad(
+				nueva(usuario, TipoActividad.GASTO, Categoria.ALIMENTACION, 5_000_000, EstadoActividad.COMPLETADO));
+
+		assertThat(actividadService.editarActividad(gasto.getId(), usuario.getId(), "Mercado",
+				7_000_000, TipoActividad.GASTO, Categoria.ALIMENTACION)).isTrue();
+		assertThat(actividadService.editarActividad(gasto.getId(), usuario.getId(), "Mercado",
+				7_000_000, TipoActividad.GASTO, Categoria.TRANSPORTE)).isTrue();
+		assertThat(actividadService.cambiarEstado(gasto.getId(), usuario.getId(), EstadoActividad.PENDIENTE)).isTrue();
+
+		List<EventoLibro> eventos = eventos(usuario);
+		assertThat(eventos).extracting(EventoLibro::getEvento).containsExactly(
+				TipoEvento.CREADA, TipoEvento.EDITADA, TipoEvento.EDITADA, TipoEvento.ESTADO);
+		assertThat(eventos).extracting(EventoLibro::getDeltaSaldoCentavos).containsExactly(
+				-5_000_000L, -2_000_000L, 0L, 7_000_000L);
+		assertThat(eventos.get(2).getCategoria()).isEqualTo(Categoria.TRANSPORTE);
+		assertThat(eventos.get(3).getEstado()).isEqualTo(EstadoActividad.PENDIENTE);
+		assertThat(libroService.obtenerSaldo(usuario.getId(), null).saldoCentavos()).isZero();
+	}
+
+	@Test
+	void guardarSinCambiosNoDejaEvento() {
+		Usuario usuario = nuevoUsuario();
+		Actividad ingreso = actividadService.guardarActividad(
+				nueva(usuario, TipoActividad.INGRESO, Categoria.SALARIO, 3_000_000, EstadoActividad.COMPLETADO));
+
+		// Save de JPA de la misma actividad, UPDATE que reescribe los mismos valores y cambio al estado que ya tenía
+		actividadService.guardarActividad(actividadRepository.findById(ingreso.getId()).orElseThrow());
+		assertThat(jdbcTemplate.update("UPDATE actividades SET descripcion = descripcion, estado = estado WHERE id = ?",
+				ingreso.getId())).isEqualTo(1);
+		assertThat(actividadService.cambiarEstado(ingreso.getId(), usuario.getId(), EstadoActividad.COMPLETADO)).isTrue();
+
+		assertThat(eventos(usuario)).extracting(EventoLibro::getEvento).containsExactly(TipoEvento.CREADA);
+		assertThat(libroService.obtenerSaldo(usuario.getId(), null).saldoCentavos()).isEqualTo(3_000_000);
+	}
+
+	@Test
+	void eliminarLlevaElAporteNegado() {
+		Usuario usuario = nuevoUsuario();
+		Actividad ingreso = actividadService.guardarActividad(
+				nueva(usuario, TipoActividad.INGRESO, Categoria.SALARIO, 3_000_000, EstadoActividad.COMPLETADO));
+		Actividad gasto = actividadService.guardarActividad(
+				nueva(usuario, TipoActividad.GASTO, Categoria.VIVIENDA, 1_200_000, EstadoActividad.COMPLETADO));
+		Actividad pendiente = actividadService.guardarActividad(
+				nueva(usuario, TipoActividad.GASTO, Categoria.SALUD, 400_000, EstadoActividad.PENDIENTE));
+
+		assertThat(actividadService.eliminarActividad(gasto.getId(), usuario.getId())).isTrue();
+		assertThat(actividadService.eliminarActividad(ingreso.getId(), usuario.getId())).isTrue();
+		assertThat(actividadService.eliminarActividad(pendiente.getId(), usuario.getId())).isTrue();
+
+		List<EventoLibro> eliminadas = eventos(usuario).subList(3, 6);
+		assertThat(eliminadas).extracting(EventoLibro::getEvento).containsOnly(TipoEvento.ELIMINADA);
+		assertThat(eliminadas).extracting(EventoLibro::getActividadId)
+				.containsExactly(gasto.getId(), ingreso.getId(), pendiente.getId());
+		assertThat(eliminadas).extracting(EventoLibro::getDeltaSaldoCentavos)
+				.containsExactly(1_200_000L, -3_000_000L, 0L);
+		// El evento conserva cómo estaba la actividad antes del borrado
+		assertThat(eliminadas.get(1).getEstado()).isEqualTo(EstadoActividad.COMPLETADO);
+		assertThat(eliminadas.get(1).getMontoCentavos()).isEqualTo(3_000_000);
+		assertThat(libroService.obtenerSaldo(usuario.getId(), null).saldoCentavos()).isZero();
+	}
+
+	@Test
+	void sentenciasDeVariasFilasNumeranSinHuecos() {
+		Usuario usuario = nuevoUsuario();
+		List<Actividad> lote = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			lote.add(nueva(usuario, TipoActividad.GASTO, Categoria.TRANSPORTE, 100_000, EstadoActividad.PENDIENTE));
+		}
+		actividadService.guardarLote(lote);
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM actividades WHERE usuario_id = ? ORDER BY id",
+				Long.class, usuario.getId());
+
+		assertThat(actividadService.completarActividades(usuario.getId(), ids.subList(0, 5))).isEqualTo(5);
+		assertThat(jdbcTemplate.update("DELETE FROM actividades WHERE id IN (?, ?, ?)",
+				ids.get(0), ids.get(5), ids.get(6))).isEqualTo(3);
+
+		List<EventoLibro> eventos = eventos(usuario);
+		assertThat(eventos).extracting(EventoLibro::getNumero)
+				.containsExactlyElementsOf(LongStream.rangeClosed(1, 15).boxed().toList());
+		assertThat(eventos.subList(7, 12)).extracting(EventoLibro::getEvento).containsOnly(TipoEvento.ESTADO);
+		assertThat(cabeza(usuario, "numero")).isEqualTo(15);
+		// Cuatro gastos completados de 1.000
+		assertThat(libroService.obtenerSaldo(usuario.getId(), null).saldoCentavos()).isEqualTo(-400_000);
+	}
+
+	@Test
+	void unaFotoEnCadaMultiploDe100() {
+		Usuario usuario = nuevoUsuario();
+		// 250 altas en una llamada y 60 más en otra: las fotos caen dentro de las sentencias
+		actividadService.guardarLote(ingresos(usuario, 250));
+		actividadService.guardarLote(ingresos(usuario, 60));
+
+		assertThat(jdbcTemplate.queryForList("SELECT numero FROM saldos_libro WHERE usuario_id = ? ORDER BY numero",
+				Long.class, usuario.getId())).containsExactly(100L, 200L, 300L);
+		// Cada foto es el saldo acumulado de los eventos hasta su número
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM saldos_libro s WHERE s.usuario_id = ? " +
+				"AND s.saldo_centavos <> (SELECT SUM(l.delta_saldo_centavos) FROM libro_actividades l " +
+				"WHERE l.usuario_id = s.usuario_id AND l.numero <= s.numero)", Long.class, usuario.getId())).isZero();
+		assertThat(jdbcTemplate.queryForList("SELECT saldo_centavos FROM saldos_libro WHERE usuario_id = ? ORDER BY numero",
+				Long.class, usuario.getId())).containsExactly(10_000_000L, 20_000_000L, 30_000_000L);
+	}
+
+	@Test
+	void saldoPasadoCruzandoFotos() throws Exception {
+		Usuario usuario = nuevoUsuario();
+		LocalDateTime antes = instante();
+		// Eventos 1 a 150 (foto en el 100) y 151 a 250 (foto en el 200), ingresos de 1.000
+		actividadService.guardarLote(ingresos(usuario, 150));
+		LocalDateTime aLos150 = instante();
+		actividadService.guardarLote(ingresos(usuario, 100));
+		LocalDateTime aLos250 = instante();
+
+		// Eventos 251 a 310 de uno en uno: la foto del 300 queda entre dos cambios de estado
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM actividades WHERE usuario_id = ? ORDER BY id LIMIT 60",
+				Long.class, usuario.getId());
+		LocalDateTime aLos305 = null;
+		for (int i = 0; i < ids.size(); i++) {
+			assertThat(actividadService.cambiarEstado(ids.get(i), usuario.getId(), EstadoActividad.PENDIENTE)).isTrue();
+			if (i == 54) {
+				aLos305 = instante();
+			}
+		}
+
+		assertThat(libroService.obtenerSaldo(usuario.getId(), antes).saldoCentavos()).isZero();
+		assertThat(libroService.obtenerSaldo(usuario.getId(), aLos150).saldoCentavos()).isEqualTo(15_000_000);
+		assertThat(libroService.obtenerSaldo(usuario.getId(), aLos250).saldoCentavos()).isEqualTo(25_000_000);
+		assertThat(libroService.obtenerSaldo(usuario.getId(), aLos305).saldoCentavos()).isEqualTo(19_500_000);
+		assertThat(libroService.obtenerSaldo(usuario.getId(), null).saldoCentavos()).isEqualTo(19_000_000);
+	}
+
+	@Test
+	void conteosPorEstadoDeLaCabezaSiguenALasActividades() {
+		Usuario usuario = nuevoUsuario();
+		List<Actividad> lote = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			lote.add(nueva(usuario, TipoActividad.GASTO, Categoria.ROPA, 80_000,
+					i < 4 ? EstadoActividad.PENDIENTE : EstadoActividad.COMPLETADO));
+		}
+		actividadService.guardarLote(lote);
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM actividades WHERE usuario_id = ? ORDER BY id",
+				Long.class, usuario.getId());
+		actividadService.completarActividades(usuario.getId(), ids.subList(0, 2));
+		actividadService.cambiarEstado(ids.get(5), usuario.getId(), EstadoActividad.PENDIENTE);
+		actividadService.eliminarActividad(ids.get(3), usuario.getId());
+		actividadService.editarActividad(ids.get(4), usuario.getId(), "Chaqueta", 90_000,
+				TipoActividad.GASTO, Categoria.ROPA);
+
+		assertThat(cabeza(usuario, "pendientes")).isEqualTo(contar(usuario, EstadoActividad.PENDIENTE)).isEqualTo(2);
+		assertThat(cabeza(usuario, "completadas")).isEqualTo(contar(usuario, EstadoActividad.COMPLETADO)).isEqualTo(3);
+		DatosDashboard datos = actividadService.obtenerDatosDashboard(usuario, 10);
+		assertThat(datos.totalPendientes()).isEqualTo(2);
+		assertThat(datos.totalCompletadas()).isEqualTo(3);
+
+		// Un usuario sin actividades no tiene cabeza y cuenta cero
+		DatosDashboard vacio = actividadService.obtenerDatosDashboard(nuevoUsuario(), 10);
+		assertThat(vacio.totalPendientes()).isZero();
+		assertThat(vacio.totalCompletadas()).isZero();
+	}
+
+	private List<EventoLibro> eventos(Usuario usuario) {
+		return libroService.obtenerEventos(usuario.getId(), 0, LibroService.MAX_EVENTOS);
+	}
+
+	private long cabeza(Usuario usuario, String columna) {
+		return jdbcTemplate.queryForObject("SELECT " + columna + " FROM libro_cabeza WHERE usuario_id = ?",
+				Long.class, usuario.getId());
+	}
+
+	private long contar(Usuario usuario, EstadoActividad estado) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM actividades WHERE usuario_id = ? AND estado = ?",
+				Long.class, usuario.getId(), estado.name());
+	}
+
+	// La hora de los eventos la pone la base al confirmar: se deja un margen a cada lado del instante
+	private static LocalDateTime instante() throws InterruptedException {
+		Thread.sleep(5);
+		LocalDateTime instante = LocalDateTime.now();
+		Thread.sleep(5);
+		return instante;
+	}
+
+	private List<Actividad> ingresos(Usuario usuario, int cantidad) {
+		List<Actividad> lote = new ArrayList<>(cantidad);
+		for (int i = 0; i < cantidad; i++) {
+			lote.add(nueva(usuario, TipoActividad.INGRESO, Categoria.OTROS_INGRESOS, 100_000, EstadoActividad.COMPLETADO));
+		}
+		return lote;
+	}
+
+	private Actividad nueva(Usuario usuario, TipoActividad tipo, Categoria categoria, long centavos,
+							EstadoActividad estado) {
+		Actividad actividad = new Actividad();
+		actividad.setUsuario(usuario);
+		actividad.setDescripcion("Movimiento");
+		actividad.setMonto(Dinero.deCentavos(centavos));
+		actividad.setTipo(tipo);
+		actividad.setCategoria(categoria);
+		actividad.setEstado(estado);
+		actividad.setCreatedAt(LocalDateTime.now());
+		return actividad;
+	}
+
+	private Usuario nuevoUsuario() {
+		Usuario usuario = new Usuario();
+		usuario.setEmail("usuario" + (usuarios++) + DOMINIO);
+		usuario.setNombre("Libro Prueba");
+		usuario.setRol(RolUsuario.USUARIO);
+		usuario.setPassword("sin-login");
+		usuario.setFechaRegistro(LocalDateTime.now());
+		return usuarioRepository.save(usuario);
+	}
+}
@@ -0,0 +1,139 @@
+package com.finanzas.service;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.StringLength;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+// Propiedades del parser de montos frente a la implementación anterior con replace/split/BigDecimal
+class ParserMontoColombianoTest {
+
+	// Montos bien formados, con o sin separador de miles, decimales, símbolo y moneda
+	@Provide
+	Arbitrary<String> montosColombianos() {
+		Arbitrary<Long> centavos = Arbitraries.longs().between(1, 99_999_999_999_99L);
+		Arbitrary<Boolean> conMiles = Arbitraries.of(true, false);
+		Arbitrary<Integer> decimales = Arbitraries.integers().between(0, 2);
+		Arbitrary<String> prefijo = Arbitraries.of("", "$", "$ ", "COP ", " ");
+		Arbitrary<String> sufijo = Arbitraries.of("", " COP", "cop", " ", "€");
+		return Combinators.combine(centavos, conMiles, decimales, prefijo, sufijo)
+				.as((c, miles, d, pre, suf) -> pre + formatear(c, miles, d) + suf);
+	}
+
+	@Property
+	void coincideConElParserAnteriorEnMontosBienFormados(@ForAll("montosColombianos") String texto) {
+		BigDecimal esperado = parseMontoAnterior(texto);
+		assertThat(ParserMontoColombiano.aCentavos(texto))
+				.isEqualTo(esperado.movePointRight(2).longValueExact());
+	}
+
+	// Texto arbitrario: lo que acepta el parser nuevo también lo acepta el anterior, con el mismo valor
+	@Property(tries = 5000)
+	void nuncaAceptaLoQueElAnteriorRechaza(@ForAll @StringLength(max = 20) String ruido,
+										   @ForAll("textosParecidosAMontos") String parecido) {
+		for (String texto : new String[]{ruido, parecido}) {
+			long centavos;
+			try {
+				centavos = ParserMontoColombiano.aCentavos(texto);
+			} catch (MontoInvalidoException e) {
+				continue;
+			}
+			assertThat(parseMontoAnterior(texto).movePointRight(2)).isEqualByComparingTo(BigDecimal.valueOf(centavos));
+		}
+	}
+
+	@Provide
+	Arbitrary<String> textosParecidosAMontos() {
+		return Arbitraries.strings().withChars("0123456789..,,$ COPcop€-+E").ofMaxLength(16);
+	}
+
+	// Si el error apunta a un carácter, la posición está dentro del texto
+	@Property(tries = 5000)
+	void laPosicionDelErrorEstaDentroDelTexto(@ForAll("textosParecidosAMontos") String texto) {
+		Throwable error = catchThrowable(() -> ParserMontoColombiano.aCentavos(texto));
+		if (error instanceof MontoInvalidoException invalido && invalido.getPosicion() != -1) {
+			assertThat(invalido.getPosicion()).isBetween(1, texto.length());
+		}
+	}
+
+	@Property
+	void losCentavosSeRecuperanSinPerdida(@ForAll @LongRange(min = 1, max = 99_999_999_999_99L) long centavos) {
+		assertThat(ParserMontoColombiano.aCentavos(formatear(centavos, true, 2))).isEqualTo(centavos);
+	}
+
+	@Property(tries = 1)
+	void casosConocidos() {
+		assertThat(ParserMontoColombiano.aCentavos("1.000")).isEqualTo(1_000_00L);
+		assertThat(ParserMontoColombiano.aCentavos("1.000,50")).isEqualTo(1_000_50L);
+		assertThat(ParserMontoColombiano.aCentavos("$ 40.000.000 COP")).isEqualTo(40_000_000_00L);
+		assertThat(ParserMontoColombiano.aCentavos("1,5")).isEqualTo(1_50L);
+		assertThatThrownBy(() -> ParserMontoColombiano.aCentavos("1.0x0"))
+				.isInstanceOf(MontoInvalidoException.class)
+				.extracting(e -> ((MontoInvalidoException) e).getPosicion()).isEqualTo(4);
+		assertThatThrownBy(() -> ParserMontoColombiano.aCentavos("12,345"))
+				.hasMessageContaining("2 decimales")
+				.extracting(e -> ((MontoInvalidoException) e).getPosicion()).isEqualTo(6);
+		assertThatThrownBy(() -> ParserMontoColombiano.aCentavos("0,00")).hasMessage("El monto debe ser mayor a 0");
+		assertThatThrownBy(() -> ParserMontoColombiano.aCentavos("  ")).hasMessage("El monto no puede estar vacío");
+	}
+
+	private static String formatear(long centavos, boolean conMiles, int decimales) {
+		String entero = Long.toString(centavos / 100);
+		long fraccion = centavos % 100;
+		if (conMiles) {
+			StringBuilder agrupado = new StringBuilder();
+			for (int i = 0; i < entero.length(); i++) {
+				if (i > 0 && (entero.length() - i) % 3 == 0) {
+					agrupado.append('.');
+				}
+				agrupado.append(entero.charAt(i));
+			}
+			entero = agrupado.toString();
+		}
+		// Sin decimales o con uno solo cuando los centavos lo permiten; si no, con dos
+		if (decimales == 0 && fraccion == 0) {
+			return entero;
+		}
+		if (decimales == 1 && fraccion % 10 == 0) {
+			return entero + "," + (fraccion / 10);
+		}
+		return entero + "," + String.format("%02d", fraccion);
+	}
+
+	// Implementación anterior (ValidadorActividad.parseMontoColombiano), como referencia.
+	// Cualquier excepción se trata como rechazo: con "," lanzaba ArrayIndexOutOfBoundsException.
+	private static BigDecimal parseMontoAnterior(String montoStr) {
+		if (montoStr == null || montoStr.trim().isEmpty()) {
+			throw new IllegalArgumentException("El monto no puede estar vacío");
+		}
+		String limpio = montoStr.trim()
+				.replace(" ", "")
+				.replace("$", "")
+				.replace("€", "")
+				.replace("COP", "")
+				.replace("cop", "");
+		if (limpio.contains(",")) {
+			String[] partes = limpio.split(",");
+			String parteEntera = partes[0].replace(".", "");
+			String parteDecimal = partes.length > 1 ? partes[1] : "00";
+			limpio = parteEntera + "." + parteDecimal;
+		} else {
+			limpio = limpio.replace(".", "");
+		}
+		BigDecimal resultado = new BigDecimal(limpio);
+		if (resultado.compareTo(BigDecimal.ZERO) <= 0) {
+			throw new IllegalArgumentException("El monto debe ser mayor a 0");
+		}
+		return resultado;
+	}
+}
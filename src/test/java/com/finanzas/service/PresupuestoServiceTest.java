@@ -0,0 +1,166 @@
+package com.finanzas.service;
+
+import com.finanzas.BaseDatosDePrueba;
+import com.finanzas.dto.PresupuestoCategoria;
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.EstadoActividad;
+import com.finanzas.entity.RolUsuario;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.entity.Usuario;
+import com.finanzas.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Presupuestos contra resumen_mensual real: lo gastado sale del resumen que ajustan las mutaciones,
+// así que cada test crea su propio usuario y sus actividades del mes actual
+@SpringBootTest
+@ContextConfiguration(initializers = BaseDatosDePrueba.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PresupuestoServiceTest {
+
+	private static final String DOMINIO = "@presupuesto.test";
+
+	@Autowired
+	private PresupuestoService presupuestoService;
+
+	@Autowired
+	private ActividadService actividadService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private int usuarios;
+
+	@AfterAll
+	void borrarDatos() {
+		String ids = "SELECT id FROM usuarios WHERE email LIKE '%" + DOMINIO + "'";
+		jdbcTemplate.update("DELETE FROM actividades WHERE usuario_id IN (" + ids + ")");
+		jdbcTemplate.update("DELETE FROM usuarios WHERE id IN (" + ids + ")");
+	}
+
+	@Test
+	void unMontoInvalidoNoGuardaNinguno() {
+		Usuario usuario = nuevoUsuario();
+		presupuestoService.guardar(usuario.getId(), montos(Categoria.SALUD, "50.000"));
+
+		Map<Categoria, String> montos = new EnumMap<>(Categoria.class);
+		montos.put(Categoria.ALIMENTACION, "300.000");
+		montos.put(Categoria.TRANSPORTE, "doscientos");
+		montos.put(Categoria.SALUD, "");
+		assertThatThrownBy(() -> presupuestoService.guardar(usuario.getId(), montos))
+				.isInstanceOf(MontoInvalidoException.class);
+
+		// Ni el monto válido se guardó ni el vacío quitó el que ya había
+		assertThat(presupuesto(usuario, Categoria.ALIMENTACION)).isNull();
+		assertThat(presupuesto(usuario, Categoria.SALUD)).isEqualTo(Dinero.deCentavos(5_000_000));
+
+		assertThatThrownBy(() -> presupuestoService.guardar(usuario.getId(), montos(Categoria.SALARIO, "1.000.000")))
+				.isInstanceOf(IllegalArgumentException.class).hasMessageContaining("no es una categoría de gasto");
+		assertThatThrownBy(() -> presupuestoService.guardar(usuario.getId(), montos(Categoria.ROPA, "0")))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(presupuesto(usuario, Categoria.ROPA)).isNull();
+	}
+
+	@Test
+	void unMontoVacioQuitaElPresupuesto() {
+		Usuario usuario = nuevoUsuario();
+		presupuestoService.guardar(usuario.getId(), montos(Categoria.VIVIENDA, "1.200.000"));
+		assertThat(presupuesto(usuario, Categoria.VIVIENDA)).isEqualTo(Dinero.deCentavos(120_000_000));
+
+		presupuestoService.guardar(usuario.getId(), montos(Categoria.VIVIENDA, " "));
+		assertThat(presupuesto(usuario, Categoria.VIVIENDA)).isNull();
+	}
+
+	@Test
+	void avisoGastoPendienteSoloSiCompletarloSuperaElPresupuesto() {
+		Usuario usuario = nuevoUsuario();
+		presupuestoService.guardar(usuario.getId(), montos(Categoria.ALIMENTACION, "100.000"));
+		guardar(usuario, TipoActividad.GASTO, Categoria.ALIMENTACION, 8_000_000, EstadoActividad.COMPLETADO);
+		// Un pendiente no cuenta como gastado
+		guardar(usuario, TipoActividad.GASTO, Categoria.ALIMENTACION, 9_000_000, EstadoActividad.PENDIENTE);
+
+		assertThat(presupuestoService.avisoGastoPendiente(usuario.getId(), Categoria.ALIMENTACION, 3_000_000))
+				.isEqualTo("Si completas este gasto superarás el presupuesto de Alimentacion: $110.000 de $100.000");
+		// Justo en el límite no avisa
+		assertThat(presupuestoService.avisoGastoPendiente(usuario.getId(), Categoria.ALIMENTACION, 2_000_000)).isNull();
+		// Sin presupuesto en la categoría
+		assertThat(presupuestoService.avisoGastoPendiente(usuario.getId(), Categoria.TRANSPORTE, 900_000_000)).isNull();
+	}
+
+	@Test
+	void avisoActividadCuandoUnGastoCompletadoSuperaElPresupuesto() {
+		Usuario usuario = nuevoUsuario();
+		presupuestoService.guardar(usuario.getId(), montos(Categoria.TRANSPORTE, "50.000"));
+		Actividad dentro = guardar(usuario, TipoActividad.GASTO, Categoria.TRANSPORTE, 4_000_000, EstadoActividad.COMPLETADO);
+		assertThat(presupuestoService.avisoActividad(dentro.getId(), usuario.getId())).isNull();
+
+		Actividad pendiente = guardar(usuario, TipoActividad.GASTO, Categoria.TRANSPORTE, 2_000_000, EstadoActividad.PENDIENTE);
+		assertThat(presupuestoService.avisoActividad(pendiente.getId(), usuario.getId())).isNull();
+
+		assertThat(actividadService.cambiarEstado(pendiente.getId(), usuario.getId(), EstadoActividad.COMPLETADO)).isTrue();
+		assertThat(presupuestoService.avisoActividad(pendiente.getId(), usuario.getId()))
+				.isEqualTo("Superaste el presupuesto de Transporte: $60.000 gastados de $50.000");
+		// Cualquier gasto de la categoría ya excedida avisa; un ingreso o una actividad ajena no
+		assertThat(presupuestoService.avisoActividad(dentro.getId(), usuario.getId())).isNotNull();
+		Actividad ingreso = guardar(usuario, TipoActividad.INGRESO, Categoria.SALARIO, 100_000_000, EstadoActividad.COMPLETADO);
+		assertThat(presupuestoService.avisoActividad(ingreso.getId(), usuario.getId())).isNull();
+		assertThat(presupuestoService.avisoActividad(pendiente.getId(), nuevoUsuario().getId())).isNull();
+
+		PresupuestoCategoria estado = presupuestoService.obtenerEstado(usuario.getId(), YearMonth.now()).stream()
+				.filter(p -> p.categoria() == Categoria.TRANSPORTE).findFirst().orElseThrow();
+		assertThat(estado.excedido()).isTrue();
+		assertThat(estado.restante()).isEqualTo(Dinero.deCentavos(-1_000_000));
+	}
+
+	private Dinero presupuesto(Usuario usuario, Categoria categoria) {
+		List<PresupuestoCategoria> estado = presupuestoService.obtenerEstado(usuario.getId(), YearMonth.now());
+		return estado.stream().filter(p -> p.categoria() == categoria).findFirst().orElseThrow().presupuesto();
+	}
+
+	private Actividad guardar(Usuario usuario, TipoActividad tipo, Categoria categoria, long centavos, EstadoActividad estado) {
+		Actividad actividad = new Actividad();
+		actividad.setUsuario(usuario);
+		actividad.setDescripcion("Presupuesto de prueba");
+		actividad.setMonto(Dinero.deCentavos(centavos));
+		actividad.setTipo(tipo);
+		actividad.setCategoria(categoria);
+		actividad.setEstado(estado);
+		actividad.setCreatedAt(LocalDateTime.now());
+		return actividadService.guardarActividad(actividad);
+	}
+
+	private Usuario nuevoUsuario() {
+		Usuario usuario = new Usuario();
+		usuario.setEmail("usuario" + (usuarios++) + DOMINIO);
+		usuario.setNombre("Presupuesto Prueba");
+		usuario.setRol(RolUsuario.USUARIO);
+		usuario.setPassword("sin-login");
+		usuario.setFechaRegistro(LocalDateTime.now());
+		return usuarioRepository.save(usuario);
+	}
+
+	private static Map<Categoria, String> montos(Categoria categoria, String monto) {
+		Map<Categoria, String> montos = new EnumMap<>(Categoria.class);
+		montos.put(categoria, monto);
+		return montos;
+	}
+}
@@ -0,0 +1,214 @@
+package com.finanzas.service;
+
+import com.finanzas.BaseDatosDePrueba;
+import com.finanzas.dto.DesgloseCategorias;
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.EstadoActividad;
+import com.finanzas.entity.RolUsuario;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.entity.Usuario;
+import com.finanzas.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Lecturas de resumen_mensual comparadas con lo que dan las actividades sin resumir
+@SpringBootTest
+@ContextConfiguration(initializers = BaseDatosDePrueba.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ResumenMensualServiceTest {
+
+	private static final String DOMINIO = "@resumen.test";
+
+	@Autowired
+	private ResumenMensualService resumenMensualService;
+
+	@Autowired
+	private ActividadService actividadService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private int usuarios;
+
+	@AfterAll
+	void borrarDatos() {
+		String ids = "SELECT id FROM usuarios WHERE email LIKE '%" + DOMINIO + "'";
+		jdbcTemplate.update("DELETE FROM actividades WHERE usuario_id IN (" + ids + ")");
+		jdbcTemplate.update("DELETE FROM usuarios WHERE id IN (" + ids + ")");
+	}
+
+	@Test
+	void desglosePorCategoriaSoloConCompletadasDelRango() {
+		Usuario usuario = nuevoUsuario();
+		YearMonth mes = YearMonth.now().minusMonths(2);
+		guardar(usuario, TipoActividad.GASTO, Categoria.ALIMENTACION, 3_000_000, EstadoActividad.COMPLETADO, mes.atDay(3).atTime(9, 0));
+		guardar(usuario, TipoActividad.GASTO, Categoria.TRANSPORTE, 1_000_000, EstadoActividad.COMPLETADO, mes.atDay(20).atTime(9, 0));
+		guardar(usuario, TipoActividad.GASTO, Categoria.TRANSPORTE, 5_000_000, EstadoActividad.COMPLETADO,
+				mes.plusMonths(1).atDay(1).atTime(0, 0));
+		// Pendientes, ingresos y meses fuera del rango no cuentan
+		guardar(usuario, TipoActividad.GASTO, Categoria.SALUD, 9_000_000, EstadoActividad.PENDIENTE, mes.atDay(5).atTime(9, 0));
+		guardar(usuario, TipoActividad.INGRESO, Categoria.SALARIO, 90_000_000, EstadoActividad.COMPLETADO, mes.atDay(1).atTime(9, 0));
+		guardar(usuario, TipoActividad.GASTO, Categoria.ROPA, 7_000_000, EstadoActividad.COMPLETADO,
+				mes.minusMonths(1).atEndOfMonth().atTime(23, 59));
+
+		DesgloseCategorias desglose = resumenMensualService.obtenerDesglose(usuario.getId(), TipoActividad.GASTO, mes, mes);
+		assertThat(desglose.totalCentavos()).isEqualTo(4_000_000);
+		assertThat(desglose.categorias()).extracting(DesgloseCategorias.PorcionCategoria::categoria)
+				.containsExactlyElementsOf(Categoria.getCategoriasPorTipo(TipoActividad.GASTO));
+		assertThat(porcion(desglose, Categoria.ALIMENTACION).porcentaje()).isEqualTo(75.0);
+		assertThat(porcion(desglose, Categoria.TRANSPORTE).totalCentavos()).isEqualTo(1_000_000);
+		assertThat(porcion(desglose, Categoria.SALUD).totalCentavos()).isZero();
+		assertThat(porcion(desglose, Categoria.ROPA).porcentaje()).isZero();
+
+		// Dos meses: suma por categoría a lo largo del rango, porcentajes con dos decimales
+		DesgloseCategorias dosMeses = resumenMensualService.obtenerDesglose(usuario.getId(), TipoActividad.GASTO,
+				mes, mes.plusMonths(1));
+		assertThat(dosMeses.totalCentavos()).isEqualTo(9_000_000);
+		assertThat(porcion(dosMeses, Categoria.TRANSPORTE).totalCentavos()).isEqualTo(6_000_000);
+		assertThat(porcion(dosMeses, Categoria.ALIMENTACION).porcentaje()).isEqualTo(33.33);
+		assertThat(porcion(dosMeses, Categoria.TRANSPORTE).porcentaje()).isEqualTo(66.67);
+	}
+
+	@Test
+	void desgloseSinMovimientosTodoEnCero() {
+		Usuario usuario = nuevoUsuario();
+		DesgloseCategorias desglose = resumenMensualService.obtenerDesglose(usuario.getId(), TipoActividad.INGRESO,
+				YearMonth.now(), YearMonth.now());
+		assertThat(desglose.totalCentavos()).isZero();
+		assertThat(desglose.categorias()).hasSize(Categoria.getCategoriasPorTipo(TipoActividad.INGRESO).size())
+				.allSatisfy(p -> assertThat(p.porcentaje()).isZero());
+	}
+
+	@Test
+	void saldoConFotosMensualesIgualAlDeLasActividades() {
+		Usuario usuario = nuevoUsuario();
+		YearMonth mes = YearMonth.now();
+		// Meses con actividad separados por meses vacíos, que no tienen foto
+		guardar(usuario, TipoActividad.INGRESO, Categoria.SALARIO, 300_000_000, EstadoActividad.COMPLETADO,
+				mes.minusMonths(6).atDay(1).atTime(0, 0));
+		Actividad arriendo = guardar(usuario, TipoActividad.GASTO, Categoria.VIVIENDA, 120_000_000, EstadoActividad.COMPLETADO,
+				mes.minusMonths(6).atEndOfMonth().atTime(23, 59, 59));
+		guardar(usuario, TipoActividad.GASTO, Categoria.SALUD, 9_000_000, EstadoActividad.PENDIENTE,
+				mes.minusMonths(6).atDay(10).atTime(8, 0));
+		// Empate de fecha: el orden lo decide el id
+		LocalDateTime empate = mes.minusMonths(3).atDay(15).atTime(12, 0);
+		Actividad mercado = guardar(usuario, TipoActividad.GASTO, Categoria.ALIMENTACION, 5_000_000, EstadoActividad.COMPLETADO, empate);
+		guardar(usuario, TipoActividad.INGRESO, Categoria.OTROS_INGRESOS, 2_000_000, EstadoActividad.COMPLETADO, empate);
+		Actividad taxi = guardar(usuario, TipoActividad.GASTO, Categoria.TRANSPORTE, 1_000_000, EstadoActividad.COMPLETADO, empate);
+		Actividad unica = guardar(usuario, TipoActividad.GASTO, Categoria.ROPA, 7_000_000, EstadoActividad.COMPLETADO,
+				mes.minusMonths(1).atDay(5).atTime(18, 30));
+		guardar(usuario, TipoActividad.GASTO, Categoria.ALIMENTACION, 3_000_000, EstadoActividad.COMPLETADO,
+				LocalDate.now().atStartOfDay());
+		LocalDate desde = mes.minusMonths(7).atDay(1);
+		verificarSaldos(usuario, desde);
+
+		// Ediciones, cambios de estado y borrados con fecha antigua mueven las fotos de los meses siguientes
+		assertThat(actividadService.editarActividad(arriendo.getId(), usuario.getId(), "Arriendo corregido",
+				130_000_000, TipoActividad.GASTO, Categoria.VIVIENDA)).isTrue();
+		assertThat(actividadService.editarActividad(taxi.getId(), usuario.getId(), "Taxi que era ingreso",
+				1_000_000, TipoActividad.INGRESO, Categoria.OTROS_INGRESOS)).isTrue();
+		assertThat(actividadService.cambiarEstado(mercado.getId(), usuario.getId(), EstadoActividad.PENDIENTE)).isTrue();
+		// El mes queda sin completadas pero conserva su foto
+		assertThat(actividadService.eliminarActividad(unica.getId(), usuario.getId())).isTrue();
+		// Alta en un mes que no tenía foto, entre dos que sí
+		guardar(usuario, TipoActividad.GASTO, Categoria.EDUCACION, 4_000_000, EstadoActividad.COMPLETADO,
+				mes.minusMonths(5).atDay(20).atTime(10, 0));
+		verificarSaldos(usuario, desde);
+	}
+
+	// Compara el saldo con fotos contra sumar todas las actividades: en cada posición (fecha, id), al final
+	// de cada día del rango y en cada foto de saldos_mensuales, que además debe coincidir con resumen_mensual
+	private void verificarSaldos(Usuario usuario, LocalDate desde) {
+		Long usuarioId = usuario.getId();
+		List<Posicion> posiciones = jdbcTemplate.query(
+				"SELECT id, created_at FROM actividades WHERE usuario_id = ? ORDER BY created_at, id",
+				(rs, fila) -> new Posicion(rs.getObject("created_at", LocalDateTime.class), rs.getLong("id")),
+				usuarioId);
+		for (Posicion posicion : posiciones) {
+			assertThat(resumenMensualService.obtenerSaldoAntesDe(usuarioId, posicion.fecha(), posicion.id()))
+					.as("saldo antes de la actividad %d", posicion.id())
+					.isEqualTo(saldoSinResumir(usuarioId, posicion.fecha(), posicion.id()));
+		}
+		for (LocalDate dia = desde; !dia.isAfter(LocalDate.now()); dia = dia.plusDays(1)) {
+			assertThat(resumenMensualService.obtenerSaldoAlDia(usuarioId, dia).saldoCentavos())
+					.as("saldo al %s", dia)
+					.isEqualTo(saldoSinResumir(usuarioId, dia.plusDays(1).atStartOfDay(), 0));
+		}
+
+		List<long[]> fotos = jdbcTemplate.query(
+				"SELECT anio, mes, saldo_centavos FROM saldos_mensuales WHERE usuario_id = ? ORDER BY anio, mes",
+				(rs, fila) -> new long[]{rs.getInt("anio"), rs.getInt("mes"), rs.getLong("saldo_centavos")}, usuarioId);
+		assertThat(fotos).isNotEmpty();
+		for (long[] foto : fotos) {
+			YearMonth mesFoto = YearMonth.of((int) foto[0], (int) foto[1]);
+			long resumido = jdbcTemplate.queryForObject(
+					"SELECT COALESCE(SUM(signo_tipo(tipo) * total_centavos), 0) FROM resumen_mensual " +
+					"WHERE usuario_id = ? AND (anio, mes) <= (?, ?)",
+					Long.class, usuarioId, mesFoto.getYear(), mesFoto.getMonthValue());
+			assertThat(foto[2]).as("foto de %s", mesFoto)
+					.isEqualTo(resumido)
+					.isEqualTo(saldoSinResumir(usuarioId, mesFoto.plusMonths(1).atDay(1).atStartOfDay(), 0));
+		}
+		// Todo mes con completadas tiene su foto
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM resumen_mensual r WHERE r.usuario_id = ? AND r.total_centavos <> 0 " +
+				"AND NOT EXISTS (SELECT 1 FROM saldos_mensuales s " +
+				"WHERE (s.usuario_id, s.anio, s.mes) = (r.usuario_id, r.anio, r.mes))",
+				Long.class, usuarioId)).isZero();
+	}
+
+	private record Posicion(LocalDateTime fecha, long id) {
+	}
+
+	// Saldo de las completadas anteriores a (fecha, id) sumando todas las filas del usuario
+	private long saldoSinResumir(Long usuarioId, LocalDateTime fecha, long id) {
+		return jdbcTemplate.queryForObject(
+				"SELECT COALESCE(SUM(aporte_saldo(tipo, estado, monto_centavos)), 0) FROM actividades " +
+				"WHERE usuario_id = ? AND (created_at, id) < (?, ?)",
+				Long.class, usuarioId, fecha, id);
+	}
+
+	private static DesgloseCategorias.PorcionCategoria porcion(DesgloseCategorias desglose, Categoria categoria) {
+		return desglose.categorias().stream().filter(p -> p.categoria() == categoria).findFirst().orElseThrow();
+	}
+
+	private Actividad guardar(Usuario usuario, TipoActividad tipo, Categoria categoria, long centavos,
+							  EstadoActividad estado, LocalDateTime fecha) {
+		Actividad actividad = new Actividad();
+		actividad.setUsuario(usuario);
+		actividad.setDescripcion("Resumen de prueba");
+		actividad.setMonto(Dinero.deCentavos(centavos));
+		actividad.setTipo(tipo);
+		actividad.setCategoria(categoria);
+		actividad.setEstado(estado);
+		actividad.setCreatedAt(fecha);
+		return actividadService.guardarActividad(actividad);
+	}
+
+	private Usuario nuevoUsuario() {
+		Usuario usuario = new Usuario();
+		usuario.setEmail("usuario" + (usuarios++) + DOMINIO);
+		usuario.setNombre("Resumen Prueba");
+		usuario.setRol(RolUsuario.USUARIO);
+		usuario.setPassword("sin-login");
+		usuario.setFechaRegistro(LocalDateTime.now());
+		return usuarioRepository.save(usuario);
+	}
+}
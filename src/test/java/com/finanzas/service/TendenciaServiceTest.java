@@ -0,0 +1,169 @@
+package com.finanzas.service;
+
+import com.finanzas.BaseDatosDePrueba;
+import com.finanzas.dto.PuntoTendencia;
+import com.finanzas.entity.Actividad;
+import com.finanzas.entity.Categoria;
+import com.finanzas.entity.Dinero;
+import com.finanzas.entity.EstadoActividad;
+import com.finanzas.entity.RolUsuario;
+import com.finanzas.entity.TipoActividad;
+import com.finanzas.entity.Usuario;
+import com.finanzas.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Caché de meses cerrados de las tendencias: cada escritura confirmada sobre un mes cerrado (edición con
+// fecha antigua, importación, reconstrucción del resumen) debe verse en la siguiente lectura. Para saber
+// si una lectura salió de la caché, los tests cambian las tablas por debajo del servicio.
+@SpringBootTest
+@ContextConfiguration(initializers = BaseDatosDePrueba.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TendenciaServiceTest {
+
+	private static final String DOMINIO = "@tendencia.test";
+
+	@Autowired
+	private TendenciaService tendenciaService;
+
+	@Autowired
+	private ActividadService actividadService;
+
+	@Autowired
+	private ImportacionService importacionService;
+
+	@Autowired
+	private ResumenMensualService resumenMensualService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private int usuarios;
+
+	@AfterAll
+	void borrarDatos() {
+		String ids = "SELECT id FROM usuarios WHERE email LIKE '%" + DOMINIO + "'";
+		jdbcTemplate.update("DELETE FROM actividades WHERE usuario_id IN (" + ids + ")");
+		jdbcTemplate.update("DELETE FROM usuarios WHERE id IN (" + ids + ")");
+	}
+
+	@Test
+	void losMesesCerradosSeLeenDeLaCache() {
+		Usuario usuario = nuevoUsuario();
+		YearMonth cerrado = YearMonth.now().minusMonths(3);
+		guardar(usuario, cerrado, 5_000_000);
+		assertThat(gastos(usuario, cerrado)).isEqualTo(5_000_000);
+
+		alterarResumen(usuario, cerrado);
+		assertThat(gastos(usuario, cerrado)).isEqualTo(5_000_000);
+
+		// El mes actual no se guarda en caché: lo de hoy se ve siempre
+		Actividad hoy = guardar(usuario, YearMonth.now(), 2_000_000);
+		assertThat(gastos(usuario, YearMonth.now())).isEqualTo(2_000_000);
+		assertThat(actividadService.eliminarActividad(hoy.getId(), usuario.getId())).isTrue();
+		assertThat(gastos(usuario, YearMonth.now())).isZero();
+		assertThat(gastos(usuario, cerrado)).isEqualTo(5_000_000);
+	}
+
+	@Test
+	void editarUnaActividadAntiguaInvalidaLaCache() {
+		Usuario usuario = nuevoUsuario();
+		YearMonth cerrado = YearMonth.now().minusMonths(2);
+		Actividad antigua = guardar(usuario, cerrado, 5_000_000);
+		assertThat(gastos(usuario, cerrado)).isEqualTo(5_000_000);
+
+		assertThat(actividadService.editarActividad(antigua.getId(), usuario.getId(), "Mercado corregido",
+				7_000_000, TipoActividad.GASTO, Categoria.ALIMENTACION)).isTrue();
+		assertThat(gastos(usuario, cerrado)).isEqualTo(7_000_000);
+
+		assertThat(actividadService.cambiarEstado(antigua.getId(), usuario.getId(), EstadoActividad.PENDIENTE)).isTrue();
+		assertThat(gastos(usuario, cerrado)).isZero();
+	}
+
+	@Test
+	void importarConFechasAntiguasInvalidaLaCache() throws Exception {
+		Usuario usuario = nuevoUsuario();
+		YearMonth cerrado = YearMonth.now().minusMonths(5);
+		assertThat(gastos(usuario, cerrado)).isZero();
+
+		String fecha = cerrado.atDay(10).format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+		String csv = "fecha;descripcion;monto;tipo;categoria\n" +
+				fecha + ";Arriendo importado;1.200.000;GASTO;VIVIENDA\n" +
+				fecha + ";Salario importado;3.000.000;INGRESO;SALARIO\n";
+		assertThat(importacionService.importarCsv(usuario.getId(),
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))).getImportadas()).isEqualTo(2);
+
+		PuntoTendencia punto = punto(usuario, cerrado);
+		assertThat(punto.gastosCentavos()).isEqualTo(120_000_000);
+		assertThat(punto.ingresosCentavos()).isEqualTo(300_000_000);
+	}
+
+	@Test
+	void reconstruirElResumenInvalidaLaCacheDeTodos() {
+		Usuario usuario = nuevoUsuario();
+		YearMonth cerrado = YearMonth.now().minusMonths(4);
+		Actividad antigua = guardar(usuario, cerrado, 5_000_000);
+		assertThat(gastos(usuario, cerrado)).isEqualTo(5_000_000);
+
+		// Actividad corregida por fuera de la aplicación: el resumen y la caché siguen con el valor viejo
+		jdbcTemplate.update("UPDATE actividades SET monto_centavos = 6000000 WHERE id = ?", antigua.getId());
+		assertThat(gastos(usuario, cerrado)).isEqualTo(5_000_000);
+
+		resumenMensualService.reconstruir();
+		assertThat(gastos(usuario, cerrado)).isEqualTo(6_000_000);
+	}
+
+	private long gastos(Usuario usuario, YearMonth mes) {
+		return punto(usuario, mes).gastosCentavos();
+	}
+
+	private PuntoTendencia punto(Usuario usuario, YearMonth mes) {
+		return tendenciaService.obtener(usuario.getId(), TendenciaService.MAX_MESES).stream()
+				.filter(p -> p.mes().equals(mes)).findFirst().orElseThrow();
+	}
+
+	// Suma 100 centavos al gasto del mes sin pasar por el servicio (no invalida la caché)
+	private void alterarResumen(Usuario usuario, YearMonth mes) {
+		assertThat(jdbcTemplate.update("UPDATE resumen_mensual SET total_centavos = total_centavos + 100 " +
+				"WHERE usuario_id = ? AND anio = ? AND mes = ? AND tipo = 'GASTO'",
+				usuario.getId(), mes.getYear(), mes.getMonthValue())).isEqualTo(1);
+	}
+
+	private Actividad guardar(Usuario usuario, YearMonth mes, long centavos) {
+		Actividad actividad = new Actividad();
+		actividad.setUsuario(usuario);
+		actividad.setDescripcion("Mercado");
+		actividad.setMonto(Dinero.deCentavos(centavos));
+		actividad.setTipo(TipoActividad.GASTO);
+		actividad.setCategoria(Categoria.ALIMENTACION);
+		actividad.setEstado(EstadoActividad.COMPLETADO);
+		actividad.setCreatedAt(mes.equals(YearMonth.now()) ? LocalDateTime.now() : mes.atDay(15).atTime(12, 0));
+		return actividadService.guardarActividad(actividad);
+	}
+
+	private Usuario nuevoUsuario() {
+		Usuario usuario = new Usuario();
+		usuario.setEmail("usuario" + (usuarios++) + DOMINIO);
+		usuario.setNombre("Tendencia Prueba");
+		usuario.setRol(RolUsuario.USUARIO);
+		usuario.setPassword("sin-login");
+		usuario.setFechaRegistro(LocalDateTime.now());
+		return usuarioRepository.save(usuario);
+	}
+}
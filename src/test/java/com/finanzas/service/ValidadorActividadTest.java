@@ -0,0 +1,110 @@
+package com.finanzas.service;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.StringLength;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Validación de descripciones de una pasada frente a la implementación anterior con expresiones regulares
+class ValidadorActividadTest {
+
+	private final ValidadorActividad validador = new ValidadorActividad();
+
+	// Palabras con letras repetidas, acentos, dígitos y mayúsculas, separadas por espacios y saltos de
+	// línea: cubre repeticiones, cantidad y largo de palabras y dígitos seguidos
+	@Provide
+	Arbitrary<String> descripciones() {
+		Arbitrary<String> palabra = Arbitraries.strings().withChars("aaAbcñÑáÁ0119").ofMinLength(1).ofMaxLength(17);
+		Arbitrary<String> separador = Arbitraries.of(" ", "  ", "\t", "\n", "\r\n");
+		Arbitrary<String> borde = Arbitraries.of("", " ", "\n", "\t ");
+		return Combinators.combine(palabra.list().ofMinSize(1).ofMaxSize(7), separador, borde)
+				.as((palabras, sep, b) -> b + String.join(sep, palabras) + b);
+	}
+
+	@Property(tries = 10000)
+	void coincideConLaValidacionAnterior(@ForAll("descripciones") String descripcion) {
+		assertThat(validador.validarDescripcion(descripcion)).isEqualTo(validarDescripcionAnterior(descripcion));
+	}
+
+	@Property(tries = 5000)
+	void coincideConLaValidacionAnteriorEnTextoArbitrario(@ForAll @StringLength(max = 70) String texto,
+														  @ForAll("textosConSimbolos") String conSimbolos) {
+		assertThat(validador.validarDescripcion(texto)).isEqualTo(validarDescripcionAnterior(texto));
+		assertThat(validador.validarDescripcion(conSimbolos)).isEqualTo(validarDescripcionAnterior(conSimbolos));
+	}
+
+	@Provide
+	Arbitrary<String> textosConSimbolos() {
+		return Arbitraries.strings().withChars("ab1 \n\r\t\u000B\f$%é_-.").ofMaxLength(20);
+	}
+
+	@Property(tries = 1)
+	void casosConocidos() {
+		String[][] casos = {
+				{"Mercado del mes", null},
+				{"  Arriendo\napartamento  ", null},
+				{null, "La descripción no puede estar vacía"},
+				{" \n\t ", "La descripción no puede estar vacía"},
+				{"a".repeat(61), "La descripción no puede superar los 60 caracteres"},
+				{"Café $", "La descripción solo puede contener letras, números y espacios"},
+				{"123", "La descripción no puede ser solo un número"},
+				{"Factura 12345678901", "Los números en la descripción no pueden tener más de 10 dígitos seguidos"},
+				// La expresión anterior no cruzaba saltos de línea: con uno, 11 dígitos seguidos pasan
+				{"Factura\n12345678901", null},
+				{"uno dos tres cuatro cinco seis", "La descripción no puede tener más de 5 palabras"},
+				{"Supercalifragilistico", "Cada palabra debe tener como máximo 15 caracteres"},
+				{"Taxi al taxi", "No se pueden repetir palabras en la descripción"},
+				{"Caaafé", "No se puede repetir la misma letra más de 2 veces seguidas"},
+				{"Café 1000", null},
+		};
+		for (String[] caso : casos) {
+			assertThat(validador.validarDescripcion(caso[0])).as(caso[0]).isEqualTo(caso[1])
+					.isEqualTo(validarDescripcionAnterior(caso[0]));
+		}
+	}
+
+	// Implementación anterior, tal cual, como referencia
+	private static String validarDescripcionAnterior(String descripcion) {
+		if (descripcion == null || descripcion.trim().isEmpty()) {
+			return "La descripción no puede estar vacía";
+		}
+		descripcion = descripcion.trim();
+		if (descripcion.length() > 60) {
+			return "La descripción no puede superar los 60 caracteres";
+		}
+		if (!descripcion.matches("^[a-zA-Z0-9áéíóúÁÉÍÓÚñÑ\\s]+$")) {
+			return "La descripción solo puede contener letras, números y espacios";
+		}
+		if (descripcion.matches("^\\d+$")) {
+			return "La descripción no puede ser solo un número";
+		}
+		if (descripcion.matches(".*\\d{11,}.*")) {
+			return "Los números en la descripción no pueden tener más de 10 dígitos seguidos";
+		}
+		String[] palabras = descripcion.split("\\s+");
+		if (palabras.length > 5) {
+			return "La descripción no puede tener más de 5 palabras";
+		}
+		Set<String> palabrasUsadas = new HashSet<>();
+		for (String palabra : palabras) {
+			if (palabra.length() > 15) {
+				return "Cada palabra debe tener como máximo 15 caracteres";
+			}
+			if (!palabrasUsadas.add(palabra.toLowerCase())) {
+				return "No se pueden repetir palabras en la descripción";
+			}
+			if (palabra.matches(".*([a-zA-ZáéíóúÁÉÍÓÚñÑ])\\1{2,}.*")) {
+				return "No se puede repetir la misma letra más de 2 veces seguidas";
+			}
+		}
+		return null;
+	}
+}